@@ -0,0 +1,98 @@
+package nelon.arrive.nelonshift.benchmark;
+
+import nelon.arrive.nelonshift.entity.Project;
+import nelon.arrive.nelonshift.entity.Shift;
+import nelon.arrive.nelonshift.enums.ProjectStatus;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Синтетические проекты и смены для бенчмарков
+ */
+public final class BenchmarkData {
+	
+	private BenchmarkData() {
+	}
+	
+	/**
+	 * Проекты с равномерно распределёнными сменами (около 500 смен на проект)
+	 */
+	public static List<Project> projects(int shiftCount) {
+		Random random = new Random(42);
+		int projectCount = Math.max(1, shiftCount / 500);
+		LocalDate today = LocalDate.now();
+		
+		List<Project> projects = projectsWithoutShifts(projectCount);
+		
+		for (int i = 0; i < shiftCount; i++) {
+			Project project = projects.get(i % projectCount);
+			project.getShifts().add(shift(random, project, today.minusDays(random.nextInt(730))));
+		}
+		
+		return projects;
+	}
+	
+	/**
+	 * Проекты без смен, с датами начала и окончания
+	 */
+	public static List<Project> projectsWithoutShifts(int projectCount) {
+		LocalDate today = LocalDate.now();
+		List<Project> projects = new ArrayList<>(projectCount);
+		for (int i = 0; i < projectCount; i++) {
+			Project project = new Project();
+			project.setId((long) i + 1);
+			project.setName("Project " + (i + 1));
+			project.setStatus(ProjectStatus.values()[i % ProjectStatus.values().length]);
+			project.setStartDate(today.minusDays(365));
+			project.setEndDate(today.plusDays(i % 90));
+			projects.add(project);
+		}
+		return projects;
+	}
+	
+	/**
+	 * Сервис без зависимостей: все аргументы конструктора - null (для примитивов - значения по умолчанию).
+	 * Для методов, которые к зависимостям не обращаются; новые зависимости сервиса бенчмарк не затрагивают.
+	 */
+	public static <T> T withoutDependencies(Class<T> type) {
+		Constructor<?> constructor = type.getConstructors()[0];
+		Object[] args = new Object[constructor.getParameterCount()];
+		Class<?>[] parameterTypes = constructor.getParameterTypes();
+		for (int i = 0; i < args.length; i++) {
+			args[i] = parameterTypes[i].isPrimitive() ? Array.get(Array.newInstance(parameterTypes[i], 1), 0) : null;
+		}
+		try {
+			return type.cast(constructor.newInstance(args));
+		} catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+			throw new IllegalStateException("Cannot create " + type.getSimpleName() + " without dependencies", e);
+		}
+	}
+	
+	public static List<Shift> shifts(int shiftCount) {
+		return projects(shiftCount).stream()
+			.flatMap(p -> p.getShifts().stream())
+			.toList();
+	}
+	
+	private static Shift shift(Random random, Project project, LocalDate date) {
+		Shift shift = new Shift();
+		shift.setProject(project);
+		shift.setDate(date);
+		shift.setHours(8 + random.nextInt(5));
+		shift.setBasePay(BigDecimal.valueOf(300_000 + random.nextInt(200_000), 2));
+		if (random.nextInt(4) == 0) {
+			shift.setOvertimeHours(1 + random.nextInt(4));
+			shift.setOvertimePay(BigDecimal.valueOf(50_000 + random.nextInt(50_000), 2));
+		}
+		shift.setPerDiem(BigDecimal.valueOf(random.nextInt(2) * 150_000L, 2));
+		shift.setCompensation(BigDecimal.ZERO);
+		return shift;
+	}
+}
@@ -0,0 +1,96 @@
+package nelon.arrive.nelonshift.benchmark;
+
+import nelon.arrive.nelonshift.entity.Project;
+import nelon.arrive.nelonshift.entity.Shift;
+import nelon.arrive.nelonshift.services.stats.ProjectStatsAggregator;
+import nelon.arrive.nelonshift.services.stats.ShiftStatsAccumulator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Агрегация статистики дашборда: прежние несколько stream-проходов
+ * против однопроходного аккумулятора и fork/join по проектам.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DashboardAggregationBenchmark {
+	
+	@Param({"10", "1000", "100000"})
+	private int shifts;
+	
+	private List<Project> projects;
+	private ProjectStatsAggregator aggregator;
+	
+	@Setup
+	public void setup() {
+		projects = BenchmarkData.projects(shifts);
+		aggregator = new ProjectStatsAggregator();
+	}
+	
+	@TearDown
+	public void tearDown() {
+		aggregator.destroy();
+	}
+	
+	@Benchmark
+	public void multiPassStreams(Blackhole bh) {
+		List<Shift> allShifts = projects.stream()
+			.flatMap(p -> p.getShifts().stream())
+			.toList();
+		
+		bh.consume(allShifts.stream()
+			.map(Shift::getHours)
+			.filter(Objects::nonNull)
+			.reduce(0, Integer::sum));
+		bh.consume(allShifts.stream()
+			.map(Shift::getTotalPay)
+			.reduce(BigDecimal.ZERO, BigDecimal::add));
+		
+		YearMonth currentMonth = YearMonth.now();
+		LocalDate monthStart = currentMonth.atDay(1);
+		LocalDate monthEnd = currentMonth.atEndOfMonth();
+		List<Shift> currentMonthShifts = allShifts.stream()
+			.filter(s -> !s.getDate().isBefore(monthStart) && !s.getDate().isAfter(monthEnd))
+			.toList();
+		bh.consume(currentMonthShifts.stream()
+			.map(Shift::getTotalPay)
+			.reduce(BigDecimal.ZERO, BigDecimal::add));
+		bh.consume(currentMonthShifts.stream()
+			.map(Shift::getHours)
+			.filter(Objects::nonNull)
+			.reduce(0, Integer::sum));
+		
+		for (Project project : projects) {
+			bh.consume(project.getShifts().stream()
+				.map(Shift::getTotalPay)
+				.reduce(BigDecimal.ZERO, BigDecimal::add));
+			bh.consume(project.getShifts().stream()
+				.map(Shift::getHours)
+				.filter(Objects::nonNull)
+				.reduce(0, Integer::sum));
+		}
+	}
+	
+	@Benchmark
+	public ShiftStatsAccumulator singlePassCollector() {
+		return projects.stream()
+			.flatMap(p -> p.getShifts().stream())
+			.collect(ShiftStatsAccumulator.collector());
+	}
+	
+	@Benchmark
+	public ShiftStatsAccumulator projectStatsAggregator() {
+		return ProjectStatsAggregator.total(aggregator.aggregate(projects));
+	}
+}
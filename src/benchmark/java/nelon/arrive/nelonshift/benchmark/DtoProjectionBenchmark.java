@@ -0,0 +1,143 @@
+package nelon.arrive.nelonshift.benchmark;
+
+import nelon.arrive.nelonshift.NelonShiftApplication;
+import nelon.arrive.nelonshift.dto.ProjectDto;
+import nelon.arrive.nelonshift.dto.ShiftDto;
+import nelon.arrive.nelonshift.entity.Project;
+import nelon.arrive.nelonshift.entity.User;
+import nelon.arrive.nelonshift.enums.ProjectStatus;
+import nelon.arrive.nelonshift.mappers.ProjectMapper;
+import nelon.arrive.nelonshift.mappers.ShiftMapper;
+import nelon.arrive.nelonshift.repository.ProjectRepository;
+import nelon.arrive.nelonshift.repository.ShiftRepository;
+import nelon.arrive.nelonshift.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Чтение в DTO через JPQL-проекцию против загрузки сущностей и маппинга MapStruct,
+ * на таблицах в {@value #ROWS} строк (H2 профиля test).
+ * <p>
+ * {@code shifts*} - все смены одного проекта ({@value #ROWS} строк), как GET /shifts;
+ * {@code projectsPage*} - страница из 20 проектов среди {@value #ROWS}, как GET /projects
+ * (прежний запрос с соединением со сменами и GROUP BY против запроса только по колонкам ответа).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoProjectionBenchmark {
+	
+	private static final int ROWS = 100_000;
+	private static final int BATCH = 1_000;
+	
+	private ConfigurableApplicationContext context;
+	private ProjectRepository projectRepository;
+	private ShiftRepository shiftRepository;
+	private ProjectMapper projectMapper;
+	private ShiftMapper shiftMapper;
+	private TransactionTemplate readOnly;
+	private Long projectId;
+	private Pageable page;
+	
+	@Setup
+	public void setup() {
+		context = new SpringApplicationBuilder(NelonShiftApplication.class)
+			.web(WebApplicationType.NONE)
+			.profiles("test")
+			.properties("logging.level.root=WARN", "logging.level.org.hibernate.SQL=WARN")
+			.run();
+		projectRepository = context.getBean(ProjectRepository.class);
+		shiftRepository = context.getBean(ShiftRepository.class);
+		projectMapper = context.getBean(ProjectMapper.class);
+		shiftMapper = context.getBean(ShiftMapper.class);
+		readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		readOnly.setReadOnly(true);
+		
+		User user = context.getBean(UserRepository.class).save(User.builder()
+			.email("projection@nelon.test")
+			.password("{noop}secret")
+			.name("Projection")
+			.projects(new ArrayList<>())
+			.build());
+		
+		JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		List<Object[]> projects = new ArrayList<>(BATCH);
+		for (int i = 0; i < ROWS; i++) {
+			projects.add(new Object[]{"Project " + i, ProjectStatus.values()[i % ProjectStatus.values().length].name(),
+				user.getId(), now, now});
+			if (projects.size() == BATCH) {
+				jdbc.batchUpdate("INSERT INTO projects (name, status, user_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?)",
+					projects);
+				projects.clear();
+			}
+		}
+		projectId = jdbc.queryForObject("SELECT MIN(id) FROM projects", Long.class);
+		
+		LocalDate start = LocalDate.of(2000, 1, 1);
+		List<Object[]> shifts = new ArrayList<>(BATCH);
+		for (int i = 0; i < ROWS; i++) {
+			shifts.add(new Object[]{projectId, Date.valueOf(start.plusDays(i)), 8, new BigDecimal("1000.00"), 1,
+				new BigDecimal("150.00"), new BigDecimal("300.00"), BigDecimal.ZERO, now, now});
+			if (shifts.size() == BATCH) {
+				jdbc.batchUpdate("""
+					INSERT INTO shifts (project_id, date, hours, base_pay, overtime_hours, overtime_pay, per_diem,
+					                    compensation, created_at, updated_at)
+					VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+					""", shifts);
+				shifts.clear();
+			}
+		}
+		
+		page = PageRequest.of(ROWS / 40, 20, Sort.by("createdAt").descending());
+	}
+	
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+	
+	@Benchmark
+	public List<ShiftDto> shiftsEntities() {
+		return readOnly.execute(status -> shiftMapper.toDtoList(shiftRepository.findByProjectId(projectId)));
+	}
+	
+	@Benchmark
+	public List<ShiftDto> shiftsProjection() {
+		return readOnly.execute(status -> shiftRepository.findDtosByProjectId(projectId));
+	}
+	
+	@Benchmark
+	public Page<ProjectDto> projectsPageEntities() {
+		return readOnly.execute(status -> {
+			Page<Project> projects = projectRepository.findByFilters(null, null, page);
+			return projects.map(projectMapper::toDto);
+		});
+	}
+	
+	@Benchmark
+	public Page<ProjectDto> projectsPageProjection() {
+		return readOnly.execute(status -> projectRepository.findDtosByFilters(null, null, page));
+	}
+}
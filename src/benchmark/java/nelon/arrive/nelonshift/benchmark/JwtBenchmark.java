@@ -0,0 +1,50 @@
+package nelon.arrive.nelonshift.benchmark;
+
+import nelon.arrive.nelonshift.security.jwt.JwtUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выпуск и проверка access-токена - выполняется на каждом аутентифицированном запросе
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+	
+	private JwtUtils jwtUtils;
+	private UUID userId;
+	private String token;
+	
+	@Setup
+	public void setup() {
+		jwtUtils = new JwtUtils();
+		ReflectionTestUtils.setField(jwtUtils, "jwtSecret",
+			"benchmark-secret-key-that-is-long-enough-for-hmac-sha-512-signatures-0123456789");
+		ReflectionTestUtils.setField(jwtUtils, "accessTokenExpirationMs", 900_000);
+		
+		userId = UUID.randomUUID();
+		token = jwtUtils.generateAccessToken(userId, "bench@nelon.test", "Bench");
+	}
+	
+	@Benchmark
+	public String generateAccessToken() {
+		return jwtUtils.generateAccessToken(userId, "bench@nelon.test", "Bench");
+	}
+	
+	@Benchmark
+	public boolean validateAccessToken() {
+		return jwtUtils.validateAccessToken(token);
+	}
+	
+	@Benchmark
+	public String getEmailFromJwtToken() {
+		return jwtUtils.getEmailFromJwtToken(token);
+	}
+}
@@ -0,0 +1,52 @@
+package nelon.arrive.nelonshift.benchmark;
+
+import nelon.arrive.nelonshift.dto.ProjectDto;
+import nelon.arrive.nelonshift.dto.ShiftDto;
+import nelon.arrive.nelonshift.entity.Project;
+import nelon.arrive.nelonshift.entity.Shift;
+import nelon.arrive.nelonshift.mappers.ProjectMapper;
+import nelon.arrive.nelonshift.mappers.ProjectMapperImpl;
+import nelon.arrive.nelonshift.mappers.ShiftMapper;
+import nelon.arrive.nelonshift.mappers.ShiftMapperImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Маппинг списков сущностей в DTO (MapStruct).
+ * У ProjectMapper нет toDtoList, список мапится через toDto, как в ProjectService.getProjects.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+	
+	@Param({"10", "1000", "100000"})
+	private int size;
+	
+	private final ShiftMapper shiftMapper = new ShiftMapperImpl();
+	private final ProjectMapper projectMapper = new ProjectMapperImpl();
+	
+	private List<Shift> shifts;
+	private List<Project> projects;
+	
+	@Setup
+	public void setup() {
+		shifts = BenchmarkData.shifts(size);
+		projects = BenchmarkData.projectsWithoutShifts(size);
+	}
+	
+	@Benchmark
+	public List<ShiftDto> shiftToDtoList() {
+		return shiftMapper.toDtoList(shifts);
+	}
+	
+	@Benchmark
+	public List<ProjectDto> projectToDtoList() {
+		return projects.stream().map(projectMapper::toDto).toList();
+	}
+}
@@ -0,0 +1,75 @@
+package nelon.arrive.nelonshift.benchmark;
+
+import nelon.arrive.nelonshift.entity.Shift;
+import nelon.arrive.nelonshift.services.stats.MoneyAccumulator;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Суммирование оплаты смен: BigDecimal::add против копеек в long.
+ * <p>
+ * Аллокации смотреть с профилировщиком GC:
+ * -Dexec.args="-classpath %classpath org.openjdk.jmh.Main MoneyAggregation -prof gc"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneyAggregationBenchmark {
+	
+	@Param({"10", "1000", "100000"})
+	private int shifts;
+	
+	private List<Shift> data;
+	
+	@Setup
+	public void setup() {
+		data = BenchmarkData.shifts(shifts);
+	}
+	
+	@Benchmark
+	public BigDecimal bigDecimalReduce() {
+		BigDecimal totalBasePay = data.stream()
+			.map(Shift::getBasePay)
+			.filter(Objects::nonNull)
+			.reduce(BigDecimal.ZERO, BigDecimal::add);
+		BigDecimal totalOvertimePay = data.stream()
+			.map(Shift::getOvertimePay)
+			.filter(Objects::nonNull)
+			.reduce(BigDecimal.ZERO, BigDecimal::add);
+		BigDecimal totalPerDiem = data.stream()
+			.map(Shift::getPerDiem)
+			.filter(Objects::nonNull)
+			.reduce(BigDecimal.ZERO, BigDecimal::add);
+		return totalBasePay.add(totalOvertimePay).add(totalPerDiem);
+	}
+	
+	@Benchmark
+	public long centsAccumulator() {
+		MoneyAccumulator basePay = new MoneyAccumulator();
+		MoneyAccumulator overtimePay = new MoneyAccumulator();
+		MoneyAccumulator perDiem = new MoneyAccumulator();
+		for (Shift shift : data) {
+			basePay.add(shift.getBasePay());
+			overtimePay.add(shift.getOvertimePay());
+			perDiem.add(shift.getPerDiem());
+		}
+		return basePay.add(overtimePay).add(perDiem).cents();
+	}
+	
+	@Benchmark
+	public long totalPayCents() {
+		MoneyAccumulator total = new MoneyAccumulator();
+		for (Shift shift : data) {
+			total.addCents(shift.getTotalPayCents());
+		}
+		return total.cents();
+	}
+	
+}
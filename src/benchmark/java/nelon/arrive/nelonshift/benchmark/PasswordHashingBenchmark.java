@@ -0,0 +1,45 @@
+package nelon.arrive.nelonshift.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время BCrypt по стоимости - для выбора {@code security.password.bcrypt-strength}.
+ * <p>
+ * Запускается на железе целевого окружения; берётся наибольшая стоимость,
+ * при которой matches укладывается в бюджет входа (ориентир - 50-100 мс на ядро).
+ * Пропускная способность входа примерно равна
+ * {@code security.password.hashing.threads / время matches}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordHashingBenchmark {
+	
+	@Param({"8", "10", "11", "12", "13"})
+	private int strength;
+	
+	private BCryptPasswordEncoder encoder;
+	private String hash;
+	
+	@Setup
+	public void setup() {
+		encoder = new BCryptPasswordEncoder(strength);
+		hash = encoder.encode("benchmark-password");
+	}
+	
+	@Benchmark
+	public String encode() {
+		return encoder.encode("benchmark-password");
+	}
+	
+	@Benchmark
+	public boolean matches() {
+		return encoder.matches("benchmark-password", hash);
+	}
+}
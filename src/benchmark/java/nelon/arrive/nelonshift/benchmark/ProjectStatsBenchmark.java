@@ -0,0 +1,41 @@
+package nelon.arrive.nelonshift.benchmark;
+
+import nelon.arrive.nelonshift.dto.ProjectStatsDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Расчёт процентов и средней ставки в {@link ProjectStatsDto}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectStatsBenchmark {
+	
+	private ProjectStatsDto stats;
+	
+	@Setup
+	public void setup() {
+		stats = ProjectStatsDto.builder()
+			.period("01.01.2025 - 31.12.2025")
+			.daysWorked(240)
+			.shiftCount(250)
+			.totalHours(2_150)
+			.totalBasePay(new BigDecimal("1087500.00"))
+			.totalOvertimePay(new BigDecimal("94350.50"))
+			.totalPerDiem(new BigDecimal("187500.00"))
+			.totalEarnings(new BigDecimal("1369350.50"))
+			.build();
+	}
+	
+	@Benchmark
+	public ProjectStatsDto calculateDerivedValues() {
+		stats.calculateDerivedValues();
+		return stats;
+	}
+}
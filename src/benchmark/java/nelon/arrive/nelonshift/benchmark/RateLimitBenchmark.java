@@ -0,0 +1,82 @@
+package nelon.arrive.nelonshift.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nelon.arrive.nelonshift.ratelimit.LocalRateLimiter;
+import nelon.arrive.nelonshift.ratelimit.RateLimitFilter;
+import nelon.arrive.nelonshift.ratelimit.RateLimitProperties;
+import nelon.arrive.nelonshift.ratelimit.RateLimitResult;
+import nelon.arrive.nelonshift.ratelimit.RateLimitRule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Накладные расходы локального ограничителя частоты на запрос:
+ * взятие токена и проход фильтра с полным набором правил (цель - меньше 100 мкс)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimitBenchmark {
+	
+	@Param({"1", "10000"})
+	private int clients;
+	
+	private LocalRateLimiter limiter;
+	private RateLimitRule rule;
+	private RateLimitFilter filter;
+	private String[] keys;
+	
+	@Setup
+	public void setup() {
+		limiter = new LocalRateLimiter(100_000);
+		// Лимит не достигается: меряется путь разрешённого запроса
+		rule = RateLimitRule.of(rule("api", null, "/api/v1/**", 1_000_000_000L, Duration.ofSeconds(1)));
+		List<RateLimitRule> rules = List.of(
+			RateLimitRule.of(rule("auth-login", "POST", "/api/v1/auth/login", 10, Duration.ofMinutes(1))),
+			RateLimitRule.of(rule("project-export", "GET", "/api/v1/projects/*/export/excel", 5, Duration.ofMinutes(1))),
+			rule
+		);
+		filter = new RateLimitFilter(limiter, rules, new ObjectMapper(), new SimpleMeterRegistry());
+		
+		keys = new String[clients];
+		for (int i = 0; i < clients; i++) {
+			keys[i] = "ip:10.0." + (i >> 8) + "." + (i & 0xFF);
+		}
+	}
+	
+	private static RateLimitProperties.Rule rule(String name, String method, String pattern, long capacity, Duration period) {
+		RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+		rule.setName(name);
+		rule.setMethod(method);
+		rule.setPattern(pattern);
+		rule.setCapacity(capacity);
+		rule.setRefillTokens(capacity);
+		rule.setRefillPeriod(period);
+		return rule;
+	}
+	
+	@Benchmark
+	public RateLimitResult tryAcquire() {
+		return limiter.tryAcquire(keys[ThreadLocalRandom.current().nextInt(clients)], rule);
+	}
+	
+	@Benchmark
+	public int filter() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/projects/42/shifts");
+		request.setRemoteAddr(keys[ThreadLocalRandom.current().nextInt(clients)].substring(3));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response.getStatus();
+	}
+}
@@ -0,0 +1,98 @@
+package nelon.arrive.nelonshift.benchmark;
+
+import nelon.arrive.nelonshift.security.session.RefreshSessionStore;
+import nelon.arrive.nelonshift.security.session.RotationResult;
+import nelon.arrive.nelonshift.support.EmbeddedRedis;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность ротации refresh-токена.
+ * <p>
+ * {@code rotate} - один Lua-скрипт {@link RefreshSessionStore} вместе с учётом семьи токенов;
+ * {@code rotateRoundTrips} -
+ * та же работа отдельными командами, как делал прежний RedisHash-репозиторий
+ * (чтение, удаление с индексом, запись с индексом).
+ * По умолчанию запускается встроенный Redis; внешний задаётся
+ * {@code -Dbenchmark.redis.host} и {@code -Dbenchmark.redis.port}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(8)
+public class RefreshSessionBenchmark {
+	
+	private static final long TTL_MS = Duration.ofDays(30).toMillis();
+	
+	@State(Scope.Benchmark)
+	public static class Redis {
+		LettuceConnectionFactory connectionFactory;
+		StringRedisTemplate redisTemplate;
+		RefreshSessionStore store;
+		
+		@Setup
+		public void setup() {
+			String host = System.getProperty("benchmark.redis.host", "localhost");
+			int port = Integer.getInteger("benchmark.redis.port", 0);
+			if (port == 0) {
+				port = EmbeddedRedis.start();
+			}
+			connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(host, port));
+			connectionFactory.afterPropertiesSet();
+			redisTemplate = new StringRedisTemplate(connectionFactory);
+			store = new RefreshSessionStore(redisTemplate, Duration.ofSeconds(10));
+		}
+		
+		@TearDown
+		public void tearDown() {
+			connectionFactory.destroy();
+		}
+	}
+	
+	@State(Scope.Thread)
+	public static class Session {
+		UUID userId;
+		String token;
+		
+		@Setup
+		public void setup(Redis redis) {
+			userId = UUID.randomUUID();
+			token = redis.store.create(UUID.randomUUID().toString(), userId, TTL_MS).token();
+		}
+	}
+	
+	@Benchmark
+	public String rotate(Redis redis, Session session) {
+		RotationResult rotated = redis.store.rotate(session.token, UUID.randomUUID().toString(), TTL_MS);
+		session.token = rotated.session().token();
+		return session.token;
+	}
+	
+	@Benchmark
+	public String rotateRoundTrips(Redis redis, Session session) {
+		StringRedisTemplate template = redis.redisTemplate;
+		String oldKey = "legacy-session:" + session.token;
+		String index = "legacy-sessions:user:" + session.userId;
+		
+		Map<Object, Object> old = template.opsForHash().entries(oldKey);
+		template.delete(oldKey);
+		template.opsForSet().remove(index, session.token);
+		
+		String token = UUID.randomUUID().toString();
+		String key = "legacy-session:" + token;
+		template.opsForHash().putAll(key, Map.of("userId", session.userId.toString(), "createdAt", String.valueOf(old.size())));
+		template.expire(key, Duration.ofMillis(TTL_MS));
+		template.opsForSet().add(index, token);
+		session.token = token;
+		return token;
+	}
+}
@@ -0,0 +1,127 @@
+package nelon.arrive.nelonshift.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import nelon.arrive.nelonshift.dto.ShiftDto;
+import nelon.arrive.nelonshift.encoding.SparseFields;
+import nelon.arrive.nelonshift.mappers.ShiftMapperImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Кодирование списка смен: JSON, {@code ?fields=}, CBOR, Smile и gzip поверх них.
+ * Размер ответа для каждого варианта печатается при старте,
+ * время - сериализация (и сжатие) всего списка.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseEncodingBenchmark {
+	
+	private static final String[] SPARSE_FIELDS = {"date", "hours", "basePay"};
+	
+	@Param({"100", "10000"})
+	private int size;
+	
+	private List<ShiftDto> shifts;
+	private ObjectWriter json;
+	private ObjectWriter jsonSparse;
+	private ObjectWriter cbor;
+	private ObjectWriter smile;
+	
+	@Setup
+	public void setup() {
+		shifts = new ShiftMapperImpl().toDtoList(BenchmarkData.shifts(size));
+		
+		json = mapper(new JsonFactory()).writer();
+		jsonSparse = json.with(new SimpleFilterProvider()
+			.addFilter(SparseFields.FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(SPARSE_FIELDS)));
+		cbor = mapper(new CBORFactory()).writer();
+		smile = mapper(new SmileFactory()).writer();
+		
+		System.out.printf("%n%d shifts, bytes: json=%d json+gzip=%d sparse=%d sparse+gzip=%d "
+				+ "cbor=%d cbor+gzip=%d smile=%d smile+gzip=%d%n",
+			size,
+			json().length, jsonGzip().length,
+			jsonSparse().length, gzip(jsonSparse()).length,
+			cbor().length, gzip(cbor()).length,
+			smile().length, gzip(smile()).length);
+	}
+	
+	@Benchmark
+	public byte[] json() {
+		return write(json);
+	}
+	
+	@Benchmark
+	public byte[] jsonGzip() {
+		return gzip(write(json));
+	}
+	
+	@Benchmark
+	public byte[] jsonSparse() {
+		return write(jsonSparse);
+	}
+	
+	@Benchmark
+	public byte[] cbor() {
+		return write(cbor);
+	}
+	
+	@Benchmark
+	public byte[] smile() {
+		return write(smile);
+	}
+	
+	/**
+	 * Маппер как в приложении: фильтр {@code ?fields=} на ShiftDto, даты строками ISO
+	 */
+	private static ObjectMapper mapper(JsonFactory factory) {
+		return Jackson2ObjectMapperBuilder.json()
+			.factory(factory)
+			.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+			.mixIn(ShiftDto.class, SparseFieldsMixin.class)
+			.filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()))
+			.build();
+	}
+	
+	private byte[] write(ObjectWriter writer) {
+		try {
+			return writer.writeValueAsBytes(shifts);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	// Уровень сжатия по умолчанию, как у Tomcat
+	private static byte[] gzip(byte[] body) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(body);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return out.toByteArray();
+	}
+	
+	@JsonFilter(SparseFields.FILTER_ID)
+	interface SparseFieldsMixin {
+	}
+}
@@ -0,0 +1,65 @@
+package nelon.arrive.nelonshift.benchmark;
+
+import nelon.arrive.nelonshift.entity.Shift;
+import nelon.arrive.nelonshift.enums.ShiftGroupBy;
+import nelon.arrive.nelonshift.services.analytics.ShiftAggregate;
+import nelon.arrive.nelonshift.services.analytics.ShiftColumns;
+import nelon.arrive.nelonshift.services.analytics.ShiftQuery;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запросы к колоночному кэшу смен: итоги за месяц и группировки
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShiftColumnQueryBenchmark {
+	
+	@Param({"10", "1000", "100000"})
+	private int shifts;
+	
+	private ShiftColumns columns;
+	private LocalDate monthStart;
+	private LocalDate monthEnd;
+	
+	@Setup
+	public void setup() {
+		List<Shift> data = BenchmarkData.shifts(shifts);
+		for (int i = 0; i < data.size(); i++) {
+			data.get(i).setId((long) i + 1);
+		}
+		columns = ShiftColumns.ofShifts(data);
+		YearMonth month = YearMonth.now();
+		monthStart = month.atDay(1);
+		monthEnd = month.atEndOfMonth();
+	}
+	
+	@Benchmark
+	public ShiftAggregate currentMonthTotal() {
+		return ShiftQuery.all().between(monthStart, monthEnd).total(columns);
+	}
+	
+	@Benchmark
+	public SortedMap<Long, ShiftAggregate> byProject() {
+		return ShiftQuery.all().groupBy(ShiftGroupBy.PROJECT).execute(columns);
+	}
+	
+	@Benchmark
+	public SortedMap<Long, ShiftAggregate> byMonth() {
+		return ShiftQuery.all().groupBy(ShiftGroupBy.MONTH).execute(columns);
+	}
+	
+	@Benchmark
+	public SortedMap<Long, ShiftAggregate> byWeekday() {
+		return ShiftQuery.all().groupBy(ShiftGroupBy.WEEKDAY).execute(columns);
+	}
+}
@@ -0,0 +1,157 @@
+package nelon.arrive.nelonshift.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запросы по дате смены к обычной и секционированной по месяцам таблице из {@value #ROWS} строк
+ * (10 лет смен, {@value #PROJECTS} проектов) в PostgreSQL.
+ * <p>
+ * {@code currentMonth} - итоги за текущий месяц, как на дашборде;
+ * {@code dateRangeCheck} - есть ли у проекта смены раньше даты, как при изменении дат проекта;
+ * {@code dayLookup} - смена проекта на дату, как проверка дубликата при создании смены.
+ * <p>
+ * Нужен PostgreSQL: {@code -Dbenchmark.postgres.url}, {@code .user}, {@code .password}
+ * (по умолчанию - база из application.yml). Таблицы {@code shifts_bench_*} заполняются
+ * один раз и остаются для следующих запусков.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShiftPartitionBenchmark {
+	
+	private static final int ROWS = 10_000_000;
+	private static final int PROJECTS = 10_000;
+	private static final int YEARS = 10;
+	
+	@Param({"shifts_bench_plain", "shifts_bench_partitioned"})
+	public String table;
+	
+	private Connection connection;
+	private PreparedStatement currentMonth;
+	private PreparedStatement dateRangeCheck;
+	private PreparedStatement dayLookup;
+	private LocalDate firstDay;
+	private int days;
+	
+	@Setup
+	public void setup() throws SQLException {
+		connection = DriverManager.getConnection(
+			System.getProperty("benchmark.postgres.url", "jdbc:postgresql://localhost:5432/nelon_shift"),
+			System.getProperty("benchmark.postgres.user", "admin"),
+			System.getProperty("benchmark.postgres.password", "root"));
+		
+		YearMonth month = YearMonth.now();
+		firstDay = month.minusYears(YEARS).plusMonths(1).atDay(1);
+		days = (int) (month.atEndOfMonth().toEpochDay() - firstDay.toEpochDay()) + 1;
+		createIfMissing();
+		
+		currentMonth = connection.prepareStatement("SELECT COUNT(*), SUM(hours), SUM(base_pay) FROM " + table
+			+ " WHERE date >= ? AND date < ?");
+		currentMonth.setDate(1, Date.valueOf(month.atDay(1)));
+		currentMonth.setDate(2, Date.valueOf(month.plusMonths(1).atDay(1)));
+		dateRangeCheck = connection.prepareStatement("SELECT EXISTS (SELECT 1 FROM " + table
+			+ " WHERE project_id = ? AND date < ?)");
+		dayLookup = connection.prepareStatement("SELECT EXISTS (SELECT 1 FROM " + table
+			+ " WHERE project_id = ? AND date = ?)");
+	}
+	
+	@TearDown
+	public void tearDown() throws SQLException {
+		connection.close();
+	}
+	
+	@Benchmark
+	public long currentMonth() throws SQLException {
+		try (ResultSet rs = currentMonth.executeQuery()) {
+			rs.next();
+			return rs.getLong(1);
+		}
+	}
+	
+	@Benchmark
+	public boolean dateRangeCheck() throws SQLException {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		dateRangeCheck.setLong(1, random.nextInt(PROJECTS));
+		// Проект перенесён на последний год: смен раньше почти всегда нет
+		dateRangeCheck.setDate(2, Date.valueOf(firstDay.plusDays(random.nextInt(30))));
+		return exists(dateRangeCheck);
+	}
+	
+	@Benchmark
+	public boolean dayLookup() throws SQLException {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		dayLookup.setLong(1, random.nextInt(PROJECTS));
+		dayLookup.setDate(2, Date.valueOf(firstDay.plusDays(random.nextInt(days))));
+		return exists(dayLookup);
+	}
+	
+	private static boolean exists(PreparedStatement statement) throws SQLException {
+		try (ResultSet rs = statement.executeQuery()) {
+			rs.next();
+			return rs.getBoolean(1);
+		}
+	}
+	
+	private void createIfMissing() throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			try (ResultSet rs = statement.executeQuery("SELECT to_regclass('" + table + "') IS NOT NULL")) {
+				rs.next();
+				if (rs.getBoolean(1)) {
+					return;
+				}
+			}
+			
+			boolean partitioned = table.endsWith("partitioned");
+			statement.execute("""
+				CREATE TABLE %s (
+					id bigint NOT NULL,
+					project_id bigint NOT NULL,
+					date date NOT NULL,
+					hours integer NOT NULL,
+					base_pay numeric(10, 2),
+					overtime_pay numeric(10, 2),
+					per_diem numeric(10, 2),
+					PRIMARY KEY (id, date)
+				)%s
+				""".formatted(table, partitioned ? " PARTITION BY RANGE (date)" : ""));
+			if (partitioned) {
+				// Те же месячные секции, что создаёт create_shift_partitions
+				statement.execute("""
+					DO $$
+					BEGIN
+						FOR i IN 0..%d LOOP
+							EXECUTE format('CREATE TABLE %%I PARTITION OF %s FOR VALUES FROM (%%L) TO (%%L)',
+								'%s_' || to_char(DATE '%s' + make_interval(months => i), 'YYYY_MM'),
+								DATE '%s' + make_interval(months => i),
+								DATE '%s' + make_interval(months => i + 1));
+						END LOOP;
+					END;
+					$$
+					""".formatted(YEARS * 12 - 1, table, table, firstDay, firstDay, firstDay));
+			}
+			statement.execute("""
+				INSERT INTO %s (id, project_id, date, hours, base_pay, overtime_pay, per_diem)
+				SELECT g, g %% %d, DATE '%s' + (g %% %d), 8, 1000.00, 150.00, 300.00
+				FROM generate_series(1, %d) g
+				""".formatted(table, PROJECTS, firstDay, days, ROWS));
+			statement.execute("CREATE INDEX ON " + table + " (project_id, date)");
+			statement.execute("CREATE INDEX ON " + table + " (date)");
+			statement.execute("ANALYZE " + table);
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package nelon.arrive.nelonshift.benchmark;
+
+import nelon.arrive.nelonshift.entity.Shift;
+import nelon.arrive.nelonshift.repository.projection.ShiftColumnView;
+import nelon.arrive.nelonshift.services.analytics.ShiftColumns;
+import nelon.arrive.nelonshift.services.analytics.ShiftSnapshotStore;
+import nelon.arrive.nelonshift.services.analytics.ShiftWatermark;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Холодная загрузка снимка смен: из строк проекции (как после запроса к БД)
+ * и из файла снимка (копирование колонок в массивы). Запускать с -prof gc для сравнения аллокаций.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShiftSnapshotBenchmark {
+	
+	@Param({"1000", "100000"})
+	private int shifts;
+	
+	private Path directory;
+	private ShiftSnapshotStore store;
+	private UUID userId;
+	private ShiftWatermark watermark;
+	private List<ColumnRow> rows;
+	
+	@Setup
+	public void setup() throws IOException {
+		List<Shift> data = BenchmarkData.shifts(shifts);
+		for (int i = 0; i < data.size(); i++) {
+			data.get(i).setId((long) i + 1);
+		}
+		rows = data.stream()
+			.sorted(Comparator.comparing(Shift::getDate).thenComparing(Shift::getId))
+			.map(ColumnRow::of)
+			.toList();
+		
+		directory = Files.createTempDirectory("shift-snapshots");
+		store = new ShiftSnapshotStore(true, directory.toString());
+		userId = UUID.randomUUID();
+		watermark = new ShiftWatermark(shifts, 1L);
+		store.write(userId, watermark, ShiftColumns.of(rows));
+	}
+	
+	@TearDown
+	public void tearDown() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			for (Path file : files.toList()) {
+				Files.deleteIfExists(file);
+			}
+		}
+		Files.deleteIfExists(directory);
+	}
+	
+	@Benchmark
+	public ShiftColumns fromProjectionRows() {
+		return ShiftColumns.of(rows);
+	}
+	
+	@Benchmark
+	public ShiftColumns fromSnapshotFile() {
+		return store.read(userId, watermark).orElseThrow();
+	}
+	
+	private record ColumnRow(
+		Long id, Long projectId, LocalDate date, Integer hours, Integer overtimeHours,
+		BigDecimal basePay, BigDecimal overtimePay, BigDecimal perDiem
+	) implements ShiftColumnView {
+		
+		static ColumnRow of(Shift shift) {
+			return new ColumnRow(
+				shift.getId(), shift.getProject().getId(), shift.getDate(), shift.getHours(), shift.getOvertimeHours(),
+				shift.getBasePay(), shift.getOvertimePay(), shift.getPerDiem()
+			);
+		}
+		
+		@Override
+		public Long getId() {
+			return id;
+		}
+		
+		@Override
+		public Long getProjectId() {
+			return projectId;
+		}
+		
+		@Override
+		public LocalDate getDate() {
+			return date;
+		}
+		
+		@Override
+		public Integer getHours() {
+			return hours;
+		}
+		
+		@Override
+		public Integer getOvertimeHours() {
+			return overtimeHours;
+		}
+		
+		@Override
+		public BigDecimal getBasePay() {
+			return basePay;
+		}
+		
+		@Override
+		public BigDecimal getOvertimePay() {
+			return overtimePay;
+		}
+		
+		@Override
+		public BigDecimal getPerDiem() {
+			return perDiem;
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package nelon.arrive.nelonshift.benchmark;
+
+import nelon.arrive.nelonshift.exception.ValidationException;
+import nelon.arrive.nelonshift.request.CreateShiftRequest;
+import nelon.arrive.nelonshift.services.ShiftService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ShiftService#validateShiftCreate}: корректный запрос и отказ с исключением
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShiftValidationBenchmark {
+	
+	// Валидация не обращается к зависимостям сервиса
+	private final ShiftService shiftService = BenchmarkData.withoutDependencies(ShiftService.class);
+	
+	private CreateShiftRequest valid;
+	private CreateShiftRequest invalid;
+	
+	@Setup
+	public void setup() {
+		valid = new CreateShiftRequest();
+		valid.setProjectId(1L);
+		valid.setDate(LocalDate.now());
+		valid.setStartTime(LocalTime.of(9, 0));
+		valid.setEndTime(LocalTime.of(18, 0));
+		valid.setHours(8);
+		valid.setBasePay(new BigDecimal("4500.00"));
+		valid.setOvertimeHours(1);
+		valid.setOvertimePay(new BigDecimal("850.00"));
+		valid.setPerDiem(new BigDecimal("1500.00"));
+		valid.setCompensation(BigDecimal.ZERO);
+		
+		invalid = new CreateShiftRequest();
+		invalid.setProjectId(1L);
+		invalid.setDate(LocalDate.now());
+		invalid.setStartTime(LocalTime.of(18, 0));
+		invalid.setEndTime(LocalTime.of(9, 0));
+		invalid.setHours(8);
+		invalid.setBasePay(new BigDecimal("4500.00"));
+	}
+	
+	@Benchmark
+	public CreateShiftRequest validRequest() {
+		shiftService.validateShiftCreate(valid);
+		return valid;
+	}
+	
+	@Benchmark
+	public Object invalidRequest() {
+		try {
+			shiftService.validateShiftCreate(invalid);
+			return invalid;
+		} catch (ValidationException e) {
+			return e;
+		}
+	}
+}
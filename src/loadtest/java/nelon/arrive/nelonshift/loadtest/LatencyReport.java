@@ -0,0 +1,106 @@
+package nelon.arrive.nelonshift.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Задержки и ошибки по эндпоинтам (HdrHistogram, микросекунды)
+ */
+public class LatencyReport {
+	
+	private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+	
+	private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+	
+	private static final class Endpoint {
+		private final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+		private final LongAdder errors = new LongAdder();
+	}
+	
+	/**
+	 * Результат по эндпоинту, задержки в миллисекундах
+	 */
+	public record EndpointResult(
+		long requests,
+		long errors,
+		double throughputPerSecond,
+		double p50,
+		double p90,
+		double p99,
+		double max
+	) {
+	}
+	
+	public void record(String endpoint, long nanos, boolean success) {
+		Endpoint e = endpoints.computeIfAbsent(endpoint, k -> new Endpoint());
+		e.latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), MAX_LATENCY_MICROS));
+		if (!success) {
+			e.errors.increment();
+		}
+	}
+	
+	public Map<String, EndpointResult> results(Duration elapsed) {
+		double seconds = Math.max(elapsed.toMillis(), 1) / 1000.0;
+		Map<String, EndpointResult> results = new LinkedHashMap<>();
+		endpoints.entrySet().stream()
+			.sorted(Map.Entry.comparingByKey())
+			.forEach(entry -> {
+				Histogram h = entry.getValue().latency;
+				results.put(entry.getKey(), new EndpointResult(
+					h.getTotalCount(),
+					entry.getValue().errors.sum(),
+					round(h.getTotalCount() / seconds),
+					millis(h.getValueAtPercentile(50)),
+					millis(h.getValueAtPercentile(90)),
+					millis(h.getValueAtPercentile(99)),
+					millis(h.getMaxValue())
+				));
+			});
+		return results;
+	}
+	
+	public String toTable(Duration elapsed) {
+		StringBuilder table = new StringBuilder(String.format(
+			"%-22s %9s %7s %9s %9s %9s %9s %9s%n",
+			"endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+		results(elapsed).forEach((name, r) -> table.append(String.format(
+			"%-22s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+			name, r.requests(), r.errors(), r.throughputPerSecond(), r.p50(), r.p90(), r.p99(), r.max())));
+		return table.toString();
+	}
+	
+	public void writeJson(Path file, LoadTestConfig config, Duration elapsed) throws IOException {
+		Map<String, Object> json = new LinkedHashMap<>();
+		json.put("config", config);
+		json.put("elapsedSeconds", elapsed.toMillis() / 1000.0);
+		json.put("endpoints", results(elapsed));
+		
+		if (file.getParent() != null) {
+			Files.createDirectories(file.getParent());
+		}
+		new ObjectMapper()
+			.findAndRegisterModules()
+			.enable(SerializationFeature.INDENT_OUTPUT)
+			.writeValue(file.toFile(), json);
+	}
+	
+	private static double millis(long micros) {
+		return round(micros / 1000.0);
+	}
+	
+	private static double round(double value) {
+		return Math.round(value * 100) / 100.0;
+	}
+}
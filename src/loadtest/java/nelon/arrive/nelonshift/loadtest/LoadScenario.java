@@ -0,0 +1,155 @@
+package nelon.arrive.nelonshift.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Сценарий виртуального пользователя, повторяется до конца прогона:
+ * вход, дашборд, список проектов, создание смены и (на каждой N-й итерации) экспорт в Excel.
+ * <p>
+ * Access-токен берётся из cookie ответа на вход и передаётся в заголовке Authorization.
+ */
+@Slf4j
+public class LoadScenario {
+	
+	private static final String API = "/api/v1";
+	
+	// Новые смены получают даты в будущем, чтобы не пересекаться со сгенерированными
+	private final AtomicLong shiftDay = new AtomicLong();
+	
+	private final LoadTestConfig config;
+	private final String baseUrl;
+	private final LatencyReport report;
+	private final HttpClient client = HttpClient.newBuilder()
+		.connectTimeout(Duration.ofSeconds(5))
+		.build();
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	
+	public LoadScenario(LoadTestConfig config, String baseUrl, LatencyReport report) {
+		this.config = config;
+		this.baseUrl = baseUrl;
+		this.report = report;
+	}
+	
+	public Duration run() throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(config.virtualUsers());
+		long deadline = System.nanoTime() + config.duration().toNanos();
+		long started = System.nanoTime();
+		
+		for (int vu = 0; vu < config.virtualUsers(); vu++) {
+			int user = vu % Math.max(config.users(), 1);
+			executor.submit(() -> virtualUser(user, deadline));
+		}
+		executor.shutdown();
+		if (!executor.awaitTermination(config.duration().toSeconds() + 60, TimeUnit.SECONDS)) {
+			executor.shutdownNow();
+		}
+		return Duration.ofNanos(System.nanoTime() - started);
+	}
+	
+	private void virtualUser(int user, long deadline) {
+		int iteration = 0;
+		while (System.nanoTime() < deadline) {
+			try {
+				iteration(user, ++iteration);
+			} catch (IOException e) {
+				log.debug("Virtual user {} request failed: {}", user, e.getMessage());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+	
+	private void iteration(int user, int iteration) throws IOException, InterruptedException {
+		Optional<String> token = login(user);
+		if (token.isEmpty()) {
+			return;
+		}
+		
+		send("dashboard", get("/dashboard/stats", token.get()));
+		send("projects.list", get("/projects?page=0&size=20", token.get()));
+		
+		List<Long> projects = projectIds(token.get());
+		if (projects.isEmpty()) {
+			return;
+		}
+		Long projectId = projects.get(iteration % projects.size());
+		
+		String shift = """
+			{"projectId": %d, "date": "%s", "hours": 8, "basePay": 3500.00, "perDiem": 1500.00, "compensation": 0}
+			""".formatted(projectId, LocalDate.now().plusDays(shiftDay.incrementAndGet()));
+		send("shifts.create", request("/shifts", token.get())
+			.header("Content-Type", "application/json")
+			.POST(HttpRequest.BodyPublishers.ofString(shift))
+			.build());
+		
+		if (config.exportEvery() > 0 && iteration % config.exportEvery() == 0) {
+			send("projects.export", get("/projects/" + projectId + "/export/excel", token.get()));
+		}
+	}
+	
+	private Optional<String> login(int user) throws IOException, InterruptedException {
+		String body = """
+			{"email": "%s", "password": "%s"}
+			""".formatted(LoadTestConfig.email(user), LoadTestConfig.PASSWORD);
+		HttpResponse<byte[]> response = send("auth.login", HttpRequest.newBuilder(URI.create(baseUrl + API + "/auth/login"))
+			.header("Content-Type", "application/json")
+			.POST(HttpRequest.BodyPublishers.ofString(body))
+			.build());
+		
+		return response.headers().allValues("Set-Cookie").stream()
+			.filter(cookie -> cookie.startsWith("accessToken="))
+			.map(cookie -> cookie.substring("accessToken=".length(), cookie.indexOf(';')))
+			.filter(value -> !value.isEmpty())
+			.findFirst();
+	}
+	
+	/**
+	 * Проекты пользователя - группировка аналитики по проектам
+	 */
+	private List<Long> projectIds(String token) throws IOException, InterruptedException {
+		HttpResponse<byte[]> response = send("analytics.projects",
+			get("/analytics/shifts?groupBy=PROJECT&size=500", token));
+		List<Long> ids = new ArrayList<>();
+		if (response.statusCode() == 200) {
+			for (JsonNode group : objectMapper.readTree(response.body()).path("content")) {
+				ids.add(Long.parseLong(group.path("group").asText()));
+			}
+		}
+		return ids;
+	}
+	
+	private HttpResponse<byte[]> send(String endpoint, HttpRequest request) throws IOException, InterruptedException {
+		long started = System.nanoTime();
+		HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+		report.record(endpoint, System.nanoTime() - started, response.statusCode() < 400);
+		return response;
+	}
+	
+	private HttpRequest get(String path, String token) {
+		return request(path, token).GET().build();
+	}
+	
+	private HttpRequest.Builder request(String path, String token) {
+		return HttpRequest.newBuilder(URI.create(baseUrl + API + path))
+			.timeout(Duration.ofSeconds(30))
+			.header("Authorization", "Bearer " + token);
+	}
+}
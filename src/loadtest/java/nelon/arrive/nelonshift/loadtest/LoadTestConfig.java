@@ -0,0 +1,52 @@
+package nelon.arrive.nelonshift.loadtest;
+
+import java.time.Duration;
+
+/**
+ * Параметры нагрузочного теста, читаются из системных свойств {@code loadtest.*}
+ *
+ * @param baseUrl          адрес уже запущенного приложения; пусто - приложение поднимается в процессе
+ * @param generate         генерировать ли данные перед прогоном
+ * @param users            количество пользователей
+ * @param projectsPerUser  проектов на пользователя
+ * @param shiftsPerProject смен на проект
+ * @param batchSize        размер пакета вставки
+ * @param virtualUsers     параллельные виртуальные пользователи
+ * @param duration         длительность прогона
+ * @param exportEvery      экспорт в Excel на каждой N-й итерации (0 - без экспорта)
+ * @param resultFile       JSON с результатами для сравнения сборок
+ */
+public record LoadTestConfig(
+	String baseUrl,
+	boolean generate,
+	int users,
+	int projectsPerUser,
+	int shiftsPerProject,
+	int batchSize,
+	int virtualUsers,
+	Duration duration,
+	int exportEvery,
+	String resultFile
+) {
+	
+	public static final String PASSWORD = "loadtest-password";
+	
+	public static LoadTestConfig fromSystemProperties() {
+		return new LoadTestConfig(
+			System.getProperty("loadtest.base-url", ""),
+			Boolean.parseBoolean(System.getProperty("loadtest.generate", "true")),
+			Integer.getInteger("loadtest.users", 50),
+			Integer.getInteger("loadtest.projects-per-user", 5),
+			Integer.getInteger("loadtest.shifts-per-project", 200),
+			Integer.getInteger("loadtest.batch-size", 1_000),
+			Integer.getInteger("loadtest.virtual-users", 16),
+			Duration.ofSeconds(Integer.getInteger("loadtest.duration-seconds", 60)),
+			Integer.getInteger("loadtest.export-every", 10),
+			System.getProperty("loadtest.result-file", "target/loadtest-result.json")
+		);
+	}
+	
+	public static String email(int user) {
+		return "loadtest-" + user + "@nelon.test";
+	}
+}
@@ -0,0 +1,79 @@
+package nelon.arrive.nelonshift.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import nelon.arrive.nelonshift.NelonShiftApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Нагрузочный прогон:
+ * <pre>
+ * mvn -Ploadtest test-compile exec:java -Dloadtest.users=100 -Dloadtest.duration-seconds=120
+ * </pre>
+ * Без {@code loadtest.base-url} приложение поднимается в этом же процессе с профилем
+ * {@code loadtest} (H2 в режиме PostgreSQL вместо сервера БД). Вход хранит refresh-токен
+ * в Redis, поэтому Redis должен быть доступен по {@code spring.data.redis.*}.
+ * С {@code loadtest.base-url} сценарий идёт против уже запущенного приложения,
+ * данные тогда генерируются через {@code loadtest.jdbc-url} (или не генерируются при
+ * {@code -Dloadtest.generate=false}).
+ */
+@Slf4j
+public class LoadTestRunner {
+	
+	public static void main(String[] args) throws Exception {
+		LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+		ConfigurableApplicationContext context = null;
+		
+		try {
+			String baseUrl = config.baseUrl();
+			if (baseUrl.isBlank()) {
+				context = startApplication();
+				baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+			}
+			
+			if (config.generate()) {
+				new TenantDataGenerator(jdbcTemplate(context), config).generate();
+			}
+			
+			LatencyReport report = new LatencyReport();
+			log.info("Running load scenario against {} with {} virtual users for {}s",
+				baseUrl, config.virtualUsers(), config.duration().toSeconds());
+			Duration elapsed = new LoadScenario(config, baseUrl, report).run();
+			
+			System.out.println();
+			System.out.print(report.toTable(elapsed));
+			report.writeJson(Path.of(config.resultFile()), config, elapsed);
+			log.info("Results written to {}", config.resultFile());
+		} finally {
+			if (context != null) {
+				context.close();
+			}
+		}
+	}
+	
+	private static ConfigurableApplicationContext startApplication() {
+		SpringApplication application = new SpringApplication(NelonShiftApplication.class);
+		application.setAdditionalProfiles("loadtest");
+		return application.run();
+	}
+	
+	private static JdbcTemplate jdbcTemplate(ConfigurableApplicationContext context) {
+		if (context != null) {
+			return context.getBean(JdbcTemplate.class);
+		}
+		String url = System.getProperty("loadtest.jdbc-url");
+		if (url == null) {
+			throw new IllegalStateException("loadtest.jdbc-url is required to generate data for an external application");
+		}
+		return new JdbcTemplate(new DriverManagerDataSource(
+			url,
+			System.getProperty("loadtest.jdbc-username", "admin"),
+			System.getProperty("loadtest.jdbc-password", "root")
+		));
+	}
+}
@@ -0,0 +1,109 @@
+package nelon.arrive.nelonshift.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Генератор синтетических пользователей, проектов и смен пакетными вставками (JDBC batch).
+ * <p>
+ * Пароль у всех пользователей один ({@link LoadTestConfig#PASSWORD}), хэш считается один раз.
+ * Id проектов выдаёт БД, поэтому после вставки проектов пользователя они читаются обратно.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class TenantDataGenerator {
+	
+	private final JdbcTemplate jdbcTemplate;
+	private final LoadTestConfig config;
+	
+	public void generate() {
+		long started = System.nanoTime();
+		String passwordHash = new BCryptPasswordEncoder().encode(LoadTestConfig.PASSWORD);
+		Random random = new Random(42);
+		LocalDateTime now = LocalDateTime.now();
+		LocalDate today = LocalDate.now();
+		
+		List<Object[]> shiftBatch = new ArrayList<>(config.batchSize());
+		long shifts = 0;
+		
+		for (int u = 0; u < config.users(); u++) {
+			UUID userId = UUID.randomUUID();
+			jdbcTemplate.update(
+				"INSERT INTO users (id, email, password, name, created_at) VALUES (?, ?, ?, ?, ?)",
+				userId, LoadTestConfig.email(u), passwordHash, "Load Test " + u, Timestamp.valueOf(now)
+			);
+			
+			List<Object[]> projects = new ArrayList<>(config.projectsPerUser());
+			for (int p = 0; p < config.projectsPerUser(); p++) {
+				projects.add(new Object[]{
+					"Project " + u + "-" + p, "ACTIVE", Date.valueOf(today.minusYears(2)),
+					userId, Timestamp.valueOf(now), Timestamp.valueOf(now)
+				});
+			}
+			jdbcTemplate.batchUpdate(
+				"INSERT INTO projects (name, status, start_date, user_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)",
+				projects
+			);
+			List<Long> projectIds = jdbcTemplate.queryForList(
+				"SELECT id FROM projects WHERE user_id = ? ORDER BY id", Long.class, userId
+			);
+			
+			for (Long projectId : projectIds) {
+				// Одна смена в день: даты идут назад от вчерашнего дня
+				for (int s = 0; s < config.shiftsPerProject(); s++) {
+					shiftBatch.add(shiftRow(random, projectId, today.minusDays(s + 1L), now));
+					if (shiftBatch.size() == config.batchSize()) {
+						shifts += flushShifts(shiftBatch);
+					}
+				}
+			}
+		}
+		shifts += flushShifts(shiftBatch);
+		
+		log.info("Generated {} users, {} projects, {} shifts in {} ms",
+			config.users(), config.users() * config.projectsPerUser(), shifts,
+			(System.nanoTime() - started) / 1_000_000);
+	}
+	
+	private Object[] shiftRow(Random random, Long projectId, LocalDate date, LocalDateTime now) {
+		int overtimeHours = random.nextInt(4) == 0 ? 1 + random.nextInt(3) : 0;
+		return new Object[]{
+			projectId,
+			Date.valueOf(date),
+			8 + random.nextInt(4),
+			BigDecimal.valueOf(300_000 + random.nextInt(200_000), 2),
+			overtimeHours,
+			BigDecimal.valueOf(overtimeHours * 25_000L, 2),
+			BigDecimal.valueOf(random.nextInt(2) * 150_000L, 2),
+			BigDecimal.ZERO,
+			Timestamp.valueOf(now),
+			Timestamp.valueOf(now)
+		};
+	}
+	
+	private int flushShifts(List<Object[]> batch) {
+		if (batch.isEmpty()) {
+			return 0;
+		}
+		jdbcTemplate.batchUpdate("""
+			INSERT INTO shifts (project_id, date, hours, base_pay, overtime_hours, overtime_pay, per_diem,
+			                    compensation, created_at, updated_at)
+			VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+			""", batch);
+		int size = batch.size();
+		batch.clear();
+		return size;
+	}
+}
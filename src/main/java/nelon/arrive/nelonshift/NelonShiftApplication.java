@@ -2,8 +2,10 @@ package nelon.arrive.nelonshift;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class NelonShiftApplication {
 	
 	public static void main(String[] args) {
@@ -0,0 +1,134 @@
+package nelon.arrive.nelonshift.cluster;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Сброс локальных кэшей на остальных экземплярах через Redis pub/sub ({@value #CHANNEL}).
+ * <p>
+ * Сообщение - {@code узел|кэш|ключ}; свои сообщения узел пропускает, его кэш уже обновлён.
+ * Pub/sub не хранит сообщения: пока узел не видел Redis (старт, разрыв соединения),
+ * он мог пропустить сброс. Поэтому после восстановления связи ({@link #onRedisAvailable})
+ * все подписанные кэши сбрасываются целиком.
+ */
+@Component
+@Slf4j
+public class CacheInvalidationBus implements MessageListener {
+	
+	static final String CHANNEL = "cluster:cache-invalidations";
+	private static final String SEPARATOR = "|";
+	
+	private final StringRedisTemplate redisTemplate;
+	private final RedisMessageListenerContainer listenerContainer;
+	private final ClusterNode node;
+	
+	private final Map<String, Handler> handlers = new ConcurrentHashMap<>();
+	// связь с Redis была потеряна (или ещё не установлена) - сообщения могли пропасть
+	private volatile boolean missedMessages = true;
+	
+	public CacheInvalidationBus(
+		StringRedisTemplate redisTemplate,
+		RedisMessageListenerContainer listenerContainer,
+		ClusterNode node
+	) {
+		this.redisTemplate = redisTemplate;
+		this.listenerContainer = listenerContainer;
+		this.node = node;
+	}
+	
+	private record Handler(Consumer<String> evict, Runnable evictAll) {
+	}
+	
+	@PostConstruct
+	void listen() {
+		listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+	}
+	
+	/**
+	 * Подписать локальный кэш на сбросы с других узлов
+	 *
+	 * @param evict    сброс одного ключа
+	 * @param evictAll сброс всего кэша после возможной потери сообщений
+	 */
+	public void subscribe(String cache, Consumer<String> evict, Runnable evictAll) {
+		handlers.put(cache, new Handler(evict, evictAll));
+	}
+	
+	/**
+	 * Разослать сброс ключа; внутри транзакции - после коммита,
+	 * чтобы другие узлы не перечитали старые данные
+	 */
+	public void publish(String cache, String key) {
+		String message = node.getId() + SEPARATOR + cache + SEPARATOR + key;
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			send(message);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				send(message);
+			}
+		});
+	}
+	
+	@Override
+	public void onMessage(Message message, byte[] pattern) {
+		String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+		if (parts.length < 3 || parts[0].equals(node.getId())) {
+			return;
+		}
+		Handler handler = handlers.get(parts[1]);
+		if (handler != null) {
+			handler.evict().accept(parts[2]);
+		}
+	}
+	
+	// ===== Состояние связи =====
+	
+	/**
+	 * Redis снова доступен (успешный heartbeat): поднять подписку и,
+	 * если сообщения могли пропасть, сбросить подписанные кэши
+	 */
+	void onRedisAvailable() {
+		if (!listenerContainer.isRunning()) {
+			try {
+				listenerContainer.start();
+			} catch (RuntimeException e) {
+				log.warn("Cannot subscribe to {}: {}", CHANNEL, e.getMessage());
+				missedMessages = true;
+				return;
+			}
+		}
+		if (missedMessages) {
+			missedMessages = false;
+			handlers.forEach((cache, handler) -> handler.evictAll().run());
+			log.info("Subscribed to cache invalidations, evicted local caches {}", handlers.keySet());
+		}
+	}
+	
+	void onRedisUnavailable() {
+		missedMessages = true;
+	}
+	
+	private void send(String message) {
+		try {
+			redisTemplate.convertAndSend(CHANNEL, message);
+		} catch (RuntimeException e) {
+			log.error("Failed to publish cache invalidation {}: {}", message, e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,18 @@
+package nelon.arrive.nelonshift.cluster;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Экземпляры приложения не делят состояние в памяти: всё общее - в БД и Redis.
+ * Здесь - то, что нужно для работы нескольких экземпляров за балансировщиком:
+ * <ul>
+ *     <li>{@link ClusterMembership} - состав кластера по heartbeat и лидер для фоновых задач</li>
+ *     <li>{@link DistributedLocks} - блокировки с fencing-токенами</li>
+ *     <li>{@link CacheInvalidationBus} - сброс локальных кэшей на остальных экземплярах</li>
+ * </ul>
+ */
+@Configuration
+@EnableConfigurationProperties(ClusterProperties.class)
+public class ClusterConfig {
+}
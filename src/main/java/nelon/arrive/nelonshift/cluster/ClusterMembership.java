@@ -0,0 +1,141 @@
+package nelon.arrive.nelonshift.cluster;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import nelon.arrive.nelonshift.security.config.LuaScripts;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Состав кластера и лидер для фоновых задач.
+ * <p>
+ * Каждый узел раз в {@code cluster.heartbeat-interval} пишет время в ZSET {@value #NODES_KEY}
+ * и заодно удаляет узлы без heartbeat дольше {@code cluster.node-ttl}.
+ * Лидер - владелец ключа {@value #LEADER_KEY} с арендой на {@code node-ttl}, которую он продлевает
+ * каждым heartbeat; упавший лидер теряет её не позже этого срока. Узел считает себя лидером
+ * до конца аренды, отсчитанного от начала последнего продления, поэтому двух лидеров одновременно
+ * не бывает, пока часы узлов идут с одной скоростью. Без Redis узел не лидер.
+ */
+@Component
+@Slf4j
+public class ClusterMembership {
+	
+	static final String NODES_KEY = "cluster:nodes";
+	static final String LEADER_KEY = "cluster:leader";
+	
+	private static final RedisScript<Long> LEADER_LEASE = LuaScripts.load("leader-lease.lua", Long.class);
+	private static final RedisScript<Long> RELEASE = LuaScripts.load("lock-release.lua", Long.class);
+	
+	private final StringRedisTemplate redisTemplate;
+	private final CacheInvalidationBus invalidationBus;
+	private final ClusterNode node;
+	private final long nodeTtlMillis;
+	
+	// System.nanoTime(), до которого действует аренда лидера
+	private volatile long leaderUntil;
+	private volatile boolean redisAvailable = true;
+	private volatile boolean left;
+	
+	public ClusterMembership(
+		StringRedisTemplate redisTemplate,
+		CacheInvalidationBus invalidationBus,
+		ClusterNode node,
+		ClusterProperties properties
+	) {
+		this.redisTemplate = redisTemplate;
+		this.invalidationBus = invalidationBus;
+		this.node = node;
+		this.nodeTtlMillis = properties.getNodeTtl().toMillis();
+		this.leaderUntil = System.nanoTime();
+	}
+	
+	public String getNodeId() {
+		return node.getId();
+	}
+	
+	/**
+	 * Лидер ли этот узел - фоновые задачи на весь кластер выполняет только он
+	 */
+	public boolean isLeader() {
+		return System.nanoTime() - leaderUntil < 0;
+	}
+	
+	/**
+	 * Узлы с heartbeat не старше {@code cluster.node-ttl}
+	 */
+	public Set<String> liveNodes() {
+		long now = System.currentTimeMillis();
+		Set<String> nodes = redisTemplate.opsForZSet().rangeByScore(NODES_KEY, now - nodeTtlMillis, Double.POSITIVE_INFINITY);
+		return nodes == null ? Set.of() : nodes;
+	}
+	
+	@EventListener(ApplicationReadyEvent.class)
+	public void join() {
+		heartbeat();
+		log.info("Node {} joined the cluster", node.getId());
+	}
+	
+	@Scheduled(
+		initialDelayString = "${cluster.heartbeat-interval:PT5S}",
+		fixedDelayString = "${cluster.heartbeat-interval:PT5S}"
+	)
+	public void heartbeat() {
+		if (left) {
+			return;
+		}
+		long started = System.nanoTime();
+		try {
+			long now = System.currentTimeMillis();
+			redisTemplate.opsForZSet().add(NODES_KEY, node.getId(), now);
+			redisTemplate.opsForZSet().removeRangeByScore(NODES_KEY, Double.NEGATIVE_INFINITY, now - nodeTtlMillis);
+			Long leader = redisTemplate.execute(LEADER_LEASE, List.of(LEADER_KEY), node.getId(), String.valueOf(nodeTtlMillis));
+			updateLeadership(leader != null && leader == 1, started);
+			if (!redisAvailable) {
+				redisAvailable = true;
+				log.info("Cluster heartbeat restored on node {}", node.getId());
+			}
+			invalidationBus.onRedisAvailable();
+		} catch (RuntimeException e) {
+			updateLeadership(false, started);
+			invalidationBus.onRedisUnavailable();
+			if (redisAvailable) {
+				redisAvailable = false;
+				log.warn("Cluster heartbeat failed on node {}, stepping down: {}", node.getId(), e.getMessage());
+			}
+		}
+	}
+	
+	/**
+	 * Выйти из кластера и отдать лидерство, не дожидаясь истечения аренды
+	 */
+	@PreDestroy
+	public void leave() {
+		left = true;
+		boolean wasLeader = isLeader();
+		leaderUntil = System.nanoTime();
+		try {
+			redisTemplate.opsForZSet().remove(NODES_KEY, node.getId());
+			if (wasLeader) {
+				redisTemplate.execute(RELEASE, List.of(LEADER_KEY), node.getId());
+			}
+			log.info("Node {} left the cluster", node.getId());
+		} catch (RuntimeException e) {
+			log.warn("Node {} left without deregistering, it expires in {} ms: {}", node.getId(), nodeTtlMillis, e.getMessage());
+		}
+	}
+	
+	private void updateLeadership(boolean leader, long renewedAt) {
+		boolean wasLeader = isLeader();
+		leaderUntil = leader ? renewedAt + nodeTtlMillis * 1_000_000 : System.nanoTime();
+		if (leader != wasLeader) {
+			log.info("Node {} {} cluster leader", node.getId(), leader ? "became" : "is no longer");
+		}
+	}
+}
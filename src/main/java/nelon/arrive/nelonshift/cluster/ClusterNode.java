@@ -0,0 +1,26 @@
+package nelon.arrive.nelonshift.cluster;
+
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.UUID;
+
+/**
+ * Идентификатор экземпляра: имя хоста и случайный суффикс, новый при каждом запуске
+ */
+@Component
+@Getter
+public class ClusterNode {
+	
+	private final String id = hostname() + "-" + UUID.randomUUID().toString().substring(0, 8);
+	
+	private static String hostname() {
+		try {
+			return InetAddress.getLocalHost().getHostName();
+		} catch (UnknownHostException e) {
+			return "node";
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package nelon.arrive.nelonshift.cluster;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Координация экземпляров приложения через Redis ({@code cluster.*})
+ */
+@Data
+@ConfigurationProperties(prefix = "cluster")
+public class ClusterProperties {
+	
+	private Duration heartbeatInterval = Duration.ofSeconds(5);
+	
+	/**
+	 * Узел без heartbeat дольше этого срока считается выбывшим; это же - срок аренды лидера
+	 */
+	private Duration nodeTtl = Duration.ofSeconds(15);
+	
+	private Locks locks = new Locks();
+	
+	@Data
+	public static class Locks {
+		/**
+		 * Время жизни блокировки, если владелец не снял её сам (упал, завис)
+		 */
+		private Duration ttl = Duration.ofSeconds(10);
+		/**
+		 * Сколько ждать занятую блокировку; дальше - 503 с Retry-After
+		 */
+		private Duration waitTimeout = Duration.ofSeconds(5);
+	}
+}
@@ -0,0 +1,175 @@
+package nelon.arrive.nelonshift.cluster;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import nelon.arrive.nelonshift.exception.ServiceOverloadedException;
+import nelon.arrive.nelonshift.security.config.LuaScripts;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Блокировки ресурсов между экземплярами в Redis с fencing-токенами.
+ * <p>
+ * Ключ {@code lock:{resource}} с владельцем и TTL; при захвате выдаётся токен,
+ * строго растущий для ресурса ({@code lock-fence:{resource}}). Блокировка с TTL
+ * не гарантирует исключительности: владелец может зависнуть дольше TTL, и её получит
+ * другой. Поэтому запись в хранилище сверяет токен (см. {@code ProjectRepository#advanceLockFence}):
+ * опоздавший владелец со старым токеном получит отказ, а не перезапишет чужие данные.
+ */
+@Component
+@Slf4j
+public class DistributedLocks {
+	
+	static final String LOCK_PREFIX = "lock:";
+	static final String FENCE_PREFIX = "lock-fence:";
+	
+	private static final RedisScript<Long> ACQUIRE = LuaScripts.load("lock-acquire.lua", Long.class);
+	private static final RedisScript<Long> RELEASE = LuaScripts.load("lock-release.lua", Long.class);
+	
+	private static final Duration FENCE_TTL = Duration.ofDays(1);
+	private static final long MAX_BACKOFF_MILLIS = 100;
+	
+	private final StringRedisTemplate redisTemplate;
+	private final ClusterNode node;
+	private final Duration ttl;
+	private final Duration waitTimeout;
+	
+	private final Counter acquired;
+	private final Counter timedOut;
+	private final Counter unavailable;
+	
+	public DistributedLocks(
+		StringRedisTemplate redisTemplate,
+		ClusterNode node,
+		ClusterProperties properties,
+		MeterRegistry meterRegistry
+	) {
+		this.redisTemplate = redisTemplate;
+		this.node = node;
+		this.ttl = properties.getLocks().getTtl();
+		this.waitTimeout = properties.getLocks().getWaitTimeout();
+		this.acquired = lockCounter(meterRegistry, "acquired");
+		this.timedOut = lockCounter(meterRegistry, "timeout");
+		this.unavailable = lockCounter(meterRegistry, "unavailable");
+	}
+	
+	private static Counter lockCounter(MeterRegistry meterRegistry, String result) {
+		return Counter.builder("nelonshift.cluster.locks")
+			.description("Distributed lock acquisitions by outcome")
+			.tag("result", result)
+			.register(meterRegistry);
+	}
+	
+	/**
+	 * Захваченная блокировка; {@link #close()} снимает её, только если она ещё принадлежит владельцу
+	 */
+	@Getter
+	public final class FencedLock implements AutoCloseable {
+		private final String resource;
+		private final String owner;
+		private final long token;
+		
+		private FencedLock(String resource, String owner, long token) {
+			this.resource = resource;
+			this.owner = owner;
+			this.token = token;
+		}
+		
+		@Override
+		public void close() {
+			release(this);
+		}
+	}
+	
+	/**
+	 * Одна попытка захвата
+	 *
+	 * @return пусто, если блокировка занята
+	 */
+	public Optional<FencedLock> tryAcquire(String resource, Duration ttl) {
+		String owner = node.getId() + ":" + UUID.randomUUID();
+		Long token = redisTemplate.execute(ACQUIRE, List.of(LOCK_PREFIX + resource, FENCE_PREFIX + resource),
+			owner, String.valueOf(ttl.toMillis()), String.valueOf(FENCE_TTL.toMillis()));
+		return token == null ? Optional.empty() : Optional.of(new FencedLock(resource, owner, token));
+	}
+	
+	/**
+	 * Захват с ожиданием до {@code cluster.locks.wait-timeout}
+	 *
+	 * @throws ServiceOverloadedException блокировка не освободилась за время ожидания
+	 */
+	public FencedLock acquire(String resource) {
+		long deadline = System.nanoTime() + waitTimeout.toNanos();
+		long backoff = 5;
+		while (true) {
+			Optional<FencedLock> lock = tryAcquire(resource, ttl);
+			if (lock.isPresent()) {
+				acquired.increment();
+				return lock.get();
+			}
+			if (System.nanoTime() > deadline) {
+				timedOut.increment();
+				throw new ServiceOverloadedException("Resource is being modified by another request, try again", 1);
+			}
+			try {
+				Thread.sleep(backoff + ThreadLocalRandom.current().nextLong(backoff));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new ServiceOverloadedException("Interrupted while waiting for a lock", 1);
+			}
+			backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+		}
+	}
+	
+	/**
+	 * Захватить блокировку до конца текущей транзакции
+	 *
+	 * @return fencing-токен; пусто, если Redis недоступен - вызывающий защищается сам (блокировкой в БД)
+	 * @throws ServiceOverloadedException блокировка не освободилась за время ожидания
+	 */
+	public OptionalLong lockForTransaction(String resource) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			throw new IllegalStateException("No active transaction to hold lock on " + resource);
+		}
+		FencedLock lock;
+		try {
+			lock = acquire(resource);
+		} catch (ServiceOverloadedException e) {
+			throw e;
+		} catch (RuntimeException e) {
+			unavailable.increment();
+			log.warn("Cannot lock {} in Redis, falling back to database locking: {}", resource, e.getMessage());
+			return OptionalLong.empty();
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				lock.close();
+			}
+		});
+		return OptionalLong.of(lock.getToken());
+	}
+	
+	private void release(FencedLock lock) {
+		try {
+			Long released = redisTemplate.execute(RELEASE, List.of(LOCK_PREFIX + lock.getResource()), lock.getOwner());
+			if (released == null || released == 0) {
+				log.warn("Lock {} with token {} expired before release", lock.getResource(), lock.getToken());
+			}
+		} catch (RuntimeException e) {
+			log.warn("Failed to release lock {}, it expires in {}: {}", lock.getResource(), ttl, e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package nelon.arrive.nelonshift.controller;
+
+import lombok.RequiredArgsConstructor;
+import nelon.arrive.nelonshift.dto.ShiftAggregateDto;
+import nelon.arrive.nelonshift.enums.ShiftGroupBy;
+import nelon.arrive.nelonshift.response.PageResponse;
+import nelon.arrive.nelonshift.services.interfaces.IAnalyticsService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("${api.prefix}/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+	
+	private final IAnalyticsService analyticsService;
+	
+	@GetMapping("/shifts")
+	public ResponseEntity<PageResponse<ShiftAggregateDto>> getShiftAnalytics(
+		@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+		@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+		@RequestParam(required = false) Long projectId,
+		@RequestParam(required = false) DayOfWeek weekday,
+		@RequestParam(defaultValue = "NONE") ShiftGroupBy groupBy,
+		@RequestParam(defaultValue = "3") int rollingWindow,
+		@RequestParam(defaultValue = "0") int page,
+		@RequestParam(defaultValue = "50") int size
+	) {
+		return ResponseEntity.ok(analyticsService.getShiftAnalytics(
+			from, to, projectId, weekday, groupBy, rollingWindow, page, size
+		));
+	}
+}
@@ -0,0 +1,75 @@
+package nelon.arrive.nelonshift.controller;
+
+import lombok.RequiredArgsConstructor;
+import nelon.arrive.nelonshift.dto.ArchivedProjectDto;
+import nelon.arrive.nelonshift.dto.ProjectStatsDto;
+import nelon.arrive.nelonshift.dto.ShiftDto;
+import nelon.arrive.nelonshift.response.PageResponse;
+import nelon.arrive.nelonshift.services.archive.ProjectArchiveService;
+import nelon.arrive.nelonshift.services.versions.ResourceVersion;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Архив завершённых проектов, только чтение.
+ * Архивная запись не меняется, поэтому её ETag постоянный и ответ можно кэшировать;
+ * смены и статистика читаются только после проверки ETag.
+ */
+@RestController
+@RequestMapping("${api.prefix}/archive/projects")
+@RequiredArgsConstructor
+public class ArchivedProjectController {
+	
+	private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(1)).cachePrivate();
+	
+	private final ProjectArchiveService archiveService;
+	
+	@GetMapping
+	public ResponseEntity<PageResponse<ArchivedProjectDto>> getArchivedProjects(
+		@RequestParam(required = false) String name,
+		@RequestParam(defaultValue = "0") int page,
+		@RequestParam(defaultValue = "10") int size
+	) {
+		return ResponseEntity.ok(archiveService.getArchivedProjects(name, page, size));
+	}
+	
+	@GetMapping("/{id}")
+	public ResponseEntity<ArchivedProjectDto> getArchivedProject(@PathVariable Long id, WebRequest webRequest) {
+		ArchivedProjectDto project = archiveService.getArchivedProject(id);
+		long archivedAt = project.getArchivedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+		if (ResourceVersion.immutable("a" + id, archivedAt).notModified(webRequest)) {
+			return null;
+		}
+		return ResponseEntity.ok().cacheControl(IMMUTABLE).body(project);
+	}
+	
+	@GetMapping("/{id}/shifts")
+	public ResponseEntity<List<ShiftDto>> getArchivedShifts(@PathVariable Long id, WebRequest webRequest) {
+		archiveService.checkArchivedProjectExists(id);
+		if (version(id, "shifts").notModified(webRequest)) {
+			return null;
+		}
+		List<ShiftDto> shifts = archiveService.getArchivedShifts(id);
+		return ResponseEntity.ok().cacheControl(IMMUTABLE).body(shifts);
+	}
+	
+	@GetMapping("/{id}/stats")
+	public ResponseEntity<ProjectStatsDto> getArchivedStats(@PathVariable Long id, WebRequest webRequest) {
+		archiveService.checkArchivedProjectExists(id);
+		if (version(id, "stats").notModified(webRequest)) {
+			return null;
+		}
+		ProjectStatsDto stats = archiveService.getArchivedStats(id);
+		return ResponseEntity.ok().cacheControl(IMMUTABLE).body(stats);
+	}
+	
+	private static ResourceVersion version(Long id, String part) {
+		return ResourceVersion.immutable("a" + id + "-" + part, -1);
+	}
+}
@@ -10,10 +10,13 @@ import nelon.arrive.nelonshift.request.LoginRequest;
 import nelon.arrive.nelonshift.request.SignupRequest;
 import nelon.arrive.nelonshift.response.AuthResponse;
 import nelon.arrive.nelonshift.response.MessageResponse;
+import nelon.arrive.nelonshift.response.SessionResponse;
 import nelon.arrive.nelonshift.services.interfaces.IAuthService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("${api.prefix}/auth")
@@ -52,6 +55,19 @@ public class AuthController {
 		return ResponseEntity.ok(authService.logout(request, response));
 	}
 	
+	@PostMapping("/logout-all")
+	public ResponseEntity<MessageResponse> logoutAll(
+		HttpServletRequest request,
+		HttpServletResponse response
+	) {
+		return ResponseEntity.ok(authService.logoutAll(request, response));
+	}
+	
+	@GetMapping("/sessions")
+	public ResponseEntity<List<SessionResponse>> sessions(HttpServletRequest request) {
+		return ResponseEntity.ok(authService.getSessions(request));
+	}
+	
 	@GetMapping("/me")
 	public ResponseEntity<UserDto> currentUser() {
 		UserDto userDto = userMapper.toDto(authService.getCurrentUser());
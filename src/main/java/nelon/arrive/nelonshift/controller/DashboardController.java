@@ -2,11 +2,14 @@ package nelon.arrive.nelonshift.controller;
 
 import lombok.RequiredArgsConstructor;
 import nelon.arrive.nelonshift.dto.DashboardStatsDto;
+import nelon.arrive.nelonshift.services.interfaces.IAuthService;
 import nelon.arrive.nelonshift.services.interfaces.IDashboardService;
+import nelon.arrive.nelonshift.services.versions.ResourceVersions;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("${api.prefix}/dashboard")
@@ -14,9 +17,14 @@ import org.springframework.web.bind.annotation.RestController;
 public class DashboardController {
 	
 	private final IDashboardService dashboardService;
+	private final IAuthService authService;
+	private final ResourceVersions resourceVersions;
 	
 	@GetMapping("/stats")
-	public ResponseEntity<DashboardStatsDto> getDashboardStats() {
+	public ResponseEntity<DashboardStatsDto> getDashboardStats(WebRequest webRequest) {
+		if (resourceVersions.dashboard(authService.getCurrentUserId()).notModified(webRequest)) {
+			return null;
+		}
 		DashboardStatsDto stats = dashboardService.getDashboardStats();
 		return ResponseEntity.ok(stats);
 	}
@@ -0,0 +1,29 @@
+package nelon.arrive.nelonshift.controller;
+
+import lombok.RequiredArgsConstructor;
+import nelon.arrive.nelonshift.exception.ResourceNotFoundException;
+import nelon.arrive.nelonshift.services.deletion.BulkDeletionService;
+import nelon.arrive.nelonshift.services.deletion.DeletionJob;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Ход фоновых удалений пользователей и проектов
+ */
+@RestController
+@RequestMapping("${api.prefix}/deletions")
+@RequiredArgsConstructor
+public class DeletionController {
+	
+	private final BulkDeletionService bulkDeletionService;
+	
+	@GetMapping("/{id}")
+	public ResponseEntity<DeletionJob> getDeletion(@PathVariable String id) {
+		return bulkDeletionService.findJob(id)
+			.map(ResponseEntity::ok)
+			.orElseThrow(() -> new ResourceNotFoundException("Deletion job not found"));
+	}
+}
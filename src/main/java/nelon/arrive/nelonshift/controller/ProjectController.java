@@ -3,6 +3,7 @@ package nelon.arrive.nelonshift.controller;
 import lombok.RequiredArgsConstructor;
 import nelon.arrive.nelonshift.dto.ProjectDto;
 import nelon.arrive.nelonshift.dto.ProjectStatsDto;
+import nelon.arrive.nelonshift.encoding.SparseFieldsets;
 import nelon.arrive.nelonshift.entity.Project;
 import nelon.arrive.nelonshift.enums.ProjectStatus;
 import nelon.arrive.nelonshift.exception.ResourceNotFoundException;
@@ -12,12 +13,15 @@ import nelon.arrive.nelonshift.request.UpdateProjectRequest;
 import nelon.arrive.nelonshift.response.MessageResponse;
 import nelon.arrive.nelonshift.response.PageResponse;
 import nelon.arrive.nelonshift.services.ProjectExcelService;
+import nelon.arrive.nelonshift.services.deletion.DeletionJob;
 import nelon.arrive.nelonshift.services.interfaces.IProjectService;
+import nelon.arrive.nelonshift.services.versions.ResourceVersions;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.io.IOException;
 import java.net.URLEncoder;
@@ -33,16 +37,22 @@ public class ProjectController {
 	private final IProjectService projectService;
 	private final ProjectExcelService projectExcelService;
 	private final ProjectRepository projectRepository;
+	private final ResourceVersions resourceVersions;
 
 	@GetMapping
+	@SparseFieldsets(ProjectDto.class)
 	public ResponseEntity<PageResponse<ProjectDto>> getProjects(
 		@RequestParam(required = false) String name,
 		@RequestParam(required = false) ProjectStatus status,
 		@RequestParam(defaultValue = "0") int page,
 		@RequestParam(defaultValue = "10") int size,
 		@RequestParam(defaultValue = "date") String sortBy,
-		@RequestParam(defaultValue = "desc") String sortDirection
+		@RequestParam(defaultValue = "desc") String sortDirection,
+		WebRequest webRequest
 	) {
+		if (resourceVersions.projectList().notModified(webRequest)) {
+			return null;
+		}
 		PageResponse<ProjectDto> projectDtos = projectService.getProjects(
 			name, status, page, size, sortBy, sortDirection
 		);
@@ -50,7 +60,11 @@ public class ProjectController {
 	}
 
 	@GetMapping("/{id}")
-	public ResponseEntity<ProjectDto> getProjectById(@PathVariable Long id) {
+	public ResponseEntity<ProjectDto> getProjectById(@PathVariable Long id, WebRequest webRequest) {
+		projectService.checkProjectExists(id);
+		if (resourceVersions.project(id).notModified(webRequest)) {
+			return null;
+		}
 		return ResponseEntity.ok(projectService.getProjectById(id));
 	}
 
@@ -67,13 +81,24 @@ public class ProjectController {
 		return ResponseEntity.ok(projectService.updateProject(id, request));
 	}
 
+	/**
+	 * Небольшой проект удаляется сразу (200); большой - в фоне (202 с заданием, см. GET /deletions/{id})
+	 */
 	@DeleteMapping("/{id}")
-	public ResponseEntity<MessageResponse> deleteProject(@PathVariable Long id) {
-		return ResponseEntity.ok(projectService.deleteProject(id));
+	public ResponseEntity<?> deleteProject(@PathVariable Long id) {
+		DeletionJob job = projectService.deleteProject(id);
+		if (job.isFinished()) {
+			return ResponseEntity.ok(new MessageResponse("Delete project successfully"));
+		}
+		return ResponseEntity.accepted().body(job);
 	}
 
 	@GetMapping("/{id}/stats")
-	public ResponseEntity<ProjectStatsDto> getProjectStats(@PathVariable Long id) {
+	public ResponseEntity<ProjectStatsDto> getProjectStats(@PathVariable Long id, WebRequest webRequest) {
+		projectService.checkProjectExists(id);
+		if (resourceVersions.project(id).notModified(webRequest)) {
+			return null;
+		}
 		ProjectStatsDto stats = projectService.getProjectStats(id);
 		return ResponseEntity.ok(stats);
 	}
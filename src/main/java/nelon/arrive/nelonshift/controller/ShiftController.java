@@ -1,14 +1,22 @@
 package nelon.arrive.nelonshift.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import nelon.arrive.nelonshift.dto.ShiftDto;
+import nelon.arrive.nelonshift.encoding.JsonArrayStream;
+import nelon.arrive.nelonshift.encoding.SparseFields;
+import nelon.arrive.nelonshift.encoding.SparseFieldsets;
 import nelon.arrive.nelonshift.request.CreateShiftRequest;
 import nelon.arrive.nelonshift.request.UpdateShiftRequest;
 import nelon.arrive.nelonshift.response.MessageResponse;
+import nelon.arrive.nelonshift.services.interfaces.IProjectService;
 import nelon.arrive.nelonshift.services.interfaces.IShiftService;
+import nelon.arrive.nelonshift.services.versions.ResourceVersions;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.util.List;
 
 import static org.springframework.http.HttpStatus.CREATED;
@@ -19,12 +27,40 @@ import static org.springframework.http.HttpStatus.CREATED;
 public class ShiftController {
 
   private final IShiftService shiftService;
+  private final IProjectService projectService;
+  private final ResourceVersions resourceVersions;
+  private final SparseFields sparseFields;
 
   @GetMapping
-  public ResponseEntity<List<ShiftDto>> getShifts(@RequestParam() Long projectId) {
+  @SparseFieldsets(ShiftDto.class)
+  public ResponseEntity<List<ShiftDto>> getShifts(@RequestParam() Long projectId, WebRequest webRequest) {
+    projectService.checkProjectExists(projectId);
+    if (resourceVersions.project(projectId).notModified(webRequest)) {
+      return null;
+    }
     return ResponseEntity.ok(shiftService.getShiftsByProjectId(projectId));
   }
 
+  /**
+   * Потоковый вариант списка смен: строки читаются курсором и пишутся в ответ по одной,
+   * память не зависит от количества смен. Только JSON, {@code ?fields=} поддерживается.
+   */
+  @GetMapping("/stream")
+  public void streamShifts(
+      @RequestParam Long projectId,
+      @RequestParam(name = SparseFields.PARAM, required = false) String fields,
+      WebRequest webRequest,
+      HttpServletResponse response
+  ) throws IOException {
+    projectService.checkProjectExists(projectId);
+    if (resourceVersions.project(projectId).notModified(webRequest)) {
+      return;
+    }
+    JsonArrayStream<ShiftDto> shifts = new JsonArrayStream<>(sparseFields.writer(ShiftDto.class, fields), response);
+    shiftService.forEachShiftByProjectId(projectId, shifts::write);
+    shifts.close();
+  }
+
   @PostMapping
   public ResponseEntity<ShiftDto> createShift(@RequestBody CreateShiftRequest request) {
     return ResponseEntity.status(CREATED).body(shiftService.createShift(request));
@@ -1,13 +1,23 @@
 package nelon.arrive.nelonshift.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import nelon.arrive.nelonshift.dto.UserDto;
+import nelon.arrive.nelonshift.dto.UserSummaryDto;
+import nelon.arrive.nelonshift.encoding.NdjsonStream;
 import nelon.arrive.nelonshift.request.UpdateUserRequest;
+import nelon.arrive.nelonshift.response.CursorPageResponse;
 import nelon.arrive.nelonshift.response.MessageResponse;
+import nelon.arrive.nelonshift.services.deletion.DeletionJob;
 import nelon.arrive.nelonshift.services.interfaces.IUserService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -17,7 +27,44 @@ import java.util.UUID;
 public class UserController {
 	
 	private final IUserService userService;
+	private final ObjectMapper objectMapper;
 	
+	/**
+	 * Список пользователей для администрирования: фильтры по префиксу email и дате регистрации,
+	 * keyset-пагинация по email ({@code cursor} из {@code nextCursor} предыдущей страницы)
+	 */
+	@GetMapping
+	public ResponseEntity<CursorPageResponse<UserSummaryDto>> getUsers(
+		@RequestParam(required = false) String email,
+		@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdFrom,
+		@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdTo,
+		@RequestParam(required = false) String cursor,
+		@RequestParam(defaultValue = "50") int size,
+		@RequestParam(defaultValue = "false") boolean projectCount
+	) {
+		return ResponseEntity.ok(userService.getUsers(email, createdFrom, createdTo, cursor, size, projectCount));
+	}
+	
+	/**
+	 * Выгрузка того же списка целиком в NDJSON, строка за строкой
+	 */
+	@GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public void exportUsers(
+		@RequestParam(required = false) String email,
+		@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdFrom,
+		@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdTo,
+		@RequestParam(defaultValue = "false") boolean projectCount,
+		HttpServletResponse response
+	) throws IOException {
+		NdjsonStream<UserSummaryDto> users = new NdjsonStream<>(objectMapper.writerFor(UserSummaryDto.class), response);
+		userService.forEachUser(email, createdFrom, createdTo, projectCount, users::write);
+		users.close();
+	}
+	
+	/**
+	 * Все пользователи одним списком; для больших объёмов - {@link #getUsers} и {@link #exportUsers}
+	 */
+	@Deprecated
 	@GetMapping("/all")
 	public ResponseEntity<List<UserDto>> getAllUsers() {
 		return ResponseEntity.ok(userService.getAllUsers());
@@ -36,9 +83,17 @@ public class UserController {
 		return ResponseEntity.ok(userService.updateUser(request, userId));
 	}
 	
+	/**
+	 * Пользователь с небольшим объёмом данных удаляется сразу (200), с большим - в фоне
+	 * (202 с заданием, см. GET /deletions/{id})
+	 */
 	@DeleteMapping("/{userId}")
-	public ResponseEntity<MessageResponse> deleteUser(@PathVariable UUID userId) {
-		return ResponseEntity.ok(userService.deleteUser(userId));
+	public ResponseEntity<?> deleteUser(@PathVariable UUID userId) {
+		DeletionJob job = userService.deleteUser(userId);
+		if (job.isFinished()) {
+			return ResponseEntity.ok(new MessageResponse("Delete user successfully"));
+		}
+		return ResponseEntity.accepted().body(job);
 	}
 	
 }
@@ -0,0 +1,60 @@
+package nelon.arrive.nelonshift.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Основная БД и реплики для читающих транзакций.
+ * Без {@code datasource.replicas.enabled} источник данных настраивает Spring Boot, как раньше.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaProperties.class)
+@Slf4j
+public class DataSourceRoutingConfig {
+	
+	/**
+	 * Пул основной БД из {@code spring.datasource.*}, включая {@code spring.datasource.hikari.*}
+	 */
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryPool(DataSourceProperties properties, MeterRegistry meterRegistry) {
+		HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		pool.setPoolName("primary");
+		pool.setMetricRegistry(meterRegistry);
+		return pool;
+	}
+	
+	@Bean
+	public ReplicaRoutingDataSource replicaRoutingDataSource(
+		HikariDataSource primaryPool,
+		ReplicaProperties properties,
+		MeterRegistry meterRegistry
+	) {
+		List<ReplicaPool> replicas = properties.getPools().stream()
+			.map(pool -> new ReplicaPool(pool, meterRegistry))
+			.toList();
+		log.info("Read-only transactions are routed to replicas {}",
+			replicas.stream().map(ReplicaPool::getName).toList());
+		return new ReplicaRoutingDataSource(primaryPool, replicas, new ReadYourWrites(properties.getStickyWindow()),
+			properties.getHealthCheckTimeout(), meterRegistry);
+	}
+	
+	@Bean
+	@Primary
+	public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+		return new LazyConnectionDataSourceProxy(routingDataSource);
+	}
+}
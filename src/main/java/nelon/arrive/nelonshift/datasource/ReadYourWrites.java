@@ -0,0 +1,88 @@
+package nelon.arrive.nelonshift.datasource;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Чтение своих записей при маршрутизации на реплики.
+ * <p>
+ * Сессия - аутентифицированный пользователь, для анонимных запросов - адрес клиента.
+ * После записи чтения этой сессии {@code stickyWindow} идут в основную БД.
+ * Так же читается ресурс, изменённый кем-либо позже {@code stickyWindow} назад:
+ * версию для ETag отдаёт {@code ResourceVersion} через атрибут запроса {@link #RESOURCE_LAST_MODIFIED},
+ * и ответ с новым ETag не собирается из ещё не догнавшей реплики.
+ */
+public class ReadYourWrites {
+	
+	public static final String RESOURCE_LAST_MODIFIED = ReadYourWrites.class.getName() + ".resourceLastModified";
+	
+	private static final String WROTE = ReadYourWrites.class.getName() + ".wrote";
+	
+	private final long windowMillis;
+	private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+	
+	public ReadYourWrites(Duration window) {
+		this.windowMillis = window.toMillis();
+	}
+	
+	/**
+	 * Транзакция с записью зафиксирована
+	 */
+	public void recordWrite() {
+		RequestAttributes request = RequestContextHolder.getRequestAttributes();
+		if (request != null) {
+			request.setAttribute(WROTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+		}
+		String session = sessionKey();
+		if (session != null) {
+			lastWrites.put(session, System.currentTimeMillis());
+		}
+	}
+	
+	public boolean mustReadFromPrimary() {
+		long threshold = System.currentTimeMillis() - windowMillis;
+		RequestAttributes request = RequestContextHolder.getRequestAttributes();
+		if (request != null) {
+			if (request.getAttribute(WROTE, RequestAttributes.SCOPE_REQUEST) != null) {
+				return true;
+			}
+			if (request.getAttribute(RESOURCE_LAST_MODIFIED, RequestAttributes.SCOPE_REQUEST) instanceof Long lastModified
+				&& lastModified > threshold) {
+				return true;
+			}
+		}
+		String session = sessionKey();
+		Long lastWrite = session == null ? null : lastWrites.get(session);
+		return lastWrite != null && lastWrite > threshold;
+	}
+	
+	/**
+	 * Удалить сессии, окно которых закончилось
+	 */
+	public void purge() {
+		long threshold = System.currentTimeMillis() - windowMillis;
+		lastWrites.values().removeIf(lastWrite -> lastWrite <= threshold);
+	}
+	
+	private static String sessionKey() {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (authentication != null && authentication.isAuthenticated()
+			&& !(authentication instanceof AnonymousAuthenticationToken)) {
+			return "user:" + authentication.getName();
+		}
+		if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+			HttpServletRequest request = attributes.getRequest();
+			return "ip:" + request.getRemoteAddr();
+		}
+		return null;
+	}
+}
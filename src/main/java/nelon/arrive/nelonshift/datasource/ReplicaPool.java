@@ -0,0 +1,90 @@
+package nelon.arrive.nelonshift.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Пул соединений одной реплики и её состояние.
+ * Недоступная реплика исключается из маршрутизации до следующей успешной проверки.
+ */
+@Slf4j
+public class ReplicaPool implements AutoCloseable {
+	
+	private final String name;
+	private final HikariDataSource dataSource;
+	private volatile boolean healthy;
+	
+	ReplicaPool(ReplicaProperties.Pool properties, MeterRegistry meterRegistry) {
+		this.name = properties.getName();
+		this.dataSource = new HikariDataSource();
+		dataSource.setPoolName(name);
+		dataSource.setJdbcUrl(properties.getUrl());
+		dataSource.setUsername(properties.getUsername());
+		dataSource.setPassword(properties.getPassword());
+		dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+		dataSource.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+		dataSource.setReadOnly(true);
+		// Недоступная при старте реплика не мешает запуску приложения
+		dataSource.setInitializationFailTimeout(-1);
+		dataSource.setMetricRegistry(meterRegistry);
+		
+		Gauge.builder("nelonshift.datasource.replica.healthy", this, pool -> pool.healthy ? 1 : 0)
+			.tag("pool", name)
+			.register(meterRegistry);
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public HikariDataSource getDataSource() {
+		return dataSource;
+	}
+	
+	public boolean isHealthy() {
+		return healthy;
+	}
+	
+	Connection getConnection() throws SQLException {
+		return dataSource.getConnection();
+	}
+	
+	/**
+	 * Проверить реплику; результат сразу учитывается при маршрутизации
+	 */
+	public boolean check(Duration timeout) {
+		boolean valid;
+		try (Connection connection = dataSource.getConnection()) {
+			valid = connection.isValid((int) Math.max(1, timeout.toSeconds()));
+		} catch (SQLException e) {
+			valid = false;
+		}
+		if (valid != healthy) {
+			if (valid) {
+				log.info("Replica {} is available", name);
+			} else {
+				log.warn("Replica {} is unavailable, reads fall back to the primary", name);
+			}
+		}
+		healthy = valid;
+		return valid;
+	}
+	
+	public void markDown(String reason) {
+		if (healthy) {
+			log.warn("Replica {} marked down: {}", name, reason);
+		}
+		healthy = false;
+	}
+	
+	@Override
+	public void close() {
+		dataSource.close();
+	}
+}
@@ -0,0 +1,42 @@
+package nelon.arrive.nelonshift.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Реплики для читающих транзакций ({@code datasource.replicas.*})
+ */
+@Data
+@ConfigurationProperties(prefix = "datasource.replicas")
+public class ReplicaProperties {
+	
+	private boolean enabled = false;
+	
+	/**
+	 * Сколько после записи чтения той же сессии идут в основную БД - верхняя граница отставания реплик
+	 */
+	private Duration stickyWindow = Duration.ofSeconds(5);
+	
+	private Duration healthCheckInterval = Duration.ofSeconds(10);
+	
+	private Duration healthCheckTimeout = Duration.ofSeconds(2);
+	
+	private List<Pool> pools = new ArrayList<>();
+	
+	@Data
+	public static class Pool {
+		private String name;
+		private String url;
+		private String username;
+		private String password;
+		private int maximumPoolSize = 10;
+		/**
+		 * Ожидание соединения; при отказе чтение уходит в основную БД
+		 */
+		private Duration connectionTimeout = Duration.ofSeconds(2);
+	}
+}
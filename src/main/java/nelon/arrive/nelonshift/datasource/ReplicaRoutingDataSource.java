@@ -0,0 +1,154 @@
+package nelon.arrive.nelonshift.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Источник соединений: читающие транзакции - на реплики по кругу, всё остальное - в основную БД.
+ * <p>
+ * Решение принимается при получении физического соединения, поэтому источник обёрнут
+ * в {@code LazyConnectionDataSourceProxy}: к первому запросу транзакция уже помечена read-only.
+ * Чтение идёт в основную БД, если сессия недавно писала ({@link ReadYourWrites}),
+ * если здоровых реплик нет или реплика не выдала соединение - тогда она исключается до следующей проверки.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements DisposableBean {
+	
+	private static final String PRIMARY = "primary";
+	
+	private final HikariDataSource primary;
+	private final List<ReplicaPool> replicas;
+	private final ReadYourWrites readYourWrites;
+	private final Duration healthCheckTimeout;
+	private final MeterRegistry meterRegistry;
+	private final AtomicInteger next = new AtomicInteger();
+	
+	private final Counter nonTransactional;
+	private final Counter writes;
+	private final Counter sticky;
+	private final Counter fallbacks;
+	// Чтения по репликам, в том же порядке, что и replicas
+	private final List<Counter> replicaReads;
+	
+	public ReplicaRoutingDataSource(
+		HikariDataSource primary,
+		List<ReplicaPool> replicas,
+		ReadYourWrites readYourWrites,
+		Duration healthCheckTimeout,
+		MeterRegistry meterRegistry
+	) {
+		this.primary = primary;
+		this.replicas = replicas;
+		this.readYourWrites = readYourWrites;
+		this.healthCheckTimeout = healthCheckTimeout;
+		this.meterRegistry = meterRegistry;
+		this.nonTransactional = routeCounter(PRIMARY, "non-transactional");
+		this.writes = routeCounter(PRIMARY, "write");
+		this.sticky = routeCounter(PRIMARY, "sticky");
+		this.fallbacks = routeCounter(PRIMARY, "fallback");
+		this.replicaReads = replicas.stream().map(replica -> routeCounter(replica.getName(), "read")).toList();
+		replicas.forEach(replica -> replica.check(healthCheckTimeout));
+	}
+	
+	@Override
+	public Connection getConnection() throws SQLException {
+		if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+			nonTransactional.increment();
+			return primary.getConnection();
+		}
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			recordWriteOnCommit();
+			writes.increment();
+			return primary.getConnection();
+		}
+		if (readYourWrites.mustReadFromPrimary()) {
+			sticky.increment();
+			return primary.getConnection();
+		}
+		
+		int start = Math.floorMod(next.getAndIncrement(), Math.max(1, replicas.size()));
+		for (int i = 0; i < replicas.size(); i++) {
+			int index = (start + i) % replicas.size();
+			ReplicaPool replica = replicas.get(index);
+			if (!replica.isHealthy()) {
+				continue;
+			}
+			try {
+				Connection connection = replica.getConnection();
+				replicaReads.get(index).increment();
+				return connection;
+			} catch (SQLException e) {
+				replica.markDown(e.getMessage());
+			}
+		}
+		fallbacks.increment();
+		return primary.getConnection();
+	}
+	
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		throw new SQLFeatureNotSupportedException("Replica routing uses the configured credentials of each pool");
+	}
+	
+	@Scheduled(
+		initialDelayString = "${datasource.replicas.health-check-interval:PT10S}",
+		fixedDelayString = "${datasource.replicas.health-check-interval:PT10S}"
+	)
+	public void checkHealth() {
+		replicas.forEach(replica -> replica.check(healthCheckTimeout));
+		readYourWrites.purge();
+	}
+	
+	public List<ReplicaPool> getReplicas() {
+		return replicas;
+	}
+	
+	@Override
+	public void destroy() {
+		// Пул основной БД - отдельный бин, его закрывает контекст
+		replicas.forEach(ReplicaPool::close);
+	}
+	
+	/**
+	 * Окно чтения из основной БД отсчитывается от фиксации, а не от начала транзакции
+	 */
+	private void recordWriteOnCommit() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()
+			|| TransactionSynchronizationManager.hasResource(this)) {
+			return;
+		}
+		TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				readYourWrites.recordWrite();
+			}
+			
+			@Override
+			public void afterCompletion(int status) {
+				TransactionSynchronizationManager.unbindResourceIfPossible(ReplicaRoutingDataSource.this);
+			}
+		});
+	}
+	
+	private Counter routeCounter(String pool, String reason) {
+		return Counter.builder("nelonshift.datasource.connections")
+			.tag("pool", pool)
+			.tag("reason", reason)
+			.register(meterRegistry);
+	}
+}
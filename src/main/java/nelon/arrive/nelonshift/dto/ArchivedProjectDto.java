@@ -0,0 +1,35 @@
+package nelon.arrive.nelonshift.dto;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import nelon.arrive.nelonshift.enums.ProjectStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class ArchivedProjectDto extends ProjectDto {
+	private LocalDateTime archivedAt;
+	
+	/**
+	 * Для JPQL-проекций
+	 */
+	public ArchivedProjectDto(
+		Long id,
+		String name,
+		ProjectStatus status,
+		LocalDate startDate,
+		LocalDate endDate,
+		LocalDateTime createdAt,
+		LocalDateTime updatedAt,
+		LocalDateTime archivedAt
+	) {
+		super(id, name, status, startDate, endDate, createdAt, updatedAt);
+		this.archivedAt = archivedAt;
+	}
+}
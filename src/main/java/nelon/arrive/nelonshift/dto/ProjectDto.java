@@ -1,11 +1,14 @@
 package nelon.arrive.nelonshift.dto;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
+import nelon.arrive.nelonshift.enums.ProjectStatus;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
 public class ProjectDto {
 	private Long id;
 	private String name;
@@ -14,4 +17,25 @@ public class ProjectDto {
 	private LocalDate endDate;
 	private LocalDateTime createdAt;
 	private LocalDateTime updatedAt;
+	
+	/**
+	 * Для JPQL-проекций ({@code SELECT new ...ProjectDto(...)}): строка читается без сущности
+	 */
+	public ProjectDto(
+		Long id,
+		String name,
+		ProjectStatus status,
+		LocalDate startDate,
+		LocalDate endDate,
+		LocalDateTime createdAt,
+		LocalDateTime updatedAt
+	) {
+		this.id = id;
+		this.name = name;
+		this.status = status != null ? status.name() : null;
+		this.startDate = startDate;
+		this.endDate = endDate;
+		this.createdAt = createdAt;
+		this.updatedAt = updatedAt;
+	}
 }
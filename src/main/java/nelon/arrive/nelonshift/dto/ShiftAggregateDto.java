@@ -0,0 +1,33 @@
+package nelon.arrive.nelonshift.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShiftAggregateDto {
+	private String group;
+	private LocalDate periodStart;
+	private Integer shiftCount;
+	private Long hours;
+	private Long overtimeHours;
+	private BigDecimal earnings;
+	private BigDecimal overtimePay;
+	private BigDecimal perDiem;
+	
+	// Расчётные значения
+	private BigDecimal averageHourlyRate;
+	private BigDecimal overtimeHoursShare;
+	private BigDecimal perDiemShare;
+	
+	// Скользящее среднее по последним rollingWindow периодам (только WEEK/MONTH)
+	private BigDecimal rollingAverageEarnings;
+	private BigDecimal rollingAverageHours;
+}
@@ -1,12 +1,19 @@
 package nelon.arrive.nelonshift.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalTime;
 
+/**
+ * Полный конструктор - для JPQL-проекций, порядок аргументов совпадает с порядком полей
+ */
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class ShiftDto {
 	private Long id;
 	private LocalDate date;
@@ -1,14 +1,27 @@
 package nelon.arrive.nelonshift.dto;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
 @Data
+@NoArgsConstructor
 public class UserDto {
 	private UUID id;
 	private String name;
 	private String email;
 	private List<ProjectDto> projects;
+	
+	/**
+	 * Для JPQL-проекций: без пароля и без коллекции проектов, её заполняет сервис
+	 */
+	public UserDto(UUID id, String name, String email) {
+		this.id = id;
+		this.name = name;
+		this.email = email;
+		this.projects = new ArrayList<>();
+	}
 }
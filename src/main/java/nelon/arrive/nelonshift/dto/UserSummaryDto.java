@@ -0,0 +1,28 @@
+package nelon.arrive.nelonshift.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Строка списка пользователей для администрирования; {@code projectCount} - только по запросу
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummaryDto {
+	private UUID id;
+	private String name;
+	private String email;
+	private LocalDateTime createdAt;
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private Long projectCount;
+	
+	public UserSummaryDto(UUID id, String name, String email, LocalDateTime createdAt) {
+		this(id, name, email, createdAt, null);
+	}
+}
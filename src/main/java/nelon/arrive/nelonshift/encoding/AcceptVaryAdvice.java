@@ -0,0 +1,57 @@
+package nelon.arrive.nelonshift.encoding;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Arrays;
+
+/**
+ * {@code Vary: Accept} на всех ответах, записанных Jackson: конвертеры CBOR и Smile
+ * глобальные, формат тела выбирается заголовком Accept на любом эндпоинте.
+ * Без Vary кэш (в том числе приватный кэш браузера для архива) отдал бы JSON-клиенту CBOR.
+ * Ответы 304 получают заголовок в {@code ResourceVersion.notModified}.
+ */
+@RestControllerAdvice
+public class AcceptVaryAdvice implements ResponseBodyAdvice<Object> {
+	
+	@Override
+	public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+		return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+	}
+	
+	@Override
+	public Object beforeBodyWrite(
+		Object body,
+		MethodParameter returnType,
+		MediaType selectedContentType,
+		Class<? extends HttpMessageConverter<?>> selectedConverterType,
+		ServerHttpRequest request,
+		ServerHttpResponse response
+	) {
+		if (response instanceof ServletServerHttpResponse servletResponse) {
+			varyOnAccept(servletResponse.getServletResponse());
+		}
+		return body;
+	}
+	
+	/**
+	 * Добавить {@code Vary: Accept}, если его ещё нет
+	 */
+	public static void varyOnAccept(HttpServletResponse response) {
+		boolean present = response.getHeaders(HttpHeaders.VARY).stream()
+			.flatMap(vary -> Arrays.stream(vary.split(",")))
+			.anyMatch(name -> name.trim().equalsIgnoreCase(HttpHeaders.ACCEPT));
+		if (!present) {
+			response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package nelon.arrive.nelonshift.encoding;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import nelon.arrive.nelonshift.dto.ProjectDto;
+import nelon.arrive.nelonshift.dto.ShiftDto;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Кодирование ответов.
+ * <p>
+ * JSON остаётся форматом по умолчанию; CBOR и Smile выбираются заголовком Accept
+ * и настроены так же, как JSON (даты, фильтр {@code ?fields=}). Бины заменяют
+ * стандартные конвертеры Spring MVC на их же местах - после JSON, поэтому
+ * {@code Accept: *}{@code /*} по-прежнему получает JSON.
+ */
+@Configuration
+public class EncodingConfig {
+	
+	/**
+	 * DTO списков с {@link SparseFieldsets}; без {@code ?fields=} фильтр пропускает все поля
+	 */
+	@Bean
+	public Jackson2ObjectMapperBuilderCustomizer sparseFieldsCustomizer() {
+		return builder -> builder
+			.mixIn(ShiftDto.class, SparseFieldsMixin.class)
+			.mixIn(ProjectDto.class, SparseFieldsMixin.class)
+			.filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+	}
+	
+	@Bean
+	public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+	}
+	
+	@Bean
+	public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+	}
+	
+	@JsonFilter(SparseFields.FILTER_ID)
+	interface SparseFieldsMixin {
+	}
+}
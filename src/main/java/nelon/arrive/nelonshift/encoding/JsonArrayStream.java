@@ -0,0 +1,59 @@
+package nelon.arrive.nelonshift.encoding;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * JSON-массив, который пишется в ответ по одному элементу, без списка в памяти.
+ * <p>
+ * Генератор открывается на первом элементе: ошибка до него (404, 400) обрабатывается
+ * как обычно, ответ ещё не начат. Ошибка посреди записи обрывает уже начатый ответ.
+ */
+public final class JsonArrayStream<T> implements AutoCloseable {
+	
+	private final ObjectWriter writer;
+	private final HttpServletResponse response;
+	private JsonGenerator generator;
+	
+	public JsonArrayStream(ObjectWriter writer, HttpServletResponse response) {
+		// Сброс в сокет по заполнении буфера, а не после каждого элемента
+		this.writer = writer.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		this.response = response;
+	}
+	
+	public void write(T value) {
+		try {
+			if (generator == null) {
+				open();
+			}
+			writer.writeValue(generator, value);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Закрыть массив; без элементов пишется {@code []}
+	 */
+	@Override
+	public void close() throws IOException {
+		if (generator == null) {
+			open();
+		}
+		generator.writeEndArray();
+		generator.close();
+	}
+	
+	private void open() throws IOException {
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		generator = writer.createGenerator(response.getOutputStream(), JsonEncoding.UTF8);
+		generator.writeStartArray();
+	}
+}
@@ -0,0 +1,57 @@
+package nelon.arrive.nelonshift.encoding;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * NDJSON ({@code application/x-ndjson}): один JSON-объект на строку, пишется по одному элементу.
+ * <p>
+ * Как и {@link JsonArrayStream}, генератор открывается на первом элементе,
+ * поэтому ошибка до него обрабатывается как обычно.
+ */
+public final class NdjsonStream<T> implements AutoCloseable {
+	
+	private final ObjectWriter writer;
+	private final HttpServletResponse response;
+	private JsonGenerator generator;
+	
+	public NdjsonStream(ObjectWriter writer, HttpServletResponse response) {
+		this.writer = writer.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+			.without(SerializationFeature.INDENT_OUTPUT);
+		this.response = response;
+	}
+	
+	public void write(T value) {
+		try {
+			if (generator == null) {
+				open();
+			}
+			writer.writeValue(generator, value);
+			generator.writeRaw('\n');
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	@Override
+	public void close() throws IOException {
+		if (generator == null) {
+			open();
+		}
+		generator.close();
+	}
+	
+	private void open() throws IOException {
+		response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+		generator = writer.createGenerator(response.getOutputStream(), JsonEncoding.UTF8);
+		// Разделитель между корневыми значениями - перевод строки из write, а не пробел Jackson
+		generator.setRootValueSeparator(null);
+	}
+}
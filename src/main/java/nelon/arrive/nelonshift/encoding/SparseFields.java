@@ -0,0 +1,77 @@
+package nelon.arrive.nelonshift.encoding;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import lombok.RequiredArgsConstructor;
+import nelon.arrive.nelonshift.exception.BadRequestException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Разбор {@code ?fields=} и Jackson-фильтр для него.
+ * Поля проверяются по свойствам DTO, неизвестное поле - 400.
+ */
+@Component
+@RequiredArgsConstructor
+public class SparseFields {
+	
+	public static final String FILTER_ID = "sparseFields";
+	public static final String PARAM = "fields";
+	
+	private final ObjectMapper objectMapper;
+	private final Map<Class<?>, Set<String>> knownFields = new ConcurrentHashMap<>();
+	
+	/**
+	 * Фильтр для значения параметра; пусто, если параметр не задан
+	 */
+	public Optional<FilterProvider> filters(Class<?> type, String fields) {
+		if (!StringUtils.hasText(fields)) {
+			return Optional.empty();
+		}
+		
+		Set<String> requested = Arrays.stream(fields.split(","))
+			.map(String::trim)
+			.filter(field -> !field.isEmpty())
+			.collect(Collectors.toCollection(LinkedHashSet::new));
+		
+		Set<String> known = knownFields.computeIfAbsent(type, this::propertiesOf);
+		Set<String> unknown = requested.stream()
+			.filter(field -> !known.contains(field))
+			.collect(Collectors.toCollection(LinkedHashSet::new));
+		if (!unknown.isEmpty()) {
+			throw new BadRequestException("Unknown fields " + unknown + ", available: " + known);
+		}
+		
+		return Optional.of(new SimpleFilterProvider()
+			.addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(requested)));
+	}
+	
+	/**
+	 * Writer элементов типа с применённым {@code ?fields=}
+	 */
+	public ObjectWriter writer(Class<?> type, String fields) {
+		ObjectWriter writer = objectMapper.writerFor(type);
+		return filters(type, fields).map(writer::with).orElse(writer);
+	}
+	
+	private Set<String> propertiesOf(Class<?> type) {
+		return objectMapper.getSerializationConfig()
+			.introspect(objectMapper.constructType(type))
+			.findProperties().stream()
+			.filter(BeanPropertyDefinition::couldSerialize)
+			.map(BeanPropertyDefinition::getName)
+			.collect(Collectors.toCollection(LinkedHashSet::new));
+	}
+}
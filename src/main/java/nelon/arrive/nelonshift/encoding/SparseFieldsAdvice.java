@@ -0,0 +1,43 @@
+package nelon.arrive.nelonshift.encoding;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+/**
+ * Применяет {@code ?fields=} к ответам эндпоинтов с {@link SparseFieldsets}.
+ * <p>
+ * Поля отбрасываются Jackson-фильтром при записи (JSON, CBOR и Smile одинаково),
+ * промежуточного дерева не строится. {@code Vary: Accept} выставляет {@link AcceptVaryAdvice}.
+ */
+@RestControllerAdvice
+@RequiredArgsConstructor
+public class SparseFieldsAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+	
+	private final SparseFields sparseFields;
+	
+	@Override
+	public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+		return super.supports(returnType, converterType) && returnType.hasMethodAnnotation(SparseFieldsets.class);
+	}
+	
+	@Override
+	protected void beforeBodyWriteInternal(
+		MappingJacksonValue bodyContainer,
+		MediaType contentType,
+		MethodParameter returnType,
+		ServerHttpRequest request,
+		ServerHttpResponse response
+	) {
+		String fields = ((ServletServerHttpRequest) request).getServletRequest().getParameter(SparseFields.PARAM);
+		Class<?> type = returnType.getMethodAnnotation(SparseFieldsets.class).value();
+		sparseFields.filters(type, fields).ifPresent(bodyContainer::setFilters);
+	}
+}
@@ -0,0 +1,20 @@
+package nelon.arrive.nelonshift.encoding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Эндпоинт поддерживает {@code ?fields=id,date,basePay}: у элементов типа {@link #value()}
+ * в ответ попадают только перечисленные поля. Без параметра отдаются все поля.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SparseFieldsets {
+	
+	/**
+	 * DTO, поля которого можно выбирать
+	 */
+	Class<?> value();
+}
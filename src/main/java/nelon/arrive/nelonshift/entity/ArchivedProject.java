@@ -0,0 +1,77 @@
+package nelon.arrive.nelonshift.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import nelon.arrive.nelonshift.dto.ProjectStatsDto;
+import nelon.arrive.nelonshift.enums.ProjectStatus;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Завершённый проект, перенесённый из {@code projects} в архив.
+ * Id сохраняется прежним; итоговая статистика посчитана при переносе и хранится JSON.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "archived_projects", indexes = @Index(name = "idx_archived_projects_user_id", columnList = "user_id"))
+public class ArchivedProject {
+	
+	@Id
+	private Long id;
+	
+	@Column(nullable = false)
+	private String name;
+	
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false)
+	private ProjectStatus status;
+	
+	@Column(name = "start_date")
+	private LocalDate startDate;
+	
+	@Column(name = "end_date")
+	private LocalDate endDate;
+	
+	@Column(name = "target_shift_count")
+	private Integer targetShiftCount;
+	
+	@Column(name = "user_id", nullable = false)
+	private UUID userId;
+	
+	@JdbcTypeCode(SqlTypes.JSON)
+	@Column(name = "stats")
+	private ProjectStatsDto stats;
+	
+	@Column(name = "created_at", nullable = false)
+	private LocalDateTime createdAt;
+	
+	@Column(name = "updated_at", nullable = false)
+	private LocalDateTime updatedAt;
+	
+	@Column(name = "archived_at", nullable = false)
+	private LocalDateTime archivedAt;
+	
+	public static ArchivedProject of(Project project, ProjectStatsDto stats) {
+		ArchivedProject archived = new ArchivedProject();
+		archived.setId(project.getId());
+		archived.setName(project.getName());
+		archived.setStatus(project.getStatus());
+		archived.setStartDate(project.getStartDate());
+		archived.setEndDate(project.getEndDate());
+		archived.setTargetShiftCount(project.getTargetShiftCount());
+		archived.setUserId(project.getUser().getId());
+		archived.setStats(stats);
+		archived.setCreatedAt(project.getCreatedAt());
+		archived.setUpdatedAt(project.getUpdatedAt());
+		archived.setArchivedAt(LocalDateTime.now());
+		return archived;
+	}
+}
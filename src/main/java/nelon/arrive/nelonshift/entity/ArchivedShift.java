@@ -0,0 +1,61 @@
+package nelon.arrive.nelonshift.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Смена архивного проекта; строки копируются из {@code shifts} одним INSERT ... SELECT
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "archived_shifts", indexes = @Index(name = "idx_archived_shifts_project_id", columnList = "project_id"))
+public class ArchivedShift {
+	
+	@Id
+	private Long id;
+	
+	@Column(name = "project_id", nullable = false)
+	private Long projectId;
+	
+	@Column(nullable = false)
+	private LocalDate date;
+	
+	@Column(name = "start_time")
+	private LocalTime startTime;
+	
+	@Column(name = "end_time")
+	private LocalTime endTime;
+	
+	@Column(nullable = false)
+	private Integer hours;
+	
+	@Column(name = "base_pay", precision = 10, scale = 2)
+	private BigDecimal basePay;
+	
+	@Column(name = "overtime_hours")
+	private Integer overtimeHours;
+	
+	@Column(name = "overtime_pay", precision = 10, scale = 2)
+	private BigDecimal overtimePay;
+	
+	@Column(name = "per_diem", precision = 10, scale = 2)
+	private BigDecimal perDiem;
+	
+	@Column(nullable = false)
+	private BigDecimal compensation;
+	
+	@Column(name = "created_at", nullable = false)
+	private LocalDateTime createdAt;
+	
+	@Column(name = "updated_at", nullable = false)
+	private LocalDateTime updatedAt;
+}
@@ -17,7 +17,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "projects")
+@Table(name = "projects", indexes = @Index(name = "idx_projects_user_id", columnList = "user_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -52,6 +52,12 @@ public class Project {
 	@JoinColumn(name = "user_id", nullable = false)
 	private User user;
 	
+	/**
+	 * Последний принятый fencing-токен блокировки проекта (см. {@code DistributedLocks})
+	 */
+	@Column(name = "lock_fence")
+	private Long lockFence;
+	
 	@CreationTimestamp
 	@Column(name = "created_at", nullable = false, updatable = false)
 	private LocalDateTime createdAt;
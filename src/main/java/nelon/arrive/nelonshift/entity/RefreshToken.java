@@ -1,32 +0,0 @@
-package nelon.arrive.nelonshift.entity;
-
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-import org.springframework.data.annotation.Id;
-import org.springframework.data.redis.core.RedisHash;
-import org.springframework.data.redis.core.TimeToLive;
-import org.springframework.data.redis.core.index.Indexed;
-
-import java.time.Instant;
-import java.util.UUID;
-
-@RedisHash("refreshToken")
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-@Builder
-public class RefreshToken {
-	@Id
-	private String token;
-	
-	@Indexed
-	private UUID userId;
-	
-	private Instant expireAt;
-	
-	@TimeToLive
-	private Long ttl;
-	
-}
@@ -7,6 +7,7 @@ import jakarta.validation.constraints.Min;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import nelon.arrive.nelonshift.util.MoneyCents;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -15,6 +16,11 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 
+/**
+ * Смена. В PostgreSQL после миграции {@code db/postgres/shifts-partitioning.sql} таблица
+ * секционирована по месяцам {@code date} и её первичный ключ - (id, date),
+ * см. {@code ShiftPartitionMaintenance}
+ */
 @Getter
 @Setter
 @NoArgsConstructor
@@ -22,6 +28,10 @@ import java.time.LocalTime;
 @Table(name = "shifts")
 public class Shift {
 	
+	/**
+	 * В секционированной таблице уникальность id обеспечивает только последовательность:
+	 * первичный ключ (id, date) не запретит одинаковый id с другой датой
+	 */
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private Long id;
@@ -73,10 +83,15 @@ public class Shift {
 	private LocalDateTime updatedAt;
 	
 	public BigDecimal getTotalPay() {
-		BigDecimal total = BigDecimal.ZERO;
-		if (basePay != null) total = total.add(basePay);
-		if (overtimePay != null) total = total.add(overtimePay);
-		if (perDiem != null) total = total.add(perDiem);
-		return total;
+		return MoneyCents.toBigDecimal(getTotalPayCents());
+	}
+	
+	/**
+	 * Итоговая оплата смены в копейках (смена + переработки + суточные)
+	 */
+	public long getTotalPayCents() {
+		long total = MoneyCents.toCents(basePay);
+		total = Math.addExact(total, MoneyCents.toCents(overtimePay));
+		return Math.addExact(total, MoneyCents.toCents(perDiem));
 	}
 }
@@ -33,6 +33,7 @@ public class User {
 	private String name;
 	
 	@OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
+	@Builder.Default
 	private List<Project> projects = new ArrayList<>();
 	
 	@CreationTimestamp
@@ -0,0 +1,9 @@
+package nelon.arrive.nelonshift.enums;
+
+public enum ShiftGroupBy {
+	NONE,
+	PROJECT,
+	WEEK,
+	MONTH,
+	WEEKDAY
+}
@@ -11,6 +11,7 @@ public class ErrorResponse {
 	private String message;
 	private LocalDateTime timestamp;
 	private Map<String, String> errors;
+	private String traceId;
 	
 	public ErrorResponse(int status, String message, LocalDateTime timestamp) {
 		this.status = status;
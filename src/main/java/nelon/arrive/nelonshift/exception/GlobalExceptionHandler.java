@@ -1,5 +1,6 @@
 package nelon.arrive.nelonshift.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -75,6 +76,18 @@ public class GlobalExceptionHandler {
 		return new ResponseEntity<>(error, HttpStatus.FORBIDDEN);
 	}
 	
+	@ExceptionHandler(ServiceOverloadedException.class)
+	public ResponseEntity<ErrorResponse> handleServiceOverloaded(ServiceOverloadedException ex) {
+		ErrorResponse error = new ErrorResponse(
+			HttpStatus.SERVICE_UNAVAILABLE.value(),
+			ex.getMessage(),
+			LocalDateTime.now()
+		);
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+			.header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+			.body(error);
+	}
+	
 	@ExceptionHandler(MethodArgumentNotValidException.class)
 	public ResponseEntity<ErrorResponse> handleValidationErrors(MethodArgumentNotValidException ex) {
 		Map<String, String> errors = new HashMap<>();
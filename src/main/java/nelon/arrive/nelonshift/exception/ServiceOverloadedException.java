@@ -0,0 +1,18 @@
+package nelon.arrive.nelonshift.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Запрос отклонён из-за перегрузки (очередь исчерпана), клиент может повторить позже
+ */
+@Getter
+public class ServiceOverloadedException extends ApiException {
+	
+	private final long retryAfterSeconds;
+	
+	public ServiceOverloadedException(String message, long retryAfterSeconds) {
+		super(HttpStatus.SERVICE_UNAVAILABLE, message);
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+}
@@ -0,0 +1,50 @@
+package nelon.arrive.nelonshift.exception;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Добавляет trace id текущего запроса в каждый {@link ErrorResponse},
+ * чтобы ошибку с клиента можно было найти в трассировке
+ */
+@RestControllerAdvice
+@RequiredArgsConstructor
+public class TraceIdResponseAdvice implements ResponseBodyAdvice<Object> {
+	
+	private final Tracer tracer;
+	
+	@Override
+	public boolean supports(
+		@NonNull MethodParameter returnType,
+		@NonNull Class<? extends HttpMessageConverter<?>> converterType
+	) {
+		return true;
+	}
+	
+	@Override
+	public Object beforeBodyWrite(
+		Object body,
+		@NonNull MethodParameter returnType,
+		@NonNull MediaType selectedContentType,
+		@NonNull Class<? extends HttpMessageConverter<?>> selectedConverterType,
+		@NonNull ServerHttpRequest request,
+		@NonNull ServerHttpResponse response
+	) {
+		if (body instanceof ErrorResponse error && error.getTraceId() == null) {
+			Span span = tracer.currentSpan();
+			if (span != null) {
+				error.setTraceId(span.context().traceId());
+			}
+		}
+		return body;
+	}
+}
@@ -3,12 +3,18 @@ package nelon.arrive.nelonshift.mappers;
 import nelon.arrive.nelonshift.dto.ProjectDto;
 import nelon.arrive.nelonshift.entity.Project;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface ProjectMapper {
 	
 	ProjectDto toDto(Project project);
 	
+	// Связи и служебные поля сущности в DTO не передаются
+	@Mapping(target = "targetShiftCount", ignore = true)
+	@Mapping(target = "shifts", ignore = true)
+	@Mapping(target = "user", ignore = true)
+	@Mapping(target = "lockFence", ignore = true)
 	Project toEntity(ProjectDto projectDto);
 	
 }
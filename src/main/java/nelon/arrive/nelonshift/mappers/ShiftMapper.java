@@ -3,6 +3,7 @@ package nelon.arrive.nelonshift.mappers;
 import nelon.arrive.nelonshift.dto.ShiftDto;
 import nelon.arrive.nelonshift.entity.Shift;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import java.util.List;
 
@@ -11,6 +12,9 @@ public interface ShiftMapper {
 	
 	ShiftDto toDto(Shift shift);
 	
+	@Mapping(target = "project", ignore = true)
+	@Mapping(target = "createdAt", ignore = true)
+	@Mapping(target = "updatedAt", ignore = true)
 	Shift toEntity(ShiftDto shiftDto);
 	
 	List<ShiftDto> toDtoList(List<Shift> shifts);
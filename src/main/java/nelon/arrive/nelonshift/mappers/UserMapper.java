@@ -3,14 +3,17 @@ package nelon.arrive.nelonshift.mappers;
 import nelon.arrive.nelonshift.dto.UserDto;
 import nelon.arrive.nelonshift.entity.User;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import java.util.List;
 
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", uses = ProjectMapper.class)
 public interface UserMapper {
 	
 	UserDto toDto(User user);
 	
+	@Mapping(target = "password", ignore = true)
+	@Mapping(target = "createdAt", ignore = true)
 	User toEntity(UserDto userDto);
 	
 	List<UserDto> toDtoList(List<User> users);
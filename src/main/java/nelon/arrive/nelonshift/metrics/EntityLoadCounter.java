@@ -0,0 +1,30 @@
+package nelon.arrive.nelonshift.metrics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Передаёт в {@link QueryCounter} каждую сущность, загруженную Hibernate.
+ * Так видно, сколько строк было превращено в сущности (ленивые коллекции, N+1).
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityLoadCounter {
+	
+	private final EntityManagerFactory entityManagerFactory;
+	private final QueryCounter queryCounter;
+	
+	@PostConstruct
+	void register() {
+		entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+			.getServiceRegistry()
+			.requireService(EventListenerRegistry.class)
+			.appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> queryCounter.onEntityLoaded());
+	}
+}
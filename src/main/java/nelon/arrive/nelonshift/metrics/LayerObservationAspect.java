@@ -0,0 +1,90 @@
+package nelon.arrive.nelonshift.metrics;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Наблюдения (Micrometer Observation) для слоёв приложения:
+ * <ul>
+ *     <li>{@value #CONTROLLER} - методы {@code @RestController}</li>
+ *     <li>{@value #SERVICE} - методы {@code I*Service} и экспорт в Excel</li>
+ *     <li>{@value #REPOSITORY} - вызовы репозиториев, тег store: jpa или redis</li>
+ * </ul>
+ * Каждое наблюдение даёт таймер с тегами class, method, error и span трассировки
+ * с именем {@code Class.method}.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class LayerObservationAspect {
+	
+	public static final String CONTROLLER = "nelonshift.controller";
+	public static final String SERVICE = "nelonshift.service";
+	public static final String REPOSITORY = "nelonshift.repository";
+	
+	private static final String APP_PACKAGE = "nelon.arrive.nelonshift";
+	
+	private final ObservationRegistry observationRegistry;
+	
+	private final Map<Class<?>, Class<?>> repositoryInterfaces = new ConcurrentHashMap<>();
+	
+	@Around("within(@org.springframework.web.bind.annotation.RestController nelon.arrive.nelonshift..*)")
+	public Object observeController(ProceedingJoinPoint joinPoint) throws Throwable {
+		return observe(CONTROLLER, joinPoint.getSignature().getDeclaringType(), null, joinPoint);
+	}
+	
+	@Around("execution(public * nelon.arrive.nelonshift.services.interfaces.I*Service+.*(..))"
+		+ " || execution(public * nelon.arrive.nelonshift.services.ProjectExcelService.*(..))")
+	public Object observeService(ProceedingJoinPoint joinPoint) throws Throwable {
+		return observe(SERVICE, joinPoint.getSignature().getDeclaringType(), null, joinPoint);
+	}
+	
+	@Around("execution(public * nelon.arrive.nelonshift.repository.*Repository+.*(..))")
+	public Object observeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+		// Унаследованные методы (save, findById) объявлены в CrudRepository, берём интерфейс приложения
+		Class<?> repository = repositoryInterfaces.computeIfAbsent(joinPoint.getThis().getClass(),
+			proxy -> findRepositoryInterface(joinPoint.getThis(), joinPoint.getSignature().getDeclaringType()));
+		String store = JpaRepository.class.isAssignableFrom(repository) ? "jpa" : "redis";
+		return observe(REPOSITORY, repository, store, joinPoint);
+	}
+	
+	private Object observe(String name, Class<?> type, String store, ProceedingJoinPoint joinPoint) throws Throwable {
+		String method = joinPoint.getSignature().getName();
+		Observation observation = Observation.createNotStarted(name, observationRegistry)
+			.contextualName(type.getSimpleName() + "." + method)
+			.lowCardinalityKeyValue("class", type.getSimpleName())
+			.lowCardinalityKeyValue("method", method);
+		if (store != null) {
+			observation.lowCardinalityKeyValue("store", store);
+		}
+		
+		observation.start();
+		try (Observation.Scope scope = observation.openScope()) {
+			return joinPoint.proceed();
+		} catch (Throwable e) {
+			observation.error(e);
+			throw e;
+		} finally {
+			observation.stop();
+		}
+	}
+	
+	private static Class<?> findRepositoryInterface(Object proxy, Class<?> fallback) {
+		for (Class<?> type : AopProxyUtils.proxiedUserInterfaces(proxy)) {
+			if (type.getName().startsWith(APP_PACKAGE)) {
+				return type;
+			}
+		}
+		return fallback;
+	}
+}
@@ -0,0 +1,80 @@
+package nelon.arrive.nelonshift.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Настройка метрик.
+ * <p>
+ * Пулы соединений Hikari ({@code hikaricp.connections.*}) и команды Lettuce
+ * ({@code lettuce.command.*}) Spring Boot регистрирует сам при наличии Actuator.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+	
+	/**
+	 * Методы, для которых публикуются перцентили и гистограмма
+	 */
+	private static final Set<String> PERCENTILE_METHODS = Set.of(
+		"getDashboardStats",
+		"getProjectStats",
+		"exportProjectToExcel"
+	);
+	
+	@Bean
+	public HibernatePropertiesCustomizer queryCounterCustomizer(QueryCounter queryCounter) {
+		return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, queryCounter);
+	}
+	
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(new QueryBudgetInterceptor());
+	}
+	
+	/**
+	 * Грубые корзины для остальных методов сервисов: в Prometheus у одного имени метрики
+	 * один тип, и таймер без корзин (summary) рядом с гистограммой ломает выгрузку
+	 */
+	private static final double[] SERVICE_BUCKETS = {
+		millis(5), millis(25), millis(100), millis(250), millis(1000), millis(5000)
+	};
+	
+	@Bean
+	public MeterFilter servicePercentilesFilter() {
+		return new MeterFilter() {
+			@Override
+			public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+				if (!LayerObservationAspect.SERVICE.equals(id.getName())) {
+					return config;
+				}
+				if (!PERCENTILE_METHODS.contains(id.getTag("method"))) {
+					return DistributionStatisticConfig.builder()
+						.serviceLevelObjectives(SERVICE_BUCKETS)
+						.build()
+						.merge(config);
+				}
+				return DistributionStatisticConfig.builder()
+					.percentiles(0.5, 0.9, 0.95, 0.99)
+					.percentilesHistogram(true)
+					.minimumExpectedValue((double) Duration.ofMillis(1).toNanos())
+					.maximumExpectedValue((double) Duration.ofSeconds(30).toNanos())
+					.build()
+					.merge(config);
+			}
+		};
+	}
+	
+	private static double millis(long millis) {
+		return (double) Duration.ofMillis(millis).toNanos();
+	}
+}
@@ -0,0 +1,22 @@
+package nelon.arrive.nelonshift.metrics;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Бюджет запросов к БД для обработчика или всего контроллера.
+ * Отрицательное значение - использовать бюджет по умолчанию
+ * ({@code metrics.query-budget.*}).
+ */
+@Documented
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+	
+	int statements() default -1;
+	
+	int entities() default -1;
+}
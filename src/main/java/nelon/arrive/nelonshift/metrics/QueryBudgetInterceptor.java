@@ -0,0 +1,35 @@
+package nelon.arrive.nelonshift.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Находит {@link QueryBudget} обработчика и кладёт его в атрибут запроса
+ * для {@link RequestMetricsFilter}
+ */
+public class QueryBudgetInterceptor implements HandlerInterceptor {
+	
+	static final String BUDGET_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".BUDGET";
+	
+	@Override
+	public boolean preHandle(
+		@NonNull HttpServletRequest request,
+		@NonNull HttpServletResponse response,
+		@NonNull Object handler
+	) {
+		if (handler instanceof HandlerMethod method) {
+			QueryBudget budget = AnnotatedElementUtils.findMergedAnnotation(method.getMethod(), QueryBudget.class);
+			if (budget == null) {
+				budget = AnnotatedElementUtils.findMergedAnnotation(method.getBeanType(), QueryBudget.class);
+			}
+			if (budget != null) {
+				request.setAttribute(BUDGET_ATTRIBUTE, budget);
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,80 @@
+package nelon.arrive.nelonshift.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Считает SQL-запросы и загруженные сущности в текущем потоке.
+ * <p>
+ * Запросы приходят через {@link StatementInspector} (регистрируется в {@link MetricsConfig}),
+ * загрузки сущностей - от {@link EntityLoadCounter}. Подсчёт на HTTP-запрос
+ * начинает и заканчивает {@link RequestMetricsFilter}.
+ */
+@Component
+public class QueryCounter implements StatementInspector {
+	
+	/**
+	 * Атрибут запроса с итоговым {@link QueryCount}, доступен после обработки (например, в тестах)
+	 */
+	public static final String REQUEST_ATTRIBUTE = QueryCounter.class.getName() + ".COUNT";
+	
+	private static final ThreadLocal<int[]> CURRENT = new ThreadLocal<>();
+	
+	private final Counter statements;
+	
+	public QueryCounter(MeterRegistry meterRegistry) {
+		this.statements = Counter.builder("nelonshift.db.statements")
+			.description("SQL statements issued through Hibernate")
+			.register(meterRegistry);
+	}
+	
+	/**
+	 * @param statements SQL-запросы, отправленные в БД
+	 * @param entities   сущности, собранные Hibernate из строк результата
+	 */
+	public record QueryCount(int statements, int entities) {
+	}
+	
+	@Override
+	public String inspect(String sql) {
+		statements.increment();
+		int[] current = CURRENT.get();
+		if (current != null) {
+			current[0]++;
+		}
+		return sql;
+	}
+	
+	void onEntityLoaded() {
+		int[] current = CURRENT.get();
+		if (current != null) {
+			current[1]++;
+		}
+	}
+	
+	/**
+	 * Начать подсчёт для текущего потока
+	 */
+	public void begin() {
+		CURRENT.set(new int[2]);
+	}
+	
+	/**
+	 * Счётчики с момента {@link #begin()}, нули если подсчёт не начат
+	 */
+	public QueryCount current() {
+		int[] current = CURRENT.get();
+		return current != null ? new QueryCount(current[0], current[1]) : new QueryCount(0, 0);
+	}
+	
+	/**
+	 * Закончить подсчёт и вернуть итог
+	 */
+	public QueryCount end() {
+		QueryCount count = current();
+		CURRENT.remove();
+		return count;
+	}
+}
@@ -0,0 +1,104 @@
+package nelon.arrive.nelonshift.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Количество SQL-запросов и загруженных сущностей на один HTTP-запрос,
+ * с разбивкой по шаблону URI, и проверка бюджета запросов.
+ * <p>
+ * Стоит раньше фильтров безопасности, чтобы учесть загрузку пользователя по токену.
+ * Превышение бюджета ({@link QueryBudget} или {@code metrics.query-budget.*})
+ * пишется в лог и в счётчик {@code nelonshift.http.db.budget.exceeded}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@Slf4j
+public class RequestMetricsFilter extends OncePerRequestFilter {
+	
+	private final QueryCounter queryCounter;
+	private final MeterRegistry meterRegistry;
+	private final int defaultStatementBudget;
+	private final int defaultEntityBudget;
+	
+	public RequestMetricsFilter(
+		QueryCounter queryCounter,
+		MeterRegistry meterRegistry,
+		@Value("${metrics.query-budget.statements:20}") int defaultStatementBudget,
+		@Value("${metrics.query-budget.entities:2000}") int defaultEntityBudget
+	) {
+		this.queryCounter = queryCounter;
+		this.meterRegistry = meterRegistry;
+		this.defaultStatementBudget = defaultStatementBudget;
+		this.defaultEntityBudget = defaultEntityBudget;
+	}
+	
+	@Override
+	protected void doFilterInternal(
+		@NonNull HttpServletRequest request,
+		@NonNull HttpServletResponse response,
+		@NonNull FilterChain filterChain
+	) throws ServletException, IOException {
+		queryCounter.begin();
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			QueryCounter.QueryCount count = queryCounter.end();
+			request.setAttribute(QueryCounter.REQUEST_ATTRIBUTE, count);
+			record(request, count);
+		}
+	}
+	
+	@Override
+	protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+		return request.getRequestURI().startsWith("/actuator");
+	}
+	
+	private void record(HttpServletRequest request, QueryCounter.QueryCount count) {
+		Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+		
+		DistributionSummary.builder("nelonshift.http.db.statements")
+			.description("SQL statements per HTTP request")
+			.tag("method", request.getMethod())
+			.tag("uri", uri)
+			.register(meterRegistry)
+			.record(count.statements());
+		DistributionSummary.builder("nelonshift.http.db.entities")
+			.description("Entities loaded per HTTP request")
+			.tag("method", request.getMethod())
+			.tag("uri", uri)
+			.register(meterRegistry)
+			.record(count.entities());
+		
+		QueryBudget budget = (QueryBudget) request.getAttribute(QueryBudgetInterceptor.BUDGET_ATTRIBUTE);
+		int statementBudget = budget != null && budget.statements() >= 0 ? budget.statements() : defaultStatementBudget;
+		int entityBudget = budget != null && budget.entities() >= 0 ? budget.entities() : defaultEntityBudget;
+		
+		if (count.statements() > statementBudget || count.entities() > entityBudget) {
+			log.warn("Query budget exceeded: {} {} issued {} statements (budget {}) and loaded {} entities (budget {})",
+				request.getMethod(), uri, count.statements(), statementBudget, count.entities(), entityBudget);
+			Counter.builder("nelonshift.http.db.budget.exceeded")
+				.description("HTTP requests over their query budget")
+				.tag("method", request.getMethod())
+				.tag("uri", uri)
+				.register(meterRegistry)
+				.increment();
+		}
+	}
+}
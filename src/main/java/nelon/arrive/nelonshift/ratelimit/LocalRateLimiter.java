@@ -0,0 +1,103 @@
+package nelon.arrive.nelonshift.ratelimit;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Корзины в памяти процесса. Ограничение действует на каждый экземпляр отдельно.
+ * <p>
+ * Корзина пополняется лениво - при обращении, по прошедшему времени,
+ * поэтому фоновых задач нет. Корзин не больше {@code maxBuckets}:
+ * они разбиты по хешу ключа на сегменты со своей блокировкой и своей долей предела,
+ * и новая корзина вытесняет из сегмента ту, к которой дольше всего не обращались.
+ * LRU приблизительный (в пределах сегмента), зато запросы с разными ключами
+ * почти не ждут друг друга.
+ */
+public class LocalRateLimiter implements RateLimiter {
+	
+	private static final int DEFAULT_SEGMENTS = 16;
+	
+	private final Segment[] segments;
+	
+	public LocalRateLimiter(int maxBuckets) {
+		this(maxBuckets, Math.max(1, Math.min(DEFAULT_SEGMENTS, maxBuckets)));
+	}
+	
+	LocalRateLimiter(int maxBuckets, int segmentCount) {
+		this.segments = new Segment[segmentCount];
+		for (int i = 0; i < segmentCount; i++) {
+			// Остаток предела достаётся первым сегментам: в сумме ровно maxBuckets
+			segments[i] = new Segment(maxBuckets / segmentCount + (i < maxBuckets % segmentCount ? 1 : 0));
+		}
+	}
+	
+	@Override
+	public RateLimitResult tryAcquire(String key, RateLimitRule rule) {
+		long now = System.nanoTime();
+		Segment segment = segments[Math.floorMod(key.hashCode(), segments.length)];
+		Bucket bucket;
+		synchronized (segment) {
+			bucket = segment.computeIfAbsent(key, k -> new Bucket(rule.capacity(), now));
+		}
+		return bucket.tryAcquire(rule, now);
+	}
+	
+	int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+	
+	/**
+	 * accessOrder: порядок обхода - от давно использованной корзины к последней
+	 */
+	private static final class Segment extends LinkedHashMap<String, Bucket> {
+		private final int maxBuckets;
+		
+		private Segment(int maxBuckets) {
+			super(16, 0.75f, true);
+			this.maxBuckets = maxBuckets;
+		}
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+			return size() > maxBuckets;
+		}
+	}
+	
+	private static final class Bucket {
+		private double tokens;
+		private long lastRefillNanos;
+		private double capacity;
+		private double ratePerNano;
+		
+		private Bucket(long capacity, long now) {
+			this.tokens = capacity;
+			this.lastRefillNanos = now;
+		}
+		
+		private synchronized RateLimitResult tryAcquire(RateLimitRule rule, long now) {
+			capacity = rule.capacity();
+			ratePerNano = rule.refillRatePerNano();
+			refill(now);
+			if (tokens >= 1) {
+				tokens -= 1;
+				return new RateLimitResult(true, (long) tokens, 0);
+			}
+			long waitNanos = (long) Math.ceil((1 - tokens) / ratePerNano);
+			return new RateLimitResult(false, 0, Math.max(1, waitNanos / 1_000_000));
+		}
+		
+		private void refill(long now) {
+			long elapsed = now - lastRefillNanos;
+			if (elapsed > 0) {
+				tokens = Math.min(capacity, tokens + elapsed * ratePerNano);
+				lastRefillNanos = now;
+			}
+		}
+	}
+}
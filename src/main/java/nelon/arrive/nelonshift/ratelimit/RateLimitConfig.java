@@ -0,0 +1,56 @@
+package nelon.arrive.nelonshift.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@Slf4j
+public class RateLimitConfig {
+	
+	@Bean
+	public RateLimiter rateLimiter(
+		RateLimitProperties properties,
+		StringRedisTemplate redisTemplate,
+		MeterRegistry meterRegistry
+	) {
+		LocalRateLimiter local = new LocalRateLimiter(properties.getMaxLocalBuckets());
+		if (properties.getMode() == RateLimitProperties.Mode.REDIS) {
+			return new RedisRateLimiter(redisTemplate, local, meterRegistry);
+		}
+		return local;
+	}
+	
+	@Bean
+	public RateLimitFilter rateLimitFilter(
+		RateLimitProperties properties,
+		RateLimiter rateLimiter,
+		ObjectMapper objectMapper,
+		MeterRegistry meterRegistry
+	) {
+		List<RateLimitRule> rules = properties.isEnabled()
+			? properties.getRules().stream().map(RateLimitRule::of).toList()
+			: List.of();
+		log.info("Rate limiting: mode={}, rules={}", properties.getMode(),
+			rules.stream().map(RateLimitRule::name).toList());
+		return new RateLimitFilter(rateLimiter, rules, objectMapper, meterRegistry);
+	}
+	
+	/**
+	 * Фильтр вызывается из цепочки безопасности, в общей цепочке сервлета он не нужен
+	 */
+	@Bean
+	public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter filter) {
+		FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+		registration.setEnabled(false);
+		return registration;
+	}
+}
@@ -0,0 +1,126 @@
+package nelon.arrive.nelonshift.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import nelon.arrive.nelonshift.exception.ErrorResponse;
+import nelon.arrive.nelonshift.security.user.CustomUserDetails;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ограничение частоты запросов по правилам {@code rate-limit.rules}.
+ * <p>
+ * Стоит в цепочке безопасности после {@code AuthTokenFilter}, чтобы правила
+ * с ключом PRINCIPAL видели пользователя. Запрос проверяется всеми подходящими
+ * правилами; при отказе возвращается 429 с заголовком {@code Retry-After}.
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+	
+	static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+	
+	private final RateLimiter rateLimiter;
+	private final List<RateLimitRule> rules;
+	private final ObjectMapper objectMapper;
+	private final Map<String, Counter> allowed = new HashMap<>();
+	private final Map<String, Counter> rejected = new HashMap<>();
+	
+	public RateLimitFilter(
+		RateLimiter rateLimiter,
+		List<RateLimitRule> rules,
+		ObjectMapper objectMapper,
+		MeterRegistry meterRegistry
+	) {
+		this.rateLimiter = rateLimiter;
+		this.rules = List.copyOf(rules);
+		this.objectMapper = objectMapper;
+		for (RateLimitRule rule : rules) {
+			allowed.put(rule.name(), counter(meterRegistry, rule.name(), "allowed"));
+			rejected.put(rule.name(), counter(meterRegistry, rule.name(), "rejected"));
+		}
+	}
+	
+	private static Counter counter(MeterRegistry meterRegistry, String rule, String result) {
+		return Counter.builder("nelonshift.ratelimit.requests")
+			.tag("rule", rule)
+			.tag("result", result)
+			.register(meterRegistry);
+	}
+	
+	@Override
+	protected void doFilterInternal(
+		@NonNull HttpServletRequest request,
+		@NonNull HttpServletResponse response,
+		@NonNull FilterChain filterChain
+	) throws ServletException, IOException {
+		PathContainer path = PathContainer.parsePath(request.getRequestURI());
+		String method = request.getMethod();
+		
+		long remaining = Long.MAX_VALUE;
+		for (RateLimitRule rule : rules) {
+			if (!rule.matches(method, path)) {
+				continue;
+			}
+			RateLimitResult result = rateLimiter.tryAcquire(keyOf(rule, request), rule);
+			if (!result.allowed()) {
+				rejected.get(rule.name()).increment();
+				log.debug("Rate limit {} exceeded for {} {}", rule.name(), method, request.getRequestURI());
+				reject(response, result);
+				return;
+			}
+			allowed.get(rule.name()).increment();
+			remaining = Math.min(remaining, result.remaining());
+		}
+		
+		if (remaining != Long.MAX_VALUE) {
+			response.setHeader(REMAINING_HEADER, Long.toString(remaining));
+		}
+		filterChain.doFilter(request, response);
+	}
+	
+	/**
+	 * Ключ корзины: у каждого правила свои корзины
+	 */
+	private static String keyOf(RateLimitRule rule, HttpServletRequest request) {
+		if (rule.key() == RateLimitProperties.KeyType.PRINCIPAL) {
+			Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+			if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails user) {
+				return rule.name() + ":user:" + user.getId();
+			}
+		}
+		// Адрес с учётом прокси задаётся server.forward-headers-strategy, а не заголовками клиента
+		return rule.name() + ":ip:" + request.getRemoteAddr();
+	}
+	
+	private void reject(HttpServletResponse response, RateLimitResult result) throws IOException {
+		response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(result.retryAfterSeconds()));
+		response.setHeader(REMAINING_HEADER, "0");
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		
+		ErrorResponse error = new ErrorResponse(
+			HttpStatus.TOO_MANY_REQUESTS.value(),
+			"Too many requests, retry after " + result.retryAfterSeconds() + " s",
+			LocalDateTime.now()
+		);
+		objectMapper.writeValue(response.getOutputStream(), error);
+	}
+}
@@ -0,0 +1,67 @@
+package nelon.arrive.nelonshift.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройки ограничения частоты запросов ({@code rate-limit.*})
+ */
+@Data
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+	
+	private boolean enabled = true;
+	
+	/**
+	 * LOCAL - корзины в памяти процесса, REDIS - общие для всех экземпляров
+	 */
+	private Mode mode = Mode.LOCAL;
+	
+	/**
+	 * Максимум корзин в локальном режиме - жёсткий предел. Корзины разбиты на 16 сегментов
+	 * со своей блокировкой; при превышении доли сегмента из него вытесняется
+	 * давно не использованная корзина
+	 */
+	private int maxLocalBuckets = 100_000;
+	
+	private List<Rule> rules = new ArrayList<>();
+	
+	public enum Mode {
+		LOCAL, REDIS
+	}
+	
+	public enum KeyType {
+		/**
+		 * Адрес клиента
+		 */
+		IP,
+		/**
+		 * Аутентифицированный пользователь, для анонимных запросов - адрес клиента
+		 */
+		PRINCIPAL
+	}
+	
+	@Data
+	public static class Rule {
+		private String name;
+		/**
+		 * HTTP-метод; пусто - любой
+		 */
+		private String method;
+		private String pattern;
+		private KeyType key = KeyType.IP;
+		/**
+		 * Размер корзины - сколько запросов можно сделать подряд
+		 */
+		private long capacity;
+		/**
+		 * Сколько токенов добавляется за refillPeriod
+		 */
+		private long refillTokens;
+		private Duration refillPeriod = Duration.ofMinutes(1);
+	}
+}
@@ -0,0 +1,12 @@
+package nelon.arrive.nelonshift.ratelimit;
+
+/**
+ * Результат попытки взять токен: остаток в корзине и, при отказе,
+ * через сколько миллисекунд токен появится
+ */
+public record RateLimitResult(boolean allowed, long remaining, long retryAfterMillis) {
+	
+	public long retryAfterSeconds() {
+		return Math.max(1, (retryAfterMillis + 999) / 1000);
+	}
+}
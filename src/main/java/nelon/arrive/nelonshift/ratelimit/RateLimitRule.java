@@ -0,0 +1,49 @@
+package nelon.arrive.nelonshift.ratelimit;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+/**
+ * Правило из {@link RateLimitProperties.Rule} с разобранным шаблоном пути
+ */
+public record RateLimitRule(
+	String name,
+	String method,
+	PathPattern pattern,
+	RateLimitProperties.KeyType key,
+	long capacity,
+	long refillTokens,
+	long refillPeriodNanos
+) {
+	
+	public RateLimitRule {
+		if (capacity <= 0 || refillTokens <= 0 || refillPeriodNanos <= 0) {
+			throw new IllegalArgumentException("Rate limit rule " + name + " must have positive capacity and refill rate");
+		}
+	}
+	
+	public static RateLimitRule of(RateLimitProperties.Rule rule) {
+		return new RateLimitRule(
+			rule.getName(),
+			StringUtils.hasText(rule.getMethod()) ? rule.getMethod().toUpperCase() : null,
+			PathPatternParser.defaultInstance.parse(rule.getPattern()),
+			rule.getKey(),
+			rule.getCapacity(),
+			rule.getRefillTokens(),
+			rule.getRefillPeriod().toNanos()
+		);
+	}
+	
+	public boolean matches(String requestMethod, PathContainer path) {
+		return (method == null || method.equals(requestMethod)) && pattern.matches(path);
+	}
+	
+	/**
+	 * Токенов в наносекунду
+	 */
+	public double refillRatePerNano() {
+		return (double) refillTokens / refillPeriodNanos;
+	}
+}
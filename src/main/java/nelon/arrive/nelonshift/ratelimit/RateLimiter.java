@@ -0,0 +1,12 @@
+package nelon.arrive.nelonshift.ratelimit;
+
+/**
+ * Ограничитель частоты по алгоритму token bucket
+ */
+public interface RateLimiter {
+	
+	/**
+	 * Взять один токен из корзины ключа по правилу; ключ уже включает имя правила
+	 */
+	RateLimitResult tryAcquire(String key, RateLimitRule rule);
+}
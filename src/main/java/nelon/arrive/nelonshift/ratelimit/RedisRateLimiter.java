@@ -0,0 +1,66 @@
+package nelon.arrive.nelonshift.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import nelon.arrive.nelonshift.security.config.LuaScripts;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Корзины в Redis, общие для всех экземпляров приложения.
+ * <p>
+ * Пополнение и списание выполняются одним Lua-скриптом ({@code scripts/token-bucket.lua})
+ * атомарно и за один round trip; время берётся из Redis, поэтому расхождение
+ * часов между экземплярами не влияет на лимит. Если Redis недоступен,
+ * решение принимает локальный ограничитель - лимит становится на экземпляр,
+ * но запросы не блокируются целиком.
+ */
+@Slf4j
+public class RedisRateLimiter implements RateLimiter {
+	
+	static final String KEY_PREFIX = "rate-limit:";
+	
+	@SuppressWarnings("rawtypes")
+	private static final RedisScript<List> SCRIPT = LuaScripts.load("token-bucket.lua", List.class);
+	
+	private final StringRedisTemplate redisTemplate;
+	private final RateLimiter fallback;
+	private final Counter fallbacks;
+	
+	public RedisRateLimiter(StringRedisTemplate redisTemplate, RateLimiter fallback, MeterRegistry meterRegistry) {
+		this.redisTemplate = redisTemplate;
+		this.fallback = fallback;
+		this.fallbacks = Counter.builder("nelonshift.ratelimit.fallback")
+			.description("Rate limit decisions made locally because Redis was unavailable")
+			.register(meterRegistry);
+	}
+	
+	@Override
+	public RateLimitResult tryAcquire(String key, RateLimitRule rule) {
+		try {
+			List<?> result = redisTemplate.execute(
+				SCRIPT,
+				List.of(KEY_PREFIX + key),
+				Long.toString(rule.capacity()),
+				Long.toString(rule.refillTokens()),
+				Long.toString(TimeUnit.NANOSECONDS.toMicros(rule.refillPeriodNanos()))
+			);
+			if (result == null || result.size() < 3) {
+				throw new IllegalStateException("Unexpected token bucket script result: " + result);
+			}
+			return new RateLimitResult(
+				((Number) result.get(0)).longValue() == 1,
+				((Number) result.get(1)).longValue(),
+				((Number) result.get(2)).longValue()
+			);
+		} catch (RuntimeException e) {
+			fallbacks.increment();
+			log.debug("Redis rate limiter unavailable, using local bucket: {}", e.getMessage());
+			return fallback.tryAcquire(key, rule);
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package nelon.arrive.nelonshift.repository;
+
+import nelon.arrive.nelonshift.dto.ArchivedProjectDto;
+import nelon.arrive.nelonshift.dto.ProjectStatsDto;
+import nelon.arrive.nelonshift.entity.ArchivedProject;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ArchivedProjectRepository extends JpaRepository<ArchivedProject, Long> {
+	
+	@Query(value = """
+		SELECT new nelon.arrive.nelonshift.dto.ArchivedProjectDto(
+			a.id, a.name, a.status, a.startDate, a.endDate, a.createdAt, a.updatedAt, a.archivedAt)
+		FROM ArchivedProject a
+		WHERE (:name IS NULL OR LOWER(a.name) LIKE LOWER(CONCAT('%', :name, '%')))
+		""",
+		countQuery = """
+		SELECT COUNT(a) FROM ArchivedProject a
+		WHERE (:name IS NULL OR LOWER(a.name) LIKE LOWER(CONCAT('%', :name, '%')))
+		""")
+	Page<ArchivedProjectDto> findDtosByName(@Param("name") String name, Pageable pageable);
+	
+	@Query("""
+		SELECT new nelon.arrive.nelonshift.dto.ArchivedProjectDto(
+			a.id, a.name, a.status, a.startDate, a.endDate, a.createdAt, a.updatedAt, a.archivedAt)
+		FROM ArchivedProject a
+		WHERE a.id = :id
+		""")
+	Optional<ArchivedProjectDto> findDtoById(@Param("id") Long id);
+	
+	/**
+	 * Статистика, посчитанная при архивации, - одна колонка без пересчёта по сменам
+	 */
+	@Query("SELECT a.stats FROM ArchivedProject a WHERE a.id = :id")
+	Optional<ProjectStatsDto> findStatsById(@Param("id") Long id);
+	
+	/**
+	 * Статистика всех архивных проектов пользователя для итогов дашборда (индекс по user_id)
+	 */
+	@Query("SELECT a.stats FROM ArchivedProject a WHERE a.userId = :userId")
+	List<ProjectStatsDto> findStatsByUserId(@Param("userId") UUID userId);
+	
+	@Modifying
+	@Query("DELETE FROM ArchivedProject a WHERE a.userId = :userId")
+	int deleteAllByUserId(@Param("userId") UUID userId);
+}
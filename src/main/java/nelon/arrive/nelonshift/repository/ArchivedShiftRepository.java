@@ -0,0 +1,42 @@
+package nelon.arrive.nelonshift.repository;
+
+import nelon.arrive.nelonshift.dto.ShiftDto;
+import nelon.arrive.nelonshift.entity.ArchivedShift;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ArchivedShiftRepository extends JpaRepository<ArchivedShift, Long> {
+	
+	@Query("""
+		SELECT new nelon.arrive.nelonshift.dto.ShiftDto(
+			s.id, s.date, s.startTime, s.endTime, s.hours, s.basePay,
+			s.overtimeHours, s.overtimePay, s.perDiem, s.compensation)
+		FROM ArchivedShift s
+		WHERE s.projectId = :projectId
+		ORDER BY s.date, s.id
+		""")
+	List<ShiftDto> findDtosByProjectId(@Param("projectId") Long projectId);
+	
+	/**
+	 * Копия смен проекта в архив одним INSERT ... SELECT, без загрузки в приложение
+	 */
+	@Modifying
+	@Query("""
+		INSERT INTO ArchivedShift (id, projectId, date, startTime, endTime, hours, basePay,
+		                           overtimeHours, overtimePay, perDiem, compensation, createdAt, updatedAt)
+		SELECT s.id, s.project.id, s.date, s.startTime, s.endTime, s.hours, s.basePay,
+		       s.overtimeHours, s.overtimePay, s.perDiem, s.compensation, s.createdAt, s.updatedAt
+		FROM Shift s
+		WHERE s.project.id = :projectId
+		""")
+	int copyFromProject(@Param("projectId") Long projectId);
+	
+	@Modifying
+	@Query("DELETE FROM ArchivedShift s WHERE s.projectId IN (SELECT a.id FROM ArchivedProject a WHERE a.userId = :userId)")
+	int deleteAllByUserId(@Param("userId") UUID userId);
+}
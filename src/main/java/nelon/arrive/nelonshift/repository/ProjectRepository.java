@@ -1,13 +1,24 @@
 package nelon.arrive.nelonshift.repository;
 
+import nelon.arrive.nelonshift.dto.ProjectDto;
 import nelon.arrive.nelonshift.entity.Project;
 import nelon.arrive.nelonshift.enums.ProjectStatus;
+import nelon.arrive.nelonshift.repository.projection.UserProjectRow;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
 public interface ProjectRepository extends JpaRepository<Project, Long> {
 	
 	boolean existsByName(String name);
@@ -24,4 +35,114 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
 		@Param("status") ProjectStatus status,
 		Pageable pageable
 	);
+	
+	/**
+	 * Страница проектов сразу в DTO: только колонки ответа, без сущностей и без соединения со сменами
+	 */
+	@Query(value = """
+		SELECT new nelon.arrive.nelonshift.dto.ProjectDto(
+			p.id, p.name, p.status, p.startDate, p.endDate, p.createdAt, p.updatedAt)
+		FROM Project p
+		WHERE (:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%')))
+		AND (:status IS NULL OR p.status = :status)
+		""",
+		countQuery = """
+		SELECT COUNT(p) FROM Project p
+		WHERE (:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%')))
+		AND (:status IS NULL OR p.status = :status)
+		""")
+	Page<ProjectDto> findDtosByFilters(
+		@Param("name") String name,
+		@Param("status") ProjectStatus status,
+		Pageable pageable
+	);
+	
+	@Query("""
+		SELECT new nelon.arrive.nelonshift.dto.ProjectDto(
+			p.id, p.name, p.status, p.startDate, p.endDate, p.createdAt, p.updatedAt)
+		FROM Project p
+		WHERE p.id = :id
+		""")
+	Optional<ProjectDto> findDtoById(@Param("id") Long id);
+	
+	@Query("""
+		SELECT new nelon.arrive.nelonshift.repository.projection.UserProjectRow(
+			p.user.id, p.id, p.name, p.status, p.startDate, p.endDate, p.createdAt, p.updatedAt)
+		FROM Project p
+		ORDER BY p.id
+		""")
+	List<UserProjectRow> findAllUserProjectRows();
+	
+	@Query("""
+		SELECT new nelon.arrive.nelonshift.dto.ProjectDto(
+			p.id, p.name, p.status, p.startDate, p.endDate, p.createdAt, p.updatedAt)
+		FROM Project p
+		WHERE p.user.id = :userId
+		ORDER BY p.id
+		""")
+	List<ProjectDto> findDtosByUserId(@Param("userId") UUID userId);
+	
+	List<Project> findAllByUserId(UUID userId);
+	
+	@Query("SELECT p.user.id FROM Project p WHERE p.id = :id")
+	Optional<UUID> findOwnerIdById(@Param("id") Long id);
+	
+	// ===== Блокировки =====
+	
+	/**
+	 * Записать fencing-токен блокировки проекта, если он новее записанного.
+	 * Заодно блокирует строку проекта до конца транзакции.
+	 *
+	 * @return 0 - проекта нет или токен устарел (блокировка истекла и досталась другому)
+	 */
+	@Modifying
+	@Query("UPDATE Project p SET p.lockFence = :token WHERE p.id = :id AND (p.lockFence IS NULL OR p.lockFence < :token)")
+	int advanceLockFence(@Param("id") Long id, @Param("token") long token);
+	
+	/**
+	 * Блокировка строки проекта до конца транзакции - когда блокировки в Redis недоступны
+	 */
+	@Modifying
+	@Query("UPDATE Project p SET p.lockFence = p.lockFence WHERE p.id = :id")
+	int lockRow(@Param("id") Long id);
+	
+	// ===== Пакетное удаление =====
+	
+	long countByUserId(UUID userId);
+	
+	@Query("SELECT p.id FROM Project p WHERE p.user.id = :userId")
+	List<Long> findIdsByUserId(@Param("userId") UUID userId, Limit limit);
+	
+	/**
+	 * Удаление без загрузки сущностей: смены проектов должны быть удалены раньше
+	 */
+	@Modifying
+	@Query("DELETE FROM Project p WHERE p.id IN :ids")
+	int deleteAllByIds(@Param("ids") Collection<Long> ids);
+	
+	@Modifying
+	@Query("DELETE FROM Project p WHERE p.user.id = :userId")
+	int deleteAllByUserId(@Param("userId") UUID userId);
+	
+	// ===== Архивация =====
+	
+	/**
+	 * Завершённые проекты, закончившиеся раньше {@code cutoff}; без даты окончания - по времени последнего изменения
+	 */
+	@Query("""
+		SELECT p.id FROM Project p
+		WHERE p.status = nelon.arrive.nelonshift.enums.ProjectStatus.COMPLETED
+		AND p.id > :afterId
+		AND (p.endDate < :cutoff OR (p.endDate IS NULL AND p.updatedAt < :cutoffTime))
+		ORDER BY p.id
+		""")
+	List<Long> findArchiveCandidateIds(
+		@Param("cutoff") LocalDate cutoff,
+		@Param("cutoffTime") LocalDateTime cutoffTime,
+		@Param("afterId") Long afterId,
+		Limit limit
+	);
+	
+	@Query("SELECT p FROM Project p LEFT JOIN FETCH p.shifts WHERE p.user.id = :userId")
+	List<Project> findAllWithShiftsByUserId(@Param("userId") UUID userId);
 }
@@ -1,13 +1,109 @@
 package nelon.arrive.nelonshift.repository;
 
+import nelon.arrive.nelonshift.dto.ShiftDto;
 import nelon.arrive.nelonshift.entity.Shift;
+import nelon.arrive.nelonshift.repository.projection.ShiftColumnView;
+import nelon.arrive.nelonshift.repository.projection.ShiftOwnerView;
+import nelon.arrive.nelonshift.repository.projection.ShiftWatermarkView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface ShiftRepository extends JpaRepository<Shift, Long> {
 	List<Shift> findByProjectId(Long projectId);
 	
+	@Query("""
+		SELECT new nelon.arrive.nelonshift.dto.ShiftDto(
+			s.id, s.date, s.startTime, s.endTime, s.hours, s.basePay,
+			s.overtimeHours, s.overtimePay, s.perDiem, s.compensation)
+		FROM Shift s
+		WHERE s.project.id = :projectId
+		""")
+	List<ShiftDto> findDtosByProjectId(@Param("projectId") Long projectId);
+	
+	/**
+	 * Смены проекта курсором (fetch size) сразу в DTO; требует открытой транзакции
+	 */
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("""
+		SELECT new nelon.arrive.nelonshift.dto.ShiftDto(
+			s.id, s.date, s.startTime, s.endTime, s.hours, s.basePay,
+			s.overtimeHours, s.overtimePay, s.perDiem, s.compensation)
+		FROM Shift s
+		WHERE s.project.id = :projectId
+		ORDER BY s.date, s.id
+		""")
+	Stream<ShiftDto> streamDtosByProjectId(@Param("projectId") Long projectId);
+	
 	boolean existsByProjectIdAndDate(Long projectId, LocalDate date);
-}
\ No newline at end of file
+	
+	// Условия на date - простые сравнения с параметром: в секционированной по месяцам
+	// таблице PostgreSQL читает только секции, попадающие в диапазон
+	
+	boolean existsByProjectIdAndDateBefore(Long projectId, LocalDate date);
+	
+	boolean existsByProjectIdAndDateAfter(Long projectId, LocalDate date);
+	
+	// ===== Пакетное удаление =====
+	
+	long countByProjectId(Long projectId);
+	
+	long countByProjectUserId(UUID userId);
+	
+	@Query("SELECT s.id FROM Shift s WHERE s.project.id = :projectId")
+	List<Long> findIdsByProjectId(@Param("projectId") Long projectId, Limit limit);
+	
+	@Query("SELECT s.id FROM Shift s WHERE s.project.user.id = :userId")
+	List<Long> findIdsByUserId(@Param("userId") UUID userId, Limit limit);
+	
+	@Modifying
+	@Query("DELETE FROM Shift s WHERE s.id IN :ids")
+	int deleteAllByIds(@Param("ids") Collection<Long> ids);
+	
+	@Modifying
+	@Query("DELETE FROM Shift s WHERE s.project.id IN :projectIds")
+	int deleteAllByProjectIds(@Param("projectIds") Collection<Long> projectIds);
+	
+	/**
+	 * Смены, добавленные пользователем, пока его данные удалялись пакетами
+	 */
+	@Modifying
+	@Query("DELETE FROM Shift s WHERE s.project.id IN (SELECT p.id FROM Project p WHERE p.user.id = :userId)")
+	int deleteAllByUserId(@Param("userId") UUID userId);
+	
+	
+	@Query("""
+		SELECT s.id AS id, s.project.id AS projectId, s.date AS date, s.hours AS hours,
+		       s.overtimeHours AS overtimeHours, s.basePay AS basePay,
+		       s.overtimePay AS overtimePay, s.perDiem AS perDiem
+		FROM Shift s
+		WHERE s.project.user.id = :userId
+		ORDER BY s.date, s.id
+		""")
+	List<ShiftColumnView> findColumnsByUserId(@Param("userId") UUID userId);
+	
+	@Query("""
+		SELECT COUNT(s.id) AS shiftCount, MAX(s.updatedAt) AS lastUpdatedAt
+		FROM Shift s
+		WHERE s.project.user.id = :userId
+		""")
+	ShiftWatermarkView findWatermarkByUserId(@Param("userId") UUID userId);
+	
+	@Query("SELECT s.project.user.id FROM Shift s WHERE s.id = :id")
+	Optional<UUID> findOwnerIdById(@Param("id") Long id);
+	
+	@Query("SELECT s.project.id AS projectId, s.project.user.id AS ownerId FROM Shift s WHERE s.id = :id")
+	Optional<ShiftOwnerView> findOwnerById(@Param("id") Long id);
+}
@@ -1,21 +1,108 @@
 package nelon.arrive.nelonshift.repository;
 
+import jakarta.persistence.QueryHint;
+import nelon.arrive.nelonshift.dto.UserDto;
+import nelon.arrive.nelonshift.dto.UserSummaryDto;
 import nelon.arrive.nelonshift.entity.User;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
 	
-	@Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.projects")
-	List<User> findAllWithProjects();
+	String SUMMARY = "SELECT new nelon.arrive.nelonshift.dto.UserSummaryDto(u.id, u.name, u.email, u.createdAt) ";
+	
+	String SUMMARY_WITH_PROJECT_COUNT = """
+		SELECT new nelon.arrive.nelonshift.dto.UserSummaryDto(u.id, u.name, u.email, u.createdAt,
+			(SELECT COUNT(p) FROM Project p WHERE p.user = u))
+		""";
+	
+	/**
+	 * Фильтры списка пользователей; {@code :after} - email последней строки предыдущей страницы
+	 */
+	String SUMMARY_FILTER = """
+		FROM User u
+		WHERE (:after IS NULL OR u.email > :after)
+		AND (:emailPattern IS NULL OR u.email LIKE :emailPattern ESCAPE '\\')
+		AND (:createdFrom IS NULL OR u.createdAt >= :createdFrom)
+		AND (:createdBefore IS NULL OR u.createdAt < :createdBefore)
+		ORDER BY u.email
+		""";
+	
+	@Query(SUMMARY + SUMMARY_FILTER)
+	List<UserSummaryDto> findSummaries(
+		@Param("after") String after,
+		@Param("emailPattern") String emailPattern,
+		@Param("createdFrom") LocalDateTime createdFrom,
+		@Param("createdBefore") LocalDateTime createdBefore,
+		Limit limit
+	);
+	
+	@Query(SUMMARY_WITH_PROJECT_COUNT + SUMMARY_FILTER)
+	List<UserSummaryDto> findSummariesWithProjectCount(
+		@Param("after") String after,
+		@Param("emailPattern") String emailPattern,
+		@Param("createdFrom") LocalDateTime createdFrom,
+		@Param("createdBefore") LocalDateTime createdBefore,
+		Limit limit
+	);
+	
+	/**
+	 * Все подходящие пользователи курсором (fetch size); требует открытой транзакции
+	 */
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query(SUMMARY + SUMMARY_FILTER)
+	Stream<UserSummaryDto> streamSummaries(
+		@Param("after") String after,
+		@Param("emailPattern") String emailPattern,
+		@Param("createdFrom") LocalDateTime createdFrom,
+		@Param("createdBefore") LocalDateTime createdBefore
+	);
+	
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query(SUMMARY_WITH_PROJECT_COUNT + SUMMARY_FILTER)
+	Stream<UserSummaryDto> streamSummariesWithProjectCount(
+		@Param("after") String after,
+		@Param("emailPattern") String emailPattern,
+		@Param("createdFrom") LocalDateTime createdFrom,
+		@Param("createdBefore") LocalDateTime createdBefore
+	);
+	
+	/**
+	 * Пользователи без пароля и без проектов; проекты раскладывает {@code UserService}
+	 */
+	@Query("SELECT new nelon.arrive.nelonshift.dto.UserDto(u.id, u.name, u.email) FROM User u ORDER BY u.email")
+	List<UserDto> findAllDtos();
+	
+	@Query("SELECT new nelon.arrive.nelonshift.dto.UserDto(u.id, u.name, u.email) FROM User u WHERE u.id = :id")
+	Optional<UserDto> findDtoById(@Param("id") UUID id);
 	
 	boolean existsByEmail(String email);
 	
 	Optional<User> findByEmail(String email);
+	
+	/**
+	 * Удаление без загрузки сущности и каскада JPA: проекты и смены удаляются раньше
+	 */
+	@Modifying
+	@Query("DELETE FROM User u WHERE u.id = :id")
+	int deleteUserById(@Param("id") UUID id);
+	
+	@Transactional
+	@Modifying
+	@Query("UPDATE User u SET u.password = :password WHERE u.email = :email")
+	int updatePasswordByEmail(@Param("email") String email, @Param("password") String password);
 }
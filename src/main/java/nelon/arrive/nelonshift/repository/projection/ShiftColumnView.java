@@ -0,0 +1,25 @@
+package nelon.arrive.nelonshift.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Колонки смены, нужные для колоночного кэша аналитики
+ */
+public interface ShiftColumnView {
+	Long getId();
+	
+	Long getProjectId();
+	
+	LocalDate getDate();
+	
+	Integer getHours();
+	
+	Integer getOvertimeHours();
+	
+	BigDecimal getBasePay();
+	
+	BigDecimal getOvertimePay();
+	
+	BigDecimal getPerDiem();
+}
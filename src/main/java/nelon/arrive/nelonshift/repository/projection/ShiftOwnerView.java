@@ -0,0 +1,12 @@
+package nelon.arrive.nelonshift.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * Проект смены и его владелец
+ */
+public interface ShiftOwnerView {
+	Long getProjectId();
+	
+	UUID getOwnerId();
+}
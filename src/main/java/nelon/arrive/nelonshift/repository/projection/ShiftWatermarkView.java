@@ -0,0 +1,12 @@
+package nelon.arrive.nelonshift.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Водяной знак смен пользователя: количество и последнее изменение
+ */
+public interface ShiftWatermarkView {
+	Long getShiftCount();
+	
+	LocalDateTime getLastUpdatedAt();
+}
@@ -0,0 +1,26 @@
+package nelon.arrive.nelonshift.repository.projection;
+
+import nelon.arrive.nelonshift.dto.ProjectDto;
+import nelon.arrive.nelonshift.enums.ProjectStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Колонки проекта вместе с владельцем - для раскладки проектов по {@code UserDto} одним запросом
+ */
+public record UserProjectRow(
+	UUID userId,
+	Long id,
+	String name,
+	ProjectStatus status,
+	LocalDate startDate,
+	LocalDate endDate,
+	LocalDateTime createdAt,
+	LocalDateTime updatedAt
+) {
+	public ProjectDto toProjectDto() {
+		return new ProjectDto(id, name, status, startDate, endDate, createdAt, updatedAt);
+	}
+}
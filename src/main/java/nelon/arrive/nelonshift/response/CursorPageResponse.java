@@ -0,0 +1,19 @@
+package nelon.arrive.nelonshift.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Страница keyset-пагинации: {@code nextCursor} передаётся в следующий запрос, {@code null} - страниц больше нет
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+	private List<T> content;
+	private int size;
+	private String nextCursor;
+}
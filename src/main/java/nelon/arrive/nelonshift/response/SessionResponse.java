@@ -0,0 +1,19 @@
+package nelon.arrive.nelonshift.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionResponse {
+	private Instant createdAt;
+	private Instant expiresAt;
+	/**
+	 * Сессия, из которой сделан запрос
+	 */
+	private boolean current;
+}
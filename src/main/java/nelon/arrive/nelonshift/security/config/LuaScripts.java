@@ -0,0 +1,29 @@
+package nelon.arrive.nelonshift.security.config;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Загрузка Lua-скриптов Redis из {@code classpath:scripts/}.
+ * <p>
+ * Текст читается один раз: скрипт из ресурса ({@code RedisScript.of(Resource)})
+ * проверяет дату изменения файла при каждом вызове.
+ */
+public final class LuaScripts {
+	
+	private LuaScripts() {
+	}
+	
+	public static <T> RedisScript<T> load(String name, Class<T> resultType) {
+		try {
+			String source = new ClassPathResource("scripts/" + name).getContentAsString(StandardCharsets.UTF_8);
+			return RedisScript.of(source, resultType);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to load Redis script " + name, e);
+		}
+	}
+}
@@ -1,14 +1,41 @@
 package nelon.arrive.nelonshift.security.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import nelon.arrive.nelonshift.security.password.BoundedPasswordEncoder;
+import nelon.arrive.nelonshift.security.password.PasswordHashingExecutor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+
 @Configuration
 public class PasswordEncoderConfig {
+	
+	/**
+	 * Пул хеширования: по умолчанию половина ядер, чтобы вход не занимал весь процессор
+	 */
+	@Bean(destroyMethod = "close")
+	public PasswordHashingExecutor passwordHashingExecutor(
+		MeterRegistry meterRegistry,
+		@Value("${security.password.hashing.threads:0}") int threads,
+		@Value("${security.password.hashing.queue-capacity:64}") int queueCapacity,
+		@Value("${security.password.hashing.timeout:2s}") Duration timeout
+	) {
+		int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+		return new PasswordHashingExecutor(poolSize, queueCapacity, timeout, meterRegistry);
+	}
+	
+	/**
+	 * Стоимость BCrypt подбирается под железо через PasswordHashingBenchmark;
+	 * при её изменении хеши пересохраняются при следующем входе
+	 */
 	@Bean
-	public PasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
+	public PasswordEncoder passwordEncoder(
+		PasswordHashingExecutor passwordHashingExecutor,
+		@Value("${security.password.bcrypt-strength:10}") int strength
+	) {
+		return new BoundedPasswordEncoder(strength, passwordHashingExecutor);
 	}
 }
@@ -4,12 +4,11 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.repository.configuration.EnableRedisRepositories;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
-@EnableRedisRepositories(basePackages = "nelon.arrive.nelonshift.repository")
 public class RedisConfig {
 	
 	/**
@@ -36,4 +35,20 @@ public class RedisConfig {
 		return template;
 	}
 	
+	/**
+	 * Контейнер подписок Redis pub/sub, общий для всех слушателей приложения.
+	 * Не стартует вместе с контекстом: недоступный Redis не должен мешать запуску,
+	 * подписку запускают и перезапускают сами слушатели.
+	 */
+	@Bean
+	public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+		RedisMessageListenerContainer container = new RedisMessageListenerContainer() {
+			@Override
+			public boolean isAutoStartup() {
+				return false;
+			}
+		};
+		container.setConnectionFactory(connectionFactory);
+		return container;
+	}
 }
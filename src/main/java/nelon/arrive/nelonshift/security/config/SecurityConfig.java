@@ -1,6 +1,7 @@
 package nelon.arrive.nelonshift.security.config;
 
 import lombok.RequiredArgsConstructor;
+import nelon.arrive.nelonshift.ratelimit.RateLimitFilter;
 import nelon.arrive.nelonshift.security.jwt.AuthTokenFilter;
 import nelon.arrive.nelonshift.security.jwt.JwtAuthEntryPoint;
 import nelon.arrive.nelonshift.security.user.oauth.CustomOAuth2UserService;
@@ -31,6 +32,7 @@ public class SecurityConfig {
 	private final CustomOAuth2UserService customOAuth2UserService;
 	private final OAuth2AuthenticationSuccessHandler oAuth2AuthenticationSuccessHandler;
 	private final AuthTokenFilter authTokenFilter;
+	private final RateLimitFilter rateLimitFilter;
 
 	@Bean
 	public AuthenticationManager authenticationManager(AuthenticationConfiguration authConfig) throws Exception {
@@ -46,8 +48,11 @@ public class SecurityConfig {
 			.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
 			.authorizeHttpRequests(auth -> auth
 				.requestMatchers("/api/v1/projects/**").permitAll()
+				.requestMatchers("/api/v1/auth/logout-all", "/api/v1/auth/sessions").authenticated()
 				.requestMatchers("/api/v1/auth/**").permitAll()
 				.requestMatchers("/oauth2/**").permitAll()
+				// Метрики (в том числе /actuator/prometheus) - только с аутентификацией
+				.requestMatchers("/actuator/health/**").permitAll()
 				.requestMatchers(
 					"/swagger-ui/**",
 					"/v3/api-docs/**",
@@ -63,6 +68,7 @@ public class SecurityConfig {
 			);
 
 		http.addFilterBefore(authTokenFilter, UsernamePasswordAuthenticationFilter.class);
+		http.addFilterAfter(rateLimitFilter, AuthTokenFilter.class);
 
 		return http.build();
 	}
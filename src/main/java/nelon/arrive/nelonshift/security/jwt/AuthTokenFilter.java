@@ -1,5 +1,6 @@
 package nelon.arrive.nelonshift.security.jwt;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,6 +8,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import nelon.arrive.nelonshift.security.revocation.AccessTokenRevocationService;
 import nelon.arrive.nelonshift.security.user.CustomUserDetailsService;
 import nelon.arrive.nelonshift.security.utils.CookieUtil;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -14,7 +16,6 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
@@ -27,6 +28,7 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 	private final JwtUtils jwtUtils;
 	private final CustomUserDetailsService userDetailsService;
 	private final CookieUtil cookieUtil;
+	private final AccessTokenRevocationService revocationService;
 	
 	@Override
 	protected void doFilterInternal(
@@ -36,14 +38,17 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 	) throws ServletException, IOException {
 		
 		try {
-			String jwt = cookieUtil.getAccessTokenFromCookie(request).orElse(null);
+			Claims claims = cookieUtil.getAccessToken(request)
+				.flatMap(jwtUtils::parseAccessToken)
+				.orElse(null);
 			
-			if (jwt == null) {
-				jwt = parseJwtFromHeader(request);
+			if (claims != null && revocationService.isRevoked(claims.getId())) {
+				log.debug("Rejected revoked access token {}", claims.getId());
+				claims = null;
 			}
 			
-			if (jwt != null && jwtUtils.validateAccessToken(jwt)) {
-				String email = jwtUtils.getEmailFromJwtToken(jwt);
+			if (claims != null) {
+				String email = claims.get("email", String.class);
 				
 				UserDetails userDetails = userDetailsService.loadUserByUsername(email);
 				
@@ -64,14 +69,4 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 		
 		filterChain.doFilter(request, response);
 	}
-	
-	private String parseJwtFromHeader(HttpServletRequest request) {
-		String headerAuth = request.getHeader("Authorization");
-		
-		if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
-			return headerAuth.substring(7);
-		}
-		
-		return null;
-	}
 }
@@ -12,6 +12,7 @@ import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Optional;
 import java.util.UUID;
 
 @Component
@@ -32,6 +33,7 @@ public class JwtUtils {
 		CustomUserDetails userPrincipal = (CustomUserDetails) authentication.getPrincipal();
 		
 		return Jwts.builder()
+			.id(UUID.randomUUID().toString())
 			.subject(userPrincipal.getId().toString())
 			.claim("email", userPrincipal.getEmail())
 			.claim("name", userPrincipal.getName())
@@ -43,6 +45,7 @@ public class JwtUtils {
 	
 	public String generateAccessToken(UUID userId, String email, String name) {
 		return Jwts.builder()
+			.id(UUID.randomUUID().toString())
 			.subject(userId.toString())
 			.claim("email", email)
 			.claim("name", name)
@@ -91,14 +94,19 @@ public class JwtUtils {
 	}
 	
 	public boolean validateAccessToken(String token) {
+		return parseAccessToken(token).isPresent();
+	}
+	
+	/**
+	 * Проверить подпись и срок действия и вернуть claims одним разбором токена
+	 */
+	public Optional<Claims> parseAccessToken(String token) {
 		try {
-			Jwts.parser()
+			return Optional.of(Jwts.parser()
 				.verifyWith(key())
 				.build()
 				.parseSignedClaims(token)
-				.getPayload();
-			
-			return true;
+				.getPayload());
 		} catch (MalformedJwtException e) {
 			log.error("Invalid JWT token: {}", e.getMessage());
 		} catch (ExpiredJwtException e) {
@@ -111,7 +119,7 @@ public class JwtUtils {
 			log.error("JWT validation error: {}", e.getMessage());
 		}
 		
-		return false;
+		return Optional.empty();
 	}
 	
 }
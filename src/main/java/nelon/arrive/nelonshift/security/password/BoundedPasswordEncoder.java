@@ -0,0 +1,58 @@
+package nelon.arrive.nelonshift.security.password;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * BCrypt, выполняемый в {@link PasswordHashingExecutor}.
+ * <p>
+ * Все вызовы encode/matches, в том числе из DaoAuthenticationProvider
+ * при входе, проходят через ограниченный пул. {@link #upgradeEncoding} возвращает true,
+ * если стоимость хеша отличается от текущей в любую сторону, и провайдер
+ * пересохраняет пароль после успешного входа.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+	
+	private final BCryptPasswordEncoder delegate;
+	private final PasswordHashingExecutor executor;
+	private final int strength;
+	
+	public BoundedPasswordEncoder(int strength, PasswordHashingExecutor executor) {
+		this.delegate = new BCryptPasswordEncoder(strength);
+		this.executor = executor;
+		this.strength = strength;
+	}
+	
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return executor.call(() -> delegate.encode(rawPassword));
+	}
+	
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return executor.call(() -> delegate.matches(rawPassword, encodedPassword));
+	}
+	
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		int cost = costOf(encodedPassword);
+		return cost > 0 && cost != strength;
+	}
+	
+	/**
+	 * Стоимость из хеша вида {@code $2a$10$...}; 0, если формат не BCrypt
+	 */
+	static int costOf(String encodedPassword) {
+		if (encodedPassword == null || encodedPassword.length() < 7
+			|| encodedPassword.charAt(0) != '$' || encodedPassword.charAt(3) != '$'
+			|| encodedPassword.charAt(6) != '$') {
+			return 0;
+		}
+		char tens = encodedPassword.charAt(4);
+		char ones = encodedPassword.charAt(5);
+		if (!Character.isDigit(tens) || !Character.isDigit(ones)) {
+			return 0;
+		}
+		return (tens - '0') * 10 + (ones - '0');
+	}
+}
@@ -0,0 +1,108 @@
+package nelon.arrive.nelonshift.security.password;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import nelon.arrive.nelonshift.exception.ServiceOverloadedException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Отдельный ограниченный пул для хеширования паролей.
+ * <p>
+ * BCrypt занимает процессор на десятки миллисекунд; в пуле Tomcat всплеск входов
+ * занял бы все потоки и остановил дешёвые запросы. Здесь хеширование идёт
+ * не более чем в {@code threads} потоков, в очереди ждут не больше {@code queueCapacity}
+ * задач. Если очередь полна или задача не дождалась результата за {@code timeout},
+ * запрос сбрасывается с {@link ServiceOverloadedException} (503 + Retry-After).
+ */
+@Slf4j
+public class PasswordHashingExecutor implements AutoCloseable {
+	
+	private static final long RETRY_AFTER_SECONDS = 1;
+	
+	private final ThreadPoolExecutor executor;
+	private final long timeoutNanos;
+	private final Counter rejected;
+	
+	public PasswordHashingExecutor(int threads, int queueCapacity, Duration timeout, MeterRegistry meterRegistry) {
+		AtomicInteger counter = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(
+			threads, threads,
+			0L, TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<>(queueCapacity),
+			runnable -> {
+				Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			},
+			new ThreadPoolExecutor.AbortPolicy()
+		);
+		this.timeoutNanos = timeout.toNanos();
+		this.rejected = Counter.builder("nelonshift.password.hashing.rejected")
+			.description("Password hashing requests shed because the pool was saturated")
+			.register(meterRegistry);
+		new ExecutorServiceMetrics(executor, "password-hashing", List.of()).bindTo(meterRegistry);
+	}
+	
+	/**
+	 * Выполнить задачу в пуле и дождаться результата
+	 */
+	public <T> T call(Callable<T> task) {
+		Future<T> future;
+		try {
+			future = executor.submit(task);
+		} catch (RejectedExecutionException e) {
+			throw overloaded("queue is full");
+		}
+		
+		try {
+			return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			abandon(future);
+			throw overloaded("timed out waiting in queue");
+		} catch (InterruptedException e) {
+			abandon(future);
+			Thread.currentThread().interrupt();
+			throw overloaded("interrupted");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException runtime) {
+				throw runtime;
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+	
+	/**
+	 * Отменённая задача остаётся в очереди и занимает место до того, как её возьмёт поток,
+	 * поэтому ещё не начатая задача убирается из очереди сразу
+	 */
+	private void abandon(Future<?> future) {
+		if (future.cancel(false) && future instanceof Runnable queued) {
+			executor.remove(queued);
+		}
+	}
+	
+	private ServiceOverloadedException overloaded(String reason) {
+		rejected.increment();
+		log.warn("Password hashing request rejected: {} (active={}, queued={})",
+			reason, executor.getActiveCount(), executor.getQueue().size());
+		return new ServiceOverloadedException("Server is busy, please retry later", RETRY_AFTER_SECONDS);
+	}
+	
+	@Override
+	public void close() {
+		executor.shutdown();
+	}
+}
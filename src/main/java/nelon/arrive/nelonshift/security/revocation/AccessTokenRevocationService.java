@@ -0,0 +1,184 @@
+package nelon.arrive.nelonshift.security.revocation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Список отозванных access-токенов по {@code jti}.
+ * <p>
+ * Источник истины - ключи {@code revoked-jti:{jti}} в Redis с TTL, равным остатку
+ * жизни токена. Перед Redis стоит фильтр Блума в памяти: для неотозванного
+ * токена (почти все запросы) проверка обходится без сетевых вызовов, Redis
+ * спрашивается только при срабатывании фильтра.
+ * <p>
+ * Фильтр синхронизируется между экземплярами через pub/sub ({@value #CHANNEL}),
+ * а пропущенные сообщения (старт, разрыв соединения) добираются периодическим SCAN.
+ * Удалять из фильтра Блума нельзя, поэтому фильтров два: текущий и предыдущий,
+ * они меняются раз в срок жизни access-токена - запись живёт в фильтре не меньше этого срока.
+ */
+@Service
+@Slf4j
+public class AccessTokenRevocationService implements MessageListener {
+	
+	static final String KEY_PREFIX = "revoked-jti:";
+	static final String CHANNEL = "access-token-revocations";
+	
+	private final StringRedisTemplate redisTemplate;
+	private final RedisMessageListenerContainer listenerContainer;
+	private final long expectedInsertions;
+	private final double falsePositiveRate;
+	
+	private volatile BloomFilter current;
+	private volatile BloomFilter previous;
+	
+	private final Counter bloomMisses;
+	private final Counter confirmedRevoked;
+	private final Counter falsePositives;
+	
+	public AccessTokenRevocationService(
+		StringRedisTemplate redisTemplate,
+		RedisMessageListenerContainer listenerContainer,
+		MeterRegistry meterRegistry,
+		@Value("${auth.revocation.bloom.expected-insertions:100000}") long expectedInsertions,
+		@Value("${auth.revocation.bloom.false-positive-rate:0.001}") double falsePositiveRate
+	) {
+		this.redisTemplate = redisTemplate;
+		this.listenerContainer = listenerContainer;
+		this.expectedInsertions = expectedInsertions;
+		this.falsePositiveRate = falsePositiveRate;
+		this.current = newFilter();
+		this.previous = newFilter();
+		this.bloomMisses = checkCounter(meterRegistry, "bloom-miss");
+		this.confirmedRevoked = checkCounter(meterRegistry, "revoked");
+		this.falsePositives = checkCounter(meterRegistry, "false-positive");
+	}
+	
+	private static Counter checkCounter(MeterRegistry meterRegistry, String result) {
+		return Counter.builder("nelonshift.auth.revocation.checks")
+			.description("Access token revocation checks by outcome")
+			.tag("result", result)
+			.register(meterRegistry);
+	}
+	
+	@PostConstruct
+	void subscribe() {
+		listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+	}
+	
+	/**
+	 * Отозвать токен до его истечения; уже истёкший токен не записывается
+	 */
+	public void revoke(String jti, Instant expiresAt) {
+		Duration remaining = Duration.between(Instant.now(), expiresAt);
+		if (jti == null || remaining.isNegative() || remaining.isZero()) {
+			return;
+		}
+		current.put(jti);
+		redisTemplate.opsForValue().set(KEY_PREFIX + jti, "1", remaining);
+		redisTemplate.convertAndSend(CHANNEL, jti);
+		log.info("Revoked access token {} for the remaining {} s", jti, remaining.toSeconds());
+	}
+	
+	/**
+	 * Отозван ли токен. Без сетевого вызова, если фильтр Блума не знает jti;
+	 * при недоступности Redis после срабатывания фильтра токен считается отозванным.
+	 */
+	public boolean isRevoked(String jti) {
+		if (jti == null) {
+			return false;
+		}
+		if (!current.mightContain(jti) && !previous.mightContain(jti)) {
+			bloomMisses.increment();
+			return false;
+		}
+		boolean revoked;
+		try {
+			revoked = Boolean.TRUE.equals(redisTemplate.hasKey(KEY_PREFIX + jti));
+		} catch (RuntimeException e) {
+			log.warn("Cannot confirm revocation of access token {}, rejecting it: {}", jti, e.getMessage());
+			return true;
+		}
+		(revoked ? confirmedRevoked : falsePositives).increment();
+		return revoked;
+	}
+	
+	@Override
+	public void onMessage(Message message, byte[] pattern) {
+		current.put(new String(message.getBody(), StandardCharsets.UTF_8));
+	}
+	
+	// ===== Синхронизация фильтра =====
+	
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadOnStartup() {
+		resync();
+	}
+	
+	/**
+	 * Добрать отзывы, пропущенные pub/sub (разрыв соединения, старт экземпляра),
+	 * и поднять подписку, если при старте Redis был недоступен
+	 */
+	@Scheduled(
+		initialDelayString = "${auth.revocation.resync-interval:PT1M}",
+		fixedDelayString = "${auth.revocation.resync-interval:PT1M}"
+	)
+	public void resync() {
+		ensureSubscribed();
+		int loaded = 0;
+		ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(1000).build();
+		try (Cursor<String> keys = redisTemplate.scan(options)) {
+			while (keys.hasNext()) {
+				current.put(keys.next().substring(KEY_PREFIX.length()));
+				loaded++;
+			}
+			log.debug("Loaded {} revoked access tokens into bloom filter", loaded);
+		} catch (RuntimeException e) {
+			log.warn("Revocation list resync failed: {}", e.getMessage());
+		}
+	}
+	
+	/**
+	 * Смена поколений фильтра раз в срок жизни access-токена
+	 */
+	@Scheduled(
+		initialDelayString = "${jwt.access-token-expiration}",
+		fixedRateString = "${jwt.access-token-expiration}"
+	)
+	public void rotate() {
+		previous = current;
+		current = newFilter();
+	}
+	
+	private void ensureSubscribed() {
+		if (listenerContainer.isRunning()) {
+			return;
+		}
+		try {
+			listenerContainer.start();
+		} catch (RuntimeException e) {
+			log.warn("Cannot subscribe to {}, relying on periodic resync: {}", CHANNEL, e.getMessage());
+		}
+	}
+	
+	private BloomFilter newFilter() {
+		return new BloomFilter(expectedInsertions, falsePositiveRate);
+	}
+}
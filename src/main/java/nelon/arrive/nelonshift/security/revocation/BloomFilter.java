@@ -0,0 +1,77 @@
+package nelon.arrive.nelonshift.security.revocation;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Потокобезопасный фильтр Блума для строк.
+ * <p>
+ * Отвечает "точно нет" или "возможно да" с заданной долей ложных срабатываний.
+ * Позиции битов - двойное хеширование (h1 + i * h2) от 64-битного хеша строки.
+ */
+final class BloomFilter {
+	
+	private final AtomicLongArray words;
+	private final long bitCount;
+	private final int hashCount;
+	
+	BloomFilter(long expectedInsertions, double falsePositiveRate) {
+		double ln2 = Math.log(2);
+		long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+		int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) / 64));
+		this.words = new AtomicLongArray(wordCount);
+		this.bitCount = (long) wordCount * 64;
+		this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * ln2));
+	}
+	
+	void put(String value) {
+		long hash = hash64(value);
+		long h1 = hash;
+		long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+		for (int i = 0; i < hashCount; i++) {
+			long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+			int word = (int) (bit >>> 6);
+			long mask = 1L << bit;
+			long current = words.get(word);
+			while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+				current = words.get(word);
+			}
+		}
+	}
+	
+	boolean mightContain(String value) {
+		long hash = hash64(value);
+		long h1 = hash;
+		long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+		for (int i = 0; i < hashCount; i++) {
+			long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+			if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	int hashCount() {
+		return hashCount;
+	}
+	
+	// FNV-1a по байтам UTF-8 с финальным перемешиванием из MurmurHash3
+	private static long hash64(String value) {
+		long hash = 0xCBF29CE484222325L;
+		for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b;
+			hash *= 0x100000001B3L;
+		}
+		return mix(hash);
+	}
+	
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB9FE1A85EC53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
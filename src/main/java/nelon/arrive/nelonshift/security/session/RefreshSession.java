@@ -0,0 +1,11 @@
+package nelon.arrive.nelonshift.security.session;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Сессия пользователя, привязанная к refresh-токену.
+ * Все токены одной цепочки ротаций принадлежат одной семье ({@code familyId}).
+ */
+public record RefreshSession(String token, UUID familyId, UUID userId, Instant createdAt, Instant expiresAt) {
+}
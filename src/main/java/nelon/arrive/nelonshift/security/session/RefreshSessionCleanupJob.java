@@ -0,0 +1,37 @@
+package nelon.arrive.nelonshift.security.session;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nelon.arrive.nelonshift.cluster.ClusterMembership;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Фоновая очистка индексов сессий от истёкших токенов; в кластере - только на лидере
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshSessionCleanupJob {
+	
+	private final RefreshSessionStore sessionStore;
+	private final ClusterMembership clusterMembership;
+	
+	@Scheduled(
+		initialDelayString = "${auth.sessions.cleanup-interval:PT10M}",
+		fixedDelayString = "${auth.sessions.cleanup-interval:PT10M}"
+	)
+	public void cleanup() {
+		if (!clusterMembership.isLeader()) {
+			return;
+		}
+		try {
+			long removed = sessionStore.cleanupExpiredIndexEntries();
+			if (removed > 0) {
+				log.info("Removed {} expired refresh session index entries", removed);
+			}
+		} catch (RuntimeException e) {
+			log.warn("Refresh session index cleanup failed: {}", e.getMessage());
+		}
+	}
+}
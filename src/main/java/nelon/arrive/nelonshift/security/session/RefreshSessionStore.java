@@ -0,0 +1,229 @@
+package nelon.arrive.nelonshift.security.session;
+
+import lombok.extern.slf4j.Slf4j;
+import nelon.arrive.nelonshift.security.config.LuaScripts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Хранилище сессий refresh-токенов в Redis.
+ * <p>
+ * Токен имеет вид {@code {familyId}.{secret}}: все токены одной цепочки ротаций
+ * образуют семью. Ключи:
+ * <ul>
+ *     <li>{@code refresh-session:{token}} - HASH (userId, familyId, createdAt, expiresAt) с TTL сессии</li>
+ *     <li>{@code refresh-sessions:user:{userId}} - ZSET токенов пользователя, score - expiresAt</li>
+ *     <li>{@code refresh-family:{familyId}} - HASH: текущий токен семьи и усечённые SHA-256
+ *     последних {@value #RETIRED_TOKENS} выведенных токенов со временем ротации;
+ *     живёт, пока жив последний токен семьи</li>
+ * </ul>
+ * Создание, ротация и отзыв выполняются Lua-скриптами ({@code scripts/session-*.lua}):
+ * каждая операция - один атомарный round trip, сессия и индекс не расходятся.
+ * Предъявление выведенного токена отзывает всю семью в том же вызове ротации.
+ * Просроченные записи индекса удаляются при каждой записи в него,
+ * сам индекс истекает вместе с последней сессией, а {@link #cleanupExpiredIndexEntries}
+ * подчищает индексы, в которые давно не писали.
+ */
+@Component
+@Slf4j
+public class RefreshSessionStore {
+	
+	static final String SESSION_PREFIX = "refresh-session:";
+	static final String USER_INDEX_PREFIX = "refresh-sessions:user:";
+	static final String FAMILY_PREFIX = "refresh-family:";
+	
+	// 12 байт SHA-256 - 16 символов base64url на выведенный токен
+	private static final int TOKEN_HASH_BYTES = 12;
+	// Более старый выведенный токен отклоняется как неизвестный, без отзыва семьи
+	static final int RETIRED_TOKENS = 64;
+	
+	private static final RedisScript<Long> CREATE = LuaScripts.load("session-create.lua", Long.class);
+	@SuppressWarnings("rawtypes")
+	private static final RedisScript<List> ROTATE = LuaScripts.load("session-rotate.lua", List.class);
+	private static final RedisScript<String> REVOKE = LuaScripts.load("session-revoke.lua", String.class);
+	private static final RedisScript<Long> REVOKE_ALL = LuaScripts.load("session-revoke-all.lua", Long.class);
+	@SuppressWarnings("rawtypes")
+	private static final RedisScript<List> LIST = LuaScripts.load("session-list.lua", List.class);
+	
+	private final StringRedisTemplate redisTemplate;
+	private final long reuseGracePeriodMs;
+	
+	public RefreshSessionStore(
+		StringRedisTemplate redisTemplate,
+		@Value("${auth.sessions.reuse-grace-period:PT10S}") Duration reuseGracePeriod
+	) {
+		this.redisTemplate = redisTemplate;
+		this.reuseGracePeriodMs = reuseGracePeriod.toMillis();
+	}
+	
+	/**
+	 * Новая сессия - первый токен новой семьи
+	 */
+	public RefreshSession create(String secret, UUID userId, long ttlMs) {
+		UUID familyId = UUID.randomUUID();
+		String token = familyId + "." + secret;
+		long now = System.currentTimeMillis();
+		Long expiresAt = redisTemplate.execute(
+			CREATE,
+			List.of(SESSION_PREFIX + token, USER_INDEX_PREFIX + userId, FAMILY_PREFIX + familyId),
+			token, userId.toString(), Long.toString(now), Long.toString(ttlMs), familyId.toString()
+		);
+		return new RefreshSession(token, familyId, userId, Instant.ofEpochMilli(now), Instant.ofEpochMilli(expiresAt));
+	}
+	
+	public Optional<RefreshSession> find(String token) {
+		List<Object> values = redisTemplate.opsForHash()
+			.multiGet(SESSION_PREFIX + token, List.of("userId", "familyId", "createdAt", "expiresAt"));
+		if (values.get(0) == null) {
+			return Optional.empty();
+		}
+		return Optional.of(new RefreshSession(
+			token,
+			UUID.fromString((String) values.get(1)),
+			UUID.fromString((String) values.get(0)),
+			Instant.ofEpochMilli(Long.parseLong((String) values.get(2))),
+			Instant.ofEpochMilli(Long.parseLong((String) values.get(3)))
+		));
+	}
+	
+	/**
+	 * Заменить сессию старого токена новым токеном той же семьи.
+	 * Если старый токен уже был заменён (и прошло больше льготного периода),
+	 * вся семья отзывается - это признак кражи токена.
+	 */
+	public RotationResult rotate(String oldToken, String newSecret, long ttlMs) {
+		UUID familyId = familyOf(oldToken);
+		if (familyId == null) {
+			return RotationResult.notFound();
+		}
+		String newToken = familyId + "." + newSecret;
+		long now = System.currentTimeMillis();
+		List<?> result = redisTemplate.execute(
+			ROTATE,
+			List.of(SESSION_PREFIX + oldToken, SESSION_PREFIX + newToken, FAMILY_PREFIX + familyId),
+			oldToken, newToken, Long.toString(now), Long.toString(ttlMs), USER_INDEX_PREFIX,
+			tokenHash(oldToken), SESSION_PREFIX, Long.toString(reuseGracePeriodMs), Integer.toString(RETIRED_TOKENS)
+		);
+		if (result == null || result.isEmpty()) {
+			return RotationResult.notFound();
+		}
+		if ("reused".equals(result.get(0))) {
+			String owner = (String) result.get(1);
+			return RotationResult.reused(owner.isEmpty() ? null : UUID.fromString(owner));
+		}
+		UUID userId = UUID.fromString((String) result.get(1));
+		return RotationResult.rotated(new RefreshSession(
+			newToken,
+			familyId,
+			userId,
+			Instant.ofEpochMilli(now),
+			Instant.ofEpochMilli(Long.parseLong((String) result.get(2)))
+		));
+	}
+	
+	/**
+	 * Отозвать одну сессию; пусто, если её не было
+	 */
+	public Optional<UUID> revoke(String token) {
+		String userId = redisTemplate.execute(
+			REVOKE,
+			List.of(SESSION_PREFIX + token),
+			token, USER_INDEX_PREFIX, FAMILY_PREFIX
+		);
+		return Optional.ofNullable(userId).map(UUID::fromString);
+	}
+	
+	/**
+	 * Отозвать все сессии пользователя ("выйти на всех устройствах")
+	 */
+	public long revokeAll(UUID userId) {
+		Long revoked = redisTemplate.execute(
+			REVOKE_ALL,
+			List.of(USER_INDEX_PREFIX + userId),
+			SESSION_PREFIX, FAMILY_PREFIX
+		);
+		return revoked != null ? revoked : 0;
+	}
+	
+	public List<RefreshSession> list(UUID userId) {
+		List<?> flat = redisTemplate.execute(
+			LIST,
+			List.of(USER_INDEX_PREFIX + userId),
+			Long.toString(System.currentTimeMillis()), SESSION_PREFIX
+		);
+		if (flat == null) {
+			return List.of();
+		}
+		List<RefreshSession> sessions = new ArrayList<>(flat.size() / 3);
+		for (int i = 0; i + 2 < flat.size(); i += 3) {
+			String token = (String) flat.get(i);
+			sessions.add(new RefreshSession(
+				token,
+				familyOf(token),
+				userId,
+				Instant.ofEpochMilli(Long.parseLong((String) flat.get(i + 1))),
+				Instant.ofEpochMilli((long) Double.parseDouble((String) flat.get(i + 2)))
+			));
+		}
+		return sessions;
+	}
+	
+	/**
+	 * Удалить просроченные записи из всех индексов (SCAN, без блокировки Redis)
+	 */
+	public long cleanupExpiredIndexEntries() {
+		double now = System.currentTimeMillis();
+		long removed = 0;
+		ScanOptions options = ScanOptions.scanOptions().match(USER_INDEX_PREFIX + "*").count(500).build();
+		try (Cursor<String> keys = redisTemplate.scan(options)) {
+			while (keys.hasNext()) {
+				Long count = redisTemplate.opsForZSet().removeRangeByScore(keys.next(), Double.NEGATIVE_INFINITY, now);
+				removed += count != null ? count : 0;
+			}
+		}
+		return removed;
+	}
+	
+	/**
+	 * Семья из токена вида {@code {familyId}.{secret}}; null для токена другого формата
+	 */
+	static UUID familyOf(String token) {
+		int dot = token.indexOf('.');
+		if (dot <= 0) {
+			return null;
+		}
+		try {
+			return UUID.fromString(token.substring(0, dot));
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Усечённый SHA-256 токена: выведенные токены хранятся без самих значений
+	 */
+	static String tokenHash(String token) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, TOKEN_HASH_BYTES));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package nelon.arrive.nelonshift.security.session;
+
+import java.util.UUID;
+
+/**
+ * Результат ротации refresh-токена
+ */
+public record RotationResult(Outcome outcome, RefreshSession session, UUID userId) {
+	
+	public enum Outcome {
+		/**
+		 * Токен заменён новым
+		 */
+		ROTATED,
+		/**
+		 * Токен неизвестен или истёк
+		 */
+		NOT_FOUND,
+		/**
+		 * Предъявлен уже заменённый токен - семья отозвана
+		 */
+		REUSED
+	}
+	
+	static RotationResult rotated(RefreshSession session) {
+		return new RotationResult(Outcome.ROTATED, session, session.userId());
+	}
+	
+	static RotationResult notFound() {
+		return new RotationResult(Outcome.NOT_FOUND, null, null);
+	}
+	
+	static RotationResult reused(UUID userId) {
+		return new RotationResult(Outcome.REUSED, null, userId);
+	}
+}
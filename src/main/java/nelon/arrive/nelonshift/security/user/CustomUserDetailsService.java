@@ -1,16 +1,19 @@
 package nelon.arrive.nelonshift.security.user;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import nelon.arrive.nelonshift.entity.User;
 import nelon.arrive.nelonshift.repository.UserRepository;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+@Slf4j
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 	
 	private final UserRepository userRepository;
 	
@@ -21,4 +24,18 @@ public class CustomUserDetailsService implements UserDetailsService {
 		
 		return CustomUserDetails.build(user);
 	}
+	
+	/**
+	 * Пересохранить хеш пароля после успешного входа, если он создан с другой
+	 * стоимостью BCrypt (вызывается DaoAuthenticationProvider)
+	 */
+	@Override
+	public UserDetails updatePassword(UserDetails user, String newPassword) {
+		userRepository.updatePasswordByEmail(user.getUsername(), newPassword);
+		log.info("Password hash upgraded for user: {}", user.getUsername());
+		
+		CustomUserDetails details = (CustomUserDetails) user;
+		details.setPassword(newPassword);
+		return details;
+	}
 }
@@ -5,6 +5,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import java.util.Arrays;
 import java.util.Optional;
@@ -88,6 +89,23 @@ public class CookieUtil {
 		return getCookieValue(request, ACCESS_TOKEN_COOKIE);
 	}
 	
+	/**
+	 * Access Token из cookie, а если её нет - из заголовка Authorization: Bearer
+	 */
+	public Optional<String> getAccessToken(HttpServletRequest request) {
+		Optional<String> fromCookie = getAccessTokenFromCookie(request);
+		if (fromCookie.isPresent()) {
+			return fromCookie;
+		}
+		
+		String headerAuth = request.getHeader("Authorization");
+		if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
+			return Optional.of(headerAuth.substring(7));
+		}
+		
+		return Optional.empty();
+	}
+	
 	public Optional<String> getRefreshTokenFromCookie(HttpServletRequest request) {
 		return getCookieValue(request, REFRESH_TOKEN_COOKIE);
 	}
@@ -0,0 +1,175 @@
+package nelon.arrive.nelonshift.services;
+
+import lombok.RequiredArgsConstructor;
+import nelon.arrive.nelonshift.dto.ShiftAggregateDto;
+import nelon.arrive.nelonshift.enums.ShiftGroupBy;
+import nelon.arrive.nelonshift.exception.BadRequestException;
+import nelon.arrive.nelonshift.response.PageResponse;
+import nelon.arrive.nelonshift.services.analytics.AnalyticsResultCache;
+import nelon.arrive.nelonshift.services.analytics.ShiftAggregate;
+import nelon.arrive.nelonshift.services.analytics.ShiftColumnStore;
+import nelon.arrive.nelonshift.services.analytics.ShiftColumns;
+import nelon.arrive.nelonshift.services.analytics.ShiftQuery;
+import nelon.arrive.nelonshift.services.interfaces.IAnalyticsService;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class AnalyticsService implements IAnalyticsService {
+	
+	private static final int MAX_PAGE_SIZE = 500;
+	private static final int MAX_ROLLING_WINDOW = 53;
+	
+	private final AuthService authService;
+	private final ShiftColumnStore shiftColumnStore;
+	private final AnalyticsResultCache resultCache;
+	
+	private record AnalyticsQuery(
+		LocalDate from, LocalDate to, Long projectId, DayOfWeek weekday, ShiftGroupBy groupBy, int rollingWindow
+	) {
+	}
+	
+	@Override
+	public PageResponse<ShiftAggregateDto> getShiftAnalytics(
+		LocalDate from,
+		LocalDate to,
+		Long projectId,
+		DayOfWeek weekday,
+		ShiftGroupBy groupBy,
+		int rollingWindow,
+		int page,
+		int size
+	) {
+		if (from != null && to != null && from.isAfter(to)) {
+			throw new BadRequestException("'from' date cannot be after 'to' date");
+		}
+		
+		if (rollingWindow < 1 || rollingWindow > MAX_ROLLING_WINDOW) {
+			throw new BadRequestException("Rolling window must be between 1 and " + MAX_ROLLING_WINDOW);
+		}
+		
+		if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+			throw new BadRequestException("Page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+		}
+		
+		AnalyticsQuery query = new AnalyticsQuery(
+			from, to, projectId, weekday, groupBy != null ? groupBy : ShiftGroupBy.NONE, rollingWindow
+		);
+		
+		UUID userId = authService.getCurrentUserId();
+		ShiftColumns columns = shiftColumnStore.get(userId);
+		List<ShiftAggregateDto> groups = resultCache.get(userId, columns, query, () -> compute(query, columns));
+		
+		int fromIndex = (int) Math.min((long) page * size, groups.size());
+		int toIndex = Math.min(fromIndex + size, groups.size());
+		return new PageResponse<>(new PageImpl<>(
+			groups.subList(fromIndex, toIndex), PageRequest.of(page, size), groups.size()
+		));
+	}
+	
+	private List<ShiftAggregateDto> compute(AnalyticsQuery query, ShiftColumns columns) {
+		List<Map.Entry<Long, ShiftAggregate>> groups = new ArrayList<>(ShiftQuery.all()
+			.between(query.from(), query.to())
+			.project(query.projectId())
+			.weekday(query.weekday())
+			.groupBy(query.groupBy())
+			.execute(columns)
+			.entrySet());
+		
+		List<ShiftAggregateDto> result = new ArrayList<>(groups.size());
+		for (Map.Entry<Long, ShiftAggregate> group : groups) {
+			result.add(toDto(query.groupBy(), group.getKey(), group.getValue()));
+		}
+		
+		if (query.groupBy() == ShiftGroupBy.WEEK || query.groupBy() == ShiftGroupBy.MONTH) {
+			applyRollingAverages(groups, result, query.groupBy() == ShiftGroupBy.WEEK ? 7 : 1, query.rollingWindow());
+		}
+		return result;
+	}
+	
+	/**
+	 * Скользящее среднее за rollingWindow календарных периодов,
+	 * периоды без смен считаются нулевыми
+	 */
+	private void applyRollingAverages(
+		List<Map.Entry<Long, ShiftAggregate>> groups,
+		List<ShiftAggregateDto> result,
+		int keyStep,
+		int window
+	) {
+		long span = (long) keyStep * window;
+		long windowCents = 0;
+		long windowHours = 0;
+		int head = 0;
+		
+		for (int i = 0; i < groups.size(); i++) {
+			long key = groups.get(i).getKey();
+			windowCents = Math.addExact(windowCents, groups.get(i).getValue().getPayCents());
+			windowHours += groups.get(i).getValue().getHours();
+			
+			while (groups.get(head).getKey() <= key - span) {
+				windowCents -= groups.get(head).getValue().getPayCents();
+				windowHours -= groups.get(head).getValue().getHours();
+				head++;
+			}
+			
+			BigDecimal periods = BigDecimal.valueOf(window);
+			result.get(i).setRollingAverageEarnings(
+				BigDecimal.valueOf(windowCents, 2).divide(periods, 2, RoundingMode.HALF_UP));
+			result.get(i).setRollingAverageHours(
+				BigDecimal.valueOf(windowHours).divide(periods, 2, RoundingMode.HALF_UP));
+		}
+	}
+	
+	private ShiftAggregateDto toDto(ShiftGroupBy groupBy, long key, ShiftAggregate aggregate) {
+		LocalDate periodStart = switch (groupBy) {
+			case WEEK -> ShiftQuery.toWeekStart(key);
+			case MONTH -> ShiftQuery.toYearMonth(key).atDay(1);
+			default -> null;
+		};
+		
+		return ShiftAggregateDto.builder()
+			.group(groupLabel(groupBy, key, periodStart))
+			.periodStart(periodStart)
+			.shiftCount(aggregate.getShiftCount())
+			.hours(aggregate.getHours())
+			.overtimeHours(aggregate.getOvertimeHours())
+			.earnings(aggregate.getEarnings())
+			.overtimePay(aggregate.getOvertimePay())
+			.perDiem(aggregate.getPerDiem())
+			.averageHourlyRate(ratio(aggregate.getPayCents(), aggregate.getHours() * 100, 2))
+			.overtimeHoursShare(ratio(aggregate.getOvertimeHours(), aggregate.getHours(), 4))
+			.perDiemShare(ratio(aggregate.getPerDiemCents(), aggregate.getPayCents(), 4))
+			.build();
+	}
+	
+	private String groupLabel(ShiftGroupBy groupBy, long key, LocalDate periodStart) {
+		return switch (groupBy) {
+			case NONE -> "total";
+			case PROJECT -> String.valueOf(key);
+			case WEEK -> String.format("%d-W%02d",
+				periodStart.get(IsoFields.WEEK_BASED_YEAR), periodStart.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+			case MONTH -> ShiftQuery.toYearMonth(key).toString();
+			case WEEKDAY -> DayOfWeek.of((int) key).name();
+		};
+	}
+	
+	private BigDecimal ratio(long numerator, long denominator, int scale) {
+		if (denominator == 0) {
+			return BigDecimal.ZERO;
+		}
+		return BigDecimal.valueOf(numerator).divide(BigDecimal.valueOf(denominator), scale, RoundingMode.HALF_UP);
+	}
+}
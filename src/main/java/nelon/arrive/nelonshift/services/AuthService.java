@@ -5,7 +5,6 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import nelon.arrive.nelonshift.entity.RefreshToken;
 import nelon.arrive.nelonshift.entity.User;
 import nelon.arrive.nelonshift.exception.AlreadyExistsException;
 import nelon.arrive.nelonshift.exception.ResourceNotFoundException;
@@ -15,7 +14,10 @@ import nelon.arrive.nelonshift.request.LoginRequest;
 import nelon.arrive.nelonshift.request.SignupRequest;
 import nelon.arrive.nelonshift.response.AuthResponse;
 import nelon.arrive.nelonshift.response.MessageResponse;
+import nelon.arrive.nelonshift.response.SessionResponse;
 import nelon.arrive.nelonshift.security.jwt.JwtUtils;
+import nelon.arrive.nelonshift.security.revocation.AccessTokenRevocationService;
+import nelon.arrive.nelonshift.security.session.RefreshSession;
 import nelon.arrive.nelonshift.security.user.CustomUserDetails;
 import nelon.arrive.nelonshift.security.utils.CookieUtil;
 import nelon.arrive.nelonshift.services.interfaces.IAuthService;
@@ -27,6 +29,9 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.PostMapping;
 
+import java.util.List;
+import java.util.UUID;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -38,6 +43,7 @@ public class AuthService implements IAuthService {
 	private final JwtUtils jwtUtils;
 	private final RefreshTokenService refreshTokenService;
 	private final CookieUtil cookieUtil;
+	private final AccessTokenRevocationService revocationService;
 	
 	/**
 	 * POST /api/auth/login - Вход в систему
@@ -84,10 +90,9 @@ public class AuthService implements IAuthService {
 	 * POST /api/auth/refresh - Обновление Access Token
 	 * Процесс (Token Rotation):
 	 * 1. Читаем Refresh Token из cookie (автоматически)
-	 * 2. Проверяем токен в Redis
+	 * 2. Атомарно заменяем Refresh Token новым в Redis (Token Rotation!)
 	 * 3. Генерируем новый Access Token
-	 * 4. Генерируем новый Refresh Token (Token Rotation!)
-	 * 5. Обновляем оба токена в cookies
+	 * 4. Обновляем оба токена в cookies
 	 */
 	@PostMapping("/refresh")
 	@Override
@@ -98,11 +103,11 @@ public class AuthService implements IAuthService {
 		String refreshToken = cookieUtil.getRefreshTokenFromCookie(request)
 			.orElseThrow(() -> new TokenRefreshException("Refresh token not found in cookies"));
 		
-		// 2. Проверяем и получаем информацию о токене из Redis
-		RefreshToken refreshTokenEntity = refreshTokenService.verifyExpiration(refreshToken);
+		// 2. Token Rotation - проверяем старый токен и заменяем его новым одним вызовом Redis
+		RefreshSession session = refreshTokenService.rotateRefreshToken(refreshToken);
 		
 		// 3. Загружаем пользователя
-		User user = userRepository.findById(refreshTokenEntity.getUserId())
+		User user = userRepository.findById(session.userId())
 			.orElseThrow(() -> new RuntimeException("User not found"));
 		
 		// 4. Генерируем новый Access Token
@@ -111,11 +116,9 @@ public class AuthService implements IAuthService {
 			user.getEmail(),
 			user.getName()
 		);
+		String newRefreshToken = session.token();
 		
-		// 5. Token Rotation - создаём новый Refresh Token, удаляем старый
-		String newRefreshToken = refreshTokenService.rotateRefreshToken(refreshToken);
-		
-		// 7. Обновляем оба токена в cookies
+		// 5. Обновляем оба токена в cookies
 		cookieUtil.setAccessTokenCookie(response, newAccessToken);
 		cookieUtil.setRefreshTokenCookie(response, newRefreshToken);
 		
@@ -147,8 +150,8 @@ public class AuthService implements IAuthService {
 	 * POST /api/auth/logout - Выход (удаление токенов)
 	 * 1. Читаем Refresh Token из cookie
 	 * 2. Удаляем Refresh Token из Redis
-	 * 3. Удаляем оба токена из cookies
-	 * Access Token всё ещё будет работать до истечения (макс 15 минут)
+	 * 3. Отзываем текущий Access Token (jti в списке отзыва до его истечения)
+	 * 4. Удаляем оба токена из cookies
 	 */
 	@Override
 	public MessageResponse logout(
@@ -158,6 +161,8 @@ public class AuthService implements IAuthService {
 		// Читаем Refresh Token из cookie (если есть)
 		cookieUtil.getRefreshTokenFromCookie(request).ifPresent(refreshTokenService::deleteByToken);
 		
+		revokeAccessToken(request);
+		
 		// Удаляем оба токена из cookies
 		cookieUtil.deleteAllTokenCookies(response);
 		
@@ -166,6 +171,42 @@ public class AuthService implements IAuthService {
 		return new MessageResponse("Logged out successfully");
 	}
 	
+	/**
+	 * POST /api/auth/logout-all - Выход на всех устройствах
+	 * Удаляет все Refresh Token пользователя одним вызовом Redis и отзывает текущий Access Token;
+	 * Access Token других устройств истекут сами (макс 15 минут)
+	 */
+	@Override
+	public MessageResponse logoutAll(HttpServletRequest request, HttpServletResponse response) {
+		long revoked = refreshTokenService.deleteAllForUser(getCurrentUserId());
+		revokeAccessToken(request);
+		cookieUtil.deleteAllTokenCookies(response);
+		
+		return new MessageResponse("Logged out from " + revoked + " sessions");
+	}
+	
+	/**
+	 * GET /api/auth/sessions - Активные сессии текущего пользователя
+	 */
+	@Override
+	public List<SessionResponse> getSessions(HttpServletRequest request) {
+		String currentToken = cookieUtil.getRefreshTokenFromCookie(request).orElse(null);
+		
+		return refreshTokenService.getSessions(getCurrentUserId()).stream()
+			.map(session -> new SessionResponse(
+				session.createdAt(),
+				session.expiresAt(),
+				session.token().equals(currentToken)
+			))
+			.toList();
+	}
+	
+	private void revokeAccessToken(HttpServletRequest request) {
+		cookieUtil.getAccessToken(request)
+			.flatMap(jwtUtils::parseAccessToken)
+			.ifPresent(claims -> revocationService.revoke(claims.getId(), claims.getExpiration().toInstant()));
+	}
+	
 //	public MessageResponse logout(TokenRefreshRequest request) {
 //		String refreshToken = request.getRefreshToken();
 //
@@ -180,6 +221,15 @@ public class AuthService implements IAuthService {
 		 */
 	@Override
 	public User getCurrentUser() {
+		return userRepository.findById(getCurrentUserId())
+			.orElseThrow(() -> new ResourceNotFoundException("User not found"));
+	}
+	
+	/**
+	 * Id текущего пользователя из SecurityContext, без запроса к БД
+	 */
+	@Override
+	public UUID getCurrentUserId() {
 		Authentication authentication =
 			SecurityContextHolder.getContext().getAuthentication();
 		
@@ -192,8 +242,7 @@ public class AuthService implements IAuthService {
 		CustomUserDetails userDetails =
 			(CustomUserDetails) authentication.getPrincipal();
 		
-		return userRepository.findById(userDetails.getId())
-			.orElseThrow(() -> new ResourceNotFoundException("User not found"));
+		return userDetails.getId();
 	}
 }
 
@@ -3,23 +3,33 @@ package nelon.arrive.nelonshift.services;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import nelon.arrive.nelonshift.dto.DashboardStatsDto;
+import nelon.arrive.nelonshift.dto.ProjectStatsDto;
 import nelon.arrive.nelonshift.dto.TopProjectDto;
 import nelon.arrive.nelonshift.entity.Project;
-import nelon.arrive.nelonshift.entity.Shift;
-import nelon.arrive.nelonshift.entity.User;
 import nelon.arrive.nelonshift.enums.ProjectStatus;
+import nelon.arrive.nelonshift.enums.ShiftGroupBy;
+import nelon.arrive.nelonshift.repository.ArchivedProjectRepository;
+import nelon.arrive.nelonshift.repository.ProjectRepository;
+import nelon.arrive.nelonshift.services.analytics.ShiftAggregate;
+import nelon.arrive.nelonshift.services.analytics.ShiftColumnStore;
+import nelon.arrive.nelonshift.services.analytics.ShiftColumns;
+import nelon.arrive.nelonshift.services.analytics.ShiftQuery;
 import nelon.arrive.nelonshift.services.interfaces.IDashboardService;
+import nelon.arrive.nelonshift.services.stats.ProjectStatsAggregator;
+import nelon.arrive.nelonshift.services.stats.ProjectStatsAggregator.ProjectShiftStats;
+import nelon.arrive.nelonshift.services.stats.ShiftStatsAccumulator;
+import nelon.arrive.nelonshift.util.MoneyCents;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -27,89 +37,152 @@ import java.util.stream.Collectors;
 public class DashboardService implements IDashboardService {
 	
 	private final AuthService authService;
+	private final ProjectRepository projectRepository;
+	private final ArchivedProjectRepository archivedProjectRepository;
+	private final ProjectStatsAggregator projectStatsAggregator;
+	private final ShiftColumnStore shiftColumnStore;
 	
 	@Override
 	@Transactional(readOnly = true)
 	public DashboardStatsDto getDashboardStats() {
-		User currentUser = authService.getCurrentUser();
+		UUID userId = authService.getCurrentUserId();
+		ArchivedTotals archived = archivedTotals(userId);
 		
-		List<Project> allProjects = currentUser.getProjects();
+		DashboardStatsDto stats = shiftColumnStore.isEnabled()
+			? calculateFromColumns(userId, archived)
+			: calculateFromEntities(userId, archived);
 		
-		if (allProjects.isEmpty()) {
-			return createEmptyStats();
-		}
-		
-		int totalActiveProjects = (int) allProjects.stream()
-			.filter(p -> p.getStatus() == ProjectStatus.ACTIVE)
-			.count();
+		log.info("Dashboard stats calculated: {} shifts, {} total",
+			stats.getTotalShifts(), stats.getTotalEarnings());
 		
-		int totalCompletedProjects = (int) allProjects.stream()
-			.filter(p -> p.getStatus() == ProjectStatus.COMPLETED)
-			.count();
+		return stats;
+	}
+	
+	/**
+	 * Статистика из колоночного кэша: из БД читаются только проекты
+	 */
+	private DashboardStatsDto calculateFromColumns(UUID userId, ArchivedTotals archived) {
+		List<Project> allProjects = projectRepository.findAllByUserId(userId);
 		
-		List<Shift> allShifts = allProjects.stream()
-			.flatMap(p -> p.getShifts().stream())
-			.toList();
+		if (allProjects.isEmpty() && archived.projects() == 0) {
+			return createEmptyStats();
+		}
 		
-		int totalShifts = allShifts.size();
+		ShiftColumns columns = shiftColumnStore.get(userId);
+		ShiftAggregate total = ShiftQuery.all().total(columns);
 		
-		int totalHours = allShifts.stream()
-			.map(Shift::getHours)
-			.filter(Objects::nonNull)
-			.reduce(0, Integer::sum);
+		// ===== СТАТИСТИКА ЗА ТЕКУЩИЙ МЕСЯЦ =====
 		
-		BigDecimal totalEarnings = allShifts.stream()
-			.map(Shift::getTotalPay)
-			.reduce(BigDecimal.ZERO, BigDecimal::add);
+		YearMonth month = YearMonth.now();
+		ShiftAggregate currentMonth = ShiftQuery.all()
+			.between(month.atDay(1), month.atEndOfMonth())
+			.total(columns);
 		
-		// ===== СТАТИСТИКА ЗА ТЕКУЩИЙ МЕСЯЦ =====
+		// ===== ТОП-3 ПРОЕКТОВ =====
 		
-		YearMonth currentMonth = YearMonth.now();
-		LocalDate monthStart = currentMonth.atDay(1);
-		LocalDate monthEnd = currentMonth.atEndOfMonth();
+		Map<Long, ShiftAggregate> byProject = ShiftQuery.all()
+			.groupBy(ShiftGroupBy.PROJECT)
+			.execute(columns);
 		
-		List<Shift> currentMonthShifts = allShifts.stream()
-			.filter(s -> !s.getDate().isBefore(monthStart) && !s.getDate().isAfter(monthEnd))
+		List<TopProjectDto> topProjects = allProjects.stream()
+			.filter(p -> byProject.containsKey(p.getId()))
+			.sorted(Comparator.comparingLong((Project p) -> byProject.get(p.getId()).getPayCents()).reversed())
+			.limit(3)
+			.map(p -> {
+				ShiftAggregate stats = byProject.get(p.getId());
+				return mapToTopProject(p, stats.getShiftCount(), stats.getHours(), stats.getPayCents());
+			})
 			.toList();
 		
-		BigDecimal currentMonthEarnings = currentMonthShifts.stream()
-			.map(Shift::getTotalPay)
-			.reduce(BigDecimal.ZERO, BigDecimal::add);
+		return buildStats(
+			allProjects, archived,
+			total.getShiftCount(), total.getHours(), total.getPayCents(),
+			currentMonth.getShiftCount(), currentMonth.getHours(), currentMonth.getPayCents(),
+			topProjects
+		);
+	}
+	
+	/**
+	 * Статистика по загруженным сменам, если колоночный кэш выключен
+	 */
+	private DashboardStatsDto calculateFromEntities(UUID userId, ArchivedTotals archived) {
+		List<Project> allProjects = projectRepository.findAllWithShiftsByUserId(userId);
 		
-		int currentMonthShiftCount = currentMonthShifts.size();
+		if (allProjects.isEmpty() && archived.projects() == 0) {
+			return createEmptyStats();
+		}
 		
-		int currentMonthHoursCount = currentMonthShifts.stream()
-			.map(Shift::getHours)
-			.filter(Objects::nonNull)
-			.reduce(0, Integer::sum);
+		// Один проход по сменам каждого проекта (параллельно для больших объёмов)
+		List<ProjectShiftStats> projectStats = projectStatsAggregator.aggregate(allProjects);
+		ShiftStatsAccumulator total = ProjectStatsAggregator.total(projectStats);
 		
-		// ===== ТОП-3 ПРОЕКТОВ =====
+		ShiftStatsAccumulator.MonthBucket currentMonth = total.month(YearMonth.now());
 		
-		List<TopProjectDto> topProjects = allProjects.stream()
-			.filter(p -> !p.getShifts().isEmpty())
-			.map(this::mapToTopProject)
-			.sorted((a, b) -> b.getTotalEarnings().compareTo(a.getTotalEarnings()))
+		List<TopProjectDto> topProjects = projectStats.stream()
+			.filter(p -> p.stats().getShiftCount() > 0)
+			.sorted((a, b) -> Long.compare(b.stats().getTotalEarningsCents(), a.stats().getTotalEarningsCents()))
 			.limit(3)
-			.collect(Collectors.toList());
+			.map(p -> mapToTopProject(
+				p.project(), p.stats().getShiftCount(), p.stats().getTotalHours(), p.stats().getTotalEarningsCents()))
+			.toList();
 		
-		// ===== СОБИРАЕМ DTO =====
+		return buildStats(
+			allProjects, archived,
+			total.getShiftCount(), total.getTotalHours(), total.getTotalEarningsCents(),
+			currentMonth.getShiftCount(), currentMonth.getHours(), currentMonth.getEarningsCents(),
+			topProjects
+		);
+	}
+	
+	/**
+	 * Итоги архивных проектов: статистика посчитана при переносе в архив,
+	 * смены архива не читаются - один запрос по индексу user_id.
+	 * В архив попадают только давно завершённые проекты, текущий месяц и топ они не меняют.
+	 */
+	private ArchivedTotals archivedTotals(UUID userId) {
+		List<ProjectStatsDto> archivedStats = archivedProjectRepository.findStatsByUserId(userId);
+		int shifts = 0;
+		long hours = 0;
+		long earningsCents = 0;
+		for (ProjectStatsDto stats : archivedStats) {
+			if (stats == null) {
+				continue;
+			}
+			shifts += stats.getShiftCount() != null ? stats.getShiftCount() : 0;
+			hours += stats.getTotalHours() != null ? stats.getTotalHours() : 0;
+			earningsCents += stats.getTotalEarnings() != null ? MoneyCents.toCents(stats.getTotalEarnings()) : 0;
+		}
+		return new ArchivedTotals(archivedStats.size(), shifts, hours, earningsCents);
+	}
+	
+	private DashboardStatsDto buildStats(
+		List<Project> allProjects,
+		ArchivedTotals archived,
+		int totalShifts, long totalHours, long totalEarningsCents,
+		int monthShifts, long monthHours, long monthEarningsCents,
+		List<TopProjectDto> topProjects
+	) {
+		int totalActiveProjects = 0;
+		int totalCompletedProjects = archived.projects();
+		for (Project project : allProjects) {
+			if (project.getStatus() == ProjectStatus.ACTIVE) {
+				totalActiveProjects++;
+			} else if (project.getStatus() == ProjectStatus.COMPLETED) {
+				totalCompletedProjects++;
+			}
+		}
 		
-		DashboardStatsDto stats = DashboardStatsDto.builder()
+		return DashboardStatsDto.builder()
 			.totalActiveProjects(totalActiveProjects)
 			.totalCompletedProjects(totalCompletedProjects)
-			.totalShifts(totalShifts)
-			.totalHours(totalHours)
-			.totalEarnings(totalEarnings)
-			.currentMonthEarnings(currentMonthEarnings)
-			.currentMonthShifts(currentMonthShiftCount)
-			.currentMonthHours(currentMonthHoursCount)
+			.totalShifts(totalShifts + archived.shifts())
+			.totalHours(Math.toIntExact(totalHours + archived.hours()))
+			.totalEarnings(MoneyCents.toBigDecimal(totalEarningsCents + archived.earningsCents()))
+			.currentMonthEarnings(MoneyCents.toBigDecimal(monthEarningsCents))
+			.currentMonthShifts(monthShifts)
+			.currentMonthHours(Math.toIntExact(monthHours))
 			.topProjects(topProjects)
 			.build();
-		
-		log.info("Dashboard stats calculated: {} projects, {} shifts, {} total",
-			allProjects.size(), totalShifts, totalEarnings);
-		
-		return stats;
 	}
 	
 	/**
@@ -132,17 +205,8 @@ public class DashboardService implements IDashboardService {
 	/**
 	 * Преобразовать проект в TopProjectDto
 	 */
-	private TopProjectDto mapToTopProject(Project project) {
-		List<Shift> shifts = project.getShifts();
-		
-		BigDecimal totalEarnings = shifts.stream()
-			.map(Shift::getTotalPay)
-			.reduce(BigDecimal.ZERO, BigDecimal::add);
-		
-		int totalHours = shifts.stream()
-			.map(Shift::getHours)
-			.filter(Objects::nonNull)
-			.reduce(0, Integer::sum);
+	private TopProjectDto mapToTopProject(Project project, int shiftCount, long totalHours, long earningsCents) {
+		BigDecimal totalEarnings = MoneyCents.toBigDecimal(earningsCents);
 		
 		BigDecimal hourlyRate = totalHours > 0
 			? totalEarnings.divide(BigDecimal.valueOf(totalHours), 2, RoundingMode.HALF_UP)
@@ -152,9 +216,11 @@ public class DashboardService implements IDashboardService {
 			.id(project.getId())
 			.name(project.getName())
 			.totalEarnings(totalEarnings)
-			.shiftCount(shifts.size())
+			.shiftCount(shiftCount)
 			.hourlyRate(hourlyRate)
 			.build();
 	}
 	
+	private record ArchivedTotals(int projects, int shifts, long hours, long earningsCents) {
+	}
 }
@@ -13,11 +13,15 @@ import nelon.arrive.nelonshift.exception.BusinessLogicException;
 import nelon.arrive.nelonshift.exception.ResourceNotFoundException;
 import nelon.arrive.nelonshift.mappers.ProjectMapper;
 import nelon.arrive.nelonshift.repository.ProjectRepository;
+import nelon.arrive.nelonshift.repository.ShiftRepository;
 import nelon.arrive.nelonshift.request.CreateProjectRequest;
 import nelon.arrive.nelonshift.request.UpdateProjectRequest;
-import nelon.arrive.nelonshift.response.MessageResponse;
 import nelon.arrive.nelonshift.response.PageResponse;
+import nelon.arrive.nelonshift.services.deletion.BulkDeletionService;
+import nelon.arrive.nelonshift.services.deletion.DeletionJob;
 import nelon.arrive.nelonshift.services.interfaces.IProjectService;
+import nelon.arrive.nelonshift.services.stats.MoneyAccumulator;
+import nelon.arrive.nelonshift.services.versions.ResourceVersions;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -25,14 +29,12 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
-import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -40,11 +42,14 @@ import java.util.Objects;
 public class ProjectService implements IProjectService {
 	
 	private final ProjectRepository projectRepository;
+	private final ShiftRepository shiftRepository;
 	private final ProjectMapper projectMapper;
 	
 	private static final int MAX_NAME_LENGTH = 100;
 	private static final List<String> VALID_SORT_FIELDS = Arrays.asList("name", "status", "createdAt");
 	private final AuthService authService;
+	private final ResourceVersions resourceVersions;
+	private final BulkDeletionService bulkDeletionService;
 	
 	@Override
 	@Transactional(readOnly = true)
@@ -76,21 +81,28 @@ public class ProjectService implements IProjectService {
 		
 		Pageable pageable = PageRequest.of(page, size, sort);
 		
-		Page<Project> projectPage = projectRepository.findByFilters(
+		Page<ProjectDto> projectDtoPage = projectRepository.findDtosByFilters(
 			name, status, pageable
 		);
-
-
-		Page<ProjectDto> projectDtoPage = projectPage.map(projectMapper::toDto);
 		return new PageResponse<>(projectDtoPage);
 	}
 	
 	@Override
 	@Transactional(readOnly = true)
 	public ProjectDto getProjectById(Long id) {
-		Project project = projectRepository.findById(id)
+		return projectRepository.findDtoById(id)
 			.orElseThrow(() -> new ResourceNotFoundException("Project not found"));
-		return projectMapper.toDto(project);
+	}
+	
+	/**
+	 * Проверка по первичному ключу до чтения версии проекта: версия несуществующего
+	 * проекта не заводится в Redis, и на его id отвечаем 404, а не 304
+	 */
+	@Override
+	public void checkProjectExists(Long id) {
+		if (!projectRepository.existsById(id)) {
+			throw new ResourceNotFoundException("Project not found");
+		}
 	}
 	
 	@Override
@@ -115,6 +127,7 @@ public class ProjectService implements IProjectService {
 		project.setUser(user);
 		
 		Project savedProject = projectRepository.save(project);
+		resourceVersions.projectChanged(savedProject.getId(), user.getId());
 		
 		log.info("Created project with id: {} and name: '{}'", project.getId(), project.getName());
 		
@@ -122,6 +135,7 @@ public class ProjectService implements IProjectService {
 	}
 	
 	@Override
+	@Transactional
 	public ProjectDto updateProject(Long id, UpdateProjectRequest request) {
 		Project project = projectRepository.findById(id)
 			.orElseThrow(() -> new ResourceNotFoundException("Project not found"));
@@ -144,21 +158,12 @@ public class ProjectService implements IProjectService {
 		project.setEndDate(request.getEndDate());
 		
 		Project updatedProject = projectRepository.save(project);
+		resourceVersions.projectChanged(id, project.getUser().getId());
 		return projectMapper.toDto(updatedProject);
 	}
 	
-	public MessageResponse deleteProject(Long id) {
-		Project project = projectRepository.findById(id)
-			.orElseThrow(() -> new ResourceNotFoundException("Project not found"));
-		
-		if (!id.equals(project.getId())) {
-			throw new ResourceNotFoundException("Project not found");
-		}
-		
-		projectRepository.deleteById(id);
-		log.info("Deleted project with id: {}", id);
-		
-		return new MessageResponse("Delete project successfully");
+	public DeletionJob deleteProject(Long id) {
+		return bulkDeletionService.deleteProject(id);
 	}
 	
 	@Transactional(readOnly = true)
@@ -180,37 +185,36 @@ public class ProjectService implements IProjectService {
 		
 		List<Shift> shifts = project.getShifts();
 		
-		BigDecimal totalBasePay = shifts.stream()
-			.map(Shift::getBasePay)
-			.filter(Objects::nonNull)
-			.reduce(BigDecimal.ZERO, BigDecimal::add);
-		
-		BigDecimal totalOvertimePay = shifts.stream()
-			.map(Shift::getOvertimePay)
-			.filter(Objects::nonNull)
-			.reduce(BigDecimal.ZERO, BigDecimal::add);
-		
-		BigDecimal totalPerDiem = shifts.stream()
-			.map(Shift::getPerDiem)
-			.filter(Objects::nonNull)
-			.reduce(BigDecimal.ZERO, BigDecimal::add);
-		
-		BigDecimal totalEarnings = totalBasePay.add(totalOvertimePay).add(totalPerDiem);
-		
-		Integer totalHours = shifts.stream()
-			.map(Shift::getHours)
-			.filter(Objects::nonNull)
-			.reduce(0, Integer::sum);
-		
-		LocalDate firstShiftDate = shifts.stream()
-			.map(Shift::getDate)
-			.min(LocalDate::compareTo)
-			.orElse(null);
+		// Один проход по сменам, суммы считаются в копейках
+		MoneyAccumulator totalBasePay = new MoneyAccumulator();
+		MoneyAccumulator totalOvertimePay = new MoneyAccumulator();
+		MoneyAccumulator totalPerDiem = new MoneyAccumulator();
+		int totalHours = 0;
+		LocalDate firstShiftDate = null;
+		LocalDate lastShiftDate = null;
+		
+		for (Shift shift : shifts) {
+			totalBasePay.add(shift.getBasePay());
+			totalOvertimePay.add(shift.getOvertimePay());
+			totalPerDiem.add(shift.getPerDiem());
+			
+			if (shift.getHours() != null) {
+				totalHours += shift.getHours();
+			}
+			
+			LocalDate date = shift.getDate();
+			if (firstShiftDate == null || date.isBefore(firstShiftDate)) {
+				firstShiftDate = date;
+			}
+			if (lastShiftDate == null || date.isAfter(lastShiftDate)) {
+				lastShiftDate = date;
+			}
+		}
 		
-		LocalDate lastShiftDate = shifts.stream()
-			.map(Shift::getDate)
-			.max(LocalDate::compareTo)
-			.orElse(null);
+		MoneyAccumulator totalEarnings = new MoneyAccumulator()
+			.add(totalBasePay)
+			.add(totalOvertimePay)
+			.add(totalPerDiem);
 		
 		String period = formatDateRange(firstShiftDate, lastShiftDate);
 		
@@ -221,10 +225,10 @@ public class ProjectService implements IProjectService {
 			.daysWorked(daysWorked)
 			.shiftCount(shifts.size())
 			.totalHours(totalHours)
-			.totalEarnings(totalEarnings)
-			.totalBasePay(totalBasePay)
-			.totalOvertimePay(totalOvertimePay)
-			.totalPerDiem(totalPerDiem)
+			.totalEarnings(totalEarnings.toBigDecimal())
+			.totalBasePay(totalBasePay.toBigDecimal())
+			.totalOvertimePay(totalOvertimePay.toBigDecimal())
+			.totalPerDiem(totalPerDiem.toBigDecimal())
 			.targetShiftCount(project.getTargetShiftCount())
 			.build();
 		
@@ -280,17 +284,10 @@ public class ProjectService implements IProjectService {
 	}
 	
 	private void validateDateChangeWithShifts(Project project, LocalDate newStartDate, LocalDate newEndDate) {
-		if (project.getShifts().isEmpty()) {
-			return;
-		}
-		
-		boolean hasShiftsOutsideRange = project.getShifts().stream()
-			.anyMatch(shift -> {
-				LocalDate shiftDate = shift.getDate();
-				boolean outsideStart = newStartDate != null && shiftDate.isBefore(newStartDate);
-				boolean outsideEnd = newEndDate != null && shiftDate.isAfter(newEndDate);
-				return outsideStart || outsideEnd;
-			});
+		// Два запроса EXISTS вместо загрузки всех смен проекта
+		boolean hasShiftsOutsideRange =
+			(newStartDate != null && shiftRepository.existsByProjectIdAndDateBefore(project.getId(), newStartDate))
+				|| (newEndDate != null && shiftRepository.existsByProjectIdAndDateAfter(project.getId(), newEndDate));
 		
 		if (hasShiftsOutsideRange) {
 			throw new BusinessLogicException(
@@ -1,62 +1,87 @@
 package nelon.arrive.nelonshift.services;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
-import nelon.arrive.nelonshift.entity.RefreshToken;
 import nelon.arrive.nelonshift.exception.TokenRefreshException;
-import nelon.arrive.nelonshift.repository.RefreshTokenRepository;
 import nelon.arrive.nelonshift.security.jwt.JwtUtils;
+import nelon.arrive.nelonshift.security.session.RefreshSession;
+import nelon.arrive.nelonshift.security.session.RefreshSessionStore;
+import nelon.arrive.nelonshift.security.session.RotationResult;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class RefreshTokenService {
 	
-	private final RefreshTokenRepository refreshTokenRepository;
+	private final RefreshSessionStore sessionStore;
 	private final JwtUtils jwtUtils;
+	private final Counter reuseDetected;
+	
+	public RefreshTokenService(RefreshSessionStore sessionStore, JwtUtils jwtUtils, MeterRegistry meterRegistry) {
+		this.sessionStore = sessionStore;
+		this.jwtUtils = jwtUtils;
+		this.reuseDetected = Counter.builder("nelonshift.auth.refresh.reuse")
+			.description("Replayed refresh tokens that revoked their token family")
+			.register(meterRegistry);
+	}
 	
 	public String createRefreshToken(UUID userId) {
-		String tokenValue = jwtUtils.generateRefreshToken();
-		
-		long expirationMs = jwtUtils.getRefreshTokenExpirationMs();
-		Instant expiresAt = Instant.now().plusMillis(expirationMs);
-		
-		RefreshToken refreshToken = RefreshToken.builder()
-			.userId(userId)
-			.token(tokenValue)
-			.ttl(expirationMs / 1000)
-			.build();
-		
-		refreshTokenRepository.save(refreshToken);
+		RefreshSession session = sessionStore.create(
+			jwtUtils.generateRefreshToken(),
+			userId,
+			jwtUtils.getRefreshTokenExpirationMs()
+		);
 		
-		log.info("Created refresh token for user: {}, expires at: {}", userId, expiresAt);
+		log.info("Created refresh token for user: {}, expires at: {}", userId, session.expiresAt());
 		
-		return tokenValue;
+		return session.token();
 	}
 	
-	public RefreshToken verifyExpiration(String token) {
-		return refreshTokenRepository.findById(token)
+	public RefreshSession verifyExpiration(String token) {
+		return sessionStore.find(token)
 			.orElseThrow(() ->
 				new TokenRefreshException("Refresh token not found or expired"));
 	}
 	
-	public String rotateRefreshToken(String oldToken) {
-		RefreshToken oldRefreshToken = verifyExpiration(oldToken);
+	/**
+	 * Token Rotation: старый токен удаляется, новый той же семьи создаётся атомарно.
+	 * Повторное использование заменённого токена отзывает всю семью:
+	 * и у злоумышленника, и у владельца остаётся только повторный вход.
+	 */
+	public RefreshSession rotateRefreshToken(String oldToken) {
+		RotationResult result = sessionStore.rotate(
+			oldToken,
+			jwtUtils.generateRefreshToken(),
+			jwtUtils.getRefreshTokenExpirationMs()
+		);
 		
-		refreshTokenRepository.delete(oldRefreshToken);
-		
-		return createRefreshToken(oldRefreshToken.getUserId());
+		return switch (result.outcome()) {
+			case ROTATED -> result.session();
+			case NOT_FOUND -> throw new TokenRefreshException("Refresh token not found or expired");
+			case REUSED -> {
+				reuseDetected.increment();
+				log.warn("Refresh token reuse detected for user: {}, token family revoked", result.userId());
+				throw new TokenRefreshException("Refresh token was already used, please log in again");
+			}
+		};
 	}
 	
 	public void deleteByToken(String token) {
-		refreshTokenRepository.findByToken(token)
-			.ifPresent(refreshToken -> {
-				refreshTokenRepository.delete(refreshToken);
-				log.info("Deleted refresh token for user: {}", refreshToken.getUserId());
-			});
+		sessionStore.revoke(token)
+			.ifPresent(userId -> log.info("Deleted refresh token for user: {}", userId));
+	}
+	
+	public long deleteAllForUser(UUID userId) {
+		long revoked = sessionStore.revokeAll(userId);
+		log.info("Deleted {} refresh tokens for user: {}", revoked, userId);
+		return revoked;
+	}
+	
+	public List<RefreshSession> getSessions(UUID userId) {
+		return sessionStore.list(userId);
 	}
 }
@@ -2,26 +2,35 @@ package nelon.arrive.nelonshift.services;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import nelon.arrive.nelonshift.cluster.DistributedLocks;
 import nelon.arrive.nelonshift.dto.ShiftDto;
 import nelon.arrive.nelonshift.entity.Project;
 import nelon.arrive.nelonshift.entity.Shift;
 import nelon.arrive.nelonshift.exception.AlreadyExistsException;
 import nelon.arrive.nelonshift.exception.BadRequestException;
 import nelon.arrive.nelonshift.exception.ResourceNotFoundException;
+import nelon.arrive.nelonshift.exception.ServiceOverloadedException;
 import nelon.arrive.nelonshift.exception.ValidationException;
 import nelon.arrive.nelonshift.mappers.ShiftMapper;
 import nelon.arrive.nelonshift.repository.ProjectRepository;
 import nelon.arrive.nelonshift.repository.ShiftRepository;
+import nelon.arrive.nelonshift.repository.projection.ShiftOwnerView;
 import nelon.arrive.nelonshift.request.CreateShiftRequest;
 import nelon.arrive.nelonshift.request.UpdateShiftRequest;
 import nelon.arrive.nelonshift.response.MessageResponse;
+import nelon.arrive.nelonshift.services.analytics.ShiftColumnStore;
 import nelon.arrive.nelonshift.services.interfaces.IShiftService;
+import nelon.arrive.nelonshift.services.versions.ResourceVersions;
+import nelon.arrive.nelonshift.util.MoneyCents;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -31,20 +40,44 @@ public class ShiftService implements IShiftService {
 	private final ShiftRepository shiftRepository;
 	private final ProjectRepository projectRepository;
 	private final ShiftMapper shiftMapper;
+	private final ShiftColumnStore shiftColumnStore;
+	private final ResourceVersions resourceVersions;
+	private final DistributedLocks distributedLocks;
 	
 	@Override
 	@Transactional(readOnly = true)
 	public List<ShiftDto> getShiftsByProjectId(Long projectId) {
+		List<ShiftDto> shifts = shiftRepository.findDtosByProjectId(projectId);
+		if (shifts.isEmpty() && !projectRepository.existsById(projectId)) {
+			throw new ResourceNotFoundException("Project not found");
+		}
+		return shifts;
+	}
+	
+	/**
+	 * Смены проекта по одной, без списка в памяти: строки читаются курсором
+	 * сразу в DTO, и контекст персистентности не растёт
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public void forEachShiftByProjectId(Long projectId, Consumer<ShiftDto> action) {
 		if (!projectRepository.existsById(projectId)) {
 			throw new ResourceNotFoundException("Project not found");
 		}
-		List<Shift> shifts = shiftRepository.findByProjectId(projectId);
-		return shiftMapper.toDtoList(shifts);
+		try (Stream<ShiftDto> shifts = shiftRepository.streamDtosByProjectId(projectId)) {
+			shifts.forEach(action);
+		}
 	}
 	
+	/**
+	 * Проверка "одна смена на дату" и вставка - под блокировкой проекта,
+	 * иначе два экземпляра приложения могут создать дубликат одновременно
+	 */
 	@Override
+	@Transactional
 	public ShiftDto createShift(CreateShiftRequest request) {
 		validateShiftCreate(request);
+		lockProject(request.getProjectId());
 		
 		Project project = projectRepository.findById(request.getProjectId())
 			.orElseThrow(() -> new ResourceNotFoundException("Project not found"));
@@ -66,14 +99,17 @@ public class ShiftService implements IShiftService {
 		shift.setPerDiem(request.getPerDiem());
 		shift.setCompensation(request.getCompensation());
 		shift.setProject(project);
-
+		
 		Shift savedShift = shiftRepository.save(shift);
+		shiftColumnStore.onShiftSaved(project.getUser().getId(), savedShift);
+		resourceVersions.shiftChanged(project.getId(), project.getUser().getId());
 		log.info("Created shift with id: {} for project: {}", savedShift.getId(), request.getProjectId());
-
+		
 		return shiftMapper.toDto(savedShift);
 	}
 	
 	@Override
+	@Transactional
 	public ShiftDto updateShift(Long id, UpdateShiftRequest shiftDetails) {
 		validateShiftUpdate(shiftDetails);
 		
@@ -81,6 +117,7 @@ public class ShiftService implements IShiftService {
 			.orElseThrow(() -> new ResourceNotFoundException("Shift not found with id: " + id));
 		
 		if (!shift.getDate().equals(shiftDetails.getDate())) {
+			lockProject(shift.getProject().getId());
 			if (shiftRepository.existsByProjectIdAndDate(shift.getProject().getId(), shiftDetails.getDate())) {
 				throw new AlreadyExistsException("Shift already exists for this project on date: " + shiftDetails.getDate());
 			}
@@ -96,8 +133,12 @@ public class ShiftService implements IShiftService {
 		shift.setOvertimePay(shiftDetails.getOvertimePay());
 		shift.setPerDiem(shiftDetails.getPerDiem());
 		shift.setCompensation(shiftDetails.getCompensation());
-
+		
 		Shift updatedShift = shiftRepository.save(shift);
+		shiftRepository.findOwnerIdById(id).ifPresent(ownerId -> {
+			shiftColumnStore.onShiftSaved(ownerId, updatedShift);
+			resourceVersions.shiftChanged(shift.getProject().getId(), ownerId);
+		});
 		log.info("Updated shift with id: {}", id);
 		
 		return shiftMapper.toDto(updatedShift);
@@ -105,16 +146,35 @@ public class ShiftService implements IShiftService {
 	
 	@Override
 	public MessageResponse deleteShift(Long id) {
-		if (!shiftRepository.existsById(id)) {
-			throw new ResourceNotFoundException("Shift not found");
-		}
+		ShiftOwnerView owner = shiftRepository.findOwnerById(id)
+			.orElseThrow(() -> new ResourceNotFoundException("Shift not found"));
 		
 		shiftRepository.deleteById(id);
+		shiftColumnStore.onShiftDeleted(owner.getOwnerId(), id);
+		resourceVersions.shiftChanged(owner.getProjectId(), owner.getOwnerId());
 		log.info("Deleted shift with id: {}", id);
 		
 		return new MessageResponse("Delete shift successfully");
 	}
 	
+	/**
+	 * Сериализовать изменения смен проекта между экземплярами до конца транзакции.
+	 * Fencing-токен блокировки записывается в строку проекта: владелец истёкшей блокировки
+	 * со старым токеном получит отказ. Без Redis - блокировка строки проекта в БД.
+	 */
+	private void lockProject(Long projectId) {
+		OptionalLong token = distributedLocks.lockForTransaction("project:" + projectId);
+		int updated = token.isPresent()
+			? projectRepository.advanceLockFence(projectId, token.getAsLong())
+			: projectRepository.lockRow(projectId);
+		if (updated == 0) {
+			if (!projectRepository.existsById(projectId)) {
+				throw new ResourceNotFoundException("Project not found");
+			}
+			throw new ServiceOverloadedException("Project lock expired, try again", 1);
+		}
+	}
+	
 	@Override
 	public void validateShiftCreate(CreateShiftRequest request) {
 		// Валидация времени
@@ -152,6 +212,8 @@ public class ShiftService implements IShiftService {
 				throw new ValidationException("Overtime pay is required when overtime hours are specified");
 			}
 		}
+		
+		validateMoneyScale(request.getBasePay(), request.getOvertimePay(), request.getPerDiem(), request.getCompensation());
 	}
 	
 	@Override
@@ -189,6 +251,19 @@ public class ShiftService implements IShiftService {
 		if (request.getPerDiem() != null && request.getPerDiem().compareTo(BigDecimal.ZERO) < 0) {
 			throw new ValidationException("Per diem must be positive");
 		}
+		
+		validateMoneyScale(request.getBasePay(), request.getOvertimePay(), request.getPerDiem(), request.getCompensation());
+	}
+	
+	/**
+	 * Суммы хранятся с точностью до копейки и складываются в копейках без округления
+	 */
+	private void validateMoneyScale(BigDecimal... amounts) {
+		for (BigDecimal amount : amounts) {
+			if (amount != null && amount.stripTrailingZeros().scale() > MoneyCents.SCALE) {
+				throw new ValidationException("Amounts must have at most " + MoneyCents.SCALE + " decimal places");
+			}
+		}
 	}
 	
 	@Override
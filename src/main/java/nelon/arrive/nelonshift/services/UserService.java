@@ -1,40 +1,131 @@
 package nelon.arrive.nelonshift.services;
 
 import lombok.RequiredArgsConstructor;
+import nelon.arrive.nelonshift.dto.ProjectDto;
 import nelon.arrive.nelonshift.dto.UserDto;
+import nelon.arrive.nelonshift.dto.UserSummaryDto;
 import nelon.arrive.nelonshift.entity.User;
+import nelon.arrive.nelonshift.exception.BadRequestException;
 import nelon.arrive.nelonshift.exception.ResourceNotFoundException;
 import nelon.arrive.nelonshift.mappers.UserMapper;
+import nelon.arrive.nelonshift.repository.ProjectRepository;
 import nelon.arrive.nelonshift.repository.UserRepository;
+import nelon.arrive.nelonshift.repository.projection.UserProjectRow;
 import nelon.arrive.nelonshift.request.UpdateUserRequest;
-import nelon.arrive.nelonshift.response.MessageResponse;
+import nelon.arrive.nelonshift.response.CursorPageResponse;
+import nelon.arrive.nelonshift.services.deletion.BulkDeletionService;
+import nelon.arrive.nelonshift.services.deletion.DeletionJob;
 import nelon.arrive.nelonshift.services.interfaces.IUserService;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 @Service
 public class UserService implements IUserService {
 	
 	private final UserRepository userRepository;
+	private final ProjectRepository projectRepository;
 	private final UserMapper userMapper;
+	private final BulkDeletionService bulkDeletionService;
+	
+	private static final int MAX_PAGE_SIZE = 500;
+	private static final int MAX_EMAIL_PREFIX_LENGTH = 254;
 	
 	@Override
 	@Transactional(readOnly = true)
 	public List<UserDto> getAllUsers() {
-		List<User> users = userRepository.findAll();
-		return userMapper.toDtoList(users);
+		List<UserDto> users = userRepository.findAllDtos();
+		Map<UUID, List<ProjectDto>> projectsByUser = projectRepository.findAllUserProjectRows().stream()
+			.collect(Collectors.groupingBy(
+				UserProjectRow::userId,
+				Collectors.mapping(UserProjectRow::toProjectDto, Collectors.toList())
+			));
+		users.forEach(user -> user.setProjects(projectsByUser.getOrDefault(user.getId(), new ArrayList<>())));
+		return users;
+	}
+	
+	/**
+	 * Страница пользователей по email (keyset): следующая страница начинается после email
+	 * последней строки, поэтому цена запроса не растёт с номером страницы
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public CursorPageResponse<UserSummaryDto> getUsers(
+		String emailPrefix,
+		LocalDate createdFrom,
+		LocalDate createdTo,
+		String cursor,
+		int size,
+		boolean withProjectCount
+	) {
+		if (size < 1 || size > MAX_PAGE_SIZE) {
+			throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+		}
+		validateFilter(emailPrefix, createdFrom, createdTo);
+		
+		String after = decodeCursor(cursor);
+		String pattern = emailPattern(emailPrefix);
+		LocalDateTime from = createdFrom != null ? createdFrom.atStartOfDay() : null;
+		LocalDateTime before = createdTo != null ? createdTo.plusDays(1).atStartOfDay() : null;
+		// Лишняя строка показывает, есть ли следующая страница, без COUNT по всей таблице
+		Limit limit = Limit.of(size + 1);
+		
+		List<UserSummaryDto> users = withProjectCount
+			? userRepository.findSummariesWithProjectCount(after, pattern, from, before, limit)
+			: userRepository.findSummaries(after, pattern, from, before, limit);
+		
+		if (users.size() <= size) {
+			return new CursorPageResponse<>(users, size, null);
+		}
+		List<UserSummaryDto> page = users.subList(0, size);
+		return new CursorPageResponse<>(page, size, encodeCursor(page.get(size - 1).getEmail()));
+	}
+	
+	/**
+	 * Все подходящие пользователи по одному, курсором БД - для выгрузки
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public void forEachUser(
+		String emailPrefix,
+		LocalDate createdFrom,
+		LocalDate createdTo,
+		boolean withProjectCount,
+		Consumer<UserSummaryDto> action
+	) {
+		validateFilter(emailPrefix, createdFrom, createdTo);
+		
+		String pattern = emailPattern(emailPrefix);
+		LocalDateTime from = createdFrom != null ? createdFrom.atStartOfDay() : null;
+		LocalDateTime before = createdTo != null ? createdTo.plusDays(1).atStartOfDay() : null;
+		
+		try (Stream<UserSummaryDto> users = withProjectCount
+			? userRepository.streamSummariesWithProjectCount(null, pattern, from, before)
+			: userRepository.streamSummaries(null, pattern, from, before)) {
+			users.forEach(action);
+		}
 	}
 	
 	@Override
 	@Transactional(readOnly = true)
 	public UserDto getUserById(UUID userId) {
-		User user = userRepository.findById(userId)
+		UserDto user = userRepository.findDtoById(userId)
 			.orElseThrow(() -> new ResourceNotFoundException("User not found!"));
-		return userMapper.toDto(user);
+		user.setProjects(projectRepository.findDtosByUserId(userId));
+		return user;
 	}
 	
 	@Override
@@ -46,12 +137,48 @@ public class UserService implements IUserService {
 		return userMapper.toDto(user);
 	}
 	
+	/**
+	 * Пакетное удаление пользователя с проектами и сменами, см. {@link BulkDeletionService}
+	 */
 	@Override
-	public MessageResponse deleteUser(UUID userId) {
-		userRepository.findById(userId).ifPresentOrElse(userRepository::delete, () -> {
-			throw new ResourceNotFoundException("User not found!");
-		});
-		
-		return new MessageResponse("Delete user successfully");
+	public DeletionJob deleteUser(UUID userId) {
+		return bulkDeletionService.deleteUser(userId);
+	}
+	
+	private void validateFilter(String emailPrefix, LocalDate createdFrom, LocalDate createdTo) {
+		if (emailPrefix != null && emailPrefix.length() > MAX_EMAIL_PREFIX_LENGTH) {
+			throw new BadRequestException("Email prefix is too long (max " + MAX_EMAIL_PREFIX_LENGTH + " characters)");
+		}
+		if (createdFrom != null && createdTo != null && createdFrom.isAfter(createdTo)) {
+			throw new BadRequestException("createdFrom must not be after createdTo");
+		}
+	}
+	
+	/**
+	 * Префикс email в шаблон LIKE; символы шаблона в самом префиксе экранируются
+	 */
+	private static String emailPattern(String emailPrefix) {
+		if (emailPrefix == null || emailPrefix.isBlank()) {
+			return null;
+		}
+		return emailPrefix.trim()
+			.replace("\\", "\\\\")
+			.replace("%", "\\%")
+			.replace("_", "\\_") + "%";
+	}
+	
+	private static String encodeCursor(String email) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(email.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	private static String decodeCursor(String cursor) {
+		if (cursor == null || cursor.isBlank()) {
+			return null;
+		}
+		try {
+			return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("Invalid cursor");
+		}
 	}
 }
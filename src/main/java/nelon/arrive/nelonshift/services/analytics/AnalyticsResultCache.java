@@ -0,0 +1,101 @@
+package nelon.arrive.nelonshift.services.analytics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Кэш результатов аналитики по пользователям.
+ * <p>
+ * Результат привязан к экземпляру {@link ShiftColumns}, из которого посчитан.
+ * Любая запись смены заменяет снимок в {@link ShiftColumnStore}, поэтому
+ * устаревшие результаты отбрасываются без явной инвалидации.
+ * Листание страниц одного запроса не пересчитывает группировку.
+ * Пользователей не больше {@code max-users}: вытесняется тот, к кому дольше всего не обращались.
+ */
+@Component
+public class AnalyticsResultCache {
+
+	private final int maxUsers;
+	private final int maxQueriesPerUser;
+	private final Counter hits;
+	private final Counter misses;
+
+	// accessOrder: первым вытесняется давно не использованный пользователь; под synchronized (users)
+	private final Map<UUID, UserResults> users;
+
+	public AnalyticsResultCache(
+		@Value("${analytics.result-cache.max-users:1000}") int maxUsers,
+		@Value("${analytics.result-cache.max-queries-per-user:16}") int maxQueriesPerUser,
+		MeterRegistry meterRegistry
+	) {
+		this.maxUsers = maxUsers;
+		this.maxQueriesPerUser = maxQueriesPerUser;
+		this.hits = ShiftColumnStore.cacheCounter(meterRegistry, "analytics-results", "hit");
+		this.misses = ShiftColumnStore.cacheCounter(meterRegistry, "analytics-results", "miss");
+		this.users = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<UUID, UserResults> eldest) {
+				return size() > maxUsers;
+			}
+		};
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T> T get(UUID userId, ShiftColumns source, Object query, Supplier<T> compute) {
+		if (maxUsers <= 0) {
+			return compute.get();
+		}
+		UserResults results;
+		synchronized (users) {
+			results = users.computeIfAbsent(userId, id -> new UserResults(maxQueriesPerUser));
+		}
+
+		synchronized (results) {
+			if (results.source != source) {
+				results.source = source;
+				results.values.clear();
+			}
+			Object cached = results.values.get(query);
+			if (cached != null) {
+				hits.increment();
+				return (T) cached;
+			}
+		}
+		misses.increment();
+
+		T value = compute.get();
+		synchronized (results) {
+			if (results.source == source) {
+				results.values.put(query, value);
+			}
+		}
+		return value;
+	}
+
+	int size() {
+		synchronized (users) {
+			return users.size();
+		}
+	}
+
+	private static final class UserResults {
+		private ShiftColumns source;
+		private final Map<Object, Object> values;
+
+		private UserResults(int capacity) {
+			this.values = new LinkedHashMap<>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+					return size() > capacity;
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package nelon.arrive.nelonshift.services.analytics;
+
+import lombok.Getter;
+import nelon.arrive.nelonshift.util.MoneyCents;
+
+import java.math.BigDecimal;
+
+/**
+ * Итоги по группе строк колоночного кэша
+ */
+@Getter
+public final class ShiftAggregate {
+
+	private int shiftCount;
+	private long hours;
+	private long overtimeHours;
+	private long payCents;
+	private long overtimePayCents;
+	private long perDiemCents;
+
+	void add(ShiftColumns columns, int row) {
+		shiftCount++;
+		hours += columns.hours[row];
+		overtimeHours += columns.overtimeHours[row];
+		payCents = Math.addExact(payCents, columns.payCents[row]);
+		overtimePayCents = Math.addExact(overtimePayCents, columns.overtimePayCents[row]);
+		perDiemCents = Math.addExact(perDiemCents, columns.perDiemCents[row]);
+	}
+
+	public BigDecimal getEarnings() {
+		return MoneyCents.toBigDecimal(payCents);
+	}
+
+	public BigDecimal getOvertimePay() {
+		return MoneyCents.toBigDecimal(overtimePayCents);
+	}
+
+	public BigDecimal getPerDiem() {
+		return MoneyCents.toBigDecimal(perDiemCents);
+	}
+}
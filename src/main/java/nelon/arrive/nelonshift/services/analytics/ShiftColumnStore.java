@@ -0,0 +1,325 @@
+package nelon.arrive.nelonshift.services.analytics;
+
+import lombok.Getter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import nelon.arrive.nelonshift.cluster.CacheInvalidationBus;
+import nelon.arrive.nelonshift.entity.Shift;
+import nelon.arrive.nelonshift.repository.ShiftRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Колоночный кэш смен по пользователям.
+ * <p>
+ * Снимок пользователя загружается из {@link ShiftRepository} при первом обращении
+ * и дальше патчится при записи смен через {@link #onShiftSaved}/{@link #onShiftDeleted}.
+ * Если запись пришла во время загрузки, загруженный снимок не сохраняется,
+ * следующий запрос загрузит его заново.
+ * <p>
+ * Когда включён {@link ShiftSnapshotStore}, загрузка сначала сверяет водяной знак
+ * смен в БД (один агрегатный запрос) со снимком на диске и только при расхождении
+ * читает строки. Изменённые в памяти снимки сохраняются на диск при остановке,
+ * если их водяной знак всё ещё совпадает с БД.
+ * <p>
+ * Кэш у каждого экземпляра свой: после коммита записи остальные экземпляры получают
+ * через {@link CacheInvalidationBus} сброс снимка пользователя и загрузят его заново.
+ * <p>
+ * Снимков не больше {@code max-users}: при переполнении вытесняется тот, к которому
+ * дольше всех не обращались (LRU в порядке доступа).
+ */
+@Component
+@Slf4j
+public class ShiftColumnStore {
+
+	static final String CACHE = "shift-columns";
+
+	private final ShiftRepository shiftRepository;
+	private final ShiftSnapshotStore snapshotStore;
+	private final CacheInvalidationBus invalidationBus;
+
+	@Getter
+	private final boolean enabled;
+	private final int maxUsers;
+
+	private final Counter hits;
+	private final Counter misses;
+	private final Counter snapshotHits;
+	private final Counter snapshotMisses;
+
+	// Порядок доступа для LRU; все обращения - под монитором entries
+	private final Map<UUID, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+			if (size() <= maxUsers) {
+				return false;
+			}
+			writeGenerations.remove(eldest.getKey());
+			return true;
+		}
+	};
+	// Счётчики записей только для пользователей со снимком или с идущей загрузкой:
+	// загрузка не сохраняет снимок, если за время чтения была запись
+	private final Map<UUID, AtomicLong> writeGenerations = new ConcurrentHashMap<>();
+
+	public ShiftColumnStore(
+		ShiftRepository shiftRepository,
+		ShiftSnapshotStore snapshotStore,
+		CacheInvalidationBus invalidationBus,
+		MeterRegistry meterRegistry,
+		@Value("${analytics.column-store.enabled:true}") boolean enabled,
+		@Value("${analytics.column-store.max-users:10000}") int maxUsers
+	) {
+		this.shiftRepository = shiftRepository;
+		this.snapshotStore = snapshotStore;
+		this.invalidationBus = invalidationBus;
+		this.enabled = enabled;
+		this.maxUsers = maxUsers;
+		this.hits = cacheCounter(meterRegistry, "shift-columns", "hit");
+		this.misses = cacheCounter(meterRegistry, "shift-columns", "miss");
+		this.snapshotHits = cacheCounter(meterRegistry, "shift-snapshot", "hit");
+		this.snapshotMisses = cacheCounter(meterRegistry, "shift-snapshot", "miss");
+		invalidationBus.subscribe(CACHE, userId -> evict(UUID.fromString(userId)), this::evictAll);
+	}
+
+	static Counter cacheCounter(MeterRegistry meterRegistry, String cache, String result) {
+		return Counter.builder("nelonshift.cache.requests")
+			.tag("cache", cache)
+			.tag("result", result)
+			.register(meterRegistry);
+	}
+
+	private static final class Entry {
+		private volatile ShiftColumns columns;
+		// водяной знак, которому соответствуют колонки (null - неизвестен); dirty и он - под монитором записи
+		private ShiftWatermark watermark;
+		// снимок изменён после загрузки и отличается от файла на диске
+		private boolean dirty;
+
+		private Entry(ShiftColumns columns, ShiftWatermark watermark) {
+			this.columns = columns;
+			this.watermark = watermark;
+		}
+	}
+
+	/**
+	 * Снимок смен пользователя, при необходимости загружается из БД
+	 */
+	public ShiftColumns get(UUID userId) {
+		Entry entry = entry(userId);
+		if (entry != null) {
+			hits.increment();
+			return entry.columns;
+		}
+		misses.increment();
+		return load(userId);
+	}
+
+	/**
+	 * Смена сохранена; внутри транзакции снимок патчится после коммита
+	 */
+	public void onShiftSaved(UUID userId, Shift shift) {
+		ShiftColumns.Row row = ShiftColumns.Row.of(shift);
+		afterCommit(() -> patch(userId, entry -> {
+			boolean inserted = entry.columns.indexOf(row.shiftId()) < 0;
+			entry.columns = entry.columns.upsert(row);
+			if (entry.watermark != null) {
+				entry.watermark = shift.getUpdatedAt() != null ? entry.watermark.afterSave(inserted, shift.getUpdatedAt()) : null;
+			}
+		}));
+		invalidationBus.publish(CACHE, userId.toString());
+	}
+
+	public void onShiftDeleted(UUID userId, Long shiftId) {
+		afterCommit(() -> patch(userId, entry -> {
+			ShiftColumns columns = entry.columns.remove(shiftId);
+			if (columns != entry.columns) {
+				// Максимальный updatedAt оставшихся смен неизвестен
+				entry.columns = columns;
+				entry.watermark = null;
+			}
+		}));
+		invalidationBus.publish(CACHE, userId.toString());
+	}
+
+	/**
+	 * Сбросить снимок пользователя (например, после удаления проекта)
+	 */
+	public void invalidate(UUID userId) {
+		evict(userId);
+		snapshotStore.delete(userId);
+		invalidationBus.publish(CACHE, userId.toString());
+	}
+
+	/**
+	 * Сохранить изменённые снимки на диск. Вызывается при остановке,
+	 * когда веб-сервер уже не принимает запросы на запись.
+	 * Снимок пишется с водяным знаком, до которого он собран и пропатчен; если в БД
+	 * знак другой (запись с другого экземпляра, удаление), снимок устарел и не пишется.
+	 */
+	@PreDestroy
+	public void flushSnapshots() {
+		if (!snapshotStore.isEnabled()) {
+			return;
+		}
+		int flushed = 0;
+		int stale = 0;
+		List<Map.Entry<UUID, Entry>> snapshot;
+		synchronized (entries) {
+			snapshot = new ArrayList<>(entries.entrySet());
+		}
+		for (Map.Entry<UUID, Entry> e : snapshot) {
+			Entry entry = e.getValue();
+			ShiftColumns columns;
+			ShiftWatermark watermark;
+			synchronized (entry) {
+				if (!entry.dirty) {
+					continue;
+				}
+				columns = entry.columns;
+				watermark = entry.watermark;
+			}
+			try {
+				if (watermark == null || !watermark.equals(currentWatermark(e.getKey()))) {
+					stale++;
+					continue;
+				}
+				snapshotStore.write(e.getKey(), watermark, columns);
+				synchronized (entry) {
+					entry.dirty = entry.columns != columns;
+				}
+				flushed++;
+			} catch (RuntimeException ex) {
+				log.warn("Failed to flush shift snapshot for user {}: {}", e.getKey(), ex.getMessage());
+			}
+		}
+		log.info("Flushed {} shift snapshots, skipped {} stale", flushed, stale);
+	}
+
+	private ShiftColumns load(UUID userId) {
+		AtomicLong generation = writeGenerations.computeIfAbsent(userId, id -> new AtomicLong());
+		long loadedAt = generation.get();
+
+		ShiftWatermark watermark = null;
+		ShiftColumns columns;
+		if (snapshotStore.isEnabled()) {
+			// Водяной знак берётся до чтения строк: запись между ними даст
+			// расхождение при следующей сверке, а не устаревший снимок
+			watermark = currentWatermark(userId);
+			columns = loadWithSnapshot(userId, watermark);
+		} else {
+			columns = ShiftColumns.of(shiftRepository.findColumnsByUserId(userId));
+		}
+
+		synchronized (entries) {
+			if (!entries.containsKey(userId)) {
+				// Счётчик могли заменить (сброс) или увеличить (запись) за время чтения
+				if (writeGenerations.get(userId) == generation && generation.get() == loadedAt) {
+					entries.put(userId, new Entry(columns, watermark));
+				} else {
+					writeGenerations.remove(userId, generation);
+				}
+			}
+		}
+		log.debug("Loaded {} shifts into column store for user {}", columns.size(), userId);
+		return columns;
+	}
+
+	private ShiftColumns loadWithSnapshot(UUID userId, ShiftWatermark watermark) {
+		return snapshotStore.read(userId, watermark)
+			.map(columns -> {
+				snapshotHits.increment();
+				return columns;
+			})
+			.orElseGet(() -> {
+				snapshotMisses.increment();
+				ShiftColumns columns = ShiftColumns.of(shiftRepository.findColumnsByUserId(userId));
+				snapshotStore.write(userId, watermark, columns);
+				return columns;
+			});
+	}
+
+	private ShiftWatermark currentWatermark(UUID userId) {
+		return ShiftWatermark.of(shiftRepository.findWatermarkByUserId(userId));
+	}
+
+	private void patch(UUID userId, Consumer<Entry> change) {
+		AtomicLong generation = writeGenerations.get(userId);
+		if (generation != null) {
+			generation.incrementAndGet();
+		}
+		Entry entry = entry(userId);
+		if (entry == null) {
+			return;
+		}
+		synchronized (entry) {
+			change.accept(entry);
+			entry.dirty = true;
+		}
+	}
+
+	/**
+	 * Сброс по сообщению с другого экземпляра: снимок на диске не трогается,
+	 * при загрузке его отбракует сверка водяного знака
+	 */
+	private void evict(UUID userId) {
+		synchronized (entries) {
+			AtomicLong generation = writeGenerations.remove(userId);
+			if (generation != null) {
+				generation.incrementAndGet();
+			}
+			entries.remove(userId);
+		}
+	}
+
+	private void evictAll() {
+		synchronized (entries) {
+			writeGenerations.values().forEach(AtomicLong::incrementAndGet);
+			writeGenerations.clear();
+			entries.clear();
+		}
+	}
+
+	private Entry entry(UUID userId) {
+		synchronized (entries) {
+			return entries.get(userId);
+		}
+	}
+
+	int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	int trackedGenerations() {
+		return writeGenerations.size();
+	}
+
+	private static void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+
+}
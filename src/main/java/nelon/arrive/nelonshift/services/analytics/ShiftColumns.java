@@ -0,0 +1,204 @@
+package nelon.arrive.nelonshift.services.analytics;
+
+import nelon.arrive.nelonshift.entity.Shift;
+import nelon.arrive.nelonshift.repository.projection.ShiftColumnView;
+import nelon.arrive.nelonshift.util.MoneyCents;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Неизменяемый колоночный снимок смен одного пользователя.
+ * <p>
+ * Каждая колонка - примитивный массив одинаковой длины, строки отсортированы
+ * по дате (epoch day), поэтому фильтр по периоду сводится к двоичному поиску.
+ * Изменения создают новый снимок (copy-on-write), читатели работают без блокировок.
+ */
+public final class ShiftColumns {
+
+	public static final ShiftColumns EMPTY = new ShiftColumns(new long[0], new long[0], new int[0], new int[0], new int[0], new long[0], new long[0], new long[0]);
+
+	final long[] shiftIds;
+	final long[] projectIds;
+	final int[] epochDays;
+	final int[] hours;
+	final int[] overtimeHours;
+	final long[] payCents;
+	// составляющие payCents, нужные для долей переработки и суточных
+	final long[] overtimePayCents;
+	final long[] perDiemCents;
+
+	ShiftColumns(
+		long[] shiftIds, long[] projectIds, int[] epochDays, int[] hours, int[] overtimeHours,
+		long[] payCents, long[] overtimePayCents, long[] perDiemCents
+	) {
+		this.shiftIds = shiftIds;
+		this.projectIds = projectIds;
+		this.epochDays = epochDays;
+		this.hours = hours;
+		this.overtimeHours = overtimeHours;
+		this.payCents = payCents;
+		this.overtimePayCents = overtimePayCents;
+		this.perDiemCents = perDiemCents;
+	}
+
+	static ShiftColumns allocate(int size) {
+		return new ShiftColumns(
+			new long[size], new long[size], new int[size], new int[size], new int[size],
+			new long[size], new long[size], new long[size]
+		);
+	}
+
+	/**
+	 * Строки должны быть отсортированы по дате
+	 */
+	public static ShiftColumns of(List<? extends ShiftColumnView> rows) {
+		int size = rows.size();
+		ShiftColumns columns = allocate(size);
+		for (int i = 0; i < size; i++) {
+			columns.set(i, Row.of(rows.get(i)));
+		}
+		return columns;
+	}
+
+	/**
+	 * Снимок из загруженных сущностей (порядок не важен)
+	 */
+	public static ShiftColumns ofShifts(Collection<Shift> shifts) {
+		List<Shift> sorted = shifts.stream()
+			.sorted(Comparator.comparing(Shift::getDate).thenComparing(Shift::getId))
+			.toList();
+		int size = sorted.size();
+		ShiftColumns columns = allocate(size);
+		for (int i = 0; i < size; i++) {
+			columns.set(i, Row.of(sorted.get(i)));
+		}
+		return columns;
+	}
+
+	public int size() {
+		return shiftIds.length;
+	}
+
+	/**
+	 * Первый индекс, у которого дата не меньше epochDay
+	 */
+	int lowerBound(long epochDay) {
+		int low = 0;
+		int high = epochDays.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (epochDays[mid] < epochDay) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Новый снимок с добавленной или заменённой строкой
+	 */
+	ShiftColumns upsert(Row row) {
+		ShiftColumns base = remove(row.shiftId());
+		int size = base.size();
+		int at = base.lowerBound(row.epochDay() + 1L);
+
+		ShiftColumns result = allocate(size + 1);
+		base.copyTo(result, 0, 0, at);
+		result.set(at, row);
+		base.copyTo(result, at, at + 1, size - at);
+		return result;
+	}
+
+	/**
+	 * Новый снимок без строки смены; если смены нет, возвращается этот же снимок
+	 */
+	ShiftColumns remove(long shiftId) {
+		int index = indexOf(shiftId);
+		if (index < 0) {
+			return this;
+		}
+		int size = size();
+		ShiftColumns result = allocate(size - 1);
+		copyTo(result, 0, 0, index);
+		copyTo(result, index + 1, index, size - index - 1);
+		return result;
+	}
+
+	/**
+	 * Индекс строки смены или -1
+	 */
+	int indexOf(long shiftId) {
+		for (int i = 0; i < shiftIds.length; i++) {
+			if (shiftIds[i] == shiftId) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private void set(int i, Row row) {
+		shiftIds[i] = row.shiftId();
+		projectIds[i] = row.projectId();
+		epochDays[i] = row.epochDay();
+		hours[i] = row.hours();
+		overtimeHours[i] = row.overtimeHours();
+		payCents[i] = row.payCents();
+		overtimePayCents[i] = row.overtimePayCents();
+		perDiemCents[i] = row.perDiemCents();
+	}
+
+	private void copyTo(ShiftColumns target, int from, int to, int length) {
+		System.arraycopy(shiftIds, from, target.shiftIds, to, length);
+		System.arraycopy(projectIds, from, target.projectIds, to, length);
+		System.arraycopy(epochDays, from, target.epochDays, to, length);
+		System.arraycopy(hours, from, target.hours, to, length);
+		System.arraycopy(overtimeHours, from, target.overtimeHours, to, length);
+		System.arraycopy(payCents, from, target.payCents, to, length);
+		System.arraycopy(overtimePayCents, from, target.overtimePayCents, to, length);
+		System.arraycopy(perDiemCents, from, target.perDiemCents, to, length);
+	}
+
+	/**
+	 * Одна строка колоночного снимка
+	 */
+	record Row(
+		long shiftId, long projectId, int epochDay, int hours, int overtimeHours,
+		long payCents, long overtimePayCents, long perDiemCents
+	) {
+
+		static Row of(ShiftColumnView view) {
+			long overtimePay = MoneyCents.toCents(view.getOvertimePay());
+			long perDiem = MoneyCents.toCents(view.getPerDiem());
+			long pay = MoneyCents.toCents(view.getBasePay());
+			pay = Math.addExact(pay, overtimePay);
+			pay = Math.addExact(pay, perDiem);
+			return new Row(
+				view.getId(),
+				view.getProjectId(),
+				Math.toIntExact(view.getDate().toEpochDay()),
+				view.getHours() != null ? view.getHours() : 0,
+				view.getOvertimeHours() != null ? view.getOvertimeHours() : 0,
+				pay,
+				overtimePay,
+				perDiem
+			);
+		}
+
+		static Row of(Shift shift) {
+			return new Row(
+				shift.getId(),
+				shift.getProject().getId(),
+				Math.toIntExact(shift.getDate().toEpochDay()),
+				shift.getHours() != null ? shift.getHours() : 0,
+				shift.getOvertimeHours() != null ? shift.getOvertimeHours() : 0,
+				shift.getTotalPayCents(),
+				MoneyCents.toCents(shift.getOvertimePay()),
+				MoneyCents.toCents(shift.getPerDiem())
+			);
+		}
+	}
+}
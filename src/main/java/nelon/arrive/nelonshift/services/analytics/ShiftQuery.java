@@ -0,0 +1,282 @@
+package nelon.arrive.nelonshift.services.analytics;
+
+import nelon.arrive.nelonshift.enums.ShiftGroupBy;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Фильтр и группировка по {@link ShiftColumns}.
+ * <p>
+ * Период сужается двоичным поиском, остальные фильтры проверяются
+ * при линейном проходе по массивам без создания объектов на строку.
+ * Ключи групп:
+ * <ul>
+ *     <li>PROJECT - id проекта</li>
+ *     <li>WEEK - epoch day понедельника недели, см. {@link #toWeekStart}</li>
+ *     <li>MONTH - номер месяца {@code year * 12 + month - 1}, см. {@link #toYearMonth}</li>
+ *     <li>WEEKDAY - {@link DayOfWeek#getValue()}</li>
+ *     <li>NONE - единственный ключ 0</li>
+ * </ul>
+ */
+public final class ShiftQuery {
+
+	private LocalDate from;
+	private LocalDate to;
+	private Long projectId;
+	private DayOfWeek weekday;
+	private ShiftGroupBy groupBy = ShiftGroupBy.NONE;
+
+	public static ShiftQuery all() {
+		return new ShiftQuery();
+	}
+
+	public ShiftQuery from(LocalDate from) {
+		this.from = from;
+		return this;
+	}
+
+	public ShiftQuery to(LocalDate to) {
+		this.to = to;
+		return this;
+	}
+
+	public ShiftQuery between(LocalDate from, LocalDate to) {
+		return from(from).to(to);
+	}
+
+	public ShiftQuery project(Long projectId) {
+		this.projectId = projectId;
+		return this;
+	}
+
+	public ShiftQuery weekday(DayOfWeek weekday) {
+		this.weekday = weekday;
+		return this;
+	}
+
+	public ShiftQuery groupBy(ShiftGroupBy groupBy) {
+		this.groupBy = groupBy != null ? groupBy : ShiftGroupBy.NONE;
+		return this;
+	}
+
+	/**
+	 * Итоги по всем подходящим строкам без группировки
+	 */
+	public ShiftAggregate total(ShiftColumns columns) {
+		ShiftAggregate total = new ShiftAggregate();
+		int end = end(columns);
+		for (int i = start(columns); i < end; i++) {
+			if (matches(columns, i)) {
+				total.add(columns, i);
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Итоги по группам, отсортированные по ключу
+	 */
+	public SortedMap<Long, ShiftAggregate> execute(ShiftColumns columns) {
+		return switch (groupBy) {
+			case NONE -> {
+				SortedMap<Long, ShiftAggregate> result = new TreeMap<>();
+				ShiftAggregate total = total(columns);
+				if (total.getShiftCount() > 0) {
+					result.put(0L, total);
+				}
+				yield result;
+			}
+			case WEEKDAY -> byWeekday(columns);
+			case WEEK -> byWeek(columns);
+			case MONTH -> byMonth(columns);
+			case PROJECT -> byProject(columns);
+		};
+	}
+
+	public static YearMonth toYearMonth(long monthKey) {
+		return YearMonth.of((int) Math.floorDiv(monthKey, 12), (int) Math.floorMod(monthKey, 12) + 1);
+	}
+
+	public static long monthKey(YearMonth month) {
+		return month.getYear() * 12L + month.getMonthValue() - 1;
+	}
+
+	public static LocalDate toWeekStart(long weekKey) {
+		return LocalDate.ofEpochDay(weekKey);
+	}
+
+	public static long weekKey(LocalDate date) {
+		long epochDay = date.toEpochDay();
+		return epochDay - weekdayOf(epochDay) + 1;
+	}
+
+	private SortedMap<Long, ShiftAggregate> byWeekday(ShiftColumns columns) {
+		ShiftAggregate[] days = new ShiftAggregate[8];
+		int end = end(columns);
+		for (int i = start(columns); i < end; i++) {
+			if (matches(columns, i)) {
+				int day = weekdayOf(columns.epochDays[i]);
+				if (days[day] == null) {
+					days[day] = new ShiftAggregate();
+				}
+				days[day].add(columns, i);
+			}
+		}
+
+		SortedMap<Long, ShiftAggregate> result = new TreeMap<>();
+		for (int day = 1; day < days.length; day++) {
+			if (days[day] != null) {
+				result.put((long) day, days[day]);
+			}
+		}
+		return result;
+	}
+
+	private SortedMap<Long, ShiftAggregate> byMonth(ShiftColumns columns) {
+		SortedMap<Long, ShiftAggregate> result = new TreeMap<>();
+
+		// Строки отсортированы по дате: месяц пересчитывается только на его границе
+		long monthStart = Long.MAX_VALUE;
+		long nextMonthStart = Long.MIN_VALUE;
+		ShiftAggregate current = null;
+
+		int end = end(columns);
+		for (int i = start(columns); i < end; i++) {
+			if (!matches(columns, i)) {
+				continue;
+			}
+			int day = columns.epochDays[i];
+			if (day < monthStart || day >= nextMonthStart) {
+				YearMonth month = YearMonth.from(LocalDate.ofEpochDay(day));
+				monthStart = month.atDay(1).toEpochDay();
+				nextMonthStart = month.plusMonths(1).atDay(1).toEpochDay();
+				current = result.computeIfAbsent(monthKey(month), k -> new ShiftAggregate());
+			}
+			current.add(columns, i);
+		}
+		return result;
+	}
+
+	private SortedMap<Long, ShiftAggregate> byWeek(ShiftColumns columns) {
+		SortedMap<Long, ShiftAggregate> result = new TreeMap<>();
+
+		// Как и для месяцев: строки идут по дате, новая группа - только на границе недели
+		long weekStart = Long.MAX_VALUE;
+		ShiftAggregate current = null;
+
+		int end = end(columns);
+		for (int i = start(columns); i < end; i++) {
+			if (!matches(columns, i)) {
+				continue;
+			}
+			int day = columns.epochDays[i];
+			if (day < weekStart || day >= weekStart + 7) {
+				weekStart = day - weekdayOf(day) + 1;
+				current = result.computeIfAbsent(weekStart, k -> new ShiftAggregate());
+			}
+			current.add(columns, i);
+		}
+		return result;
+	}
+
+	private SortedMap<Long, ShiftAggregate> byProject(ShiftColumns columns) {
+		ProjectTable groups = new ProjectTable();
+		long lastProject = Long.MIN_VALUE;
+		ShiftAggregate current = null;
+
+		int end = end(columns);
+		for (int i = start(columns); i < end; i++) {
+			if (!matches(columns, i)) {
+				continue;
+			}
+			long project = columns.projectIds[i];
+			if (current == null || project != lastProject) {
+				lastProject = project;
+				current = groups.get(project);
+			}
+			current.add(columns, i);
+		}
+		return groups.toSortedMap();
+	}
+
+	private int start(ShiftColumns columns) {
+		return from != null ? columns.lowerBound(from.toEpochDay()) : 0;
+	}
+
+	private int end(ShiftColumns columns) {
+		return to != null ? columns.lowerBound(to.toEpochDay() + 1) : columns.size();
+	}
+
+	private boolean matches(ShiftColumns columns, int row) {
+		if (projectId != null && columns.projectIds[row] != projectId) {
+			return false;
+		}
+		return weekday == null || weekdayOf(columns.epochDays[row]) == weekday.getValue();
+	}
+
+	// 1970-01-01 (epoch day 0) - четверг
+	private static int weekdayOf(long epochDay) {
+		return (int) Math.floorMod(epochDay + 3, 7L) + 1;
+	}
+
+	/**
+	 * Открытая адресация long -> ShiftAggregate, чтобы не упаковывать id проекта на каждой строке
+	 */
+	private static final class ProjectTable {
+
+		private long[] keys = new long[16];
+		private ShiftAggregate[] values = new ShiftAggregate[16];
+		private int count;
+
+		ShiftAggregate get(long key) {
+			int slot = slot(keys, values, key);
+			if (values[slot] == null) {
+				if ((count + 1) * 2 > keys.length) {
+					resize();
+					slot = slot(keys, values, key);
+				}
+				keys[slot] = key;
+				values[slot] = new ShiftAggregate();
+				count++;
+			}
+			return values[slot];
+		}
+
+		SortedMap<Long, ShiftAggregate> toSortedMap() {
+			SortedMap<Long, ShiftAggregate> result = new TreeMap<>();
+			for (int i = 0; i < keys.length; i++) {
+				if (values[i] != null) {
+					result.put(keys[i], values[i]);
+				}
+			}
+			return result;
+		}
+
+		private void resize() {
+			long[] oldKeys = keys;
+			ShiftAggregate[] oldValues = values;
+			keys = new long[oldKeys.length * 2];
+			values = new ShiftAggregate[oldKeys.length * 2];
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldValues[i] != null) {
+					int slot = slot(keys, values, oldKeys[i]);
+					keys[slot] = oldKeys[i];
+					values[slot] = oldValues[i];
+				}
+			}
+		}
+
+		private static int slot(long[] keys, ShiftAggregate[] values, long key) {
+			int mask = keys.length - 1;
+			int slot = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+			while (values[slot] != null && keys[slot] != key) {
+				slot = (slot + 1) & mask;
+			}
+			return slot;
+		}
+	}
+}
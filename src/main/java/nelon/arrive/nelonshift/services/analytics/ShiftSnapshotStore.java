@@ -0,0 +1,198 @@
+package nelon.arrive.nelonshift.services.analytics;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Снимки {@link ShiftColumns} на диске для быстрого старта после перезапуска.
+ * <p>
+ * Файл пользователя - заголовок с {@link ShiftWatermark} и колонки подряд.
+ * Файл читается через {@link MappedByteBuffer} только на время загрузки: колонки
+ * копируются в массивы в куче пачкой, без создания объекта на строку, и дальше
+ * кэш работает с этими копиями, а не с файлом. Снимок принимается,
+ * только если его водяной знак совпадает с текущим в БД.
+ * <p>
+ * По умолчанию выключено; при включении каталог {@code analytics.snapshot.directory}
+ * задаётся явно - во временном каталоге снимки может удалить или подменить кто угодно.
+ * <p>
+ * Запись идёт во временный файл с последующим переименованием,
+ * поэтому читатель не увидит наполовину записанный снимок.
+ */
+@Component
+@Slf4j
+public class ShiftSnapshotStore {
+
+	private static final int MAGIC = 0x4E534331; // "NSC1"
+	private static final int VERSION = 2;
+	// magic, version, rows, shiftCount, lastUpdatedMicros
+	private static final int HEADER_BYTES = Integer.BYTES * 3 + Long.BYTES * 2;
+	// shiftIds, projectIds, payCents, overtimePayCents, perDiemCents - long; epochDays, hours, overtimeHours - int
+	private static final int ROW_BYTES = Long.BYTES * 5 + Integer.BYTES * 3;
+	private static final String SUFFIX = ".shifts";
+
+	@Getter
+	private final boolean enabled;
+	private final Path directory;
+
+	public ShiftSnapshotStore(
+		@Value("${analytics.snapshot.enabled:false}") boolean enabled,
+		@Value("${analytics.snapshot.directory:}") String directory
+	) {
+		if (enabled && directory.isBlank()) {
+			throw new IllegalStateException("analytics.snapshot.directory must be set when shift snapshots are enabled");
+		}
+		this.enabled = enabled;
+		this.directory = enabled ? Path.of(directory) : null;
+	}
+
+	/**
+	 * Снимок пользователя, если он есть и совпадает с водяным знаком
+	 */
+	public Optional<ShiftColumns> read(UUID userId, ShiftWatermark watermark) {
+		if (!enabled) {
+			return Optional.empty();
+		}
+		Path file = fileOf(userId);
+		if (!Files.isRegularFile(file)) {
+			return Optional.empty();
+		}
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long fileSize = channel.size();
+			if (fileSize < HEADER_BYTES) {
+				return Optional.empty();
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+			buffer.order(ByteOrder.nativeOrder());
+
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				log.warn("Ignoring shift snapshot {} with unknown format", file);
+				return Optional.empty();
+			}
+			int rows = buffer.getInt();
+			ShiftWatermark stored = new ShiftWatermark(buffer.getLong(), buffer.getLong());
+			if (!stored.equals(watermark) || rows != watermark.shiftCount()
+				|| fileSize != HEADER_BYTES + (long) rows * ROW_BYTES) {
+				return Optional.empty();
+			}
+
+			ShiftColumns columns = ShiftColumns.allocate(rows);
+			readLongs(buffer, columns.shiftIds);
+			readLongs(buffer, columns.projectIds);
+			readInts(buffer, columns.epochDays);
+			readInts(buffer, columns.hours);
+			readInts(buffer, columns.overtimeHours);
+			readLongs(buffer, columns.payCents);
+			readLongs(buffer, columns.overtimePayCents);
+			readLongs(buffer, columns.perDiemCents);
+			return Optional.of(columns);
+		} catch (IOException | RuntimeException e) {
+			log.warn("Failed to read shift snapshot {}: {}", file, e.getMessage());
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Сохранить снимок пользователя; ошибки записи только логируются
+	 */
+	public void write(UUID userId, ShiftWatermark watermark, ShiftColumns columns) {
+		if (!enabled) {
+			return;
+		}
+		Path file = fileOf(userId);
+		Path temp = directory.resolve(userId + SUFFIX + ".tmp");
+		int rows = columns.size();
+		long fileSize = HEADER_BYTES + (long) rows * ROW_BYTES;
+
+		try {
+			Files.createDirectories(directory);
+			try (FileChannel channel = FileChannel.open(temp,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+				buffer.order(ByteOrder.nativeOrder());
+
+				buffer.putInt(MAGIC)
+					.putInt(VERSION)
+					.putInt(rows)
+					.putLong(watermark.shiftCount())
+					.putLong(watermark.lastUpdatedMicros());
+				writeLongs(buffer, columns.shiftIds);
+				writeLongs(buffer, columns.projectIds);
+				writeInts(buffer, columns.epochDays);
+				writeInts(buffer, columns.hours);
+				writeInts(buffer, columns.overtimeHours);
+				writeLongs(buffer, columns.payCents);
+				writeLongs(buffer, columns.overtimePayCents);
+				writeLongs(buffer, columns.perDiemCents);
+				buffer.force();
+			}
+			move(temp, file);
+		} catch (IOException | RuntimeException e) {
+			log.warn("Failed to write shift snapshot for user {}: {}", userId, e.getMessage());
+			deleteQuietly(temp);
+		}
+	}
+
+	public void delete(UUID userId) {
+		if (enabled) {
+			deleteQuietly(fileOf(userId));
+		}
+	}
+
+	private Path fileOf(UUID userId) {
+		return directory.resolve(userId + SUFFIX);
+	}
+
+	// ===== Пакетное копирование колонок =====
+
+	private static void readLongs(MappedByteBuffer buffer, long[] target) {
+		buffer.asLongBuffer().get(target);
+		buffer.position(buffer.position() + target.length * Long.BYTES);
+	}
+
+	private static void readInts(MappedByteBuffer buffer, int[] target) {
+		buffer.asIntBuffer().get(target);
+		buffer.position(buffer.position() + target.length * Integer.BYTES);
+	}
+
+	private static void writeLongs(MappedByteBuffer buffer, long[] source) {
+		buffer.asLongBuffer().put(source);
+		buffer.position(buffer.position() + source.length * Long.BYTES);
+	}
+
+	private static void writeInts(MappedByteBuffer buffer, int[] source) {
+		buffer.asIntBuffer().put(source);
+		buffer.position(buffer.position() + source.length * Integer.BYTES);
+	}
+
+	private static void move(Path source, Path target) throws IOException {
+		try {
+			Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static void deleteQuietly(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			log.debug("Failed to delete {}: {}", file, e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package nelon.arrive.nelonshift.services.analytics;
+
+import nelon.arrive.nelonshift.repository.projection.ShiftWatermarkView;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Состояние смен пользователя в БД, по которому проверяется актуальность снимка.
+ * Количество ловит удаления, максимальный updatedAt - вставки и изменения.
+ */
+public record ShiftWatermark(long shiftCount, long lastUpdatedMicros) {
+	
+	public static ShiftWatermark of(ShiftWatermarkView view) {
+		long count = view.getShiftCount() != null ? view.getShiftCount() : 0L;
+		return new ShiftWatermark(count, toMicros(view.getLastUpdatedAt()));
+	}
+	
+	/**
+	 * Водяной знак после сохранения смены с данным updatedAt
+	 *
+	 * @param inserted смена новая, а не изменённая
+	 */
+	public ShiftWatermark afterSave(boolean inserted, LocalDateTime updatedAt) {
+		return new ShiftWatermark(shiftCount + (inserted ? 1 : 0), Math.max(lastUpdatedMicros, toMicros(updatedAt)));
+	}
+	
+	static long toMicros(LocalDateTime time) {
+		if (time == null) {
+			return Long.MIN_VALUE;
+		}
+		return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+	}
+}
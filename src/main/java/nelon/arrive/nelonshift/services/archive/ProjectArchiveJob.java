@@ -0,0 +1,35 @@
+package nelon.arrive.nelonshift.services.archive;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nelon.arrive.nelonshift.cluster.ClusterMembership;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ночной перенос завершённых проектов в архив; в кластере - только на лидере.
+ * Включается явно: {@code archive.enabled=true}
+ */
+@Component
+@ConditionalOnProperty(name = "archive.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ProjectArchiveJob {
+	
+	private final ProjectArchiveService archiveService;
+	private final ClusterMembership clusterMembership;
+	
+	@Scheduled(cron = "${archive.cron:0 30 3 * * *}")
+	public void archive() {
+		if (!clusterMembership.isLeader()) {
+			log.debug("Skipping project archival: node {} is not the cluster leader", clusterMembership.getNodeId());
+			return;
+		}
+		try {
+			archiveService.archiveEligible();
+		} catch (RuntimeException e) {
+			log.warn("Project archival failed: {}", e.getMessage());
+		}
+	}
+}
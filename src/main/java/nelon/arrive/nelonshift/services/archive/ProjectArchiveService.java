@@ -0,0 +1,197 @@
+package nelon.arrive.nelonshift.services.archive;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import nelon.arrive.nelonshift.dto.ArchivedProjectDto;
+import nelon.arrive.nelonshift.dto.ProjectStatsDto;
+import nelon.arrive.nelonshift.dto.ShiftDto;
+import nelon.arrive.nelonshift.entity.ArchivedProject;
+import nelon.arrive.nelonshift.entity.Project;
+import nelon.arrive.nelonshift.enums.ProjectStatus;
+import nelon.arrive.nelonshift.exception.BadRequestException;
+import nelon.arrive.nelonshift.exception.ResourceNotFoundException;
+import nelon.arrive.nelonshift.repository.ArchivedProjectRepository;
+import nelon.arrive.nelonshift.repository.ArchivedShiftRepository;
+import nelon.arrive.nelonshift.repository.ProjectRepository;
+import nelon.arrive.nelonshift.repository.ShiftRepository;
+import nelon.arrive.nelonshift.response.PageResponse;
+import nelon.arrive.nelonshift.services.analytics.ShiftColumnStore;
+import nelon.arrive.nelonshift.services.interfaces.IProjectService;
+import nelon.arrive.nelonshift.services.versions.ResourceVersions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Перенос завершённых проектов со сменами в архивные таблицы и чтение архива.
+ * <p>
+ * Проект в статусе COMPLETED, закончившийся больше {@code archive.completed-after-months} месяцев назад,
+ * переносится в {@code archived_projects}, его смены - в {@code archived_shifts} одним INSERT ... SELECT;
+ * строки удаляются из рабочих таблиц, и списки, подсчёты и статистика их больше не сканируют.
+ * Итоговая {@link ProjectStatsDto} считается один раз при переносе и хранится вместе с проектом.
+ * <p>
+ * Каждый проект переносится в своей транзакции: сбой одного не откатывает остальные,
+ * повторный перенос того же проекта невозможен - id архивной записи совпадает с id проекта.
+ */
+@Service
+@Slf4j
+public class ProjectArchiveService {
+	
+	private static final int MAX_PAGE_SIZE = 100;
+	
+	private final ProjectRepository projectRepository;
+	private final ShiftRepository shiftRepository;
+	private final ArchivedProjectRepository archivedProjectRepository;
+	private final ArchivedShiftRepository archivedShiftRepository;
+	private final IProjectService projectService;
+	private final ResourceVersions resourceVersions;
+	private final ShiftColumnStore shiftColumnStore;
+	private final TransactionTemplate transactionTemplate;
+	private final int completedAfterMonths;
+	private final int batchSize;
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	public ProjectArchiveService(
+		ProjectRepository projectRepository,
+		ShiftRepository shiftRepository,
+		ArchivedProjectRepository archivedProjectRepository,
+		ArchivedShiftRepository archivedShiftRepository,
+		IProjectService projectService,
+		ResourceVersions resourceVersions,
+		ShiftColumnStore shiftColumnStore,
+		PlatformTransactionManager transactionManager,
+		@Value("${archive.completed-after-months:6}") int completedAfterMonths,
+		@Value("${archive.batch-size:100}") int batchSize
+	) {
+		this.projectRepository = projectRepository;
+		this.shiftRepository = shiftRepository;
+		this.archivedProjectRepository = archivedProjectRepository;
+		this.archivedShiftRepository = archivedShiftRepository;
+		this.projectService = projectService;
+		this.resourceVersions = resourceVersions;
+		this.shiftColumnStore = shiftColumnStore;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.completedAfterMonths = completedAfterMonths;
+		this.batchSize = batchSize;
+	}
+	
+	// ===== Архивация =====
+	
+	/**
+	 * Перенести в архив все подходящие проекты
+	 *
+	 * @return сколько проектов перенесено
+	 */
+	public int archiveEligible() {
+		LocalDate cutoff = LocalDate.now().minusMonths(completedAfterMonths);
+		int archived = 0;
+		long afterId = 0;
+		List<Long> ids;
+		do {
+			ids = projectRepository.findArchiveCandidateIds(cutoff, cutoff.atStartOfDay(), afterId, Limit.of(batchSize));
+			for (Long id : ids) {
+				try {
+					if (archive(id)) {
+						archived++;
+					}
+				} catch (RuntimeException e) {
+					// Проект остаётся в рабочих таблицах до следующего запуска
+					log.error("Cannot archive project {}: {}", id, e.getMessage());
+				}
+				afterId = id;
+			}
+		} while (ids.size() == batchSize);
+		
+		if (archived > 0) {
+			log.info("Archived {} completed projects finished before {}", archived, cutoff);
+		}
+		return archived;
+	}
+	
+	/**
+	 * Перенести один проект; {@code false}, если он тем временем удалён или снова открыт
+	 */
+	private boolean archive(Long projectId) {
+		UUID ownerId = transactionTemplate.execute(status -> {
+			Project project = projectRepository.findById(projectId).orElse(null);
+			if (project == null || project.getStatus() != ProjectStatus.COMPLETED) {
+				return null;
+			}
+			ProjectStatsDto stats = projectService.getProjectStats(projectId);
+			UUID owner = project.getUser().getId();
+			
+			// persist, а не save: id задан, merge выполнил бы лишний SELECT
+			entityManager.persist(ArchivedProject.of(project, stats));
+			entityManager.flush();
+			entityManager.clear();
+			
+			archivedShiftRepository.copyFromProject(projectId);
+			shiftRepository.deleteAllByProjectIds(List.of(projectId));
+			projectRepository.deleteAllByIds(List.of(projectId));
+			resourceVersions.projectChanged(projectId, owner);
+			return owner;
+		});
+		if (ownerId == null) {
+			return false;
+		}
+		shiftColumnStore.invalidate(ownerId);
+		return true;
+	}
+	
+	// ===== Чтение архива =====
+	
+	@Transactional(readOnly = true)
+	public PageResponse<ArchivedProjectDto> getArchivedProjects(String name, int page, int size) {
+		if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+			throw new BadRequestException("Page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+		}
+		PageRequest pageable = PageRequest.of(page, size, Sort.by("archivedAt").descending().and(Sort.by("id")));
+		return new PageResponse<>(archivedProjectRepository.findDtosByName(name, pageable));
+	}
+	
+	@Transactional(readOnly = true)
+	public ArchivedProjectDto getArchivedProject(Long id) {
+		return archivedProjectRepository.findDtoById(id)
+			.orElseThrow(() -> new ResourceNotFoundException("Archived project not found"));
+	}
+	
+	/**
+	 * Проверка по первичному ключу без загрузки смен и статистики:
+	 * ответ 304 по постоянному ETag архива не читает сами данные
+	 */
+	public void checkArchivedProjectExists(Long projectId) {
+		if (!archivedProjectRepository.existsById(projectId)) {
+			throw new ResourceNotFoundException("Archived project not found");
+		}
+	}
+	
+	@Transactional(readOnly = true)
+	public List<ShiftDto> getArchivedShifts(Long projectId) {
+		List<ShiftDto> shifts = archivedShiftRepository.findDtosByProjectId(projectId);
+		if (shifts.isEmpty() && !archivedProjectRepository.existsById(projectId)) {
+			throw new ResourceNotFoundException("Archived project not found");
+		}
+		return shifts;
+	}
+	
+	/**
+	 * Статистика, сохранённая при переносе: одна строка по первичному ключу
+	 */
+	@Transactional(readOnly = true)
+	public ProjectStatsDto getArchivedStats(Long projectId) {
+		return archivedProjectRepository.findStatsById(projectId)
+			.orElseThrow(() -> new ResourceNotFoundException("Archived project not found"));
+	}
+}
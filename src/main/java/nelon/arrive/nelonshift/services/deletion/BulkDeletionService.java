@@ -0,0 +1,303 @@
+package nelon.arrive.nelonshift.services.deletion;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import nelon.arrive.nelonshift.exception.ResourceNotFoundException;
+import nelon.arrive.nelonshift.exception.ServiceOverloadedException;
+import nelon.arrive.nelonshift.repository.ArchivedProjectRepository;
+import nelon.arrive.nelonshift.repository.ArchivedShiftRepository;
+import nelon.arrive.nelonshift.repository.ProjectRepository;
+import nelon.arrive.nelonshift.repository.ShiftRepository;
+import nelon.arrive.nelonshift.repository.UserRepository;
+import nelon.arrive.nelonshift.services.RefreshTokenService;
+import nelon.arrive.nelonshift.services.analytics.ShiftColumnStore;
+import nelon.arrive.nelonshift.services.versions.ResourceVersions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Удаление пользователя или проекта со всеми данными пакетными DELETE по id.
+ * <p>
+ * Каскад JPA ({@code CascadeType.ALL}, {@code orphanRemoval}) загружает в память каждый проект
+ * и каждую смену и удаляет их по одной. Здесь смены, затем проекты удаляются пакетами
+ * по {@code deletion.chunk-size} строк, каждый пакет - в своей транзакции:
+ * блокировки и журнал транзакции ограничены размером пакета, сущности не загружаются.
+ * <p>
+ * Удаление больше {@code deletion.async-threshold} строк выполняется в фоне;
+ * вызывающий получает задание, ход которого читается из {@link DeletionJobStore}.
+ * При остановке приложения фоновые задания прерываются между пакетами
+ * и сохраняются как FAILED - в том числе те, что ещё ждали в очереди.
+ */
+@Service
+@Slf4j
+public class BulkDeletionService {
+	
+	static final String INTERRUPTED = "Interrupted: application is shutting down";
+	private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+	
+	private final ShiftRepository shiftRepository;
+	private final ProjectRepository projectRepository;
+	private final UserRepository userRepository;
+	private final ArchivedProjectRepository archivedProjectRepository;
+	private final ArchivedShiftRepository archivedShiftRepository;
+	private final RefreshTokenService refreshTokenService;
+	private final ShiftColumnStore shiftColumnStore;
+	private final ResourceVersions resourceVersions;
+	private final DeletionJobStore jobStore;
+	private final TransactionTemplate transactionTemplate;
+	private final ThreadPoolExecutor executor;
+	// Последнее состояние фоновых заданий, которые ещё не завершились
+	private final Map<String, DeletionJob> activeJobs = new ConcurrentHashMap<>();
+	private final int chunkSize;
+	private final long asyncThreshold;
+	
+	public BulkDeletionService(
+		ShiftRepository shiftRepository,
+		ProjectRepository projectRepository,
+		UserRepository userRepository,
+		ArchivedProjectRepository archivedProjectRepository,
+		ArchivedShiftRepository archivedShiftRepository,
+		RefreshTokenService refreshTokenService,
+		ShiftColumnStore shiftColumnStore,
+		ResourceVersions resourceVersions,
+		DeletionJobStore jobStore,
+		PlatformTransactionManager transactionManager,
+		@Value("${deletion.chunk-size:1000}") int chunkSize,
+		@Value("${deletion.async-threshold:10000}") long asyncThreshold,
+		@Value("${deletion.threads:1}") int threads,
+		@Value("${deletion.queue-capacity:16}") int queueCapacity
+	) {
+		this.shiftRepository = shiftRepository;
+		this.projectRepository = projectRepository;
+		this.userRepository = userRepository;
+		this.archivedProjectRepository = archivedProjectRepository;
+		this.archivedShiftRepository = archivedShiftRepository;
+		this.refreshTokenService = refreshTokenService;
+		this.shiftColumnStore = shiftColumnStore;
+		this.resourceVersions = resourceVersions;
+		this.jobStore = jobStore;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.chunkSize = chunkSize;
+		this.asyncThreshold = asyncThreshold;
+		
+		AtomicInteger counter = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+			Thread thread = new Thread(runnable, "bulk-deletion-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	/**
+	 * Удалить пользователя, его проекты и смены
+	 *
+	 * @return завершённое задание или, для больших объёмов, выполняющееся в фоне
+	 */
+	public DeletionJob deleteUser(UUID userId) {
+		if (!userRepository.existsById(userId)) {
+			throw new ResourceNotFoundException("User not found!");
+		}
+		DeletionJob job = DeletionJob.start(DeletionJob.Target.USER, userId,
+			projectRepository.countByUserId(userId), shiftRepository.countByProjectUserId(userId));
+		return run(job, progress -> deleteUserData(job, userId, progress));
+	}
+	
+	/**
+	 * Удалить проект и его смены
+	 */
+	public DeletionJob deleteProject(Long projectId) {
+		UUID ownerId = projectRepository.findOwnerIdById(projectId)
+			.orElseThrow(() -> new ResourceNotFoundException("Project not found"));
+		DeletionJob job = DeletionJob.start(DeletionJob.Target.PROJECT, projectId,
+			1, shiftRepository.countByProjectId(projectId));
+		return run(job, progress -> deleteProjectData(job, projectId, ownerId, progress));
+	}
+	
+	public Optional<DeletionJob> findJob(String id) {
+		return jobStore.find(id);
+	}
+	
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+		try {
+			// Текущий пакет дописывается в своей транзакции, следующий уже не начинается
+			if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+				log.warn("Deletion threads did not stop in {} s", SHUTDOWN_TIMEOUT_SECONDS);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		activeJobs.values().forEach(job -> {
+			jobStore.save(job.failed(INTERRUPTED));
+			log.warn("Deletion job {} of {} {} interrupted by shutdown", job.id(), job.target(), job.targetId());
+		});
+		activeJobs.clear();
+	}
+	
+	// ===== Выполнение =====
+	
+	/**
+	 * Небольшое удаление - сразу, в потоке запроса; большое - в фоне с записью хода после каждого пакета
+	 */
+	private DeletionJob run(DeletionJob job, Function<Consumer<DeletionJob>, DeletionJob> deletion) {
+		if (job.totalProjects() + job.totalShifts() <= asyncThreshold) {
+			return deletion.apply(progress -> {});
+		}
+		jobStore.save(job);
+		activeJobs.put(job.id(), job);
+		try {
+			executor.execute(() -> {
+				try {
+					deletion.apply(this::report);
+				} catch (RuntimeException e) {
+					log.error("Deletion job {} of {} {} failed", job.id(), job.target(), job.targetId(), e);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			activeJobs.remove(job.id());
+			jobStore.save(job.failed("Rejected: deletion queue is full"));
+			throw new ServiceOverloadedException("Too many deletions in progress, try again later", 60);
+		}
+		log.info("Started deletion job {} of {} {}: {} projects, {} shifts",
+			job.id(), job.target(), job.targetId(), job.totalProjects(), job.totalShifts());
+		return job;
+	}
+	
+	private void report(DeletionJob progress) {
+		if (progress.isFinished()) {
+			activeJobs.remove(progress.id());
+		} else {
+			activeJobs.put(progress.id(), progress);
+		}
+		jobStore.save(progress);
+	}
+	
+	private DeletionJob deleteUserData(DeletionJob job, UUID userId, Consumer<DeletionJob> report) {
+		DeletionJob progress = job;
+		try {
+			progress = deleteShifts(progress, limit -> shiftRepository.findIdsByUserId(userId, limit), report);
+			
+			List<Long> projectIds;
+			while (!(projectIds = inTransaction(() -> projectRepository.findIdsByUserId(userId, Limit.of(chunkSize)))).isEmpty()) {
+				checkInterrupted();
+				List<Long> chunk = projectIds;
+				int deleted = inTransaction(() -> {
+					// Смены, созданные в этих проектах после пакетного прохода
+					shiftRepository.deleteAllByProjectIds(chunk);
+					int count = projectRepository.deleteAllByIds(chunk);
+					resourceVersions.projectsDeleted(chunk, userId);
+					return count;
+				});
+				progress = progress.projectsDeleted(deleted);
+				report.accept(progress);
+			}
+			
+			// Данные, добавленные пользователем во время удаления, и его архив - одним проходом вместе с ним
+			inTransaction(() -> {
+				shiftRepository.deleteAllByUserId(userId);
+				projectRepository.deleteAllByUserId(userId);
+				archivedShiftRepository.deleteAllByUserId(userId);
+				archivedProjectRepository.deleteAllByUserId(userId);
+				return userRepository.deleteUserById(userId);
+			});
+			evictUser(userId);
+			progress = progress.completed();
+			log.info("Deleted user {}: {} projects, {} shifts", userId, progress.deletedProjects(), progress.deletedShifts());
+			return progress;
+		} catch (RuntimeException e) {
+			progress = progress.failed(e.getMessage());
+			throw e;
+		} finally {
+			report.accept(progress);
+		}
+	}
+	
+	private DeletionJob deleteProjectData(DeletionJob job, Long projectId, UUID ownerId, Consumer<DeletionJob> report) {
+		DeletionJob progress = job;
+		try {
+			progress = deleteShifts(progress, limit -> shiftRepository.findIdsByProjectId(projectId, limit), report);
+			
+			int deleted = inTransaction(() -> {
+				shiftRepository.deleteAllByProjectIds(List.of(projectId));
+				int count = projectRepository.deleteAllByIds(List.of(projectId));
+				resourceVersions.projectChanged(projectId, ownerId);
+				return count;
+			});
+			shiftColumnStore.invalidate(ownerId);
+			progress = progress.projectsDeleted(deleted).completed();
+			log.info("Deleted project {}: {} shifts", projectId, progress.deletedShifts());
+			return progress;
+		} catch (RuntimeException e) {
+			progress = progress.failed(e.getMessage());
+			throw e;
+		} finally {
+			report.accept(progress);
+		}
+	}
+	
+	/**
+	 * Смены пакетами, пока запрос id возвращает строки
+	 */
+	private DeletionJob deleteShifts(DeletionJob progress, Function<Limit, List<Long>> ids, Consumer<DeletionJob> report) {
+		int deleted;
+		do {
+			checkInterrupted();
+			deleted = inTransaction(() -> {
+				List<Long> chunk = ids.apply(Limit.of(chunkSize));
+				return chunk.isEmpty() ? 0 : shiftRepository.deleteAllByIds(chunk);
+			});
+			if (deleted > 0) {
+				progress = progress.shiftsDeleted(deleted);
+				report.accept(progress);
+			}
+		} while (deleted > 0);
+		return progress;
+	}
+	
+	/**
+	 * Всё, что держится за удалённого пользователя, в одном месте: refresh-сессии,
+	 * колоночный кэш смен и версии для ETag. Access-токены перестают действовать сами:
+	 * фильтр аутентификации не найдёт пользователя.
+	 */
+	private void evictUser(UUID userId) {
+		try {
+			refreshTokenService.deleteAllForUser(userId);
+		} catch (RuntimeException e) {
+			log.error("Cannot revoke sessions of deleted user {}: {}", userId, e.getMessage());
+		}
+		shiftColumnStore.invalidate(userId);
+		resourceVersions.projectsDeleted(List.of(), userId);
+	}
+	
+	/**
+	 * Остановка приложения прерывает фоновое удаление перед следующим пакетом
+	 */
+	private static void checkInterrupted() {
+		if (Thread.currentThread().isInterrupted()) {
+			throw new IllegalStateException(INTERRUPTED);
+		}
+	}
+	
+	private <T> T inTransaction(Supplier<T> action) {
+		return transactionTemplate.execute(status -> action.get());
+	}
+}
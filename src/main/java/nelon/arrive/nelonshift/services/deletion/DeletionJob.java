@@ -0,0 +1,66 @@
+package nelon.arrive.nelonshift.services.deletion;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Состояние удаления пользователя или проекта со всеми данными.
+ * Неизменяемое: каждый пакет даёт новый снимок, который сохраняется в {@link DeletionJobStore}.
+ */
+public record DeletionJob(
+	String id,
+	Target target,
+	String targetId,
+	Status status,
+	long totalProjects,
+	long deletedProjects,
+	long totalShifts,
+	long deletedShifts,
+	Instant startedAt,
+	Instant finishedAt,
+	String error
+) {
+	
+	public enum Target {
+		USER,
+		PROJECT
+	}
+	
+	public enum Status {
+		RUNNING,
+		COMPLETED,
+		FAILED
+	}
+	
+	static DeletionJob start(Target target, Object targetId, long totalProjects, long totalShifts) {
+		return new DeletionJob(UUID.randomUUID().toString(), target, String.valueOf(targetId), Status.RUNNING,
+			totalProjects, 0, totalShifts, 0, Instant.now(), null, null);
+	}
+	
+	DeletionJob shiftsDeleted(long count) {
+		return new DeletionJob(id, target, targetId, status, totalProjects, deletedProjects,
+			totalShifts, deletedShifts + count, startedAt, finishedAt, error);
+	}
+	
+	DeletionJob projectsDeleted(long count) {
+		return new DeletionJob(id, target, targetId, status, totalProjects, deletedProjects + count,
+			totalShifts, deletedShifts, startedAt, finishedAt, error);
+	}
+	
+	DeletionJob completed() {
+		return new DeletionJob(id, target, targetId, Status.COMPLETED, totalProjects, deletedProjects,
+			totalShifts, deletedShifts, startedAt, Instant.now(), null);
+	}
+	
+	DeletionJob failed(String message) {
+		return new DeletionJob(id, target, targetId, Status.FAILED, totalProjects, deletedProjects,
+			totalShifts, deletedShifts, startedAt, Instant.now(), message);
+	}
+	
+	@JsonIgnore
+	public boolean isFinished() {
+		return status != Status.RUNNING;
+	}
+}
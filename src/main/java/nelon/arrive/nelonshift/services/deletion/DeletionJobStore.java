@@ -0,0 +1,58 @@
+package nelon.arrive.nelonshift.services.deletion;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Состояние заданий удаления в Redis ({@code deletion-job:{id}}, JSON):
+ * ход удаления виден с любого экземпляра, а не только с того, что его выполняет.
+ * Ошибки Redis не прерывают удаление - теряется только отображение прогресса.
+ */
+@Component
+@Slf4j
+public class DeletionJobStore {
+	
+	static final String KEY_PREFIX = "deletion-job:";
+	
+	private final StringRedisTemplate redisTemplate;
+	private final ObjectMapper objectMapper;
+	private final Duration ttl;
+	
+	public DeletionJobStore(
+		StringRedisTemplate redisTemplate,
+		ObjectMapper objectMapper,
+		@Value("${deletion.job-ttl:P1D}") Duration ttl
+	) {
+		this.redisTemplate = redisTemplate;
+		this.objectMapper = objectMapper;
+		this.ttl = ttl;
+	}
+	
+	public void save(DeletionJob job) {
+		try {
+			redisTemplate.opsForValue().set(KEY_PREFIX + job.id(), objectMapper.writeValueAsString(job), ttl);
+		} catch (JsonProcessingException | RuntimeException e) {
+			log.warn("Cannot save deletion job {}: {}", job.id(), e.getMessage());
+		}
+	}
+	
+	public Optional<DeletionJob> find(String id) {
+		String json = redisTemplate.opsForValue().get(KEY_PREFIX + id);
+		if (json == null) {
+			return Optional.empty();
+		}
+		try {
+			return Optional.of(objectMapper.readValue(json, DeletionJob.class));
+		} catch (JsonProcessingException e) {
+			log.warn("Cannot read deletion job {}: {}", id, e.getMessage());
+			return Optional.empty();
+		}
+	}
+}
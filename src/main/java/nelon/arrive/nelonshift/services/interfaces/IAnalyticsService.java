@@ -0,0 +1,22 @@
+package nelon.arrive.nelonshift.services.interfaces;
+
+import nelon.arrive.nelonshift.dto.ShiftAggregateDto;
+import nelon.arrive.nelonshift.enums.ShiftGroupBy;
+import nelon.arrive.nelonshift.response.PageResponse;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+public interface IAnalyticsService {
+	
+	PageResponse<ShiftAggregateDto> getShiftAnalytics(
+		LocalDate from,
+		LocalDate to,
+		Long projectId,
+		DayOfWeek weekday,
+		ShiftGroupBy groupBy,
+		int rollingWindow,
+		int page,
+		int size
+	);
+}
@@ -7,6 +7,10 @@ import nelon.arrive.nelonshift.request.LoginRequest;
 import nelon.arrive.nelonshift.request.SignupRequest;
 import nelon.arrive.nelonshift.response.AuthResponse;
 import nelon.arrive.nelonshift.response.MessageResponse;
+import nelon.arrive.nelonshift.response.SessionResponse;
+
+import java.util.List;
+import java.util.UUID;
 
 public interface IAuthService {
 	
@@ -21,5 +25,11 @@ public interface IAuthService {
 		HttpServletResponse response
 	);
 	
+	MessageResponse logoutAll(HttpServletRequest request, HttpServletResponse response);
+	
+	List<SessionResponse> getSessions(HttpServletRequest request);
+	
 	User getCurrentUser();
+	
+	UUID getCurrentUserId();
 }
@@ -5,8 +5,8 @@ import nelon.arrive.nelonshift.dto.ProjectStatsDto;
 import nelon.arrive.nelonshift.enums.ProjectStatus;
 import nelon.arrive.nelonshift.request.CreateProjectRequest;
 import nelon.arrive.nelonshift.request.UpdateProjectRequest;
-import nelon.arrive.nelonshift.response.MessageResponse;
 import nelon.arrive.nelonshift.response.PageResponse;
+import nelon.arrive.nelonshift.services.deletion.DeletionJob;
 
 import java.time.LocalDate;
 
@@ -22,11 +22,13 @@ public interface IProjectService {
 	
 	ProjectDto getProjectById(Long id);
 	
+	void checkProjectExists(Long id);
+	
 	ProjectDto createProject(CreateProjectRequest project);
 	
 	ProjectDto updateProject(Long id, UpdateProjectRequest projectDetails);
 	
-	MessageResponse deleteProject(Long id);
+	DeletionJob deleteProject(Long id);
 	
 	ProjectStatsDto getProjectStats(Long id);
 }
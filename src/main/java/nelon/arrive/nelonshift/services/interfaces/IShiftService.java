@@ -8,10 +8,13 @@ import nelon.arrive.nelonshift.response.MessageResponse;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface IShiftService {
 	List<ShiftDto> getShiftsByProjectId(Long projectId);
 	
+	void forEachShiftByProjectId(Long projectId, Consumer<ShiftDto> action);
+	
 	ShiftDto createShift(CreateShiftRequest shift);
 	
 	ShiftDto updateShift(Long id, UpdateShiftRequest shiftDetails);
@@ -1,19 +1,40 @@
 package nelon.arrive.nelonshift.services.interfaces;
 
 import nelon.arrive.nelonshift.dto.UserDto;
+import nelon.arrive.nelonshift.dto.UserSummaryDto;
 import nelon.arrive.nelonshift.request.UpdateUserRequest;
-import nelon.arrive.nelonshift.response.MessageResponse;
+import nelon.arrive.nelonshift.response.CursorPageResponse;
+import nelon.arrive.nelonshift.services.deletion.DeletionJob;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface IUserService {
 	List<UserDto> getAllUsers();
 	
+	CursorPageResponse<UserSummaryDto> getUsers(
+		String emailPrefix,
+		LocalDate createdFrom,
+		LocalDate createdTo,
+		String cursor,
+		int size,
+		boolean withProjectCount
+	);
+	
+	void forEachUser(
+		String emailPrefix,
+		LocalDate createdFrom,
+		LocalDate createdTo,
+		boolean withProjectCount,
+		Consumer<UserSummaryDto> action
+	);
+	
 	UserDto getUserById(UUID userId);
 	
 	UserDto updateUser(UpdateUserRequest request, UUID userId);
 	
-	MessageResponse deleteUser(UUID userId);
+	DeletionJob deleteUser(UUID userId);
 	
 }
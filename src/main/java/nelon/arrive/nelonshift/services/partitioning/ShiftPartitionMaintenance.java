@@ -0,0 +1,97 @@
+package nelon.arrive.nelonshift.services.partitioning;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.YearMonth;
+
+/**
+ * Обслуживание месячных секций {@code shifts} в PostgreSQL.
+ * <p>
+ * Перевод таблицы в секционированную - отдельный шаг миграции, а не действие при старте:
+ * скрипт {@code db/postgres/shifts-partitioning.sql} переписывает всю таблицу под эксклюзивной
+ * блокировкой и выполняется вручную в окно обслуживания. Приложение только проверяет,
+ * что миграция выполнена, и каждый день создаёт секции на {@code partitioning.shifts.months-ahead}
+ * месяцев вперёд, чтобы новые смены не попадали в секцию по умолчанию.
+ * <p>
+ * Выключено по умолчанию; на других СУБД (H2 в тестах) ничего не делает.
+ */
+@Component
+@Slf4j
+public class ShiftPartitionMaintenance {
+	
+	private static final String MIGRATION = "db/postgres/shifts-partitioning.sql";
+	
+	private final JdbcTemplate jdbcTemplate;
+	private final boolean enabled;
+	private final int monthsAhead;
+	
+	private volatile boolean partitioned;
+	
+	public ShiftPartitionMaintenance(
+		JdbcTemplate jdbcTemplate,
+		@Value("${partitioning.shifts.enabled:false}") boolean enabled,
+		@Value("${partitioning.shifts.months-ahead:3}") int monthsAhead
+	) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.enabled = enabled;
+		this.monthsAhead = monthsAhead;
+	}
+	
+	@EventListener(ApplicationReadyEvent.class)
+	public void checkMigrated() {
+		if (!enabled || !isPostgres()) {
+			log.debug("Shift partitioning is disabled or not supported by the database");
+			return;
+		}
+		if (!isMigrated()) {
+			log.warn("Shift partitioning is enabled but shifts is not partitioned: run {} first", MIGRATION);
+			return;
+		}
+		partitioned = true;
+		createFuturePartitions();
+	}
+	
+	@Scheduled(cron = "${partitioning.shifts.cron:0 0 4 * * *}")
+	public void createFuturePartitions() {
+		if (!partitioned) {
+			return;
+		}
+		try {
+			Integer created = jdbcTemplate.queryForObject("SELECT create_shift_partitions(?, ?)", Integer.class,
+				Date.valueOf(YearMonth.now().atDay(1)), monthsAhead + 1);
+			if (created != null && created > 0) {
+				log.info("Created {} shift partitions", created);
+			}
+		} catch (RuntimeException e) {
+			log.warn("Cannot create shift partitions: {}", e.getMessage());
+		}
+	}
+	
+	public boolean isPartitioned() {
+		return partitioned;
+	}
+	
+	private boolean isPostgres() {
+		String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+			connection.getMetaData().getDatabaseProductName());
+		return "PostgreSQL".equals(product);
+	}
+	
+	/**
+	 * Таблица уже секционирована, и функция создания секций из скрипта миграции на месте
+	 */
+	private boolean isMigrated() {
+		return Boolean.TRUE.equals(jdbcTemplate.queryForObject("""
+			SELECT (SELECT relkind FROM pg_class WHERE oid = to_regclass('shifts')) = 'p'
+				AND to_regprocedure('create_shift_partitions(date, integer)') IS NOT NULL
+			""", Boolean.class));
+	}
+}
@@ -0,0 +1,43 @@
+package nelon.arrive.nelonshift.services.stats;
+
+import nelon.arrive.nelonshift.util.MoneyCents;
+
+import java.math.BigDecimal;
+
+/**
+ * Сумма денег в копейках (long) для агрегации без создания BigDecimal на каждое сложение.
+ * <p>
+ * Все сложения проверяются на переполнение ({@link ArithmeticException}).
+ * В BigDecimal сумма переводится только на границе DTO через {@link #toBigDecimal()};
+ * перевод сумм - {@link MoneyCents}.
+ */
+public final class MoneyAccumulator {
+
+	private long cents;
+
+	public MoneyAccumulator add(BigDecimal amount) {
+		cents = Math.addExact(cents, MoneyCents.toCents(amount));
+		return this;
+	}
+
+	public MoneyAccumulator addCents(long amount) {
+		cents = Math.addExact(cents, amount);
+		return this;
+	}
+
+	public MoneyAccumulator add(MoneyAccumulator other) {
+		return addCents(other.cents);
+	}
+
+	public long cents() {
+		return cents;
+	}
+
+	public boolean isZero() {
+		return cents == 0;
+	}
+
+	public BigDecimal toBigDecimal() {
+		return MoneyCents.toBigDecimal(cents);
+	}
+}
@@ -0,0 +1,139 @@
+package nelon.arrive.nelonshift.services.stats;
+
+import lombok.extern.slf4j.Slf4j;
+import nelon.arrive.nelonshift.entity.Project;
+import nelon.arrive.nelonshift.entity.Shift;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Считает {@link ShiftStatsAccumulator} по каждому проекту пользователя.
+ * <p>
+ * Небольшие объёмы обрабатываются в вызывающем потоке. Когда смен больше
+ * {@link #PARALLEL_THRESHOLD}, список проектов делится пополам в собственном
+ * {@link ForkJoinPool}, пока в части не останется один проект или не больше
+ * {@link #TASK_SHIFT_LIMIT} смен.
+ * <p>
+ * Коллекции смен копируются в вызывающем потоке, поэтому рабочие потоки
+ * не обращаются к сессии Hibernate.
+ */
+@Component
+@Slf4j
+public class ProjectStatsAggregator implements DisposableBean {
+
+	static final int PARALLEL_THRESHOLD = 20_000;
+	static final int TASK_SHIFT_LIMIT = 5_000;
+
+	private final ForkJoinPool pool;
+
+	public ProjectStatsAggregator() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	public ProjectStatsAggregator(int parallelism) {
+		this.pool = new ForkJoinPool(parallelism);
+	}
+
+	public record ProjectShiftStats(Project project, ShiftStatsAccumulator stats) {
+	}
+
+	/**
+	 * Статистика по проектам в том же порядке, что и входной список
+	 */
+	public List<ProjectShiftStats> aggregate(List<Project> projects) {
+		int size = projects.size();
+		Project[] sources = projects.toArray(new Project[0]);
+		List<Shift>[] shifts = snapshotShifts(sources);
+
+		// prefix[i] - количество смен в проектах [0, i)
+		long[] prefix = new long[size + 1];
+		for (int i = 0; i < size; i++) {
+			prefix[i + 1] = prefix[i] + shifts[i].size();
+		}
+
+		ShiftStatsAccumulator[] results = new ShiftStatsAccumulator[size];
+		AggregationTask task = new AggregationTask(shifts, prefix, results, 0, size);
+
+		if (prefix[size] < PARALLEL_THRESHOLD) {
+			task.computeDirectly();
+		} else {
+			log.debug("Aggregating {} shifts across {} projects in parallel", prefix[size], size);
+			pool.invoke(task);
+		}
+
+		List<ProjectShiftStats> stats = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			stats.add(new ProjectShiftStats(sources[i], results[i]));
+		}
+		return stats;
+	}
+
+	/**
+	 * Объединить статистику всех проектов в одну сводку
+	 */
+	public static ShiftStatsAccumulator total(List<ProjectShiftStats> stats) {
+		ShiftStatsAccumulator total = new ShiftStatsAccumulator();
+		stats.forEach(s -> total.combine(s.stats()));
+		return total;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Shift>[] snapshotShifts(Project[] projects) {
+		List<Shift>[] shifts = new List[projects.length];
+		for (int i = 0; i < projects.length; i++) {
+			List<Shift> projectShifts = projects[i].getShifts();
+			shifts[i] = projectShifts != null ? new ArrayList<>(projectShifts) : List.of();
+		}
+		return shifts;
+	}
+
+	@Override
+	public void destroy() {
+		pool.shutdown();
+	}
+
+	private static final class AggregationTask extends RecursiveTask<Void> {
+
+		private final List<Shift>[] shifts;
+		private final long[] prefix;
+		private final ShiftStatsAccumulator[] results;
+		private final int from;
+		private final int to;
+
+		private AggregationTask(List<Shift>[] shifts, long[] prefix, ShiftStatsAccumulator[] results, int from, int to) {
+			this.shifts = shifts;
+			this.prefix = prefix;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected Void compute() {
+			if (to - from <= 1 || prefix[to] - prefix[from] <= TASK_SHIFT_LIMIT) {
+				computeDirectly();
+				return null;
+			}
+
+			int mid = (from + to) >>> 1;
+			invokeAll(
+				new AggregationTask(shifts, prefix, results, from, mid),
+				new AggregationTask(shifts, prefix, results, mid, to)
+			);
+			return null;
+		}
+
+		private void computeDirectly() {
+			for (int i = from; i < to; i++) {
+				ShiftStatsAccumulator accumulator = new ShiftStatsAccumulator();
+				shifts[i].forEach(accumulator::accept);
+				results[i] = accumulator;
+			}
+		}
+	}
+}
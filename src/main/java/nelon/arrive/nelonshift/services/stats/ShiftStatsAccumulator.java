@@ -0,0 +1,114 @@
+package nelon.arrive.nelonshift.services.stats;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import nelon.arrive.nelonshift.entity.Shift;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collector;
+
+/**
+ * Изменяемая сводка по сменам, собираемая за один проход:
+ * количество смен, часы, заработок и разбивка по месяцам.
+ * <p>
+ * Две сводки можно объединить через {@link #combine}, поэтому класс
+ * используется как контейнер для {@link Collector} и для параллельного подсчёта.
+ */
+@Getter
+public class ShiftStatsAccumulator {
+
+	private int shiftCount;
+	private int totalHours;
+
+	@Getter(AccessLevel.NONE)
+	private final MoneyAccumulator totalEarnings = new MoneyAccumulator();
+
+	@Getter(AccessLevel.NONE)
+	private final Map<YearMonth, MonthBucket> months = new HashMap<>();
+
+	public static Collector<Shift, ShiftStatsAccumulator, ShiftStatsAccumulator> collector() {
+		return Collector.of(
+			ShiftStatsAccumulator::new,
+			ShiftStatsAccumulator::accept,
+			ShiftStatsAccumulator::combine,
+			Collector.Characteristics.IDENTITY_FINISH,
+			Collector.Characteristics.UNORDERED
+		);
+	}
+
+	public void accept(Shift shift) {
+		int hours = shift.getHours() != null ? shift.getHours() : 0;
+		long pay = shift.getTotalPayCents();
+
+		shiftCount++;
+		totalHours += hours;
+		totalEarnings.addCents(pay);
+
+		if (shift.getDate() != null) {
+			months.computeIfAbsent(YearMonth.from(shift.getDate()), m -> new MonthBucket())
+				.add(1, hours, pay);
+		}
+	}
+
+	public ShiftStatsAccumulator combine(ShiftStatsAccumulator other) {
+		shiftCount += other.shiftCount;
+		totalHours += other.totalHours;
+		totalEarnings.add(other.totalEarnings);
+
+		other.months.forEach((month, bucket) ->
+			months.computeIfAbsent(month, m -> new MonthBucket())
+				.add(bucket.shiftCount, bucket.hours, bucket.earnings.cents()));
+
+		return this;
+	}
+
+	public long getTotalEarningsCents() {
+		return totalEarnings.cents();
+	}
+
+	public BigDecimal getTotalEarnings() {
+		return totalEarnings.toBigDecimal();
+	}
+
+	/**
+	 * Данные за месяц; для месяца без смен возвращается пустая корзина
+	 */
+	public MonthBucket month(YearMonth month) {
+		MonthBucket bucket = months.get(month);
+		return bucket != null ? bucket : MonthBucket.EMPTY;
+	}
+
+	public Map<YearMonth, MonthBucket> getMonths() {
+		return Collections.unmodifiableMap(months);
+	}
+
+	@Getter
+	public static class MonthBucket {
+
+		static final MonthBucket EMPTY = new MonthBucket();
+
+		private int shiftCount;
+		private int hours;
+
+		@Getter(AccessLevel.NONE)
+		private final MoneyAccumulator earnings = new MoneyAccumulator();
+
+		public long getEarningsCents() {
+			return earnings.cents();
+		}
+
+		public BigDecimal getEarnings() {
+			return earnings.toBigDecimal();
+		}
+
+		private void add(int shifts, int hours, long earningsCents) {
+			this.shiftCount += shifts;
+			this.hours += hours;
+			this.earnings.addCents(earningsCents);
+		}
+	}
+}
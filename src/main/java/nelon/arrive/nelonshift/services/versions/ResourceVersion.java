@@ -0,0 +1,51 @@
+package nelon.arrive.nelonshift.services.versions;
+
+import nelon.arrive.nelonshift.datasource.ReadYourWrites;
+import nelon.arrive.nelonshift.encoding.AcceptVaryAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Версия ресурса для условных GET: ETag и время последнего изменения.
+ * <p>
+ * ETag слабый: одной версии соответствует несколько представлений
+ * (JSON/CBOR/Smile, {@code ?fields=}, gzip), к тому же Tomcat не сжимает ответы с сильным ETag.
+ * If-None-Match всё равно сравнивается слабо, на 304 это не влияет.
+ */
+public record ResourceVersion(String etag, long lastModified) {
+	
+	/**
+	 * Версия неизвестна (Redis недоступен): запрос обрабатывается без условий
+	 */
+	public static final ResourceVersion UNKNOWN = new ResourceVersion(null, -1);
+	
+	static ResourceVersion of(String tag, long lastModified) {
+		return new ResourceVersion("W/\"" + tag + "\"", lastModified);
+	}
+	
+	/**
+	 * Версия неизменяемого ресурса (архив): ETag постоянный, без обращения к Redis
+	 */
+	public static ResourceVersion immutable(String tag, long lastModified) {
+		return of(tag, lastModified);
+	}
+	
+	/**
+	 * Сверить версию с If-None-Match/If-Modified-Since запроса.
+	 * Выставляет ETag и Last-Modified ответа, при совпадении - статус 304;
+	 * тогда контроллер возвращает {@code null}, не вычисляя тело.
+	 */
+	public boolean notModified(WebRequest request) {
+		if (etag == null) {
+			return false;
+		}
+		// Только что изменённый ресурс читается из основной БД, а не из отстающей реплики
+		request.setAttribute(ReadYourWrites.RESOURCE_LAST_MODIFIED, lastModified, RequestAttributes.SCOPE_REQUEST);
+		// 304 без тела не проходит через AcceptVaryAdvice, а Vary должен совпадать с ответом 200
+		if (request instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+			AcceptVaryAdvice.varyOnAccept(servletRequest.getResponse());
+		}
+		return request.checkNotModified(etag, lastModified);
+	}
+}
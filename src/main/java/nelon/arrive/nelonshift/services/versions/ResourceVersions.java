@@ -0,0 +1,144 @@
+package nelon.arrive.nelonshift.services.versions;
+
+import lombok.extern.slf4j.Slf4j;
+import nelon.arrive.nelonshift.security.config.LuaScripts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Счётчики версий ресурсов в Redis для ETag/Last-Modified.
+ * <p>
+ * Ключи:
+ * <ul>
+ *     <li>{@code version:project:{id}} - проект, его смены и статистика</li>
+ *     <li>{@code version:user:{userId}} - все данные пользователя (дашборд)</li>
+ *     <li>{@code version:projects} - список проектов</li>
+ * </ul>
+ * Версия - время последнего изменения в мс (строго растёт), поэтому служит и Last-Modified.
+ * Сервисы поднимают версии после коммита транзакции: запрос, прочитавший новую версию,
+ * уже видит новые данные. Чтение версии - один вызов Redis; отсутствующий ключ оно заводит,
+ * поэтому вызывающий сначала проверяет, что ресурс существует (запрос по первичному ключу).
+ * Ключи живут {@code etag.version-ttl} с последней записи: если подъём версии
+ * потерялся при недоступном Redis, устаревший ETag перестанет совпадать не позже этого срока.
+ */
+@Component
+@Slf4j
+public class ResourceVersions {
+	
+	static final String PROJECT_PREFIX = "version:project:";
+	static final String USER_PREFIX = "version:user:";
+	static final String PROJECT_LIST_KEY = "version:projects";
+	
+	private static final RedisScript<Long> BUMP = LuaScripts.load("version-bump.lua", Long.class);
+	private static final RedisScript<String> GET = LuaScripts.load("version-get.lua", String.class);
+	
+	private final StringRedisTemplate redisTemplate;
+	private final String ttlMillis;
+	
+	public ResourceVersions(
+		StringRedisTemplate redisTemplate,
+		@Value("${etag.version-ttl:P1D}") Duration ttl
+	) {
+		this.redisTemplate = redisTemplate;
+		this.ttlMillis = String.valueOf(ttl.toMillis());
+	}
+	
+	// ===== Чтение версий =====
+	
+	public ResourceVersion project(Long projectId) {
+		Long version = read(PROJECT_PREFIX + projectId);
+		return version == null ? ResourceVersion.UNKNOWN : ResourceVersion.of("p" + projectId + "-" + version, version);
+	}
+	
+	public ResourceVersion projectList() {
+		Long version = read(PROJECT_LIST_KEY);
+		return version == null ? ResourceVersion.UNKNOWN : ResourceVersion.of("projects-" + version, version);
+	}
+	
+	/**
+	 * Версия дашборда: данные пользователя плюс текущий месяц,
+	 * от которого зависит месячная статистика
+	 */
+	public ResourceVersion dashboard(UUID userId) {
+		Long version = read(USER_PREFIX + userId);
+		if (version == null) {
+			return ResourceVersion.UNKNOWN;
+		}
+		YearMonth month = YearMonth.now();
+		long monthStart = month.atDay(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+		return ResourceVersion.of("u" + userId + "-" + version + "-" + month, Math.max(version, monthStart));
+	}
+	
+	// ===== Запись =====
+	
+	/**
+	 * Проект создан, изменён или удалён
+	 */
+	public void projectChanged(Long projectId, UUID userId) {
+		bumpAfterCommit(List.of(PROJECT_PREFIX + projectId, PROJECT_LIST_KEY, USER_PREFIX + userId));
+	}
+	
+	/**
+	 * Смена проекта создана, изменена или удалена - список проектов не меняется
+	 */
+	public void shiftChanged(Long projectId, UUID userId) {
+		bumpAfterCommit(List.of(PROJECT_PREFIX + projectId, USER_PREFIX + userId));
+	}
+	
+	/**
+	 * Проекты пользователя удалены пакетом: одна запись в Redis на все ключи
+	 */
+	public void projectsDeleted(Collection<Long> projectIds, UUID userId) {
+		List<String> keys = new ArrayList<>(projectIds.size() + 2);
+		projectIds.forEach(projectId -> keys.add(PROJECT_PREFIX + projectId));
+		keys.add(PROJECT_LIST_KEY);
+		keys.add(USER_PREFIX + userId);
+		bumpAfterCommit(keys);
+	}
+	
+	private Long read(String key) {
+		try {
+			return Long.valueOf(redisTemplate.execute(GET, List.of(key), now(), ttlMillis));
+		} catch (RuntimeException e) {
+			log.debug("Resource version {} unavailable: {}", key, e.getMessage());
+			return null;
+		}
+	}
+	
+	private void bumpAfterCommit(List<String> keys) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			bump(keys);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				bump(keys);
+			}
+		});
+	}
+	
+	private void bump(List<String> keys) {
+		try {
+			redisTemplate.execute(BUMP, keys, now(), ttlMillis);
+		} catch (RuntimeException e) {
+			log.error("Failed to bump resource versions {}: {}", keys, e.getMessage());
+		}
+	}
+	
+	private static String now() {
+		return String.valueOf(System.currentTimeMillis());
+	}
+}
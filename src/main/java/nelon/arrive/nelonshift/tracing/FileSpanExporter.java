@@ -0,0 +1,90 @@
+package nelon.arrive.nelonshift.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пишет span'ы в файл, по одному JSON-объекту на строку
+ */
+@Slf4j
+public class FileSpanExporter implements SpanExporter {
+	
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final BufferedWriter writer;
+	
+	public FileSpanExporter(Path file) throws IOException {
+		if (file.getParent() != null) {
+			Files.createDirectories(file.getParent());
+		}
+		this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+			StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+	}
+	
+	@Override
+	public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+		try {
+			for (SpanData span : spans) {
+				writer.write(objectMapper.writeValueAsString(toJson(span)));
+				writer.newLine();
+			}
+			writer.flush();
+			return CompletableResultCode.ofSuccess();
+		} catch (IOException e) {
+			log.warn("Failed to export {} spans: {}", spans.size(), e.getMessage());
+			return CompletableResultCode.ofFailure();
+		}
+	}
+	
+	private static Map<String, Object> toJson(SpanData span) {
+		Map<String, Object> json = new LinkedHashMap<>();
+		json.put("traceId", span.getTraceId());
+		json.put("spanId", span.getSpanId());
+		json.put("parentSpanId", span.getParentSpanContext().isValid() ? span.getParentSpanId() : null);
+		json.put("name", span.getName());
+		json.put("kind", span.getKind().name());
+		json.put("startEpochNanos", span.getStartEpochNanos());
+		json.put("durationMicros", TimeUnit.NANOSECONDS.toMicros(span.getEndEpochNanos() - span.getStartEpochNanos()));
+		json.put("status", span.getStatus().getStatusCode().name());
+		
+		Map<String, Object> attributes = new LinkedHashMap<>();
+		span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), value));
+		json.put("attributes", attributes);
+		return json;
+	}
+	
+	@Override
+	public CompletableResultCode flush() {
+		try {
+			synchronized (this) {
+				writer.flush();
+			}
+			return CompletableResultCode.ofSuccess();
+		} catch (IOException e) {
+			return CompletableResultCode.ofFailure();
+		}
+	}
+	
+	@Override
+	public synchronized CompletableResultCode shutdown() {
+		try {
+			writer.close();
+			return CompletableResultCode.ofSuccess();
+		} catch (IOException e) {
+			return CompletableResultCode.ofFailure();
+		}
+	}
+}
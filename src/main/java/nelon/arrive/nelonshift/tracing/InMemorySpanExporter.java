@@ -0,0 +1,53 @@
+package nelon.arrive.nelonshift.tracing;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Хранит последние завершённые span'ы в памяти (для локальных запусков и тестов)
+ */
+public class InMemorySpanExporter implements SpanExporter {
+	
+	private final int capacity;
+	private final Deque<SpanData> spans = new ArrayDeque<>();
+	
+	public InMemorySpanExporter(int capacity) {
+		this.capacity = capacity;
+	}
+	
+	@Override
+	public synchronized CompletableResultCode export(Collection<SpanData> batch) {
+		for (SpanData span : batch) {
+			if (spans.size() == capacity) {
+				spans.removeFirst();
+			}
+			spans.addLast(span);
+		}
+		return CompletableResultCode.ofSuccess();
+	}
+	
+	public synchronized List<SpanData> getFinishedSpans() {
+		return new ArrayList<>(spans);
+	}
+	
+	public synchronized void reset() {
+		spans.clear();
+	}
+	
+	@Override
+	public CompletableResultCode flush() {
+		return CompletableResultCode.ofSuccess();
+	}
+	
+	@Override
+	public CompletableResultCode shutdown() {
+		return CompletableResultCode.ofSuccess();
+	}
+}
@@ -0,0 +1,36 @@
+package nelon.arrive.nelonshift.tracing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Экспорт span'ов для локальных запусков: {@code tracing.exporter=memory|file}.
+ * <p>
+ * Spring Boot подключает все бины {@link io.opentelemetry.sdk.trace.export.SpanExporter}
+ * к OpenTelemetry SDK, поэтому экспортёр для коллектора (OTLP и т.п.) добавляется
+ * ещё одним бином без изменений в коде.
+ */
+@Configuration
+public class TracingConfig {
+	
+	@Bean
+	@ConditionalOnProperty(name = "tracing.exporter", havingValue = "memory")
+	public InMemorySpanExporter inMemorySpanExporter(
+		@Value("${tracing.memory.capacity:10000}") int capacity
+	) {
+		return new InMemorySpanExporter(capacity);
+	}
+	
+	@Bean
+	@ConditionalOnProperty(name = "tracing.exporter", havingValue = "file")
+	public FileSpanExporter fileSpanExporter(
+		@Value("${tracing.file.path:logs/traces.jsonl}") Path path
+	) throws IOException {
+		return new FileSpanExporter(path);
+	}
+}
@@ -0,0 +1,38 @@
+package nelon.arrive.nelonshift.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Перевод денежных сумм между BigDecimal и копейками (long)
+ */
+public final class MoneyCents {
+	
+	/**
+	 * Количество знаков после запятой, как у денежных колонок в БД
+	 */
+	public static final int SCALE = 2;
+	
+	private MoneyCents() {
+	}
+	
+	/**
+	 * Перевести сумму в копейки; null считается нулём.
+	 * Сумма не округляется: нули после второго знака отбрасываются,
+	 * а доли копейки дают {@link ArithmeticException} - итоги остаются точными, как при сложении BigDecimal.
+	 * Суммы из запросов API проверяет {@code ShiftService.validateMoneyScale};
+	 * вызывающий без этой проверки должен сам обработать {@link ArithmeticException}.
+	 */
+	public static long toCents(BigDecimal amount) {
+		if (amount == null) {
+			return 0L;
+		}
+		BigDecimal scaled = amount.scale() == SCALE ? amount : amount.setScale(SCALE, RoundingMode.UNNECESSARY);
+		// scaleByPowerOfTen даёт scale = 0, и longValueExact берёт значение без BigInteger
+		return scaled.scaleByPowerOfTen(SCALE).longValueExact();
+	}
+	
+	public static BigDecimal toBigDecimal(long cents) {
+		return BigDecimal.valueOf(cents, SCALE);
+	}
+}
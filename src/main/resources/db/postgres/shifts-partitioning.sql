@@ -0,0 +1,82 @@
+-- Миграция: секционирование shifts по месяцам date (PostgreSQL 13+).
+-- Приложение этот скрипт не выполняет. Перенос переписывает всю таблицу одной транзакцией
+-- под эксклюзивной блокировкой shifts, поэтому запускается вручную в окно обслуживания,
+-- после того как Hibernate создал схему, и до включения partitioning.shifts.enabled:
+--   psql -v ON_ERROR_STOP=1 --single-transaction -f shifts-partitioning.sql
+-- Скрипт идемпотентный: функция пересоздаётся, перенос данных выполняется, только пока shifts - обычная таблица.
+-- Первичный ключ после переноса - (id, date): уникальность id обеспечивает только последовательность.
+
+-- Создать месячные секции shifts_YYYY_MM начиная с месяца from_month.
+-- Строки месяца, уже попавшие в секцию по умолчанию, переносятся в новую секцию:
+-- иначе PostgreSQL не даст её присоединить.
+-- Возвращает количество созданных секций
+CREATE OR REPLACE FUNCTION create_shift_partitions(from_month date, months integer) RETURNS integer
+LANGUAGE plpgsql AS $$
+DECLARE
+	month_start date;
+	month_end date;
+	partition_name text;
+	created integer := 0;
+BEGIN
+	-- Несколько экземпляров приложения не создают одну секцию одновременно
+	PERFORM pg_advisory_xact_lock(hashtext('create_shift_partitions'));
+	FOR i IN 0..months - 1 LOOP
+		month_start := (date_trunc('month', from_month) + make_interval(months => i))::date;
+		month_end := (month_start + interval '1 month')::date;
+		partition_name := format('shifts_%s', to_char(month_start, 'YYYY_MM'));
+		CONTINUE WHEN to_regclass(partition_name) IS NOT NULL;
+
+		EXECUTE format('CREATE TABLE %I (LIKE shifts INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name);
+		EXECUTE format(
+			'WITH moved AS (DELETE FROM shifts_default WHERE date >= %L AND date < %L RETURNING *) '
+				|| 'INSERT INTO %I SELECT * FROM moved',
+			month_start, month_end, partition_name);
+		EXECUTE format('ALTER TABLE shifts ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+			partition_name, month_start, month_end);
+		created := created + 1;
+	END LOOP;
+	RETURN created;
+END;
+$$;
+
+-- Перевод обычной таблицы shifts, созданной Hibernate, в секционированную
+DO $$
+DECLARE
+	first_month date;
+	last_month date;
+BEGIN
+	PERFORM pg_advisory_xact_lock(hashtext('shifts-partitioning'));
+	IF (SELECT relkind FROM pg_class WHERE oid = to_regclass('shifts')) IS DISTINCT FROM 'r' THEN
+		RETURN;
+	END IF;
+
+	ALTER TABLE shifts RENAME TO shifts_legacy;
+	CREATE TABLE shifts (LIKE shifts_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS) PARTITION BY RANGE (date);
+
+	-- Первичный ключ секционированной таблицы обязан включать date;
+	-- уникальность id по-прежнему обеспечивает последовательность
+	ALTER TABLE shifts ADD PRIMARY KEY (id, date);
+	CREATE SEQUENCE shifts_partitioned_id_seq OWNED BY shifts.id;
+	PERFORM setval('shifts_partitioned_id_seq', COALESCE((SELECT MAX(id) FROM shifts_legacy), 0) + 1, false);
+	ALTER TABLE shifts ALTER COLUMN id SET DEFAULT nextval('shifts_partitioned_id_seq');
+	ALTER TABLE shifts ADD FOREIGN KEY (project_id) REFERENCES projects (id);
+	CREATE INDEX idx_shifts_project_id_date ON shifts (project_id, date);
+
+	-- Даты вне созданных секций (опечатки вроде 1900 года) попадают сюда
+	CREATE TABLE shifts_default PARTITION OF shifts DEFAULT;
+
+	-- Секции на весь диапазон данных, но не больше 10 лет назад и 2 лет вперёд
+	SELECT GREATEST(date_trunc('month', COALESCE(MIN(date), current_date)), date_trunc('month', current_date) - interval '10 years')::date,
+	       LEAST(date_trunc('month', GREATEST(COALESCE(MAX(date), current_date), current_date)), date_trunc('month', current_date) + interval '2 years')::date
+	INTO first_month, last_month
+	FROM shifts_legacy;
+	PERFORM create_shift_partitions(first_month,
+		((extract(year FROM last_month) - extract(year FROM first_month)) * 12
+			+ extract(month FROM last_month) - extract(month FROM first_month))::integer + 1);
+
+	INSERT INTO shifts SELECT * FROM shifts_legacy;
+	DROP TABLE shifts_legacy;
+	ANALYZE shifts;
+	RAISE NOTICE 'shifts converted to a partitioned table, partitions from % to %', first_month, last_month;
+END;
+$$;
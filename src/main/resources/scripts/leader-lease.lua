@@ -0,0 +1,13 @@
+-- Получить или продлить аренду лидера.
+-- KEYS[1] - ключ лидера; ARGV[1] - узел, ARGV[2] - срок аренды (мс)
+-- Возвращает 1, если узел - лидер
+local owner = redis.call('GET', KEYS[1])
+if owner == ARGV[1] then
+	redis.call('PEXPIRE', KEYS[1], ARGV[2])
+	return 1
+end
+if not owner then
+	redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+	return 1
+end
+return 0
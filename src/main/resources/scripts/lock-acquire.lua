@@ -0,0 +1,14 @@
+-- Захватить блокировку ресурса и выдать fencing-токен.
+-- KEYS[1] - ключ блокировки, KEYS[2] - последний выданный токен ресурса
+-- ARGV[1] - владелец, ARGV[2] - время жизни блокировки (мс), ARGV[3] - время жизни счётчика (мс)
+-- Токен строго растёт и не меньше текущего времени Redis в микросекундах:
+-- после потери счётчика (рестарт Redis без сохранения) новые токены всё равно больше записанных в БД.
+-- Возвращает токен или false, если блокировка занята
+if not redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then
+	return false
+end
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+local token = math.max(tonumber(redis.call('GET', KEYS[2]) or '0') + 1, now)
+redis.call('SET', KEYS[2], string.format('%.0f', token), 'PX', ARGV[3])
+return token
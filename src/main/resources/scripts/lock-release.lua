@@ -0,0 +1,7 @@
+-- Снять блокировку, только если она принадлежит владельцу (могла истечь и достаться другому).
+-- KEYS[1] - ключ блокировки; ARGV[1] - владелец
+-- Возвращает 1, если блокировка снята
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+	return redis.call('DEL', KEYS[1])
+end
+return 0
@@ -0,0 +1,23 @@
+-- Создать сессию refresh-токена (первый токен новой семьи) и добавить её в индекс пользователя.
+-- KEYS[1] - ключ сессии, KEYS[2] - индекс сессий пользователя (ZSET, score = expiresAt),
+-- KEYS[3] - ключ семьи токенов
+-- ARGV[1] - токен, ARGV[2] - userId, ARGV[3] - текущее время (мс), ARGV[4] - время жизни (мс),
+-- ARGV[5] - id семьи
+local now = tonumber(ARGV[3])
+local expires_at = now + tonumber(ARGV[4])
+
+redis.call('HSET', KEYS[1], 'userId', ARGV[2], 'familyId', ARGV[5],
+	'createdAt', ARGV[3], 'expiresAt', tostring(expires_at))
+redis.call('PEXPIREAT', KEYS[1], expires_at)
+
+-- Семья: текущий токен и хеши выведенных из оборота токенов
+redis.call('HSET', KEYS[3], '@current', ARGV[1], '@userId', ARGV[2])
+redis.call('PEXPIREAT', KEYS[3], expires_at)
+
+redis.call('ZADD', KEYS[2], expires_at, ARGV[1])
+redis.call('ZREMRANGEBYSCORE', KEYS[2], '-inf', now)
+-- Индекс живёт до истечения последней сессии
+local last = redis.call('ZRANGE', KEYS[2], -1, -1, 'WITHSCORES')
+redis.call('PEXPIREAT', KEYS[2], last[2])
+
+return expires_at
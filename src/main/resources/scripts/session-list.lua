@@ -0,0 +1,14 @@
+-- Активные сессии пользователя.
+-- KEYS[1] - индекс сессий пользователя; ARGV[1] - текущее время (мс), ARGV[2] - префикс ключа сессии
+-- Возвращает плоский список {token, createdAt, expiresAt, ...}
+local tokens = redis.call('ZRANGEBYSCORE', KEYS[1], '(' .. ARGV[1], '+inf', 'WITHSCORES')
+local result = {}
+for i = 1, #tokens, 2 do
+	local created_at = redis.call('HGET', ARGV[2] .. tokens[i], 'createdAt')
+	if created_at then
+		result[#result + 1] = tokens[i]
+		result[#result + 1] = created_at
+		result[#result + 1] = tokens[i + 1]
+	end
+end
+return result
@@ -0,0 +1,19 @@
+-- Удалить все сессии пользователя и их семьи токенов по индексу.
+-- KEYS[1] - индекс сессий пользователя; ARGV[1] - префикс ключа сессии, ARGV[2] - префикс ключа семьи
+-- Токен имеет вид {familyId}.{secret}, поэтому ключ семьи берётся из самого токена
+-- Возвращает количество удалённых записей индекса
+local tokens = redis.call('ZRANGE', KEYS[1], 0, -1)
+local batch_size = 500
+for i = 1, #tokens, batch_size do
+	local keys = {}
+	for j = i, math.min(i + batch_size - 1, #tokens) do
+		keys[#keys + 1] = ARGV[1] .. tokens[j]
+		local family_id = string.match(tokens[j], '^([^.]+)%.')
+		if family_id then
+			keys[#keys + 1] = ARGV[2] .. family_id
+		end
+	end
+	redis.call('DEL', unpack(keys))
+end
+redis.call('DEL', KEYS[1])
+return #tokens
@@ -0,0 +1,15 @@
+-- Удалить сессию, её запись в индексе пользователя и семью токенов.
+-- KEYS[1] - ключ сессии; ARGV[1] - токен, ARGV[2] - префикс индекса сессий пользователя,
+-- ARGV[3] - префикс ключа семьи
+-- Возвращает userId или false, если сессии нет
+local session = redis.call('HMGET', KEYS[1], 'userId', 'familyId')
+local user_id = session[1]
+if not user_id then
+	return false
+end
+redis.call('DEL', KEYS[1])
+redis.call('ZREM', ARGV[2] .. user_id, ARGV[1])
+if session[2] then
+	redis.call('DEL', ARGV[3] .. session[2])
+end
+return user_id
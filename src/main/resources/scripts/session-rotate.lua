@@ -0,0 +1,69 @@
+-- Заменить сессию refresh-токена новой с проверкой повторного использования.
+-- KEYS[1] - ключ старой сессии, KEYS[2] - ключ новой сессии, KEYS[3] - ключ семьи токенов
+-- ARGV[1] - старый токен, ARGV[2] - новый токен, ARGV[3] - текущее время (мс),
+-- ARGV[4] - время жизни (мс), ARGV[5] - префикс индекса сессий пользователя,
+-- ARGV[6] - хеш старого токена, ARGV[7] - префикс ключа сессии, ARGV[8] - льготный период (мс),
+-- ARGV[9] - сколько последних выведенных токенов помнит семья
+-- Возвращает:
+--   {'rotated', userId, expiresAt} - токен заменён
+--   {'reused', userId}             - предъявлен выведенный токен, семья отозвана
+--   {}                             - токен неизвестен, истёк или повторён в льготный период
+--
+-- Ключи индекса и текущей сессии семьи вычисляются внутри скрипта, поэтому скрипт
+-- рассчитан на Redis без кластера (или на размещение всех ключей в одном слоте)
+local now = tonumber(ARGV[3])
+local user_id = redis.call('HGET', KEYS[1], 'userId')
+
+if not user_id then
+	local retired_at = redis.call('HGET', KEYS[3], ARGV[6])
+	if not retired_at then
+		return {}
+	end
+	-- Параллельные обновления одного клиента (несколько вкладок) - не кража
+	if now - tonumber(retired_at) < tonumber(ARGV[8]) then
+		return {}
+	end
+	local family = redis.call('HMGET', KEYS[3], '@current', '@userId')
+	local current = family[1]
+	local owner = family[2]
+	if current then
+		redis.call('DEL', ARGV[7] .. current)
+		redis.call('ZREM', ARGV[5] .. owner, current)
+	end
+	-- Семья остаётся с пометкой, чтобы повторные попытки тоже распознавались
+	redis.call('HDEL', KEYS[3], '@current')
+	redis.call('HSET', KEYS[3], '@revokedAt', ARGV[3])
+	return {'reused', owner or ''}
+end
+
+local family_id = redis.call('HGET', KEYS[1], 'familyId')
+local expires_at = now + tonumber(ARGV[4])
+local index = ARGV[5] .. user_id
+
+redis.call('DEL', KEYS[1])
+redis.call('ZREM', index, ARGV[1])
+
+redis.call('HSET', KEYS[2], 'userId', user_id, 'familyId', family_id,
+	'createdAt', ARGV[3], 'expiresAt', tostring(expires_at))
+redis.call('PEXPIREAT', KEYS[2], expires_at)
+
+redis.call('HSET', KEYS[3], ARGV[6], ARGV[3], '@current', ARGV[2], '@userId', user_id)
+-- Номер ротации -> хеш выведенного токена: самый старый удаляется за O(1), семья не растёт
+local seq = redis.call('HINCRBY', KEYS[3], '@seq', 1)
+redis.call('HSET', KEYS[3], '@r:' .. seq, ARGV[6])
+local oldest = seq - tonumber(ARGV[9])
+if oldest > 0 then
+	local forgotten = redis.call('HGET', KEYS[3], '@r:' .. oldest)
+	if forgotten then
+		redis.call('HDEL', KEYS[3], forgotten, '@r:' .. oldest)
+	end
+end
+-- Выведенные токены нужны, пока жив хоть один токен семьи
+redis.call('PEXPIREAT', KEYS[3], expires_at)
+
+redis.call('ZADD', index, expires_at, ARGV[2])
+redis.call('ZREMRANGEBYSCORE', index, '-inf', now)
+local last = redis.call('ZRANGE', index, -1, -1, 'WITHSCORES')
+redis.call('PEXPIREAT', index, last[2])
+
+return {'rotated', user_id, tostring(expires_at)}
@@ -0,0 +1,38 @@
+-- Token bucket: пополнение по прошедшему времени и списание одного токена.
+-- KEYS[1] - ключ корзины
+-- ARGV[1] - ёмкость, ARGV[2] - токенов за период, ARGV[3] - период в микросекундах
+-- Возвращает {1|0 - разрешено, остаток токенов, через сколько мс появится токен}
+local capacity = tonumber(ARGV[1])
+local refill_tokens = tonumber(ARGV[2])
+local refill_period = tonumber(ARGV[3])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+
+local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+local tokens = tonumber(state[1])
+local ts = tonumber(state[2])
+if tokens == nil or ts == nil then
+	tokens = capacity
+	ts = now
+end
+
+local rate = refill_tokens / refill_period
+if now > ts then
+	tokens = math.min(capacity, tokens + (now - ts) * rate)
+end
+
+local allowed = 0
+local retry_after = 0
+if tokens >= 1 then
+	tokens = tokens - 1
+	allowed = 1
+else
+	retry_after = math.ceil((1 - tokens) / rate / 1000)
+end
+
+redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now))
+-- Ключ живёт, пока корзина не заполнится снова: полная корзина равна отсутствующей
+redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / rate / 1000) + 1000)
+
+return {allowed, math.floor(tokens), retry_after}
@@ -0,0 +1,13 @@
+-- Поднять версии ресурсов после записи.
+-- Версия - время изменения в мс, но не меньше прежней версии + 1: после сброса Redis
+-- новые версии не совпадают с выданными раньше ETag.
+-- KEYS - ключи версий
+-- ARGV[1] - текущее время (мс), ARGV[2] - время жизни версии (мс)
+local now = tonumber(ARGV[1])
+
+for _, key in ipairs(KEYS) do
+	local current = tonumber(redis.call('GET', key) or '0')
+	redis.call('SET', key, tostring(math.max(now, current + 1)), 'PX', ARGV[2])
+end
+
+return #KEYS
@@ -0,0 +1,13 @@
+-- Текущая версия ресурса.
+-- Отсутствующая версия (ресурс не менялся за время жизни версии, Redis сброшен)
+-- заводится текущим временем, а не нулём - иначе старый ETag мог бы совпасть с новыми данными.
+-- Вызывается только для существующих ресурсов, иначе любой id заводил бы ключ.
+-- KEYS[1] - ключ версии
+-- ARGV[1] - текущее время (мс), ARGV[2] - время жизни версии (мс)
+local version = redis.call('GET', KEYS[1])
+if version then
+	return version
+end
+
+redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+return ARGV[1]
@@ -0,0 +1,211 @@
+package nelon.arrive.nelonshift.cluster;
+
+import nelon.arrive.nelonshift.NelonShiftApplication;
+import nelon.arrive.nelonshift.entity.Project;
+import nelon.arrive.nelonshift.exception.AlreadyExistsException;
+import nelon.arrive.nelonshift.repository.ProjectRepository;
+import nelon.arrive.nelonshift.repository.ShiftRepository;
+import nelon.arrive.nelonshift.request.CreateShiftRequest;
+import nelon.arrive.nelonshift.services.ShiftService;
+import nelon.arrive.nelonshift.services.analytics.ShiftColumnStore;
+import nelon.arrive.nelonshift.support.EmbeddedRedis;
+import nelon.arrive.nelonshift.support.TestData;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Два экземпляра приложения в одном процессе на общих H2 и Redis:
+ * состав кластера и лидер, блокировки проекта с fencing-токенами, сброс кэшей между узлами
+ */
+class ClusterCoordinationTests {
+	
+	private static final String DATABASE = "jdbc:h2:mem:nelon_cluster;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+	
+	private static ConfigurableApplicationContext node1;
+	private static ConfigurableApplicationContext node2;
+	private static TestData data;
+	
+	@BeforeAll
+	static void startNodes() {
+		int redisPort = EmbeddedRedis.start();
+		node1 = startNode(redisPort, "create-drop");
+		node2 = startNode(redisPort, "none");
+		data = new TestData(node1);
+	}
+	
+	@AfterAll
+	static void stopNodes() {
+		// Второй узел раньше: первый удаляет схему при остановке
+		if (node2 != null) {
+			node2.close();
+		}
+		if (node1 != null) {
+			node1.close();
+		}
+	}
+	
+	private static ConfigurableApplicationContext startNode(int redisPort, String ddlAuto) {
+		return new SpringApplicationBuilder(NelonShiftApplication.class)
+			.web(WebApplicationType.NONE)
+			.profiles("test")
+			.run(
+				"--spring.datasource.url=" + DATABASE,
+				"--spring.jpa.hibernate.ddl-auto=" + ddlAuto,
+				"--spring.data.redis.host=localhost",
+				"--spring.data.redis.port=" + redisPort,
+				// Отдельная база Redis: контексты других тестов тоже шлют heartbeat
+				"--spring.data.redis.database=1",
+				"--cluster.heartbeat-interval=PT0.2S",
+				"--cluster.node-ttl=PT1S",
+				"--cluster.locks.ttl=PT2S"
+			);
+	}
+	
+	@AfterEach
+	void tearDown() {
+		data.clear();
+	}
+	
+	@Test
+	void nodesJoinAndLeadershipMovesWhenLeaderLeaves() {
+		ClusterMembership first = node1.getBean(ClusterMembership.class);
+		ClusterMembership second = node2.getBean(ClusterMembership.class);
+		
+		await(() -> first.liveNodes().size() == 2);
+		assertThat(first.liveNodes()).containsExactlyInAnyOrder(first.getNodeId(), second.getNodeId());
+		await(() -> first.isLeader() ^ second.isLeader());
+		
+		ClusterMembership leader = first.isLeader() ? first : second;
+		ClusterMembership follower = leader == first ? second : first;
+		leader.leave();
+		
+		assertThat(leader.isLeader()).isFalse();
+		await(follower::isLeader);
+		assertThat(follower.liveNodes()).containsExactly(follower.getNodeId());
+	}
+	
+	@Test
+	void sameShiftIsCreatedOnceAcrossNodes() throws Exception {
+		Project project = saveProject("race@nelon.test");
+		CreateShiftRequest request = new CreateShiftRequest();
+		request.setProjectId(project.getId());
+		request.setDate(LocalDate.now());
+		request.setHours(8);
+		request.setBasePay(new BigDecimal("1000.00"));
+		request.setCompensation(BigDecimal.ZERO);
+		
+		List<ShiftService> services = List.of(node1.getBean(ShiftService.class), node2.getBean(ShiftService.class));
+		int attempts = 8;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(attempts);
+		try {
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < attempts; i++) {
+				ShiftService service = services.get(i % 2);
+				Callable<Boolean> create = () -> {
+					start.await();
+					try {
+						service.createShift(request);
+						return true;
+					} catch (AlreadyExistsException e) {
+						return false;
+					}
+				};
+				results.add(executor.submit(create));
+			}
+			start.countDown();
+			
+			int created = 0;
+			for (Future<Boolean> result : results) {
+				created += result.get() ? 1 : 0;
+			}
+			assertThat(created).isEqualTo(1);
+		} finally {
+			executor.shutdownNow();
+		}
+		assertThat(node1.getBean(ShiftRepository.class).countByProjectId(project.getId())).isEqualTo(1);
+	}
+	
+	@Test
+	void staleLockHolderIsFencedOff() throws Exception {
+		Project project = saveProject("fence@nelon.test");
+		String resource = "project:" + project.getId();
+		DistributedLocks locks1 = node1.getBean(DistributedLocks.class);
+		DistributedLocks locks2 = node2.getBean(DistributedLocks.class);
+		
+		DistributedLocks.FencedLock stale = locks1.tryAcquire(resource, Duration.ofMillis(200)).orElseThrow();
+		assertThat(locks2.tryAcquire(resource, Duration.ofSeconds(1))).isEmpty();
+		
+		// Первый владелец "завис" дольше TTL - блокировку получает второй узел
+		Thread.sleep(300);
+		DistributedLocks.FencedLock current = locks2.tryAcquire(resource, Duration.ofSeconds(5)).orElseThrow();
+		assertThat(current.getToken()).isGreaterThan(stale.getToken());
+		
+		// Снятие истёкшей блокировки не снимает чужую
+		stale.close();
+		assertThat(locks1.tryAcquire(resource, Duration.ofSeconds(1))).isEmpty();
+		
+		ProjectRepository projects = node1.getBean(ProjectRepository.class);
+		TransactionTemplate transaction = new TransactionTemplate(node1.getBean(PlatformTransactionManager.class));
+		Integer advanced = transaction.execute(status -> projects.advanceLockFence(project.getId(), current.getToken()));
+		Integer rejected = transaction.execute(status -> projects.advanceLockFence(project.getId(), stale.getToken()));
+		assertThat(advanced).isEqualTo(1);
+		assertThat(rejected).isZero();
+		current.close();
+	}
+	
+	@Test
+	void shiftCreatedOnOneNodeInvalidatesColumnsOnAnother() {
+		Project project = saveProject("cache@nelon.test");
+		ShiftColumnStore columns1 = node1.getBean(ShiftColumnStore.class);
+		assertThat(columns1.get(project.getUser().getId()).size()).isZero();
+		
+		CreateShiftRequest request = new CreateShiftRequest();
+		request.setProjectId(project.getId());
+		request.setDate(LocalDate.now());
+		request.setHours(8);
+		request.setBasePay(new BigDecimal("1000.00"));
+		request.setCompensation(BigDecimal.ZERO);
+		node2.getBean(ShiftService.class).createShift(request);
+		
+		await(() -> columns1.get(project.getUser().getId()).size() == 1);
+	}
+	
+	private Project saveProject(String email) {
+		return data.project(data.user(email), "Cluster project");
+	}
+	
+	private static void await(BooleanSupplier condition) {
+		long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+		while (!condition.getAsBoolean()) {
+			assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package nelon.arrive.nelonshift.controller;
+
+import nelon.arrive.nelonshift.entity.Project;
+import nelon.arrive.nelonshift.entity.User;
+import nelon.arrive.nelonshift.support.EmbeddedRedis;
+import nelon.arrive.nelonshift.support.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static nelon.arrive.nelonshift.metrics.QueryBudgetMatchers.statementsAtMost;
+import static nelon.arrive.nelonshift.support.TestData.bearer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Условные GET: 304 по If-None-Match/If-Modified-Since без обращения к данным
+ * (запросы к БД - загрузка пользователя в фильтре аутентификации и проверка проекта),
+ * новый ETag после записи смены или проекта, 404 без ключа версии для несуществующего проекта
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+class ConditionalGetTests {
+	
+	@DynamicPropertySource
+	static void redis(DynamicPropertyRegistry registry) {
+		EmbeddedRedis.register(registry);
+	}
+	
+	@Autowired
+	private MockMvc mockMvc;
+	
+	@Autowired
+	private TestData data;
+	
+	@Autowired
+	private StringRedisTemplate redisTemplate;
+	
+	private Project project;
+	private String token;
+	
+	@BeforeEach
+	void setUp() {
+		User user = data.user("etag@nelon.test");
+		project = data.project(user, "Etag project");
+		token = data.token(user);
+	}
+	
+	@AfterEach
+	void tearDown() {
+		data.clear();
+		data.flushRedis();
+	}
+	
+	@Test
+	void shiftWriteChangesProjectAndDashboardEtags() throws Exception {
+		String shifts = "/api/v1/shifts?projectId=" + project.getId();
+		String stats = "/api/v1/projects/" + project.getId() + "/stats";
+		String dashboard = "/api/v1/dashboard/stats";
+		
+		String shiftsEtag = etagOf(shifts);
+		String statsEtag = etagOf(stats);
+		String dashboardEtag = etagOf(dashboard);
+		
+		assertNotModified(shifts, shiftsEtag);
+		assertNotModified(stats, statsEtag);
+		assertNotModified(dashboard, dashboardEtag);
+		
+		mockMvc.perform(post("/api/v1/shifts").with(bearer(token))
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("""
+					{"projectId": %d, "date": "%s", "hours": 8, "basePay": 1000.00, "compensation": 0}
+					""".formatted(project.getId(), LocalDate.now())))
+			.andExpect(status().isCreated());
+		
+		assertThat(etagAfter(shifts, shiftsEtag)).isNotEqualTo(shiftsEtag);
+		assertThat(etagAfter(stats, statsEtag)).isNotEqualTo(statsEtag);
+		assertThat(etagAfter(dashboard, dashboardEtag)).isNotEqualTo(dashboardEtag);
+	}
+	
+	@Test
+	void projectWriteChangesProjectAndListEtags() throws Exception {
+		String single = "/api/v1/projects/" + project.getId();
+		String list = "/api/v1/projects";
+		
+		String singleEtag = etagOf(single);
+		String listEtag = etagOf(list);
+		
+		mockMvc.perform(put(single).with(bearer(token))
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("""
+					{"name": "Renamed project", "status": "ACTIVE"}
+					"""))
+			.andExpect(status().isOk());
+		
+		assertThat(etagAfter(single, singleEtag)).isNotEqualTo(singleEtag);
+		assertThat(etagAfter(list, listEtag)).isNotEqualTo(listEtag);
+	}
+	
+	@Test
+	void ifModifiedSinceIsAnsweredFromVersion() throws Exception {
+		String single = "/api/v1/projects/" + project.getId();
+		String lastModified = mockMvc.perform(get(single).with(bearer(token)))
+			.andExpect(status().isOk())
+			.andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+			.andReturn().getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+		
+		mockMvc.perform(get(single).with(bearer(token)).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+			.andExpect(status().isNotModified());
+	}
+	
+	@Test
+	void missingProjectIsNotFoundWithoutVersionKey() throws Exception {
+		long missingId = project.getId() + 1000;
+		
+		for (String path : List.of("/api/v1/projects/" + missingId, "/api/v1/projects/" + missingId + "/stats")) {
+			mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, "*"))
+				.andExpect(status().isNotFound());
+		}
+		mockMvc.perform(get("/api/v1/shifts").param("projectId", String.valueOf(missingId)).with(bearer(token))
+				.header(HttpHeaders.IF_NONE_MATCH, "*"))
+			.andExpect(status().isNotFound());
+		
+		assertThat(redisTemplate.hasKey("version:project:" + missingId)).isFalse();
+	}
+	
+	private void assertNotModified(String path, String etag) throws Exception {
+		mockMvc.perform(get(path).with(bearer(token)).header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(status().isNotModified())
+			.andExpect(content().string(""))
+			.andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+			.andExpect(statementsAtMost(2));
+	}
+	
+	private String etagOf(String path) throws Exception {
+		String etag = mockMvc.perform(get(path).with(bearer(token)))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(etag).isNotBlank();
+		return etag;
+	}
+	
+	private String etagAfter(String path, String previousEtag) throws Exception {
+		String etag = mockMvc.perform(get(path).with(bearer(token)).header(HttpHeaders.IF_NONE_MATCH, previousEtag))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(etag).isNotBlank();
+		return etag;
+	}
+}
@@ -0,0 +1,258 @@
+package nelon.arrive.nelonshift.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import nelon.arrive.nelonshift.entity.Project;
+import nelon.arrive.nelonshift.entity.User;
+import nelon.arrive.nelonshift.enums.ProjectStatus;
+import nelon.arrive.nelonshift.services.archive.ProjectArchiveService;
+import nelon.arrive.nelonshift.support.EmbeddedRedis;
+import nelon.arrive.nelonshift.support.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static nelon.arrive.nelonshift.metrics.QueryBudgetMatchers.entitiesAtMost;
+import static nelon.arrive.nelonshift.metrics.QueryBudgetMatchers.statementsAtMost;
+import static nelon.arrive.nelonshift.support.TestData.bearer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Бюджет запросов к БД для основных эндпоинтов каждого контроллера.
+ * Данные: пользователь, {@value #PROJECTS} проекта по {@value #SHIFTS_PER_PROJECT} смен -
+ * бюджет не должен расти вместе с количеством проектов и смен.
+ * Порог фонового удаления ниже проекта из {@value #SHIFTS_PER_PROJECT} смен - проверяются оба пути удаления.
+ */
+@SpringBootTest(properties = "deletion.async-threshold=5")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+class ControllerQueryBudgetTests {
+	
+	@DynamicPropertySource
+	static void redis(DynamicPropertyRegistry registry) {
+		EmbeddedRedis.register(registry);
+	}
+	
+	private static final int PROJECTS = 3;
+	private static final int SHIFTS_PER_PROJECT = 5;
+	
+	@Autowired
+	private MockMvc mockMvc;
+	
+	@Autowired
+	private TestData data;
+	
+	@Autowired
+	private ProjectArchiveService archiveService;
+	
+	private User user;
+	private List<Project> projects;
+	private String token;
+	
+	@BeforeEach
+	void setUp() {
+		user = data.user("budget@nelon.test");
+		
+		projects = new ArrayList<>();
+		for (int p = 0; p < PROJECTS; p++) {
+			Project project = data.project(user, "Project " + p);
+			data.shifts(project, SHIFTS_PER_PROJECT, (shift, s) -> {
+				shift.setOvertimeHours(1);
+				shift.setOvertimePay(new BigDecimal("150.00"));
+				shift.setPerDiem(new BigDecimal("300.00"));
+			});
+			projects.add(project);
+		}
+		
+		token = data.token(user);
+	}
+	
+	@AfterEach
+	void tearDown() {
+		data.clear();
+		data.flushRedis();
+	}
+	
+	@Test
+	void authController() throws Exception {
+		mockMvc.perform(post("/api/v1/auth/signup")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("""
+					{"email": "new@nelon.test", "password": "password123", "name": "New"}
+					"""))
+			.andExpect(status().isOk())
+			.andExpect(statementsAtMost(2));
+	}
+	
+	@Test
+	void userController() throws Exception {
+		mockMvc.perform(get("/api/v1/users/" + user.getId()).with(bearer(token)))
+			.andExpect(status().isOk())
+			.andExpect(statementsAtMost(3))
+			.andExpect(entitiesAtMost(1));
+		
+		mockMvc.perform(get("/api/v1/users/all").with(bearer(token)))
+			.andExpect(status().isOk())
+			.andExpect(statementsAtMost(3))
+			.andExpect(entitiesAtMost(1));
+	}
+	
+	@Test
+	void projectController() throws Exception {
+		mockMvc.perform(get("/api/v1/projects").with(bearer(token)))
+			.andExpect(status().isOk())
+			.andExpect(statementsAtMost(2))
+			.andExpect(entitiesAtMost(1));
+		
+		// Пользователь, проверка проекта до чтения версии, проект
+		mockMvc.perform(get("/api/v1/projects/" + projects.get(0).getId()).with(bearer(token)))
+			.andExpect(status().isOk())
+			.andExpect(statementsAtMost(3))
+			.andExpect(entitiesAtMost(1));
+		
+		mockMvc.perform(get("/api/v1/projects/" + projects.get(0).getId() + "/stats").with(bearer(token)))
+			.andExpect(status().isOk())
+			.andExpect(statementsAtMost(4));
+	}
+	
+	@Test
+	void shiftController() throws Exception {
+		mockMvc.perform(get("/api/v1/shifts").param("projectId", projects.get(0).getId().toString()).with(bearer(token)))
+			.andExpect(status().isOk())
+			.andExpect(statementsAtMost(3))
+			.andExpect(entitiesAtMost(1));
+		
+		mockMvc.perform(post("/api/v1/shifts").with(bearer(token))
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("""
+					{"projectId": %d, "date": "%s", "hours": 8, "basePay": 1000.00, "compensation": 0}
+					""".formatted(projects.get(0).getId(), LocalDate.now().plusDays(1))))
+			.andExpect(status().isCreated())
+			// Пользователь, fencing-токен блокировки проекта, проект, проверка дубликата, вставка
+			.andExpect(statementsAtMost(5));
+	}
+	
+	@Test
+	void dashboardController() throws Exception {
+		archiveOneProject();
+		
+		// Пользователь, проекты, сохранённая статистика архива одним запросом
+		mockMvc.perform(get("/api/v1/dashboard/stats").with(bearer(token)))
+			.andExpect(status().isOk())
+			.andExpect(statementsAtMost(4));
+	}
+	
+	@Test
+	void archivedProjectController() throws Exception {
+		Long id = archiveOneProject();
+		
+		mockMvc.perform(get("/api/v1/archive/projects").with(bearer(token)))
+			.andExpect(status().isOk())
+			.andExpect(statementsAtMost(3))
+			.andExpect(entitiesAtMost(1));
+		
+		mockMvc.perform(get("/api/v1/archive/projects/" + id).with(bearer(token)))
+			.andExpect(status().isOk())
+			.andExpect(statementsAtMost(2))
+			.andExpect(entitiesAtMost(1));
+		
+		// Пользователь, проверка существования до ETag, смены / колонка статистики
+		for (String part : List.of("/shifts", "/stats")) {
+			mockMvc.perform(get("/api/v1/archive/projects/" + id + part).with(bearer(token)))
+				.andExpect(status().isOk())
+				.andExpect(statementsAtMost(3))
+				.andExpect(entitiesAtMost(1));
+		}
+	}
+	
+	@Test
+	void analyticsController() throws Exception {
+		mockMvc.perform(get("/api/v1/analytics/shifts").param("groupBy", "MONTH").with(bearer(token)))
+			.andExpect(status().isOk())
+			.andExpect(statementsAtMost(2))
+			.andExpect(entitiesAtMost(1));
+	}
+	
+	@Test
+	void deletionController() throws Exception {
+		// Небольшой проект удаляется сразу, пакетными DELETE без загрузки смен
+		Project small = data.project(user, "Small project");
+		data.shifts(small, 2);
+		mockMvc.perform(delete("/api/v1/projects/" + small.getId()).with(bearer(token)))
+			.andExpect(status().isOk())
+			// Пользователь, владелец, подсчёт смен, пакет id смен, DELETE пакета, пустой пакет, DELETE смен и проекта
+			.andExpect(statementsAtMost(8))
+			.andExpect(entitiesAtMost(1));
+		
+		// Больше порога - в фоне: в потоке запроса только подсчёт строк
+		String projectJob = jobId(mockMvc.perform(delete("/api/v1/projects/" + projects.get(0).getId()).with(bearer(token)))
+			.andExpect(status().isAccepted())
+			.andExpect(statementsAtMost(3))
+			.andExpect(entitiesAtMost(1)));
+		awaitCompleted(projectJob);
+		
+		User deleted = data.user("deleted@nelon.test");
+		data.projects(deleted, 2, SHIFTS_PER_PROJECT);
+		String userJob = jobId(mockMvc.perform(delete("/api/v1/users/" + deleted.getId()).with(bearer(token)))
+			.andExpect(status().isAccepted())
+			.andExpect(statementsAtMost(4))
+			.andExpect(entitiesAtMost(1)));
+		awaitCompleted(userJob);
+	}
+	
+	/**
+	 * Давно завершённый проект с {@value #SHIFTS_PER_PROJECT} сменами, перенесённый в архив
+	 */
+	private Long archiveOneProject() {
+		LocalDate longAgo = LocalDate.now().minusYears(1);
+		Project old = data.project(user, "Archived project", p -> {
+			p.setStatus(ProjectStatus.COMPLETED);
+			p.setStartDate(longAgo.minusDays(SHIFTS_PER_PROJECT));
+			p.setEndDate(longAgo);
+		});
+		data.shifts(old, SHIFTS_PER_PROJECT, (shift, s) -> shift.setDate(longAgo.minusDays(s)));
+		assertThat(archiveService.archiveEligible()).isEqualTo(1);
+		return old.getId();
+	}
+	
+	/**
+	 * Ход удаления читается из Redis: в БД только пользователь из токена
+	 */
+	private void awaitCompleted(String jobId) throws Exception {
+		long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+		String state;
+		do {
+			Thread.sleep(20);
+			state = JsonPath.read(mockMvc.perform(get("/api/v1/deletions/" + jobId).with(bearer(token)))
+				.andExpect(status().isOk())
+				.andExpect(statementsAtMost(1))
+				.andExpect(entitiesAtMost(1))
+				.andReturn().getResponse().getContentAsString(), "$.status");
+		} while (state.equals("RUNNING") && System.nanoTime() < deadline);
+		assertThat(state).isEqualTo("COMPLETED");
+	}
+	
+	private static String jobId(ResultActions accepted) throws Exception {
+		return JsonPath.read(accepted.andReturn().getResponse().getContentAsString(), "$.id");
+	}
+}
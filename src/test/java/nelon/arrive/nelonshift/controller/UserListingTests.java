@@ -0,0 +1,169 @@
+package nelon.arrive.nelonshift.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nelon.arrive.nelonshift.entity.User;
+import nelon.arrive.nelonshift.support.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static nelon.arrive.nelonshift.metrics.QueryBudgetMatchers.entitiesAtMost;
+import static nelon.arrive.nelonshift.metrics.QueryBudgetMatchers.statementsAtMost;
+import static nelon.arrive.nelonshift.support.TestData.bearer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Список пользователей для администрирования: keyset-пагинация, фильтры,
+ * число проектов подзапросом и выгрузка в NDJSON
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+class UserListingTests {
+	
+	private static final LocalDate OLD = LocalDate.of(2024, 1, 15);
+	
+	@Autowired
+	private MockMvc mockMvc;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private TestData data;
+	
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	
+	private String token;
+	
+	@BeforeEach
+	void setUp() {
+		User admin = data.user("admin@nelon.test");
+		User alice = data.user("alice@nelon.test");
+		for (String email : List.of("a_b@nelon.test", "anna@nelon.test", "bob@nelon.test",
+			"boris@nelon.test", "carl@nelon.test")) {
+			data.user(email);
+		}
+		// Двое зарегистрированы давно - для фильтра по дате
+		jdbcTemplate.update("UPDATE users SET created_at = ? WHERE email IN ('bob@nelon.test', 'carl@nelon.test')",
+			Timestamp.valueOf(OLD.atTime(12, 0)));
+		
+		data.projects(alice, 2, 0);
+		
+		token = data.token(admin);
+	}
+	
+	@AfterEach
+	void tearDown() {
+		data.clear();
+	}
+	
+	@Test
+	void pagesThroughAllUsersByCursor() throws Exception {
+		List<String> emails = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			MockHttpServletRequestBuilder request = get("/api/v1/users").param("size", "3").with(bearer(token));
+			if (cursor != null) {
+				request.param("cursor", cursor);
+			}
+			JsonNode page = read(mockMvc.perform(request)
+				.andExpect(status().isOk())
+				.andExpect(statementsAtMost(2))
+				.andExpect(entitiesAtMost(1))
+				.andReturn().getResponse().getContentAsString());
+			page.get("content").forEach(user -> emails.add(user.get("email").asText()));
+			assertThat(page.get("content").get(0).has("projectCount")).isFalse();
+			cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+			pages++;
+		} while (cursor != null);
+		
+		assertThat(pages).isEqualTo(3);
+		assertThat(emails).hasSize(7).isSorted().doesNotHaveDuplicates();
+	}
+	
+	@Test
+	void filtersByEmailPrefixAndCreatedDateWithProjectCount() throws Exception {
+		mockMvc.perform(get("/api/v1/users").param("email", "a").param("projectCount", "true").with(bearer(token)))
+			.andExpect(status().isOk())
+			.andExpect(statementsAtMost(2))
+			.andExpect(jsonPath("$.content.length()").value(4))
+			.andExpect(jsonPath("$.content[?(@.email == 'alice@nelon.test')].projectCount").value(2))
+			.andExpect(jsonPath("$.content[?(@.email == 'anna@nelon.test')].projectCount").value(0))
+			.andExpect(jsonPath("$.nextCursor").isEmpty());
+		
+		// Символы LIKE в префиксе сравниваются буквально
+		mockMvc.perform(get("/api/v1/users").param("email", "a_").with(bearer(token)))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.content.length()").value(1))
+			.andExpect(jsonPath("$.content[0].email").value("a_b@nelon.test"));
+		
+		mockMvc.perform(get("/api/v1/users")
+				.param("email", "b")
+				.param("createdFrom", OLD.toString())
+				.param("createdTo", OLD.toString()).with(bearer(token)))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.content.length()").value(1))
+			.andExpect(jsonPath("$.content[0].email").value("bob@nelon.test"));
+	}
+	
+	@Test
+	void exportsNdjson() throws Exception {
+		String body = mockMvc.perform(get("/api/v1/users/export").param("projectCount", "true").with(bearer(token)))
+			.andExpect(status().isOk())
+			.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+			.andReturn().getResponse().getContentAsString();
+		
+		String[] lines = body.split("\n");
+		assertThat(body).endsWith("\n");
+		assertThat(lines).hasSize(7);
+		JsonNode alice = null;
+		for (String line : lines) {
+			JsonNode user = read(line);
+			if (user.get("email").asText().equals("alice@nelon.test")) {
+				alice = user;
+			}
+		}
+		assertThat(alice).isNotNull();
+		assertThat(alice.get("projectCount").asLong()).isEqualTo(2);
+		assertThat(alice.has("password")).isFalse();
+	}
+	
+	@Test
+	void rejectsInvalidParameters() throws Exception {
+		mockMvc.perform(get("/api/v1/users").param("size", "0").with(bearer(token)))
+			.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/v1/users").param("cursor", "not base64!").with(bearer(token)))
+			.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/v1/users/export")
+				.param("createdFrom", "2024-02-01")
+				.param("createdTo", "2024-01-01").with(bearer(token)))
+			.andExpect(status().isBadRequest());
+	}
+	
+	private JsonNode read(String json) throws Exception {
+		return objectMapper.readTree(json);
+	}
+}
@@ -0,0 +1,162 @@
+package nelon.arrive.nelonshift.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import nelon.arrive.nelonshift.entity.Project;
+import nelon.arrive.nelonshift.entity.User;
+import nelon.arrive.nelonshift.support.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.sql.SQLFeatureNotSupportedException;
+
+import static nelon.arrive.nelonshift.support.TestData.bearer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Маршрутизация читающих транзакций на реплики: две локальные БД H2 (основная и реплика)
+ * и недоступная реплика, которая исключается проверкой здоровья
+ */
+@SpringBootTest(properties = {
+	"spring.datasource.url=jdbc:h2:mem:nelon_primary;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+	"datasource.replicas.enabled=true",
+	"datasource.replicas.sticky-window=PT1M",
+	"datasource.replicas.pools[0].name=replica",
+	"datasource.replicas.pools[0].url=jdbc:h2:mem:nelon_replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+	"datasource.replicas.pools[0].username=sa",
+	"datasource.replicas.pools[1].name=offline",
+	"datasource.replicas.pools[1].url=jdbc:h2:tcp://localhost:1/offline",
+	"datasource.replicas.pools[1].username=sa",
+	"datasource.replicas.pools[1].connection-timeout=PT0.25S"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+class ReplicaRoutingTests {
+	
+	@Autowired
+	private MockMvc mockMvc;
+	
+	@Autowired
+	private TestData data;
+	
+	@Autowired
+	private ReplicaRoutingDataSource routingDataSource;
+	
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	
+	@Autowired
+	private MeterRegistry meterRegistry;
+	
+	private JdbcTemplate replica;
+	private User user;
+	private Project project;
+	
+	@BeforeEach
+	void setUp() {
+		// Данные готовятся вне HTTP-запроса: записи теста не делают чтения клиента 127.0.0.1 "своими"
+		RequestContextHolder.resetRequestAttributes();
+		user = data.user("replica@nelon.test");
+		project = data.project(user, "On primary");
+		
+		// Реплика - копия основной БД, в которой проект назван иначе
+		replica = new JdbcTemplate(pool("replica").getDataSource());
+		replica.execute("DROP ALL OBJECTS");
+		jdbcTemplate.queryForList("SCRIPT", String.class).forEach(replica::execute);
+		replica.update("UPDATE projects SET name = 'On replica' WHERE id = ?", project.getId());
+		routingDataSource.checkHealth();
+	}
+	
+	@AfterEach
+	void tearDown() {
+		data.clear();
+	}
+	
+	@Test
+	void routesReadOnlyTransactionsToHealthyReplica() throws Exception {
+		assertThat(pool("replica").isHealthy()).isTrue();
+		assertThat(pool("offline").isHealthy()).isFalse();
+		double replicaReads = connections("replica", "read");
+		
+		for (int i = 0; i < 3; i++) {
+			mockMvc.perform(get("/api/v1/projects/" + project.getId()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.name").value("On replica"));
+		}
+		
+		// На запрос две читающие транзакции: проверка проекта до чтения версии и сам проект
+		assertThat(connections("replica", "read")).isEqualTo(replicaReads + 3 * 2);
+		assertThat(connections("offline", "read")).isZero();
+		assertThat(meterRegistry.get("hikaricp.connections.max").tag("pool", "replica").gauge().value()).isPositive();
+	}
+	
+	@Test
+	void readsOwnWritesFromPrimary() throws Exception {
+		String token = data.token(user);
+		
+		mockMvc.perform(put("/api/v1/projects/" + project.getId())
+				.with(bearer(token))
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("""
+					{"name": "Renamed", "status": "ACTIVE"}
+					"""))
+			.andExpect(status().isOk());
+		
+		// Тот же пользователь видит своё изменение, пока реплика его не получила
+		mockMvc.perform(get("/api/v1/projects/" + project.getId())
+				.with(bearer(token)))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.name").value("Renamed"));
+		// Остальные читают реплику
+		mockMvc.perform(get("/api/v1/projects/" + project.getId()))
+			.andExpect(jsonPath("$.name").value("On replica"));
+	}
+	
+	@Test
+	void fallsBackToPrimaryWithoutHealthyReplicas() throws Exception {
+		double fallbacks = connections("primary", "fallback");
+		pool("replica").markDown("test");
+		
+		mockMvc.perform(get("/api/v1/projects/" + project.getId()))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.name").value("On primary"));
+		assertThat(connections("primary", "fallback")).isEqualTo(fallbacks + 2);
+		
+		routingDataSource.checkHealth();
+		mockMvc.perform(get("/api/v1/projects/" + project.getId()))
+			.andExpect(jsonPath("$.name").value("On replica"));
+	}
+	
+	@Test
+	void rejectsExplicitCredentials() {
+		assertThatThrownBy(() -> routingDataSource.getConnection("sa", ""))
+			.isInstanceOf(SQLFeatureNotSupportedException.class);
+	}
+	
+	private ReplicaPool pool(String name) {
+		return routingDataSource.getReplicas().stream()
+			.filter(pool -> pool.getName().equals(name))
+			.findFirst()
+			.orElseThrow();
+	}
+	
+	private double connections(String pool, String reason) {
+		var counter = meterRegistry.find("nelonshift.datasource.connections").tag("pool", pool).tag("reason", reason).counter();
+		return counter == null ? 0 : counter.count();
+	}
+}
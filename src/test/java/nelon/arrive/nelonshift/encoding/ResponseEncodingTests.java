@@ -0,0 +1,160 @@
+package nelon.arrive.nelonshift.encoding;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import nelon.arrive.nelonshift.entity.Project;
+import nelon.arrive.nelonshift.entity.User;
+import nelon.arrive.nelonshift.support.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+
+import static nelon.arrive.nelonshift.support.TestData.bearer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Кодирование списков: {@code ?fields=}, CBOR по Accept, JSON по умолчанию, потоковая запись
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+class ResponseEncodingTests {
+	
+	private static final int SHIFTS = 3;
+	
+	@Autowired
+	private MockMvc mockMvc;
+	
+	@Autowired
+	private TestData data;
+	
+	private Project project;
+	private String token;
+	
+	@BeforeEach
+	void setUp() {
+		User user = data.user("encoding@nelon.test");
+		project = data.project(user, "Encoding project");
+		data.shifts(project, SHIFTS);
+		token = data.token(user);
+	}
+	
+	@AfterEach
+	void tearDown() {
+		data.clear();
+	}
+	
+	@Test
+	void fieldsLimitSerializedProperties() throws Exception {
+		mockMvc.perform(shifts().param("fields", "id, basePay"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$", hasSize(SHIFTS)))
+			.andExpect(jsonPath("$[0].id").exists())
+			.andExpect(jsonPath("$[0].basePay").value(1000.00))
+			.andExpect(jsonPath("$[0].date").doesNotExist())
+			.andExpect(jsonPath("$[0].hours").doesNotExist());
+		
+		mockMvc.perform(get("/api/v1/projects").with(bearer(token)).param("fields", "name"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.content[0].name").value("Encoding project"))
+			.andExpect(jsonPath("$.content[0].status").doesNotExist())
+			.andExpect(jsonPath("$.totalElements").exists());
+	}
+	
+	@Test
+	void allFieldsWithoutParameter() throws Exception {
+		mockMvc.perform(shifts())
+			.andExpect(status().isOk())
+			.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+			.andExpect(jsonPath("$[0].date").exists())
+			.andExpect(jsonPath("$[0].hours").value(8));
+	}
+	
+	@Test
+	void unknownFieldIsRejected() throws Exception {
+		mockMvc.perform(shifts().param("fields", "id,salary"))
+			.andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	void cborIsNegotiatedByAccept() throws Exception {
+		byte[] body = mockMvc.perform(shifts()
+				.param("fields", "date,basePay")
+				.accept(MediaType.APPLICATION_CBOR))
+			.andExpect(status().isOk())
+			.andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+			.andReturn().getResponse().getContentAsByteArray();
+		
+		JsonNode shifts = new CBORMapper().readTree(body);
+		assertThat(shifts).hasSize(SHIFTS);
+		assertThat(shifts.get(0).get("date").asText()).isEqualTo(LocalDate.now().toString());
+		assertThat(shifts.get(0).get("basePay").decimalValue()).isEqualByComparingTo("1000.00");
+		assertThat(shifts.get(0).has("id")).isFalse();
+	}
+	
+	@Test
+	void everyNegotiatedResponseVariesOnAccept() throws Exception {
+		mockMvc.perform(get("/api/v1/projects/" + project.getId()).accept(MediaType.APPLICATION_CBOR))
+			.andExpect(status().isOk())
+			.andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+			.andExpect(variesOnAcceptOnce());
+		
+		mockMvc.perform(get("/api/v1/dashboard/stats").with(bearer(token)))
+			.andExpect(status().isOk())
+			.andExpect(variesOnAcceptOnce());
+		
+		// Один заголовок и у списков с ?fields=
+		mockMvc.perform(shifts())
+			.andExpect(status().isOk())
+			.andExpect(variesOnAcceptOnce());
+	}
+	
+	@Test
+	void streamWritesSameShiftsAsList() throws Exception {
+		mockMvc.perform(get("/api/v1/shifts/stream").with(bearer(token))
+				.param("projectId", project.getId().toString())
+				.param("fields", "date,hours"))
+			.andExpect(status().isOk())
+			.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+			.andExpect(jsonPath("$", hasSize(SHIFTS)))
+			.andExpect(jsonPath("$[0].date").value(LocalDate.now().minusDays(SHIFTS - 1).toString()))
+			.andExpect(jsonPath("$[0].hours").value(8))
+			.andExpect(jsonPath("$[0].basePay").doesNotExist());
+	}
+	
+	@Test
+	void streamOfMissingProjectIsNotFound() throws Exception {
+		mockMvc.perform(get("/api/v1/shifts/stream").with(bearer(token)).param("projectId", "-1"))
+			.andExpect(status().isNotFound())
+			.andExpect(jsonPath("$.message").value("Project not found"));
+	}
+	
+	/**
+	 * Vary содержит и заголовки CORS - проверяется только Accept, ровно один раз
+	 */
+	private static ResultMatcher variesOnAcceptOnce() {
+		return result -> assertThat(result.getResponse().getHeaders(HttpHeaders.VARY)).containsOnlyOnce(HttpHeaders.ACCEPT);
+	}
+	
+	private MockHttpServletRequestBuilder shifts() {
+		return get("/api/v1/shifts").with(bearer(token)).param("projectId", project.getId().toString());
+	}
+}
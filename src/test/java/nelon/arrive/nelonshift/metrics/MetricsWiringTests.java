@@ -0,0 +1,135 @@
+package nelon.arrive.nelonshift.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import nelon.arrive.nelonshift.support.EmbeddedRedis;
+import nelon.arrive.nelonshift.support.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static nelon.arrive.nelonshift.support.TestData.bearer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Метрики слоёв, запросов к БД и пулов доходят до реестра и до /actuator/prometheus;
+ * без аутентификации открыт только health
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+@Import(TestData.class)
+class MetricsWiringTests {
+	
+	private static final String DASHBOARD = "/api/v1/dashboard/stats";
+	
+	@DynamicPropertySource
+	static void redis(DynamicPropertyRegistry registry) {
+		EmbeddedRedis.register(registry);
+	}
+	
+	@Autowired
+	private MockMvc mockMvc;
+	
+	@Autowired
+	private MeterRegistry meterRegistry;
+	
+	@Autowired
+	private TestData data;
+	
+	private String token;
+	
+	@BeforeEach
+	void setUp() {
+		token = data.token(data.user("metrics@nelon.test"));
+	}
+	
+	@AfterEach
+	void tearDown() {
+		data.clear();
+		data.flushRedis();
+	}
+	
+	@Test
+	void onlyHealthIsPublic() throws Exception {
+		mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+		mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/actuator/metrics")).andExpect(status().isUnauthorized());
+		
+		mockMvc.perform(get("/actuator/prometheus").with(bearer(token)))
+			.andExpect(status().isOk());
+	}
+	
+	@Test
+	void requestRecordsLayerTimersAndQueryCounts() throws Exception {
+		double statementsBefore = meterRegistry.counter("nelonshift.db.statements").count();
+		
+		mockMvc.perform(get(DASHBOARD).with(bearer(token)))
+			.andExpect(status().isOk());
+		
+		Timer service = meterRegistry.get(LayerObservationAspect.SERVICE)
+			.tag("class", "DashboardService")
+			.tag("method", "getDashboardStats")
+			.timer();
+		assertThat(service.count()).isPositive();
+		// Перцентили только для методов из MetricsConfig
+		assertThat(service.takeSnapshot().percentileValues()).hasSize(4);
+		
+		assertThat(meterRegistry.get(LayerObservationAspect.CONTROLLER).tag("class", "DashboardController").timer().count())
+			.isPositive();
+		assertThat(meterRegistry.get(LayerObservationAspect.REPOSITORY).tag("store", "jpa").timers()).isNotEmpty();
+		
+		DistributionSummary statements = meterRegistry.get("nelonshift.http.db.statements")
+			.tag("method", "GET")
+			.tag("uri", DASHBOARD)
+			.summary();
+		assertThat(statements.count()).isPositive();
+		assertThat(statements.totalAmount()).isPositive();
+		assertThat(meterRegistry.counter("nelonshift.db.statements").count()).isGreaterThan(statementsBefore);
+	}
+	
+	@Test
+	void percentilesOnlyForSelectedServiceMethods() throws Exception {
+		mockMvc.perform(get("/api/v1/projects").with(bearer(token)))
+			.andExpect(status().isOk());
+		
+		Timer projects = meterRegistry.get(LayerObservationAspect.SERVICE).tag("method", "getProjects").timer();
+		assertThat(projects.count()).isPositive();
+		assertThat(projects.takeSnapshot().percentileValues()).isEmpty();
+	}
+	
+	@Test
+	void prometheusExposesApplicationAndPoolMetrics() throws Exception {
+		// Таймеры сервисов с перцентилями и без них под одним именем метрики
+		mockMvc.perform(get(DASHBOARD).with(bearer(token)))
+			.andExpect(status().isOk());
+		mockMvc.perform(get("/api/v1/projects").with(bearer(token)))
+			.andExpect(status().isOk());
+		
+		String scrape = mockMvc.perform(get("/actuator/prometheus").with(bearer(token)))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getContentAsString();
+		
+		assertThat(scrape)
+			.contains("nelonshift_service_seconds_bucket{")
+			.contains("method=\"getDashboardStats\"")
+			.contains("method=\"getProjects\"")
+			.contains("nelonshift_http_db_statements_count{")
+			.contains("nelonshift_cache_requests_total{")
+			.contains("hikaricp_connections_active{")
+			.contains("application=\"nelon-shift\"");
+	}
+}
@@ -0,0 +1,37 @@
+package nelon.arrive.nelonshift.metrics;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки количества запросов к БД для MockMvc:
+ * {@code .andExpect(QueryBudgetMatchers.statementsAtMost(3))}
+ */
+public final class QueryBudgetMatchers {
+	
+	private QueryBudgetMatchers() {
+	}
+	
+	public static ResultMatcher statementsAtMost(int budget) {
+		return result -> {
+			QueryCounter.QueryCount count = countOf(result.getRequest().getAttribute(QueryCounter.REQUEST_ATTRIBUTE));
+			assertTrue(count.statements() <= budget,
+				() -> "Expected at most " + budget + " SQL statements but was " + count.statements());
+		};
+	}
+	
+	public static ResultMatcher entitiesAtMost(int budget) {
+		return result -> {
+			QueryCounter.QueryCount count = countOf(result.getRequest().getAttribute(QueryCounter.REQUEST_ATTRIBUTE));
+			assertTrue(count.entities() <= budget,
+				() -> "Expected at most " + budget + " loaded entities but was " + count.entities());
+		};
+	}
+	
+	private static QueryCounter.QueryCount countOf(Object attribute) {
+		assertNotNull(attribute, "Query count is missing: is RequestMetricsFilter registered?");
+		return (QueryCounter.QueryCount) attribute;
+	}
+}
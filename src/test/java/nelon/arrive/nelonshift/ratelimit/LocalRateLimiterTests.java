@@ -0,0 +1,56 @@
+package nelon.arrive.nelonshift.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Корзины в памяти: жёсткий предел числа корзин с вытеснением давно не использованных
+ */
+class LocalRateLimiterTests {
+	
+	private static final RateLimitRule RULE = new RateLimitRule(
+		"test", null, null, RateLimitProperties.KeyType.IP, 2, 1, Duration.ofHours(1).toNanos());
+	
+	@Test
+	void bucketCountNeverExceedsLimit() {
+		LocalRateLimiter limiter = new LocalRateLimiter(3);
+		
+		// Корзины неполные, но предел всё равно соблюдается
+		for (int i = 0; i < 100; i++) {
+			limiter.tryAcquire("client-" + i, RULE);
+			limiter.tryAcquire("client-" + i, RULE);
+		}
+		
+		assertThat(limiter.size()).isEqualTo(3);
+	}
+	
+	@Test
+	void segmentsShareLimitExactly() {
+		LocalRateLimiter limiter = new LocalRateLimiter(100);
+		
+		for (int i = 0; i < 10_000; i++) {
+			limiter.tryAcquire("client-" + i, RULE);
+		}
+		
+		assertThat(limiter.size()).isEqualTo(100);
+	}
+	
+	@Test
+	void evictsLeastRecentlyUsedBucket() {
+		// Один сегмент - точный LRU
+		LocalRateLimiter limiter = new LocalRateLimiter(2, 1);
+		limiter.tryAcquire("a", RULE);
+		limiter.tryAcquire("a", RULE);
+		limiter.tryAcquire("b", RULE);
+		
+		// "a" использована позже "b" - вытесняется "b"
+		assertThat(limiter.tryAcquire("a", RULE).allowed()).isFalse();
+		limiter.tryAcquire("c", RULE);
+		
+		assertThat(limiter.tryAcquire("a", RULE).allowed()).isFalse();
+		assertThat(limiter.tryAcquire("b", RULE).remaining()).isEqualTo(1);
+	}
+}
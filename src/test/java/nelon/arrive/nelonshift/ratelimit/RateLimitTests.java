@@ -0,0 +1,80 @@
+package nelon.arrive.nelonshift.ratelimit;
+
+import nelon.arrive.nelonshift.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Корзина на адрес клиента: после исчерпания - 429 с Retry-After,
+ * другие адреса не затрагиваются
+ */
+@SpringBootTest(properties = {
+	"rate-limit.enabled=true",
+	"rate-limit.mode=local",
+	"rate-limit.rules[0].name=auth-signup",
+	"rate-limit.rules[0].method=POST",
+	"rate-limit.rules[0].pattern=/api/v1/auth/signup",
+	"rate-limit.rules[0].key=ip",
+	"rate-limit.rules[0].capacity=2",
+	"rate-limit.rules[0].refill-tokens=1",
+	"rate-limit.rules[0].refill-period=1h"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RateLimitTests {
+	
+	@Autowired
+	private MockMvc mockMvc;
+	
+	@Autowired
+	private UserRepository userRepository;
+	
+	@AfterEach
+	void tearDown() {
+		userRepository.deleteAllInBatch();
+	}
+	
+	@Test
+	void rejectsRequestsOverCapacity() throws Exception {
+		for (int i = 0; i < 2; i++) {
+			mockMvc.perform(signup("10.0.0.1", i))
+				.andExpect(status().isOk())
+				.andExpect(header().string(RateLimitFilter.REMAINING_HEADER, String.valueOf(1 - i)));
+		}
+		
+		mockMvc.perform(signup("10.0.0.1", 2))
+			.andExpect(status().isTooManyRequests())
+			// токен пополняется за час, часть которого уже прошла
+			.andExpect(header().string(HttpHeaders.RETRY_AFTER, matchesPattern("35\\d\\d|3600")))
+			.andExpect(jsonPath("$.status").value(429));
+		
+		mockMvc.perform(signup("10.0.0.2", 3))
+			.andExpect(status().isOk());
+	}
+	
+	private static MockHttpServletRequestBuilder signup(String address, int n) {
+		return post("/api/v1/auth/signup")
+			.with(request -> {
+				request.setRemoteAddr(address);
+				return request;
+			})
+			.contentType(MediaType.APPLICATION_JSON)
+			.content("""
+				{"email": "limit%d@nelon.test", "password": "password123", "name": "Limit"}
+				""".formatted(n));
+	}
+}
@@ -0,0 +1,81 @@
+package nelon.arrive.nelonshift.security.password;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nelon.arrive.nelonshift.entity.User;
+import nelon.arrive.nelonshift.exception.ServiceOverloadedException;
+import nelon.arrive.nelonshift.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Пересохранение хеша при входе после смены стоимости BCrypt
+ * и сброс запросов при занятом пуле хеширования
+ */
+@SpringBootTest(properties = "security.password.bcrypt-strength=5")
+@ActiveProfiles("test")
+class PasswordHashingTests {
+	
+	@Autowired
+	private AuthenticationManager authenticationManager;
+	
+	@Autowired
+	private UserRepository userRepository;
+	
+	@AfterEach
+	void tearDown() {
+		userRepository.deleteAllInBatch();
+	}
+	
+	@Test
+	void rehashesPasswordOnLoginWhenCostChanges() {
+		userRepository.save(User.builder()
+			.email("rehash@nelon.test")
+			.password(new BCryptPasswordEncoder(4).encode("password123"))
+			.name("Rehash")
+			.projects(new ArrayList<>())
+			.build());
+		
+		authenticationManager.authenticate(
+			new UsernamePasswordAuthenticationToken("rehash@nelon.test", "password123"));
+		
+		String stored = userRepository.findByEmail("rehash@nelon.test").orElseThrow().getPassword();
+		assertThat(BoundedPasswordEncoder.costOf(stored)).isEqualTo(5);
+		assertThat(new BCryptPasswordEncoder().matches("password123", stored)).isTrue();
+	}
+	
+	@Test
+	void shedsRequestsWhenPoolIsBusy() throws Exception {
+		try (PasswordHashingExecutor executor =
+				 new PasswordHashingExecutor(1, 1, Duration.ofMillis(100), new SimpleMeterRegistry())) {
+			CountDownLatch started = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			// Единственный поток занят; вызывающий этой задачи тоже может не дождаться ответа
+			CompletableFuture.runAsync(() -> executor.call(() -> {
+				started.countDown();
+				return release.await(5, TimeUnit.SECONDS);
+			})).exceptionally(e -> null);
+			assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+			
+			assertThatThrownBy(() -> executor.call(() -> "queued"))
+				.isInstanceOf(ServiceOverloadedException.class);
+			
+			release.countDown();
+			assertThat(executor.call(() -> "after")).isEqualTo("after");
+		}
+	}
+}
@@ -0,0 +1,151 @@
+package nelon.arrive.nelonshift.security.revocation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import nelon.arrive.nelonshift.security.utils.CookieUtil;
+import nelon.arrive.nelonshift.support.EmbeddedRedis;
+import nelon.arrive.nelonshift.support.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Отзыв access-токенов: выход делает токен недействительным сразу, отзыв с другого
+ * экземпляра приходит через pub/sub, пропущенные сообщения добираются сверкой
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+class AccessTokenRevocationTests {
+	
+	@DynamicPropertySource
+	static void redis(DynamicPropertyRegistry registry) {
+		EmbeddedRedis.register(registry);
+	}
+	
+	@Autowired
+	private MockMvc mockMvc;
+	
+	@Autowired
+	private TestData data;
+	
+	@Autowired
+	private AccessTokenRevocationService revocationService;
+	
+	@Autowired
+	private StringRedisTemplate redisTemplate;
+	
+	@Autowired
+	private MeterRegistry meterRegistry;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		mockMvc.perform(post("/api/v1/auth/signup")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("""
+					{"email": "revoke@nelon.test", "password": "password123", "name": "Revoke"}
+					"""))
+			.andExpect(status().isOk());
+	}
+	
+	@AfterEach
+	void tearDown() {
+		data.clear();
+		data.flushRedis();
+	}
+	
+	@Test
+	void logoutRevokesAccessToken() throws Exception {
+		Cookie access = mockMvc.perform(post("/api/v1/auth/login")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("""
+					{"email": "revoke@nelon.test", "password": "password123"}
+					"""))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getCookie(CookieUtil.ACCESS_TOKEN_COOKIE);
+		
+		mockMvc.perform(get("/api/v1/dashboard/stats").cookie(access))
+			.andExpect(status().isOk());
+		
+		mockMvc.perform(post("/api/v1/auth/logout").cookie(access))
+			.andExpect(status().isOk());
+		
+		mockMvc.perform(get("/api/v1/dashboard/stats").cookie(access))
+			.andExpect(status().isUnauthorized());
+	}
+	
+	@Test
+	void unknownTokenIsCheckedWithoutRedis() {
+		double before = checks("bloom-miss");
+		
+		assertThat(revocationService.isRevoked(UUID.randomUUID().toString())).isFalse();
+		assertThat(checks("bloom-miss")).isEqualTo(before + 1);
+	}
+	
+	@Test
+	void revocationFromAnotherInstanceArrivesViaPubSub() throws Exception {
+		String jti = UUID.randomUUID().toString();
+		
+		// Другой экземпляр: запись в Redis и сообщение в канал
+		redisTemplate.opsForValue().set(AccessTokenRevocationService.KEY_PREFIX + jti, "1", Duration.ofMinutes(1));
+		redisTemplate.convertAndSend(AccessTokenRevocationService.CHANNEL, jti);
+		
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (!revocationService.isRevoked(jti) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertThat(revocationService.isRevoked(jti)).isTrue();
+	}
+	
+	@Test
+	void resyncLoadsRevocationsMissedByPubSub() {
+		String jti = UUID.randomUUID().toString();
+		redisTemplate.opsForValue().set(AccessTokenRevocationService.KEY_PREFIX + jti, "1", Duration.ofMinutes(1));
+		
+		assertThat(revocationService.isRevoked(jti)).isFalse();
+		
+		revocationService.resync();
+		
+		assertThat(revocationService.isRevoked(jti)).isTrue();
+	}
+	
+	@Test
+	void bloomFilterKeepsFalsePositiveRateNearTarget() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			filter.put("added-" + i);
+		}
+		
+		int falsePositives = 0;
+		for (int i = 0; i < 100_000; i++) {
+			assertThat(filter.mightContain("added-" + (i % 10_000))).isTrue();
+			if (filter.mightContain("absent-" + i)) {
+				falsePositives++;
+			}
+		}
+		assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+	}
+	
+	private double checks(String result) {
+		return meterRegistry.get("nelonshift.auth.revocation.checks").tag("result", result).counter().count();
+	}
+}
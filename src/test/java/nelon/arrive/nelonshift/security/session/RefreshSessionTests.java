@@ -0,0 +1,178 @@
+package nelon.arrive.nelonshift.security.session;
+
+import jakarta.servlet.http.Cookie;
+import nelon.arrive.nelonshift.security.utils.CookieUtil;
+import nelon.arrive.nelonshift.support.EmbeddedRedis;
+import nelon.arrive.nelonshift.support.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Сессии refresh-токенов: ротация, отзыв семьи при повторном использовании токена,
+ * список сессий, выход на всех устройствах и очистка индекса от истёкших токенов
+ */
+@SpringBootTest(properties = "auth.sessions.reuse-grace-period=200ms")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+class RefreshSessionTests {
+	
+	private static final long REUSE_GRACE_MS = 200;
+	
+	@DynamicPropertySource
+	static void redis(DynamicPropertyRegistry registry) {
+		EmbeddedRedis.register(registry);
+	}
+	
+	@Autowired
+	private MockMvc mockMvc;
+	
+	@Autowired
+	private TestData data;
+	
+	@Autowired
+	private RefreshSessionStore sessionStore;
+	
+	@Autowired
+	private StringRedisTemplate redisTemplate;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		mockMvc.perform(post("/api/v1/auth/signup")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("""
+					{"email": "session@nelon.test", "password": "password123", "name": "Session"}
+					"""))
+			.andExpect(status().isOk());
+	}
+	
+	@AfterEach
+	void tearDown() {
+		data.clear();
+		data.flushRedis();
+	}
+	
+	@Test
+	void rotationInvalidatesOldToken() throws Exception {
+		MvcResult login = login();
+		Cookie refresh = login.getResponse().getCookie(CookieUtil.REFRESH_TOKEN_COOKIE);
+		
+		MvcResult rotated = refresh(refresh);
+		Cookie newRefresh = rotated.getResponse().getCookie(CookieUtil.REFRESH_TOKEN_COOKIE);
+		assertThat(newRefresh.getValue()).isNotEqualTo(refresh.getValue());
+		
+		mockMvc.perform(post("/api/v1/auth/refresh").cookie(refresh))
+			.andExpect(status().isForbidden());
+		
+		mockMvc.perform(get("/api/v1/auth/sessions")
+				.cookie(newRefresh, rotated.getResponse().getCookie(CookieUtil.ACCESS_TOKEN_COOKIE)))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.length()").value(1))
+			.andExpect(jsonPath("$[0].current").value(true));
+	}
+	
+	@Test
+	void reuseAfterGracePeriodRevokesFamily() throws Exception {
+		Cookie stolen = login().getResponse().getCookie(CookieUtil.REFRESH_TOKEN_COOKIE);
+		Cookie otherDevice = login().getResponse().getCookie(CookieUtil.REFRESH_TOKEN_COOKIE);
+		Cookie current = refresh(stolen).getResponse().getCookie(CookieUtil.REFRESH_TOKEN_COOKIE);
+		
+		Thread.sleep(REUSE_GRACE_MS * 2);
+		mockMvc.perform(post("/api/v1/auth/refresh").cookie(stolen))
+			.andExpect(status().isForbidden())
+			.andExpect(jsonPath("$.message").value("Refresh token was already used, please log in again"));
+		
+		// Вся семья отозвана, другая сессия пользователя не затронута
+		mockMvc.perform(post("/api/v1/auth/refresh").cookie(current))
+			.andExpect(status().isForbidden());
+		refresh(otherDevice);
+	}
+	
+	@Test
+	void familyRemembersOnlyLastRetiredTokens() throws Exception {
+		List<String> tokens = new ArrayList<>();
+		RefreshSession session = sessionStore.create("rotating", UUID.randomUUID(), 60_000);
+		tokens.add(session.token());
+		for (int i = 0; i < RefreshSessionStore.RETIRED_TOKENS + 3; i++) {
+			session = sessionStore.rotate(session.token(), "secret-" + i, 60_000).session();
+			tokens.add(session.token());
+		}
+		
+		// Хеш и номер ротации на каждый выведенный токен плюс @current, @userId и @seq
+		assertThat(redisTemplate.opsForHash().size(RefreshSessionStore.FAMILY_PREFIX + session.familyId()))
+			.isEqualTo(2L * RefreshSessionStore.RETIRED_TOKENS + 3);
+		
+		Thread.sleep(REUSE_GRACE_MS * 2);
+		assertThat(sessionStore.rotate(tokens.get(0), "late", 60_000).outcome())
+			.isEqualTo(RotationResult.Outcome.NOT_FOUND);
+		assertThat(sessionStore.rotate(tokens.get(tokens.size() - 2), "stolen", 60_000).outcome())
+			.isEqualTo(RotationResult.Outcome.REUSED);
+	}
+	
+	@Test
+	void logoutAllRevokesEverySession() throws Exception {
+		MvcResult first = login();
+		MvcResult second = login();
+		
+		mockMvc.perform(post("/api/v1/auth/logout-all")
+				.cookie(first.getResponse().getCookie(CookieUtil.ACCESS_TOKEN_COOKIE)))
+			.andExpect(status().isOk());
+		
+		for (MvcResult login : new MvcResult[]{first, second}) {
+			mockMvc.perform(post("/api/v1/auth/refresh")
+					.cookie(login.getResponse().getCookie(CookieUtil.REFRESH_TOKEN_COOKIE)))
+				.andExpect(status().isForbidden());
+		}
+	}
+	
+	@Test
+	void cleanupRemovesExpiredIndexEntries() throws Exception {
+		UUID userId = UUID.randomUUID();
+		sessionStore.create("short-lived", userId, 50);
+		RefreshSession longLived = sessionStore.create("long-lived", userId, 60_000);
+		Thread.sleep(100);
+		
+		assertThat(sessionStore.cleanupExpiredIndexEntries()).isEqualTo(1);
+		assertThat(sessionStore.list(userId))
+			.extracting(RefreshSession::token)
+			.containsExactly(longLived.token());
+	}
+	
+	private MvcResult refresh(Cookie refreshToken) throws Exception {
+		return mockMvc.perform(post("/api/v1/auth/refresh").cookie(refreshToken))
+			.andExpect(status().isOk())
+			.andReturn();
+	}
+	
+	private MvcResult login() throws Exception {
+		return mockMvc.perform(post("/api/v1/auth/login")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("""
+					{"email": "session@nelon.test", "password": "password123"}
+					"""))
+			.andExpect(status().isOk())
+			.andReturn();
+	}
+}
@@ -0,0 +1,181 @@
+package nelon.arrive.nelonshift.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nelon.arrive.nelonshift.dto.ShiftAggregateDto;
+import nelon.arrive.nelonshift.entity.Project;
+import nelon.arrive.nelonshift.entity.Shift;
+import nelon.arrive.nelonshift.enums.ShiftGroupBy;
+import nelon.arrive.nelonshift.exception.BadRequestException;
+import nelon.arrive.nelonshift.response.PageResponse;
+import nelon.arrive.nelonshift.services.analytics.AnalyticsResultCache;
+import nelon.arrive.nelonshift.services.analytics.ShiftColumnStore;
+import nelon.arrive.nelonshift.services.analytics.ShiftColumns;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Группы аналитики по колоночному снимку: доли, ставка, скользящие средние и страницы
+ */
+class AnalyticsServiceTests {
+	
+	private static final UUID USER_ID = UUID.randomUUID();
+	// Понедельник
+	private static final LocalDate WEEK_1 = LocalDate.of(2025, 3, 3);
+	private static final LocalDate WEEK_3 = WEEK_1.plusWeeks(2);
+	
+	private final ShiftColumnStore shiftColumnStore = mock(ShiftColumnStore.class);
+	private AnalyticsService analyticsService;
+	
+	@BeforeEach
+	void setUp() {
+		AuthService authService = mock(AuthService.class);
+		when(authService.getCurrentUserId()).thenReturn(USER_ID);
+		analyticsService = new AnalyticsService(
+			authService, shiftColumnStore, new AnalyticsResultCache(100, 16, new SimpleMeterRegistry())
+		);
+	}
+	
+	@Test
+	void computesSharesAndHourlyRatePerGroup() {
+		givenShifts(
+			shift(1, WEEK_1, 8, 2, "1000.00", "200.00", "300.00"),
+			shift(2, WEEK_3, 10, 0, "2000.00", null, null),
+			shift(3, WEEK_3.plusDays(4), 6, 0, "600.00", null, "100.00")
+		);
+		
+		List<ShiftAggregateDto> weeks = analytics(ShiftGroupBy.WEEK, 2, 0, 10).getContent();
+		
+		assertThat(weeks).extracting(ShiftAggregateDto::getGroup).containsExactly("2025-W10", "2025-W12");
+		ShiftAggregateDto first = weeks.get(0);
+		assertThat(first.getPeriodStart()).isEqualTo(WEEK_1);
+		assertThat(first.getEarnings()).isEqualTo(new BigDecimal("1500.00"));
+		assertThat(first.getAverageHourlyRate()).isEqualTo(new BigDecimal("187.50"));
+		assertThat(first.getOvertimeHoursShare()).isEqualTo(new BigDecimal("0.2500"));
+		assertThat(first.getPerDiemShare()).isEqualTo(new BigDecimal("0.2000"));
+		
+		ShiftAggregateDto third = weeks.get(1);
+		assertThat(third.getShiftCount()).isEqualTo(2);
+		assertThat(third.getEarnings()).isEqualTo(new BigDecimal("2700.00"));
+		assertThat(third.getAverageHourlyRate()).isEqualTo(new BigDecimal("168.75"));
+		assertThat(third.getOvertimeHoursShare()).isEqualTo(new BigDecimal("0.0000"));
+		assertThat(third.getPerDiemShare()).isEqualTo(new BigDecimal("0.0370"));
+	}
+	
+	@Test
+	void rollingAverageCountsEmptyPeriodsAsZero() {
+		givenShifts(
+			shift(1, WEEK_1, 8, 2, "1000.00", "200.00", "300.00"),
+			shift(2, WEEK_3, 10, 0, "2000.00", null, null),
+			shift(3, WEEK_3.plusDays(4), 6, 0, "600.00", null, "100.00")
+		);
+		
+		// Окно в две недели: для третьей недели это пустая вторая и она сама
+		List<ShiftAggregateDto> weeks = analytics(ShiftGroupBy.WEEK, 2, 0, 10).getContent();
+		assertThat(weeks).extracting(ShiftAggregateDto::getRollingAverageEarnings)
+			.containsExactly(new BigDecimal("750.00"), new BigDecimal("1350.00"));
+		assertThat(weeks).extracting(ShiftAggregateDto::getRollingAverageHours)
+			.containsExactly(new BigDecimal("4.00"), new BigDecimal("8.00"));
+		
+		// Окно в три недели включает и первую
+		List<ShiftAggregateDto> wide = analytics(ShiftGroupBy.WEEK, 3, 0, 10).getContent();
+		assertThat(wide.get(1).getRollingAverageEarnings()).isEqualTo(new BigDecimal("1400.00"));
+		assertThat(wide.get(1).getRollingAverageHours()).isEqualTo(new BigDecimal("8.00"));
+	}
+	
+	@Test
+	void rollingAverageByMonthSpansCalendarMonths() {
+		givenShifts(
+			shift(1, LocalDate.of(2025, 1, 15), 8, 0, "1000.00", null, null),
+			shift(2, LocalDate.of(2025, 3, 5), 8, 0, "500.00", null, null),
+			shift(3, LocalDate.of(2025, 6, 1), 4, 0, "300.00", null, null)
+		);
+		
+		List<ShiftAggregateDto> months = analytics(ShiftGroupBy.MONTH, 3, 0, 10).getContent();
+		
+		assertThat(months).extracting(ShiftAggregateDto::getGroup).containsExactly("2025-01", "2025-03", "2025-06");
+		// Январь-март попадают в одно окно, июнь - уже нет
+		assertThat(months).extracting(ShiftAggregateDto::getRollingAverageEarnings).containsExactly(
+			new BigDecimal("333.33"), new BigDecimal("500.00"), new BigDecimal("100.00"));
+		assertThat(months).extracting(ShiftAggregateDto::getRollingAverageHours).containsExactly(
+			new BigDecimal("2.67"), new BigDecimal("5.33"), new BigDecimal("1.33"));
+	}
+	
+	@Test
+	void rollingAverageOnlyForPeriodGroupsAndSharesAreZeroWithoutHours() {
+		givenShifts(shift(1, WEEK_1, 0, 0, "0.00", null, null));
+		
+		ShiftAggregateDto total = analytics(ShiftGroupBy.NONE, 4, 0, 10).getContent().get(0);
+		
+		assertThat(total.getGroup()).isEqualTo("total");
+		assertThat(total.getRollingAverageEarnings()).isNull();
+		assertThat(total.getAverageHourlyRate()).isEqualTo(BigDecimal.ZERO);
+		assertThat(total.getOvertimeHoursShare()).isEqualTo(BigDecimal.ZERO);
+		assertThat(total.getPerDiemShare()).isEqualTo(BigDecimal.ZERO);
+	}
+	
+	@Test
+	void pagesOverGroups() {
+		givenShifts(
+			shift(1, WEEK_1, 8, 0, "100.00", null, null),
+			shift(2, WEEK_1.plusDays(1), 8, 0, "100.00", null, null),
+			shift(3, WEEK_1.plusDays(2), 8, 0, "100.00", null, null)
+		);
+		
+		PageResponse<ShiftAggregateDto> page = analytics(ShiftGroupBy.WEEKDAY, 1, 1, 2);
+		
+		assertThat(page.getContent()).extracting(ShiftAggregateDto::getGroup).containsExactly("WEDNESDAY");
+		assertThat(page.getTotalElements()).isEqualTo(3);
+		assertThat(page.getTotalPages()).isEqualTo(2);
+		assertThat(analytics(ShiftGroupBy.WEEKDAY, 1, 5, 2).getContent()).isEmpty();
+	}
+	
+	@Test
+	void rejectsInvalidArguments() {
+		givenShifts();
+		
+		assertThatThrownBy(() -> analyticsService.getShiftAnalytics(
+			WEEK_3, WEEK_1, null, null, ShiftGroupBy.WEEK, 4, 0, 10))
+			.isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> analytics(ShiftGroupBy.WEEK, 0, 0, 10))
+			.isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> analytics(ShiftGroupBy.WEEK, 54, 0, 10))
+			.isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> analytics(ShiftGroupBy.WEEK, 4, 0, 501))
+			.isInstanceOf(BadRequestException.class);
+	}
+	
+	private PageResponse<ShiftAggregateDto> analytics(ShiftGroupBy groupBy, int rollingWindow, int page, int size) {
+		return analyticsService.getShiftAnalytics(null, null, null, null, groupBy, rollingWindow, page, size);
+	}
+	
+	private void givenShifts(Shift... shifts) {
+		when(shiftColumnStore.get(USER_ID)).thenReturn(ShiftColumns.ofShifts(List.of(shifts)));
+	}
+	
+	private static Shift shift(
+		long id, LocalDate date, int hours, int overtimeHours, String basePay, String overtimePay, String perDiem
+	) {
+		Project project = new Project();
+		project.setId(10L);
+		Shift shift = new Shift();
+		shift.setId(id);
+		shift.setProject(project);
+		shift.setDate(date);
+		shift.setHours(hours);
+		shift.setOvertimeHours(overtimeHours);
+		shift.setBasePay(new BigDecimal(basePay));
+		shift.setOvertimePay(overtimePay != null ? new BigDecimal(overtimePay) : null);
+		shift.setPerDiem(perDiem != null ? new BigDecimal(perDiem) : null);
+		return shift;
+	}
+}
@@ -0,0 +1,54 @@
+package nelon.arrive.nelonshift.services.analytics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Кэш результатов аналитики: привязка к снимку и вытеснение давно не использованных пользователей
+ */
+class AnalyticsResultCacheTests {
+	
+	private final AnalyticsResultCache cache = new AnalyticsResultCache(2, 4, new SimpleMeterRegistry());
+	private final AtomicInteger computed = new AtomicInteger();
+	
+	@Test
+	void recomputesWhenSnapshotChanges() {
+		UUID user = UUID.randomUUID();
+		ShiftColumns before = ShiftColumns.EMPTY;
+		ShiftColumns after = before.upsert(ShiftColumnsTests.row(1, 10, ShiftColumnsTests.DAY));
+		
+		get(user, before);
+		get(user, before);
+		get(user, after);
+		
+		assertThat(computed).hasValue(2);
+	}
+	
+	@Test
+	void evictsLeastRecentlyUsedUser() {
+		UUID hot = UUID.randomUUID();
+		UUID cold = UUID.randomUUID();
+		get(hot, ShiftColumns.EMPTY);
+		get(cold, ShiftColumns.EMPTY);
+		// Обращение делает hot последним использованным - вытесняется cold
+		get(hot, ShiftColumns.EMPTY);
+		
+		get(UUID.randomUUID(), ShiftColumns.EMPTY);
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(computed).hasValue(3);
+		
+		get(hot, ShiftColumns.EMPTY);
+		assertThat(computed).hasValue(3);
+		get(cold, ShiftColumns.EMPTY);
+		assertThat(computed).hasValue(4);
+	}
+	
+	private void get(UUID userId, ShiftColumns source) {
+		cache.get(userId, source, "query", computed::incrementAndGet);
+	}
+}
@@ -0,0 +1,226 @@
+package nelon.arrive.nelonshift.services.analytics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nelon.arrive.nelonshift.cluster.CacheInvalidationBus;
+import nelon.arrive.nelonshift.entity.Project;
+import nelon.arrive.nelonshift.entity.Shift;
+import nelon.arrive.nelonshift.repository.ShiftRepository;
+import nelon.arrive.nelonshift.repository.projection.ShiftWatermarkView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static nelon.arrive.nelonshift.services.analytics.ShiftColumnsTests.DAY;
+import static nelon.arrive.nelonshift.services.analytics.ShiftColumnsTests.view;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Колоночный кэш без Spring: загрузка, патчи после записи, сброс, вытеснение LRU
+ * и сохранение снимков при остановке
+ */
+class ShiftColumnStoreTests {
+	
+	private static final int MAX_USERS = 2;
+	private static final LocalDateTime LOADED_AT = LocalDateTime.of(2025, 3, 1, 12, 0);
+	
+	private final ShiftRepository shiftRepository = mock(ShiftRepository.class);
+	private final CacheInvalidationBus invalidationBus = mock(CacheInvalidationBus.class);
+	private ShiftColumnStore store;
+	private Consumer<String> remoteEvict;
+	private Runnable remoteEvictAll;
+	
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		when(shiftRepository.findColumnsByUserId(any())).thenReturn(List.of());
+		store = new ShiftColumnStore(
+			shiftRepository,
+			new ShiftSnapshotStore(false, ""),
+			invalidationBus,
+			new SimpleMeterRegistry(),
+			true,
+			MAX_USERS
+		);
+		ArgumentCaptor<Consumer<String>> evict = ArgumentCaptor.forClass(Consumer.class);
+		ArgumentCaptor<Runnable> evictAll = ArgumentCaptor.forClass(Runnable.class);
+		verify(invalidationBus).subscribe(eq(ShiftColumnStore.CACHE), evict.capture(), evictAll.capture());
+		remoteEvict = evict.getValue();
+		remoteEvictAll = evictAll.getValue();
+	}
+	
+	@Test
+	void loadsOnceAndPatchesCachedSnapshot() {
+		UUID userId = UUID.randomUUID();
+		when(shiftRepository.findColumnsByUserId(userId)).thenReturn(List.of(view(1, 10, DAY, "1000.00")));
+		
+		assertThat(store.get(userId).size()).isEqualTo(1);
+		store.onShiftSaved(userId, shift(2, DAY.minusDays(1)));
+		store.onShiftSaved(userId, shift(1, DAY.plusDays(1)));
+		
+		ShiftColumns columns = store.get(userId);
+		assertThat(columns.shiftIds).containsExactly(2, 1);
+		assertThat(columns.payCents).containsExactly(50_000, 50_000);
+		
+		store.onShiftDeleted(userId, 2L);
+		assertThat(store.get(userId).shiftIds).containsExactly(1);
+		
+		verify(shiftRepository, times(1)).findColumnsByUserId(userId);
+		verify(invalidationBus, times(3)).publish(ShiftColumnStore.CACHE, userId.toString());
+	}
+	
+	@Test
+	void writesForUncachedUsersLeaveNoState() {
+		for (int i = 0; i < 100; i++) {
+			store.onShiftSaved(UUID.randomUUID(), shift(i, DAY));
+		}
+		
+		assertThat(store.size()).isZero();
+		assertThat(store.trackedGenerations()).isZero();
+	}
+	
+	@Test
+	void evictsLeastRecentlyUsedUserWithItsGeneration() {
+		UUID first = UUID.randomUUID();
+		UUID second = UUID.randomUUID();
+		UUID third = UUID.randomUUID();
+		store.get(first);
+		store.get(second);
+		// После обращения к первому дольше всех не использовался второй
+		store.get(first);
+		store.get(third);
+		
+		assertThat(store.size()).isEqualTo(MAX_USERS);
+		assertThat(store.trackedGenerations()).isEqualTo(MAX_USERS);
+		
+		store.get(first);
+		store.get(third);
+		verify(shiftRepository, times(1)).findColumnsByUserId(first);
+		verify(shiftRepository, times(1)).findColumnsByUserId(third);
+		store.get(second);
+		verify(shiftRepository, times(2)).findColumnsByUserId(second);
+	}
+	
+	@Test
+	void remoteEvictionDropsSnapshotAndGeneration() {
+		UUID userId = UUID.randomUUID();
+		store.get(userId);
+		store.get(UUID.randomUUID());
+		
+		remoteEvict.accept(userId.toString());
+		assertThat(store.size()).isEqualTo(1);
+		assertThat(store.trackedGenerations()).isEqualTo(1);
+		store.get(userId);
+		verify(shiftRepository, times(2)).findColumnsByUserId(userId);
+		
+		remoteEvictAll.run();
+		assertThat(store.size()).isZero();
+		assertThat(store.trackedGenerations()).isZero();
+	}
+	
+	@Test
+	void loadRacingWithWriteIsNotCached() {
+		UUID userId = UUID.randomUUID();
+		when(shiftRepository.findColumnsByUserId(userId)).thenAnswer(invocation -> {
+			// Запись закоммичена, пока строки читались
+			store.onShiftSaved(userId, shift(1, DAY));
+			return List.of();
+		});
+		
+		assertThat(store.get(userId).size()).isZero();
+		assertThat(store.size()).isZero();
+		assertThat(store.trackedGenerations()).isZero();
+	}
+	
+	@Test
+	void flushWritesPatchedSnapshotWithItsOwnWatermark(@TempDir Path directory) {
+		ShiftSnapshotStore snapshots = new ShiftSnapshotStore(true, directory.toString());
+		ShiftColumnStore store = storeWith(snapshots);
+		UUID userId = UUID.randomUUID();
+		when(shiftRepository.findWatermarkByUserId(userId)).thenReturn(watermark(1, LOADED_AT));
+		when(shiftRepository.findColumnsByUserId(userId)).thenReturn(List.of(view(1, 10, DAY, "1000.00")));
+		store.get(userId);
+		
+		Shift saved = shift(2, DAY.plusDays(1));
+		store.onShiftSaved(userId, saved);
+		ShiftWatermark patched = new ShiftWatermark(1, ShiftWatermark.toMicros(LOADED_AT)).afterSave(true, saved.getUpdatedAt());
+		when(shiftRepository.findWatermarkByUserId(userId)).thenReturn(watermark(2, saved.getUpdatedAt()));
+		store.flushSnapshots();
+		
+		assertThat(snapshots.read(userId, patched)).hasValueSatisfying(columns ->
+			assertThat(columns.shiftIds).containsExactly(1, 2));
+	}
+	
+	@Test
+	void flushSkipsSnapshotOlderThanDatabase(@TempDir Path directory) {
+		ShiftSnapshotStore snapshots = new ShiftSnapshotStore(true, directory.toString());
+		ShiftColumnStore store = storeWith(snapshots);
+		UUID userId = UUID.randomUUID();
+		when(shiftRepository.findWatermarkByUserId(userId)).thenReturn(watermark(0, null));
+		store.get(userId);
+		store.onShiftSaved(userId, shift(1, DAY));
+		
+		// Ещё одна смена сохранена другим экземпляром, сброс до этого узла не дошёл
+		ShiftWatermarkView database = watermark(2, LocalDateTime.now().plusMinutes(1));
+		when(shiftRepository.findWatermarkByUserId(userId)).thenReturn(database);
+		store.flushSnapshots();
+		
+		assertThat(snapshots.read(userId, ShiftWatermark.of(database))).isEmpty();
+		// На диске остался снимок, записанный при загрузке
+		assertThat(snapshots.read(userId, ShiftWatermark.of(watermark(0, null)))).hasValueSatisfying(columns ->
+			assertThat(columns.size()).isZero());
+	}
+	
+	@Test
+	void snapshotsRequireExplicitDirectory() {
+		assertThatThrownBy(() -> new ShiftSnapshotStore(true, " "))
+			.isInstanceOf(IllegalStateException.class);
+		assertThat(new ShiftSnapshotStore(false, "").isEnabled()).isFalse();
+	}
+	
+	private ShiftColumnStore storeWith(ShiftSnapshotStore snapshots) {
+		return new ShiftColumnStore(shiftRepository, snapshots, invalidationBus, new SimpleMeterRegistry(), true, MAX_USERS);
+	}
+	
+	private static ShiftWatermarkView watermark(long count, LocalDateTime lastUpdatedAt) {
+		return new ShiftWatermarkView() {
+			@Override
+			public Long getShiftCount() {
+				return count;
+			}
+			
+			@Override
+			public LocalDateTime getLastUpdatedAt() {
+				return lastUpdatedAt;
+			}
+		};
+	}
+	
+	private static Shift shift(long id, LocalDate date) {
+		Project project = new Project();
+		project.setId(10L);
+		Shift shift = new Shift();
+		shift.setId(id);
+		shift.setProject(project);
+		shift.setDate(date);
+		shift.setHours(8);
+		shift.setBasePay(new BigDecimal("500.00"));
+		shift.setUpdatedAt(LOADED_AT.plusSeconds(id));
+		return shift;
+	}
+}
@@ -0,0 +1,135 @@
+package nelon.arrive.nelonshift.services.analytics;
+
+import nelon.arrive.nelonshift.repository.projection.ShiftColumnView;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Колоночный снимок: порядок по дате при upsert, удаление и поиск строки
+ */
+class ShiftColumnsTests {
+	
+	static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+	
+	record View(
+		Long id, Long projectId, LocalDate date, Integer hours, Integer overtimeHours,
+		BigDecimal basePay, BigDecimal overtimePay, BigDecimal perDiem
+	) implements ShiftColumnView {
+		
+		@Override
+		public Long getId() {
+			return id;
+		}
+		
+		@Override
+		public Long getProjectId() {
+			return projectId;
+		}
+		
+		@Override
+		public LocalDate getDate() {
+			return date;
+		}
+		
+		@Override
+		public Integer getHours() {
+			return hours;
+		}
+		
+		@Override
+		public Integer getOvertimeHours() {
+			return overtimeHours;
+		}
+		
+		@Override
+		public BigDecimal getBasePay() {
+			return basePay;
+		}
+		
+		@Override
+		public BigDecimal getOvertimePay() {
+			return overtimePay;
+		}
+		
+		@Override
+		public BigDecimal getPerDiem() {
+			return perDiem;
+		}
+	}
+	
+	static View view(long id, long projectId, LocalDate date, String basePay) {
+		return new View(id, projectId, date, 8, 0, new BigDecimal(basePay), null, null);
+	}
+	
+	static ShiftColumns.Row row(long id, long projectId, LocalDate date) {
+		return new ShiftColumns.Row(id, projectId, Math.toIntExact(date.toEpochDay()), 8, 0, 100_000, 0, 0);
+	}
+	
+	@Test
+	void buildsColumnsFromViews() {
+		ShiftColumns columns = ShiftColumns.of(List.of(
+			new View(1L, 10L, DAY, 8, 2, new BigDecimal("1000.00"), new BigDecimal("250.50"), new BigDecimal("300")),
+			new View(2L, 20L, DAY.plusDays(1), null, null, new BigDecimal("900"), null, null)
+		));
+		
+		assertThat(columns.size()).isEqualTo(2);
+		assertThat(columns.payCents).containsExactly(155_050, 90_000);
+		assertThat(columns.overtimePayCents).containsExactly(25_050, 0);
+		assertThat(columns.perDiemCents).containsExactly(30_000, 0);
+		assertThat(columns.hours).containsExactly(8, 0);
+		assertThat(columns.overtimeHours).containsExactly(2, 0);
+		assertThat(columns.epochDays).containsExactly((int) DAY.toEpochDay(), (int) DAY.plusDays(1).toEpochDay());
+	}
+	
+	@Test
+	void upsertKeepsRowsSortedByDate() {
+		ShiftColumns columns = ShiftColumns.EMPTY
+			.upsert(row(1, 10, DAY.plusDays(2)))
+			.upsert(row(2, 10, DAY))
+			.upsert(row(3, 10, DAY.plusDays(5)))
+			// Тот же день, что у смены 2 - встаёт после неё
+			.upsert(row(4, 20, DAY));
+		
+		assertThat(columns.shiftIds).containsExactly(2, 4, 1, 3);
+		assertThat(columns.projectIds).containsExactly(10, 20, 10, 10);
+		assertThat(columns.indexOf(1)).isEqualTo(2);
+		assertThat(columns.indexOf(99)).isEqualTo(-1);
+	}
+	
+	@Test
+	void upsertReplacesExistingRowAndMovesItToNewDate() {
+		ShiftColumns before = ShiftColumns.EMPTY
+			.upsert(row(1, 10, DAY))
+			.upsert(row(2, 10, DAY.plusDays(1)))
+			.upsert(row(3, 10, DAY.plusDays(2)));
+		
+		ShiftColumns after = before.upsert(row(1, 30, DAY.plusDays(3)));
+		
+		assertThat(after.shiftIds).containsExactly(2, 3, 1);
+		assertThat(after.projectIds[after.indexOf(1)]).isEqualTo(30);
+		// Исходный снимок не меняется
+		assertThat(before.shiftIds).containsExactly(1, 2, 3);
+		assertThat(before.projectIds[before.indexOf(1)]).isEqualTo(10);
+	}
+	
+	@Test
+	void removeDropsRowOrReturnsSameSnapshot() {
+		ShiftColumns columns = ShiftColumns.EMPTY
+			.upsert(row(1, 10, DAY))
+			.upsert(row(2, 10, DAY.plusDays(1)))
+			.upsert(row(3, 10, DAY.plusDays(2)));
+		
+		ShiftColumns removed = columns.remove(2);
+		assertThat(removed.shiftIds).containsExactly(1, 3);
+		assertThat(removed.epochDays).containsExactly((int) DAY.toEpochDay(), (int) DAY.plusDays(2).toEpochDay());
+		assertThat(removed.indexOf(2)).isEqualTo(-1);
+		
+		assertThat(columns.remove(99)).isSameAs(columns);
+		assertThat(removed.remove(1).remove(3).size()).isZero();
+	}
+}
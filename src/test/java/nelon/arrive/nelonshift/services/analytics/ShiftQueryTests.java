@@ -0,0 +1,101 @@
+package nelon.arrive.nelonshift.services.analytics;
+
+import nelon.arrive.nelonshift.enums.ShiftGroupBy;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.SortedMap;
+import java.util.stream.IntStream;
+
+import static nelon.arrive.nelonshift.services.analytics.ShiftColumnsTests.row;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Фильтры по периоду, проекту и дню недели и группировка по колоночному снимку
+ */
+class ShiftQueryTests {
+	
+	// Понедельник
+	private static final LocalDate MONDAY = LocalDate.of(2025, 3, 24);
+	
+	// 14 дней подряд, проекты 1 и 2 через день
+	private final ShiftColumns columns = IntStream.range(0, 14)
+		.mapToObj(i -> row(i + 1, i % 2 + 1, MONDAY.plusDays(i)))
+		.reduce(ShiftColumns.EMPTY, ShiftColumns::upsert, (a, b) -> b);
+	
+	@Test
+	void filtersByInclusivePeriodProjectAndWeekday() {
+		ShiftAggregate period = ShiftQuery.all().between(MONDAY.plusDays(2), MONDAY.plusDays(4)).total(columns);
+		assertThat(period.getShiftCount()).isEqualTo(3);
+		assertThat(period.getHours()).isEqualTo(24);
+		assertThat(period.getPayCents()).isEqualTo(300_000);
+		
+		assertThat(ShiftQuery.all().project(2L).total(columns).getShiftCount()).isEqualTo(7);
+		assertThat(ShiftQuery.all().weekday(DayOfWeek.SUNDAY).total(columns).getShiftCount()).isEqualTo(2);
+		assertThat(ShiftQuery.all().from(MONDAY.plusDays(20)).total(columns).getShiftCount()).isZero();
+	}
+	
+	@Test
+	void groupsByWeekStartingOnMonday() {
+		SortedMap<Long, ShiftAggregate> weeks = ShiftQuery.all()
+			.from(MONDAY.plusDays(3))
+			.groupBy(ShiftGroupBy.WEEK)
+			.execute(columns);
+		
+		assertThat(weeks.keySet()).containsExactly(ShiftQuery.weekKey(MONDAY), ShiftQuery.weekKey(MONDAY.plusDays(7)));
+		assertThat(ShiftQuery.toWeekStart(weeks.firstKey())).isEqualTo(MONDAY);
+		assertThat(ShiftQuery.weekKey(MONDAY.plusDays(6))).isEqualTo(weeks.firstKey());
+		assertThat(weeks.get(weeks.firstKey()).getShiftCount()).isEqualTo(4);
+		assertThat(weeks.get(weeks.lastKey()).getShiftCount()).isEqualTo(7);
+	}
+	
+	@Test
+	void groupsByMonthAcrossBoundary() {
+		SortedMap<Long, ShiftAggregate> months = ShiftQuery.all().groupBy(ShiftGroupBy.MONTH).execute(columns);
+		
+		// 24-31 марта и 1-6 апреля
+		assertThat(months.keySet()).containsExactly(
+			ShiftQuery.monthKey(YearMonth.of(2025, 3)),
+			ShiftQuery.monthKey(YearMonth.of(2025, 4))
+		);
+		assertThat(months.get(months.firstKey()).getShiftCount()).isEqualTo(8);
+		assertThat(months.get(months.lastKey()).getShiftCount()).isEqualTo(6);
+		assertThat(ShiftQuery.toYearMonth(months.lastKey())).isEqualTo(YearMonth.of(2025, 4));
+	}
+	
+	@Test
+	void groupsByWeekdayAndProject() {
+		SortedMap<Long, ShiftAggregate> weekdays = ShiftQuery.all()
+			.project(1L)
+			.groupBy(ShiftGroupBy.WEEKDAY)
+			.execute(columns);
+		// Проект 1 - понедельник, среда, пятница, воскресенье, затем вторник, четверг, суббота
+		assertThat(weekdays.keySet()).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L);
+		assertThat(weekdays.values()).allSatisfy(day -> assertThat(day.getShiftCount()).isEqualTo(1));
+		
+		SortedMap<Long, ShiftAggregate> projects = ShiftQuery.all().groupBy(ShiftGroupBy.PROJECT).execute(columns);
+		assertThat(projects.keySet()).containsExactly(1L, 2L);
+		assertThat(projects.get(1L).getShiftCount()).isEqualTo(7);
+		assertThat(projects.get(2L).getPayCents()).isEqualTo(700_000);
+	}
+	
+	@Test
+	void projectGroupingGrowsBeyondInitialTable() {
+		ShiftColumns many = IntStream.range(0, 100)
+			.mapToObj(i -> row(i + 1, 1_000 + i, MONDAY))
+			.reduce(ShiftColumns.EMPTY, ShiftColumns::upsert, (a, b) -> b);
+		
+		SortedMap<Long, ShiftAggregate> projects = ShiftQuery.all().groupBy(ShiftGroupBy.PROJECT).execute(many);
+		assertThat(projects).hasSize(100);
+		assertThat(projects.firstKey()).isEqualTo(1_000L);
+		assertThat(projects.lastKey()).isEqualTo(1_099L);
+	}
+	
+	@Test
+	void noGroupingYieldsSingleKeyOrNothing() {
+		assertThat(ShiftQuery.all().execute(columns)).containsOnlyKeys(0L);
+		assertThat(ShiftQuery.all().groupBy(null).execute(ShiftColumns.EMPTY)).isEmpty();
+	}
+}
@@ -0,0 +1,206 @@
+package nelon.arrive.nelonshift.services.archive;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nelon.arrive.nelonshift.entity.Project;
+import nelon.arrive.nelonshift.entity.User;
+import nelon.arrive.nelonshift.enums.ProjectStatus;
+import nelon.arrive.nelonshift.repository.ArchivedProjectRepository;
+import nelon.arrive.nelonshift.repository.ArchivedShiftRepository;
+import nelon.arrive.nelonshift.repository.ProjectRepository;
+import nelon.arrive.nelonshift.repository.ShiftRepository;
+import nelon.arrive.nelonshift.support.EmbeddedRedis;
+import nelon.arrive.nelonshift.support.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+import static nelon.arrive.nelonshift.metrics.QueryBudgetMatchers.entitiesAtMost;
+import static nelon.arrive.nelonshift.metrics.QueryBudgetMatchers.statementsAtMost;
+import static nelon.arrive.nelonshift.support.TestData.bearer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Перенос старых завершённых проектов в архив и чтение архива
+ */
+@SpringBootTest(properties = "archive.batch-size=1")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+class ProjectArchiveTests {
+	
+	@DynamicPropertySource
+	static void redis(DynamicPropertyRegistry registry) {
+		EmbeddedRedis.register(registry);
+	}
+	
+	private static final LocalDate LONG_AGO = LocalDate.now().minusYears(1);
+	
+	@Autowired
+	private MockMvc mockMvc;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private ProjectArchiveService archiveService;
+	
+	@Autowired
+	private TestData data;
+	
+	@Autowired
+	private ProjectRepository projectRepository;
+	
+	@Autowired
+	private ShiftRepository shiftRepository;
+	
+	@Autowired
+	private ArchivedProjectRepository archivedProjectRepository;
+	
+	@Autowired
+	private ArchivedShiftRepository archivedShiftRepository;
+	
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	
+	private User user;
+	private String token;
+	
+	@BeforeEach
+	void setUp() {
+		user = data.user("archive@nelon.test");
+		token = data.token(user);
+	}
+	
+	@AfterEach
+	void tearDown() {
+		data.clear();
+		data.flushRedis();
+	}
+	
+	@Test
+	void archivesOnlyOldCompletedProjectsWithFinalStats() throws Exception {
+		Project old = saveProject("Old completed", ProjectStatus.COMPLETED, LONG_AGO, 3);
+		Project undated = saveProject("Undated completed", ProjectStatus.COMPLETED, null, 1);
+		jdbcTemplate.update("UPDATE projects SET updated_at = ? WHERE id = ?",
+			Timestamp.valueOf(LONG_AGO.atStartOfDay()), undated.getId());
+		Project active = saveProject("Old active", ProjectStatus.ACTIVE, LONG_AGO, 2);
+		Project recent = saveProject("Recent completed", ProjectStatus.COMPLETED, LocalDate.now().minusDays(3), 2);
+		
+		JsonNode statsBefore = read(mockMvc.perform(get("/api/v1/projects/" + old.getId() + "/stats"))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getContentAsString());
+		assertThat(statsBefore.get("shiftCount").asInt()).isEqualTo(3);
+		
+		JsonNode dashboardBefore = dashboard();
+		
+		assertThat(archiveService.archiveEligible()).isEqualTo(2);
+		assertThat(archiveService.archiveEligible()).isZero();
+		
+		// Итоги дашборда включают архивные проекты по сохранённой статистике
+		JsonNode dashboardAfter = dashboard();
+		for (String total : List.of("totalCompletedProjects", "totalShifts", "totalHours", "totalEarnings")) {
+			assertThat(dashboardAfter.get(total).decimalValue()).as(total)
+				.isEqualByComparingTo(dashboardBefore.get(total).decimalValue());
+		}
+		
+		mockMvc.perform(get("/api/v1/projects/" + old.getId()))
+			.andExpect(status().isNotFound());
+		assertThat(shiftRepository.countByProjectId(old.getId())).isZero();
+		assertThat(shiftRepository.countByProjectId(active.getId())).isEqualTo(2);
+		assertThat(projectRepository.existsById(recent.getId())).isTrue();
+		
+		mockMvc.perform(get("/api/v1/archive/projects").with(bearer(token)))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.totalElements").value(2));
+		mockMvc.perform(get("/api/v1/archive/projects/" + old.getId()).with(bearer(token)))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.name").value("Old completed"))
+			.andExpect(jsonPath("$.archivedAt").isNotEmpty());
+		mockMvc.perform(get("/api/v1/archive/projects/" + old.getId() + "/shifts").with(bearer(token)))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.length()").value(3));
+		
+		JsonNode statsAfter = read(mockMvc.perform(get("/api/v1/archive/projects/" + old.getId() + "/stats").with(bearer(token)))
+			.andExpect(status().isOk())
+			// Пользователь из токена, проверка существования до ETag и одна колонка архивной строки,
+			// без пересчёта по сменам
+			.andExpect(statementsAtMost(3))
+			.andExpect(entitiesAtMost(1))
+			.andReturn().getResponse().getContentAsString());
+		assertThat(statsAfter).isEqualTo(statsBefore);
+	}
+	
+	@Test
+	void archivedResourcesAreCacheableAndDeletedWithUser() throws Exception {
+		Project old = saveProject("Old completed", ProjectStatus.COMPLETED, LONG_AGO, 2);
+		archiveService.archiveEligible();
+		
+		for (String part : List.of("/stats", "/shifts")) {
+			String path = "/api/v1/archive/projects/" + old.getId() + part;
+			String etag = mockMvc.perform(get(path).with(bearer(token)))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=86400, private"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+			// Пользователь из токена и проверка существования, без чтения смен и статистики
+			mockMvc.perform(get(path).with(bearer(token)).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(statementsAtMost(2));
+			mockMvc.perform(get("/api/v1/archive/projects/" + (old.getId() + 1000) + part).with(bearer(token))
+					.header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotFound());
+		}
+		mockMvc.perform(get("/api/v1/archive/projects/" + (old.getId() + 1000)).with(bearer(token)))
+			.andExpect(status().isNotFound());
+		
+		mockMvc.perform(delete("/api/v1/users/" + user.getId()).with(bearer(token)))
+			.andExpect(status().isOk());
+		assertThat(archivedProjectRepository.count()).isZero();
+		assertThat(archivedShiftRepository.count()).isZero();
+	}
+	
+	private Project saveProject(String name, ProjectStatus status, LocalDate endDate, int shifts) {
+		Project project = data.project(user, name, p -> {
+			p.setStatus(status);
+			p.setStartDate(endDate == null ? null : endDate.minusDays(shifts));
+			p.setEndDate(endDate);
+		});
+		data.shifts(project, shifts, (shift, s) -> {
+			shift.setDate(LONG_AGO.minusDays(s));
+			shift.setHours(8 + s);
+			shift.setOvertimePay(new BigDecimal("150.50"));
+			shift.setPerDiem(new BigDecimal("300.00"));
+		});
+		return project;
+	}
+	
+	private JsonNode dashboard() throws Exception {
+		return read(mockMvc.perform(get("/api/v1/dashboard/stats").with(bearer(token)))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getContentAsString());
+	}
+	
+	private JsonNode read(String json) throws Exception {
+		return objectMapper.readTree(json);
+	}
+}
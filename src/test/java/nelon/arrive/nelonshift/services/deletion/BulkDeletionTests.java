@@ -0,0 +1,229 @@
+package nelon.arrive.nelonshift.services.deletion;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nelon.arrive.nelonshift.entity.Project;
+import nelon.arrive.nelonshift.entity.User;
+import nelon.arrive.nelonshift.repository.ArchivedProjectRepository;
+import nelon.arrive.nelonshift.repository.ArchivedShiftRepository;
+import nelon.arrive.nelonshift.repository.ProjectRepository;
+import nelon.arrive.nelonshift.repository.ShiftRepository;
+import nelon.arrive.nelonshift.repository.UserRepository;
+import nelon.arrive.nelonshift.security.session.RefreshSessionStore;
+import nelon.arrive.nelonshift.services.RefreshTokenService;
+import nelon.arrive.nelonshift.services.analytics.ShiftColumnStore;
+import nelon.arrive.nelonshift.services.versions.ResourceVersions;
+import nelon.arrive.nelonshift.support.EmbeddedRedis;
+import nelon.arrive.nelonshift.support.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static nelon.arrive.nelonshift.metrics.QueryBudgetMatchers.entitiesAtMost;
+import static nelon.arrive.nelonshift.support.TestData.bearer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Удаление пользователей и проектов пакетами: без загрузки сущностей,
+ * в фоне с прогрессом для больших объёмов, со сбросом сессий и кэшей
+ */
+@SpringBootTest(properties = {"deletion.chunk-size=4", "deletion.async-threshold=20"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+class BulkDeletionTests {
+	
+	@DynamicPropertySource
+	static void redis(DynamicPropertyRegistry registry) {
+		EmbeddedRedis.register(registry);
+	}
+	
+	@Autowired
+	private MockMvc mockMvc;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private TestData data;
+	
+	@Autowired
+	private UserRepository userRepository;
+	
+	@Autowired
+	private ProjectRepository projectRepository;
+	
+	@Autowired
+	private ShiftRepository shiftRepository;
+	
+	@Autowired
+	private RefreshSessionStore sessionStore;
+	
+	@Autowired
+	private DeletionJobStore jobStore;
+	
+	@Autowired
+	private ApplicationContext context;
+	
+	private String token;
+	
+	@BeforeEach
+	void setUp() {
+		User admin = data.user("admin@nelon.test");
+		token = data.token(admin);
+	}
+	
+	@AfterEach
+	void tearDown() {
+		data.clear();
+		data.flushRedis();
+	}
+	
+	@Test
+	void deletesSmallUserInPlaceWithoutLoadingEntities() throws Exception {
+		User user = data.user("small@nelon.test");
+		List<Project> projects = data.projects(user, 2, 5);
+		sessionStore.create(UUID.randomUUID().toString(), user.getId(), Duration.ofHours(1).toMillis());
+		
+		mockMvc.perform(delete("/api/v1/users/" + user.getId()).with(bearer(token)))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.message").value("Delete user successfully"))
+			// Только пользователь из токена
+			.andExpect(entitiesAtMost(1));
+		
+		assertThat(userRepository.existsById(user.getId())).isFalse();
+		assertThat(projectRepository.countByUserId(user.getId())).isZero();
+		assertThat(shiftRepository.countByProjectId(projects.get(0).getId())).isZero();
+		assertThat(sessionStore.list(user.getId())).isEmpty();
+	}
+	
+	@Test
+	void deletesLargeUserInBackgroundWithProgress() throws Exception {
+		User user = data.user("large@nelon.test");
+		data.projects(user, 3, 10);
+		User other = data.user("other@nelon.test");
+		data.projects(other, 1, 2);
+		
+		JsonNode job = read(mockMvc.perform(delete("/api/v1/users/" + user.getId()).with(bearer(token)))
+			.andExpect(status().isAccepted())
+			.andExpect(jsonPath("$.status").value("RUNNING"))
+			.andExpect(jsonPath("$.totalProjects").value(3))
+			.andExpect(jsonPath("$.totalShifts").value(30))
+			.andReturn().getResponse().getContentAsString());
+		
+		JsonNode finished = awaitFinished(job.get("id").asText());
+		assertThat(finished.get("status").asText()).isEqualTo("COMPLETED");
+		assertThat(finished.get("deletedProjects").asLong()).isEqualTo(3);
+		assertThat(finished.get("deletedShifts").asLong()).isEqualTo(30);
+		
+		assertThat(userRepository.existsById(user.getId())).isFalse();
+		assertThat(shiftRepository.countByProjectUserId(user.getId())).isZero();
+		assertThat(shiftRepository.countByProjectUserId(other.getId())).isEqualTo(2);
+	}
+	
+	@Test
+	void deletesProjectInChunks() throws Exception {
+		User user = data.user("projects@nelon.test");
+		List<Project> projects = data.projects(user, 2, 10);
+		
+		mockMvc.perform(delete("/api/v1/projects/" + projects.get(0).getId()).with(bearer(token)))
+			.andExpect(status().isOk())
+			.andExpect(entitiesAtMost(1));
+		
+		assertThat(projectRepository.existsById(projects.get(0).getId())).isFalse();
+		assertThat(shiftRepository.countByProjectId(projects.get(0).getId())).isZero();
+		assertThat(shiftRepository.countByProjectId(projects.get(1).getId())).isEqualTo(10);
+		
+		mockMvc.perform(delete("/api/v1/projects/" + projects.get(0).getId()).with(bearer(token)))
+			.andExpect(status().isNotFound());
+		mockMvc.perform(get("/api/v1/deletions/" + UUID.randomUUID()).with(bearer(token)))
+			.andExpect(status().isNotFound());
+	}
+	
+	@Test
+	void shutdownFailsRunningAndQueuedJobs() throws Exception {
+		// Первое задание застревает на первом пакете проектов, второе ждёт в очереди за ним
+		CountDownLatch started = new CountDownLatch(1);
+		ResourceVersions versions = mock(ResourceVersions.class);
+		doAnswer(invocation -> {
+			started.countDown();
+			try {
+				new CountDownLatch(1).await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return null;
+		}).when(versions).projectsDeleted(anyCollection(), any());
+		BulkDeletionService service = deletionService(versions);
+		
+		User first = data.user("first@nelon.test");
+		data.projects(first, 6, 5);
+		User second = data.user("second@nelon.test");
+		data.projects(second, 1, 21);
+		DeletionJob running = service.deleteUser(first.getId());
+		DeletionJob queued = service.deleteUser(second.getId());
+		assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+		
+		service.shutdown();
+		
+		assertThat(jobStore.find(running.id())).get()
+			.extracting(DeletionJob::status).isEqualTo(DeletionJob.Status.FAILED);
+		assertThat(projectRepository.countByUserId(first.getId())).isEqualTo(2);
+		assertThat(jobStore.find(queued.id())).get()
+			.satisfies(job -> {
+				assertThat(job.status()).isEqualTo(DeletionJob.Status.FAILED);
+				assertThat(job.error()).isEqualTo(BulkDeletionService.INTERRUPTED);
+			});
+		assertThat(userRepository.existsById(second.getId())).isTrue();
+	}
+	
+	private BulkDeletionService deletionService(ResourceVersions versions) {
+		return new BulkDeletionService(
+			shiftRepository, projectRepository, userRepository,
+			context.getBean(ArchivedProjectRepository.class), context.getBean(ArchivedShiftRepository.class),
+			context.getBean(RefreshTokenService.class), context.getBean(ShiftColumnStore.class), versions,
+			jobStore, context.getBean(PlatformTransactionManager.class), 4, 20, 1, 16
+		);
+	}
+	
+	private JsonNode awaitFinished(String jobId) throws Exception {
+		long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+		while (true) {
+			JsonNode job = read(mockMvc.perform(get("/api/v1/deletions/" + jobId).with(bearer(token)))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString());
+			if (!job.get("status").asText().equals("RUNNING") || System.nanoTime() > deadline) {
+				return job;
+			}
+			Thread.sleep(50);
+		}
+	}
+	
+	private JsonNode read(String json) throws Exception {
+		return objectMapper.readTree(json);
+	}
+}
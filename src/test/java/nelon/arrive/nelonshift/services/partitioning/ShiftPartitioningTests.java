@@ -0,0 +1,100 @@
+package nelon.arrive.nelonshift.services.partitioning;
+
+import nelon.arrive.nelonshift.entity.Project;
+import nelon.arrive.nelonshift.entity.User;
+import nelon.arrive.nelonshift.repository.ShiftRepository;
+import nelon.arrive.nelonshift.support.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+
+import static nelon.arrive.nelonshift.metrics.QueryBudgetMatchers.entitiesAtMost;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Запросы по дате смены, пригодные для отсечения секций, и обслуживание секций вне PostgreSQL
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+class ShiftPartitioningTests {
+	
+	private static final LocalDate START = LocalDate.of(2025, 3, 1);
+	
+	@Autowired
+	private MockMvc mockMvc;
+	
+	@Autowired
+	private ShiftPartitionMaintenance partitionMaintenance;
+	
+	@Autowired
+	private TestData data;
+	
+	@Autowired
+	private ShiftRepository shiftRepository;
+	
+	private Project project;
+	
+	@BeforeEach
+	void setUp() {
+		User user = data.user("partitions@nelon.test");
+		project = data.project(user, "Spring season", p -> {
+			p.setStartDate(START);
+			p.setEndDate(START.plusMonths(3));
+		});
+		// По смене в марте, апреле и мае
+		data.shifts(project, 3, (shift, month) -> shift.setDate(START.plusMonths(month).plusDays(10)));
+	}
+	
+	@AfterEach
+	void tearDown() {
+		data.clear();
+	}
+	
+	@Test
+	void checksProjectDateChangeWithoutLoadingShifts() throws Exception {
+		// Первая смена 11 марта, последняя - 11 мая
+		mockMvc.perform(updateDates(START.plusDays(11), START.plusMonths(3)))
+			.andExpect(status().isUnprocessableEntity())
+			.andExpect(entitiesAtMost(1));
+		mockMvc.perform(updateDates(START, START.plusMonths(2).plusDays(9)))
+			.andExpect(status().isUnprocessableEntity())
+			.andExpect(entitiesAtMost(1));
+		
+		mockMvc.perform(updateDates(START.plusDays(10), START.plusMonths(2).plusDays(10)))
+			.andExpect(status().isOk())
+			.andExpect(entitiesAtMost(1));
+		
+		assertThat(shiftRepository.existsByProjectIdAndDateBefore(project.getId(), START.plusDays(10))).isFalse();
+		assertThat(shiftRepository.existsByProjectIdAndDateAfter(project.getId(), START.plusMonths(2))).isTrue();
+	}
+	
+	@Test
+	void leavesNonPostgresSchemaAlone() {
+		assertThat(partitionMaintenance.isPartitioned()).isFalse();
+		partitionMaintenance.createFuturePartitions();
+		assertThat(shiftRepository.countByProjectId(project.getId())).isEqualTo(3);
+	}
+	
+	private MockHttpServletRequestBuilder updateDates(
+		LocalDate startDate, LocalDate endDate) {
+		return put("/api/v1/projects/" + project.getId())
+			.contentType(MediaType.APPLICATION_JSON)
+			.content("""
+				{"name": "Spring season", "status": "ACTIVE", "startDate": "%s", "endDate": "%s"}
+				""".formatted(startDate, endDate));
+	}
+}
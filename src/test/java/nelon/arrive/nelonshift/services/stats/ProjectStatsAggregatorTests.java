@@ -0,0 +1,107 @@
+package nelon.arrive.nelonshift.services.stats;
+
+import nelon.arrive.nelonshift.entity.Project;
+import nelon.arrive.nelonshift.entity.Shift;
+import nelon.arrive.nelonshift.services.stats.ProjectStatsAggregator.ProjectShiftStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Подсчёт статистики по проектам: параллельный (fork/join) и последовательный
+ * проходы дают одинаковый результат в порядке входного списка
+ */
+class ProjectStatsAggregatorTests {
+	
+	private final ProjectStatsAggregator aggregator = new ProjectStatsAggregator(4);
+	
+	@AfterEach
+	void tearDown() {
+		aggregator.destroy();
+	}
+	
+	@Test
+	void parallelAggregationMatchesSequential() {
+		// Один крупный проект и много мелких: деление идёт и по числу проектов, и по числу смен
+		List<Project> projects = new ArrayList<>();
+		projects.add(project(1, 12_000));
+		for (int i = 2; i <= 60; i++) {
+			projects.add(project(i, 100 + i * 7));
+		}
+		projects.add(project(61, 0));
+		long shiftCount = projects.stream().mapToLong(p -> p.getShifts().size()).sum();
+		assertThat(shiftCount).isGreaterThan(ProjectStatsAggregator.PARALLEL_THRESHOLD);
+		
+		List<ProjectShiftStats> stats = aggregator.aggregate(projects);
+		
+		assertThat(stats).hasSize(projects.size());
+		for (int i = 0; i < projects.size(); i++) {
+			Project project = projects.get(i);
+			ShiftStatsAccumulator expected = project.getShifts().stream().collect(ShiftStatsAccumulator.collector());
+			assertThat(stats.get(i).project()).isSameAs(project);
+			assertSameStats(stats.get(i).stats(), expected);
+		}
+		
+		ShiftStatsAccumulator expectedTotal = projects.stream()
+			.flatMap(p -> p.getShifts().stream())
+			.collect(ShiftStatsAccumulator.collector());
+		assertSameStats(ProjectStatsAggregator.total(stats), expectedTotal);
+	}
+	
+	@Test
+	void smallInputAndMissingShiftCollections() {
+		Project empty = project(1, 0);
+		empty.setShifts(null);
+		Project small = project(2, 10);
+		
+		List<ProjectShiftStats> stats = aggregator.aggregate(List.of(empty, small));
+		
+		assertThat(stats.get(0).stats().getShiftCount()).isZero();
+		assertThat(stats.get(0).stats().getTotalEarnings()).isEqualByComparingTo(BigDecimal.ZERO);
+		assertSameStats(stats.get(1).stats(), small.getShifts().stream().collect(ShiftStatsAccumulator.collector()));
+		assertThat(aggregator.aggregate(List.of())).isEmpty();
+	}
+	
+	private static void assertSameStats(ShiftStatsAccumulator actual, ShiftStatsAccumulator expected) {
+		assertThat(actual.getShiftCount()).isEqualTo(expected.getShiftCount());
+		assertThat(actual.getTotalHours()).isEqualTo(expected.getTotalHours());
+		assertThat(actual.getTotalEarningsCents()).isEqualTo(expected.getTotalEarningsCents());
+		assertThat(actual.getMonths().keySet()).isEqualTo(expected.getMonths().keySet());
+		for (YearMonth month : expected.getMonths().keySet()) {
+			assertThat(actual.month(month).getShiftCount()).isEqualTo(expected.month(month).getShiftCount());
+			assertThat(actual.month(month).getHours()).isEqualTo(expected.month(month).getHours());
+			assertThat(actual.month(month).getEarningsCents()).isEqualTo(expected.month(month).getEarningsCents());
+		}
+	}
+	
+	private static Project project(long id, int shiftCount) {
+		Random random = new Random(id);
+		Project project = new Project();
+		project.setId(id);
+		project.setName("Project " + id);
+		LocalDate start = LocalDate.of(2024, 1, 1);
+		for (int i = 0; i < shiftCount; i++) {
+			Shift shift = new Shift();
+			shift.setProject(project);
+			shift.setDate(start.plusDays(random.nextInt(730)));
+			shift.setHours(random.nextInt(13));
+			shift.setBasePay(BigDecimal.valueOf(100_000 + random.nextInt(400_000), 2));
+			if (random.nextBoolean()) {
+				shift.setOvertimePay(BigDecimal.valueOf(random.nextInt(90_000), 2));
+			}
+			if (random.nextInt(3) == 0) {
+				shift.setPerDiem(new BigDecimal("1500.00"));
+			}
+			project.getShifts().add(shift);
+		}
+		return project;
+	}
+}
@@ -0,0 +1,66 @@
+package nelon.arrive.nelonshift.support;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+
+/**
+ * Локальный Redis для тестов - один процесс на JVM, на свободном порту.
+ * Подключается к контексту через {@code @DynamicPropertySource}.
+ * <p>
+ * Останавливается обработчиком завершения Spring Boot: он выполняется после закрытия
+ * всех контекстов приложения, поэтому клиенты Redis успевают отключиться.
+ */
+public final class EmbeddedRedis {
+	
+	private static RedisServer server;
+	private static int port;
+	
+	private EmbeddedRedis() {
+	}
+	
+	public static void register(DynamicPropertyRegistry registry) {
+		start();
+		registry.add("spring.data.redis.host", () -> "localhost");
+		registry.add("spring.data.redis.port", () -> port);
+	}
+	
+	public static synchronized int start() {
+		if (server == null) {
+			try {
+				port = freePort();
+				server = RedisServer.newRedisServer()
+					.port(port)
+					.setting("bind 127.0.0.1")
+					.setting("save \"\"")
+					.setting("appendonly no")
+					.build();
+				server.start();
+				SpringApplication.getShutdownHandlers().add(EmbeddedRedis::stop);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Failed to start embedded Redis", e);
+			}
+		}
+		return port;
+	}
+	
+	private static synchronized void stop() {
+		try {
+			server.stop();
+		} catch (IOException ignored) {
+			// процесс завершается вместе с JVM
+		} finally {
+			server = null;
+		}
+	}
+	
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
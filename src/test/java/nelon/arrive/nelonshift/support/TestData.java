@@ -0,0 +1,154 @@
+package nelon.arrive.nelonshift.support;
+
+import nelon.arrive.nelonshift.entity.Project;
+import nelon.arrive.nelonshift.entity.Shift;
+import nelon.arrive.nelonshift.entity.User;
+import nelon.arrive.nelonshift.enums.ProjectStatus;
+import nelon.arrive.nelonshift.repository.ArchivedProjectRepository;
+import nelon.arrive.nelonshift.repository.ArchivedShiftRepository;
+import nelon.arrive.nelonshift.repository.ProjectRepository;
+import nelon.arrive.nelonshift.repository.ShiftRepository;
+import nelon.arrive.nelonshift.repository.UserRepository;
+import nelon.arrive.nelonshift.security.jwt.JwtUtils;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Общие данные тестов: пользователи, проекты со сменами, access-токены и очистка БД и Redis.
+ * <p>
+ * В тестах со Spring подключается через {@code @Import(TestData.class)};
+ * для контекстов, поднятых вручную, создаётся как {@code new TestData(context)}.
+ */
+@TestComponent
+public class TestData {
+	
+	public static final String PASSWORD = "{noop}secret";
+	
+	private final ApplicationContext context;
+	private final UserRepository userRepository;
+	private final ProjectRepository projectRepository;
+	private final ShiftRepository shiftRepository;
+	
+	public TestData(ApplicationContext context) {
+		this.context = context;
+		this.userRepository = context.getBean(UserRepository.class);
+		this.projectRepository = context.getBean(ProjectRepository.class);
+		this.shiftRepository = context.getBean(ShiftRepository.class);
+	}
+	
+	/**
+	 * Пользователь с паролем {@value #PASSWORD}, имя - часть email до {@code @}
+	 */
+	public User user(String email) {
+		return userRepository.save(User.builder()
+			.email(email)
+			.password(PASSWORD)
+			.name(email.substring(0, email.indexOf('@')))
+			.projects(new ArrayList<>())
+			.build());
+	}
+	
+	/**
+	 * Активный проект пользователя
+	 */
+	public Project project(User user, String name) {
+		return project(user, name, project -> {
+		});
+	}
+	
+	/**
+	 * Проект с дополнительными полями, заданными до сохранения
+	 */
+	public Project project(User user, String name, Consumer<Project> details) {
+		Project project = new Project();
+		project.setName(name);
+		project.setStatus(ProjectStatus.ACTIVE);
+		project.setUser(user);
+		details.accept(project);
+		return projectRepository.save(project);
+	}
+	
+	/**
+	 * Проекты {@code "<имя пользователя> project N"}, в каждом {@code shiftsPerProject} смен
+	 */
+	public List<Project> projects(User user, int count, int shiftsPerProject) {
+		List<Project> projects = new ArrayList<>();
+		for (int p = 0; p < count; p++) {
+			Project project = project(user, user.getName() + " project " + p);
+			shifts(project, shiftsPerProject);
+			projects.add(project);
+		}
+		return projects;
+	}
+	
+	/**
+	 * Смены по 8 часов и 1000.00 на сегодня и предыдущие дни
+	 */
+	public List<Shift> shifts(Project project, int count) {
+		return shifts(project, count, (shift, i) -> {
+		});
+	}
+	
+	/**
+	 * Смены как в {@link #shifts(Project, int)}, которые {@code details} меняет по номеру до сохранения
+	 */
+	public List<Shift> shifts(Project project, int count, ObjIntConsumer<Shift> details) {
+		List<Shift> shifts = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Shift shift = new Shift();
+			shift.setProject(project);
+			shift.setDate(LocalDate.now().minusDays(i));
+			shift.setHours(8);
+			shift.setBasePay(new BigDecimal("1000.00"));
+			shift.setCompensation(BigDecimal.ZERO);
+			details.accept(shift, i);
+			shifts.add(shiftRepository.save(shift));
+		}
+		return shifts;
+	}
+	
+	public String token(User user) {
+		return context.getBean(JwtUtils.class).generateAccessToken(user.getId(), user.getEmail(), user.getName());
+	}
+	
+	/**
+	 * Заголовок {@code Authorization: Bearer} для MockMvc: {@code get(...).with(bearer(token))}
+	 */
+	public static RequestPostProcessor bearer(String token) {
+		return request -> {
+			request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+			return request;
+		};
+	}
+	
+	/**
+	 * Удалить смены, проекты (в том числе архивные) и пользователей
+	 */
+	public void clear() {
+		context.getBean(ArchivedShiftRepository.class).deleteAllInBatch();
+		context.getBean(ArchivedProjectRepository.class).deleteAllInBatch();
+		shiftRepository.deleteAllInBatch();
+		projectRepository.deleteAllInBatch();
+		userRepository.deleteAllInBatch();
+	}
+	
+	/**
+	 * Очистить текущую базу Redis (для контекстов с {@link EmbeddedRedis})
+	 */
+	public void flushRedis() {
+		context.getBean(StringRedisTemplate.class).execute(connection -> {
+			connection.serverCommands().flushDb();
+			return null;
+		}, true);
+	}
+}
@@ -0,0 +1,116 @@
+package nelon.arrive.nelonshift.tracing;
+
+import com.jayway.jsonpath.JsonPath;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import nelon.arrive.nelonshift.support.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static nelon.arrive.nelonshift.support.TestData.bearer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Span'ы контроллера, сервиса и репозитория входят в одну трассировку запроса,
+ * trace id попадает в тело ошибки
+ */
+@SpringBootTest(properties = {"tracing.exporter=memory", "management.tracing.sampling.probability=1.0"})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+@Import(TestData.class)
+class TracingTests {
+	
+	@Autowired
+	private MockMvc mockMvc;
+	
+	@Autowired
+	private TestData data;
+	
+	@Autowired
+	private InMemorySpanExporter spanExporter;
+	
+	@Autowired
+	private SdkTracerProvider tracerProvider;
+	
+	private String token;
+	
+	@BeforeEach
+	void setUp() {
+		token = data.token(data.user("tracing@nelon.test"));
+		flushSpans();
+		spanExporter.reset();
+	}
+	
+	@AfterEach
+	void tearDown() {
+		data.clear();
+	}
+	
+	@Test
+	void requestSpansShareTrace() throws Exception {
+		mockMvc.perform(get("/api/v1/projects").with(bearer(token)))
+			.andExpect(status().isOk());
+		flushSpans();
+		
+		Map<String, SpanData> byName = spanExporter.getFinishedSpans().stream()
+			.collect(Collectors.toMap(SpanData::getName, span -> span, (first, second) -> first));
+		SpanData controller = findByPrefix(byName, "project-controller.");
+		SpanData service = findByPrefix(byName, "project-service.");
+		SpanData repository = findByPrefix(byName, "project-repository.");
+		
+		assertThat(service.getTraceId()).isEqualTo(controller.getTraceId());
+		assertThat(repository.getTraceId()).isEqualTo(controller.getTraceId());
+		assertThat(service.getParentSpanId()).isEqualTo(controller.getSpanId());
+		assertThat(repository.getAttributes().asMap().toString()).contains("store=jpa");
+	}
+	
+	@Test
+	void errorResponseContainsTraceId() throws Exception {
+		MvcResult result = mockMvc.perform(get("/api/v1/projects/999999")
+				.with(bearer(token)))
+			.andExpect(status().isNotFound())
+			.andExpect(jsonPath("$.traceId").isNotEmpty())
+			.andReturn();
+		flushSpans();
+		
+		String traceId = JsonPath.read(result.getResponse().getContentAsString(), "$.traceId");
+		List<SpanData> spans = spanExporter.getFinishedSpans();
+		assertThat(spans)
+			.filteredOn(span -> span.getName().startsWith("project-service."))
+			.singleElement()
+			.satisfies(span -> {
+				assertThat(span.getTraceId()).isEqualTo(traceId);
+				assertThat(span.getStatus().getStatusCode().name()).isEqualTo("ERROR");
+			});
+	}
+	
+	private void flushSpans() {
+		tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+	}
+	
+	private static SpanData findByPrefix(Map<String, SpanData> byName, String prefix) {
+		return byName.entrySet().stream()
+			.filter(e -> e.getKey().startsWith(prefix))
+			.map(Map.Entry::getValue)
+			.findFirst()
+			.orElseThrow(() -> new AssertionError("No span " + prefix + "* among " + byName.keySet()));
+	}
+}
@@ -0,0 +1,78 @@
+package nelon.arrive.nelonshift.util;
+
+import nelon.arrive.nelonshift.entity.Shift;
+import nelon.arrive.nelonshift.services.stats.MoneyAccumulator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Суммы в копейках: перевод без округления и сложение с контролем переполнения
+ */
+class MoneyCentsTests {
+	
+	@Test
+	void convertsExactAmountsOnly() {
+		assertThat(MoneyCents.toCents(new BigDecimal("1234.56"))).isEqualTo(123_456);
+		assertThat(MoneyCents.toCents(new BigDecimal("10"))).isEqualTo(1_000);
+		assertThat(MoneyCents.toCents(new BigDecimal("0.1"))).isEqualTo(10);
+		// Нули после второго знака не меняют сумму
+		assertThat(MoneyCents.toCents(new BigDecimal("99.9900"))).isEqualTo(9_999);
+		assertThat(MoneyCents.toCents(new BigDecimal("-5.25"))).isEqualTo(-525);
+		assertThat(MoneyCents.toCents(null)).isZero();
+		
+		// Доли копейки не округляются молча
+		assertThatThrownBy(() -> MoneyCents.toCents(new BigDecimal("0.005")))
+			.isInstanceOf(ArithmeticException.class);
+		assertThatThrownBy(() -> MoneyCents.toCents(new BigDecimal("1000.129")))
+			.isInstanceOf(ArithmeticException.class);
+		
+		assertThat(MoneyCents.toBigDecimal(123_456)).isEqualTo(new BigDecimal("1234.56"));
+		assertThat(MoneyCents.toBigDecimal(-1)).isEqualTo(new BigDecimal("-0.01"));
+	}
+	
+	@Test
+	void rejectsAmountsBeyondLongCents() {
+		BigDecimal max = MoneyCents.toBigDecimal(Long.MAX_VALUE);
+		assertThat(MoneyCents.toCents(max)).isEqualTo(Long.MAX_VALUE);
+		assertThatThrownBy(() -> MoneyCents.toCents(max.add(new BigDecimal("0.01"))))
+			.isInstanceOf(ArithmeticException.class);
+	}
+	
+	@Test
+	void accumulatorMatchesBigDecimalSumAndDetectsOverflow() {
+		MoneyAccumulator accumulator = new MoneyAccumulator();
+		BigDecimal expected = BigDecimal.ZERO;
+		for (int i = 0; i < 1_000; i++) {
+			BigDecimal amount = BigDecimal.valueOf(i * 137L + 1, 2);
+			accumulator.add(amount);
+			expected = expected.add(amount);
+		}
+		accumulator.add((BigDecimal) null);
+		assertThat(accumulator.toBigDecimal()).isEqualTo(expected.setScale(MoneyCents.SCALE));
+		
+		MoneyAccumulator other = new MoneyAccumulator().addCents(-accumulator.cents());
+		assertThat(new MoneyAccumulator().add(accumulator).add(other).isZero()).isTrue();
+		
+		MoneyAccumulator nearMax = new MoneyAccumulator().addCents(Long.MAX_VALUE - 1);
+		assertThatThrownBy(() -> nearMax.addCents(2)).isInstanceOf(ArithmeticException.class);
+		// После ошибки сумма не меняется
+		assertThat(nearMax.cents()).isEqualTo(Long.MAX_VALUE - 1);
+	}
+	
+	@Test
+	void shiftTotalPayIsExactAndOverflowSafe() {
+		Shift shift = new Shift();
+		shift.setBasePay(new BigDecimal("4500.10"));
+		shift.setOvertimePay(new BigDecimal("850.25"));
+		shift.setPerDiem(null);
+		assertThat(shift.getTotalPayCents()).isEqualTo(535_035);
+		assertThat(shift.getTotalPay()).isEqualTo(new BigDecimal("5350.35"));
+		
+		shift.setBasePay(MoneyCents.toBigDecimal(Long.MAX_VALUE));
+		assertThatThrownBy(shift::getTotalPayCents).isInstanceOf(ArithmeticException.class);
+	}
+}